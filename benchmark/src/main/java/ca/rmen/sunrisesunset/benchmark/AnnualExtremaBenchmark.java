@@ -0,0 +1,73 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.benchmark;
+
+import ca.rmen.sunrisesunset.AnnualExtrema;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link AnnualExtrema}: the earliest sunrise of the year of the location, compared to calculating the
+ * sunrise of every day of the year.
+ *
+ * @author Carmen Alvarez
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnualExtremaBenchmark {
+
+	private static final long DAY = 24 * 60 * 60 * 1000;
+
+	@Benchmark
+	public long findEarliestSunrise(Location location) {
+		return AnnualExtrema.find(AnnualExtrema.Extremum.EARLIEST_SUNRISE, location.day.get(Calendar.YEAR),
+				location.latitude, location.longitude);
+	}
+
+	@Benchmark
+	public long scanEarliestSunrise(Location location) {
+		// The time of day, in the time zone of the location at the start of the year.
+		final long offset = location.day.getTimeZone().getRawOffset();
+		final long yearStart = location.timeInMillis - location.day.get(Calendar.DAY_OF_YEAR) * DAY;
+		long earliest = SunriseSunset.NO_EVENT;
+		long earliestTimeOfDay = Long.MAX_VALUE;
+		for (int day = 1; day <= 365; day++) {
+			if (SunriseSunset.getSunriseSunset(yearStart + day * DAY, location.latitude, location.longitude, location.result)) {
+				final long timeOfDay = ((location.result[0] + offset) % DAY + DAY) % DAY;
+				if (timeOfDay < earliestTimeOfDay) {
+					earliest = location.result[0];
+					earliestTimeOfDay = timeOfDay;
+				}
+			}
+		}
+		return earliest;
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.benchmark;
+
+import ca.rmen.sunrisesunset.SolarEvents;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import ca.rmen.sunrisesunset.SunriseSunsetCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the methods of {@link SunriseSunsetCalculator} which take and return milliseconds since 1970-01-01 UTC.
+ * Compare them to the ones of {@link EpochMillisBenchmark}, which calculate the same results with the static
+ * methods of {@link SunriseSunset}. The <code>fast</code> benchmarks use {@link SunriseSunsetCalculator.Precision#FAST}.
+ *
+ * @author Carmen Alvarez
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculatorBenchmark {
+
+	@Benchmark
+	public long[] getSunriseSunset(Location location) {
+		location.calculator.getSunriseSunset(location.timeInMillis, location.result);
+		return location.result;
+	}
+
+	@Benchmark
+	public long[] getCivilTwilight(Location location) {
+		location.calculator.getCivilTwilight(location.timeInMillis, location.result);
+		return location.result;
+	}
+
+	@Benchmark
+	public long[] getNauticalTwilight(Location location) {
+		location.calculator.getNauticalTwilight(location.timeInMillis, location.result);
+		return location.result;
+	}
+
+	@Benchmark
+	public long[] getAstronomicalTwilight(Location location) {
+		location.calculator.getAstronomicalTwilight(location.timeInMillis, location.result);
+		return location.result;
+	}
+
+	@Benchmark
+	public long getSolarNoon(Location location) {
+		return location.calculator.getSolarNoon(location.timeInMillis);
+	}
+
+	@Benchmark
+	public SunriseSunset.DayPeriod getDayPeriod(Location location) {
+		return location.calculator.getDayPeriod(location.timeInMillis);
+	}
+
+	@Benchmark
+	public long getDayLength(Location location) {
+		return location.calculator.getDayLength(location.timeInMillis);
+	}
+
+	@Benchmark
+	public SolarEvents getAllSolarEvents(Location location) {
+		return location.calculator.getAllSolarEvents(location.timeInMillis);
+	}
+
+	@Benchmark
+	public long[] getSunriseSunsetFast(Location location) {
+		location.fastCalculator.getSunriseSunset(location.timeInMillis, location.result);
+		return location.result;
+	}
+
+	@Benchmark
+	public long getDayLengthFast(Location location) {
+		return location.fastCalculator.getDayLength(location.timeInMillis);
+	}
+
+	@Benchmark
+	public SolarEvents getAllSolarEventsFast(Location location) {
+		return location.fastCalculator.getAllSolarEvents(location.timeInMillis);
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.benchmark;
+
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the methods of {@link SunriseSunset} which take and return milliseconds since 1970-01-01 UTC.
+ * These shouldn't allocate anything: the GC profiler should report an allocation rate close to zero.
+ *
+ * @author Carmen Alvarez
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EpochMillisBenchmark {
+
+	@Benchmark
+	public double julianDateFromEpochMillis(Location location) {
+		return SunriseSunset.julianDateFromEpochMillis(location.timeInMillis);
+	}
+
+	@Benchmark
+	public long epochMillisFromJulianDate(Location location) {
+		return SunriseSunset.epochMillisFromJulianDate(location.julianDate);
+	}
+
+	@Benchmark
+	public long[] getSunriseSunset(Location location) {
+		SunriseSunset.getSunriseSunset(location.timeInMillis, location.latitude, location.longitude, location.result);
+		return location.result;
+	}
+
+	@Benchmark
+	public long[] getCivilTwilight(Location location) {
+		SunriseSunset.getCivilTwilight(location.timeInMillis, location.latitude, location.longitude, location.result);
+		return location.result;
+	}
+
+	@Benchmark
+	public long[] getNauticalTwilight(Location location) {
+		SunriseSunset.getNauticalTwilight(location.timeInMillis, location.latitude, location.longitude, location.result);
+		return location.result;
+	}
+
+	@Benchmark
+	public long[] getAstronomicalTwilight(Location location) {
+		SunriseSunset.getAstronomicalTwilight(location.timeInMillis, location.latitude, location.longitude, location.result);
+		return location.result;
+	}
+
+	@Benchmark
+	public long getSolarNoon(Location location) {
+		return SunriseSunset.getSolarNoon(location.timeInMillis, location.latitude, location.longitude);
+	}
+
+	@Benchmark
+	public SunriseSunset.DayPeriod getDayPeriod(Location location) {
+		return SunriseSunset.getDayPeriod(location.timeInMillis, location.latitude, location.longitude);
+	}
+
+	@Benchmark
+	public long getDayLength(Location location) {
+		return SunriseSunset.getDayLength(location.timeInMillis, location.latitude, location.longitude);
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.benchmark;
+
+import ca.rmen.sunrisesunset.SunriseSunsetCalculator;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * The inputs of the benchmarks: a location and a day, chosen to exercise the different code paths.
+ *
+ * @author Carmen Alvarez
+ */
+@State(Scope.Thread)
+public class Location {
+
+	@Param({"EQUATOR", "MID_LATITUDE", "POLAR_DAY", "POLAR_NIGHT", "DST_TRANSITION"})
+	public String location;
+
+	public double latitude;
+	public double longitude;
+	/**
+	 * Noon of the day, in the time zone of the location.
+	 */
+	public Calendar day;
+	/**
+	 * Noon of the day, in milliseconds since 1970-01-01 UTC.
+	 */
+	public long timeInMillis;
+	public double julianDate;
+	public long[] result;
+	public SunriseSunsetCalculator calculator;
+	public SunriseSunsetCalculator fastCalculator;
+
+	@Setup
+	public void setUp() {
+		if ("EQUATOR".equals(location)) {
+			// Libreville, on an equinox
+			set("Africa/Libreville", 2016, Calendar.MARCH, 20, 0.39, 9.45);
+		} else if ("MID_LATITUDE".equals(location)) {
+			// Paris
+			set("Europe/Paris", 2016, Calendar.NOVEMBER, 25, 48.8567, 2.351);
+		} else if ("POLAR_DAY".equals(location)) {
+			// Alert, on the summer solstice
+			set("America/Toronto", 2016, Calendar.JUNE, 21, 82.50178, -62.34809);
+		} else if ("POLAR_NIGHT".equals(location)) {
+			// McMurdo, on the winter solstice
+			set("Antarctica/McMurdo", 2016, Calendar.JUNE, 21, -77.8456, 166.6693);
+		} else if ("DST_TRANSITION".equals(location)) {
+			// New York, on the day daylight saving time ends
+			set("America/New_York", 2016, Calendar.NOVEMBER, 6, 40.7128, -74.0060);
+		} else {
+			throw new IllegalArgumentException("Unknown location " + location);
+		}
+		timeInMillis = day.getTimeInMillis();
+		julianDate = ca.rmen.sunrisesunset.SunriseSunset.getJulianDate(day);
+		result = new long[2];
+		calculator = new SunriseSunsetCalculator(latitude, longitude);
+		fastCalculator = new SunriseSunsetCalculator(latitude, longitude, SunriseSunsetCalculator.Precision.FAST);
+	}
+
+	private void set(String timeZone, int year, int month, int dayOfMonth, double latitude, double longitude) {
+		day = Calendar.getInstance(TimeZone.getTimeZone(timeZone));
+		day.clear();
+		day.set(year, month, dayOfMonth, 12, 0, 0);
+		this.latitude = latitude;
+		this.longitude = longitude;
+	}
+}
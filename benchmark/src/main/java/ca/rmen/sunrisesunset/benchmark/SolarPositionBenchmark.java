@@ -0,0 +1,63 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.benchmark;
+
+import ca.rmen.sunrisesunset.SolarPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link SolarPosition}: the position of the sun at every minute of a day.
+ *
+ * @author Carmen Alvarez
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolarPositionBenchmark {
+
+	private static final long MINUTE = 60 * 1000;
+
+	private final double[] elevations = new double[24 * 60];
+	private final double[] azimuths = new double[24 * 60];
+
+	@Benchmark
+	public double[] getSolarPositions(Location location) {
+		SolarPosition.getSolarPositions(location.latitude, location.longitude, location.timeInMillis, MINUTE, elevations, azimuths);
+		return azimuths;
+	}
+
+	@Benchmark
+	public double[] getElevations(Location location) {
+		SolarPosition.getSolarPositions(location.latitude, location.longitude, location.timeInMillis, MINUTE, elevations, null);
+		return elevations;
+	}
+}
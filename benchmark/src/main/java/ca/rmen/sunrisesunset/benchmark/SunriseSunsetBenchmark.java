@@ -0,0 +1,105 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.benchmark;
+
+import ca.rmen.sunrisesunset.SolarEvents;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the methods of {@link SunriseSunset} which take and return Calendars.
+ *
+ * @author Carmen Alvarez
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SunriseSunsetBenchmark {
+
+	@Benchmark
+	public double getJulianDate(Location location) {
+		return SunriseSunset.getJulianDate(location.day);
+	}
+
+	@Benchmark
+	public Calendar getGregorianDate(Location location) {
+		return SunriseSunset.getGregorianDate(location.julianDate);
+	}
+
+	@Benchmark
+	public Calendar[] getSunriseSunset(Location location) {
+		return SunriseSunset.getSunriseSunset(location.day, location.latitude, location.longitude);
+	}
+
+	@Benchmark
+	public Calendar[] getCivilTwilight(Location location) {
+		return SunriseSunset.getCivilTwilight(location.day, location.latitude, location.longitude);
+	}
+
+	@Benchmark
+	public Calendar[] getNauticalTwilight(Location location) {
+		return SunriseSunset.getNauticalTwilight(location.day, location.latitude, location.longitude);
+	}
+
+	@Benchmark
+	public Calendar[] getAstronomicalTwilight(Location location) {
+		return SunriseSunset.getAstronomicalTwilight(location.day, location.latitude, location.longitude);
+	}
+
+	@Benchmark
+	public Calendar getSolarNoon(Location location) {
+		return SunriseSunset.getSolarNoon(location.day, location.latitude, location.longitude);
+	}
+
+	@Benchmark
+	public boolean isDay(Location location) {
+		return SunriseSunset.isDay(location.day, location.latitude, location.longitude);
+	}
+
+	@Benchmark
+	public boolean isNight(Location location) {
+		return SunriseSunset.isNight(location.day, location.latitude, location.longitude);
+	}
+
+	@Benchmark
+	public SunriseSunset.DayPeriod getDayPeriod(Location location) {
+		return SunriseSunset.getDayPeriod(location.day, location.latitude, location.longitude);
+	}
+
+	@Benchmark
+	public long getDayLength(Location location) {
+		return SunriseSunset.getDayLength(location.day, location.latitude, location.longitude);
+	}
+
+	@Benchmark
+	public SolarEvents getAllSolarEvents(Location location) {
+		return SunriseSunset.getAllSolarEvents(location.day, location.latitude, location.longitude);
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.cli;
+
+import ca.rmen.sunrisesunset.SolarEvents;
+import ca.rmen.sunrisesunset.SunriseSunset;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The fixed-width binary protocol of {@link SunriseSunsetBinaryServer} and {@link SunriseSunsetClient}.
+ * All the numbers are big-endian. <br>
+ * A request is {@value #REQUEST_SIZE} bytes:
+ * <ul>
+ * <li>latitude: double, in degrees</li>
+ * <li>longitude: double, in degrees (West is negative)</li>
+ * <li>epoch day: int, the number of days since 1970-01-01 of the date in the time zone</li>
+ * <li>time zone id: {@value #TIME_ZONE_ID_SIZE} bytes of US-ASCII, padded with zeros</li>
+ * </ul>
+ * A response is {@value #RESPONSE_SIZE} bytes:
+ * <ul>
+ * <li>status: int, {@link #STATUS_OK}, or {@link #STATUS_INVALID_REQUEST} if the location is out of range or the time
+ * zone id is unknown</li>
+ * <li>{@value #EVENT_COUNT} longs: the sunrise, sunset, civil twilight dawn and dusk, nautical twilight dawn and dusk,
+ * astronomical twilight dawn and dusk, and solar noon, in seconds since 1970-01-01 UTC, or {@link #NO_EVENT} if the
+ * event doesn't occur that day.</li>
+ * </ul>
+ * A client may send many requests without waiting for the responses: the responses are sent in the order of the
+ * requests.
+ */
+final class BinaryProtocol {
+	static final int TIME_ZONE_ID_SIZE = 32;
+	static final int REQUEST_SIZE = 8 + 8 + 4 + TIME_ZONE_ID_SIZE;
+	static final int EVENT_COUNT = 9;
+	static final int RESPONSE_SIZE = 4 + 8 * EVENT_COUNT;
+	static final int STATUS_OK = 0;
+	static final int STATUS_INVALID_REQUEST = 1;
+	static final long NO_EVENT = Long.MIN_VALUE;
+
+	private BinaryProtocol() {
+		// prevent instantiation
+	}
+
+	static boolean isValidLocation(double latitude, double longitude) {
+		return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+	}
+
+	/**
+	 * @return true if the given character may be part of a time zone id.
+	 */
+	static boolean isValidTimeZoneIdChar(int c) {
+		return c > ' ' && c < 0x7F;
+	}
+
+	static void putRequest(ByteBuffer buffer, double latitude, double longitude, int epochDay, String timeZoneId) {
+		buffer.putDouble(latitude).putDouble(longitude).putInt(epochDay);
+		final int length = timeZoneId.length();
+		for (int i = 0; i < TIME_ZONE_ID_SIZE; i++) {
+			buffer.put(i < length ? (byte) timeZoneId.charAt(i) : 0);
+		}
+	}
+
+	static void putResponse(ByteBuffer buffer, SolarEvents solarEvents) {
+		buffer.putInt(STATUS_OK)
+				.putLong(toSeconds(solarEvents.getSunrise()))
+				.putLong(toSeconds(solarEvents.getSunset()))
+				.putLong(toSeconds(solarEvents.getCivilTwilightDawn()))
+				.putLong(toSeconds(solarEvents.getCivilTwilightDusk()))
+				.putLong(toSeconds(solarEvents.getNauticalTwilightDawn()))
+				.putLong(toSeconds(solarEvents.getNauticalTwilightDusk()))
+				.putLong(toSeconds(solarEvents.getAstronomicalTwilightDawn()))
+				.putLong(toSeconds(solarEvents.getAstronomicalTwilightDusk()))
+				.putLong(toSeconds(solarEvents.getSolarNoon()));
+	}
+
+	static void putInvalidResponse(ByteBuffer buffer) {
+		buffer.putInt(STATUS_INVALID_REQUEST);
+		for (int i = 0; i < EVENT_COUNT; i++) {
+			buffer.putLong(NO_EVENT);
+		}
+	}
+
+	/**
+	 * @return the given time, truncated to the second, or {@link #NO_EVENT}.
+	 */
+	private static long toSeconds(long timeInMillis) {
+		if (timeInMillis == SunriseSunset.NO_EVENT) return NO_EVENT;
+		final long seconds = timeInMillis / 1000;
+		return timeInMillis % 1000 < 0 ? seconds - 1 : seconds;
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.cli;
+
+/**
+ * Writes a flat JSON object to a StringBuilder. The fields are written explicitly: no reflection is used.
+ */
+final class JsonWriter {
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private final StringBuilder output;
+	private boolean hasFields;
+
+	/**
+	 * Start a JSON object in the given output.
+	 */
+	JsonWriter(StringBuilder output) {
+		this.output = output;
+		output.append('{');
+	}
+
+	JsonWriter field(String name, String value) {
+		name(name);
+		if (value == null) {
+			output.append("null");
+		} else {
+			string(value);
+		}
+		return this;
+	}
+
+	JsonWriter field(String name, long value) {
+		name(name);
+		output.append(value);
+		return this;
+	}
+
+	JsonWriter field(String name, double value) {
+		name(name);
+		output.append(value);
+		return this;
+	}
+
+	/**
+	 * Write the given time, formatted in the given time zone, or null if the time is the given noEvent value.
+	 */
+	JsonWriter timeField(String name, long timeInMillis, long noEvent, TimeZoneFormat timeZoneFormat) {
+		name(name);
+		if (timeInMillis == noEvent) {
+			output.append("null");
+		} else {
+			output.append('"');
+			timeZoneFormat.format(timeInMillis, output);
+			output.append('"');
+		}
+		return this;
+	}
+
+	/**
+	 * End the JSON object.
+	 */
+	void end() {
+		output.append('}');
+	}
+
+	private void name(String name) {
+		if (hasFields) output.append(',');
+		hasFields = true;
+		string(name);
+		output.append(':');
+	}
+
+	private void string(String value) {
+		output.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				output.append('\\').append(c);
+			} else if (c < 0x20) {
+				output.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+			} else {
+				output.append(c);
+			}
+		}
+		output.append('"');
+	}
+}
@@ -0,0 +1,369 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.cli;
+
+import ca.rmen.sunrisesunset.SolarEvents;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import ca.rmen.sunrisesunset.SunriseSunsetRange;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Calculate the solar events of many rows of <code>timezone,yyyyMMdd,latitude,longitude</code>, and write one row
+ * of results per input row. <br>
+ * With a date range, the rows are <code>timezone,latitude,longitude</code>, and one row of results is written for
+ * each day of the range, for each input row: this gives an almanac of each location. <br>
+ * The rows are read and calculated in chunks, by several threads. At most a few chunks are in memory at once, and
+ * the output rows are written in the order of the input rows.
+ */
+final class SunriseSunsetBatch {
+
+	private static final int ROWS_PER_CHUNK = 1024;
+	private static final long MILLISECONDS_IN_DAY = 24 * 60 * 60 * 1000;
+	private static final double[] SUN_ALTITUDES = {SunriseSunset.SUN_ALTITUDE_SUNRISE_SUNSET,
+			SunriseSunset.SUN_ALTITUDE_CIVIL_TWILIGHT, SunriseSunset.SUN_ALTITUDE_NAUTICAL_TWILIGHT,
+			SunriseSunset.SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT};
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final String[] COLUMNS = {"timezone", "date", "latitude", "longitude",
+			"sunrise", "sunset",
+			"civil_twilight_dawn", "civil_twilight_dusk",
+			"nautical_twilight_dawn", "nautical_twilight_dusk",
+			"astronomical_twilight_dawn", "astronomical_twilight_dusk",
+			"solar_noon", "day_length"};
+
+	private final char separator;
+	private final int threads;
+	// The first and last day of the range, as year, month (January = 0) and day of month, or null without a range.
+	private final int[] startDate;
+	private final int[] endDate;
+	private final int rowsPerChunk;
+
+	/**
+	 * The formats and calendars of each time zone, for each thread. Calendars aren't thread-safe, and are costly to
+	 * create for each row.
+	 */
+	private final ThreadLocal<Map<String, TimeZoneCalendars>> timeZoneCalendars = new ThreadLocal<Map<String, TimeZoneCalendars>>() {
+		@Override
+		protected Map<String, TimeZoneCalendars> initialValue() {
+			return new HashMap<String, TimeZoneCalendars>();
+		}
+	};
+
+	/**
+	 * @param separator the separator of the columns, in the input and the output
+	 * @param threads   the number of threads calculating the rows
+	 */
+	SunriseSunsetBatch(char separator, int threads) {
+		this.separator = separator;
+		this.threads = threads;
+		startDate = null;
+		endDate = null;
+		rowsPerChunk = ROWS_PER_CHUNK;
+	}
+
+	/**
+	 * @param separator the separator of the columns, in the input and the output
+	 * @param threads   the number of threads calculating the rows
+	 * @param startDate the first day of the range, as yyyyMMdd
+	 * @param endDate   the last day of the range, as yyyyMMdd
+	 * @throws IllegalArgumentException if a date is invalid, or the range is empty.
+	 */
+	SunriseSunsetBatch(char separator, int threads, String startDate, String endDate) {
+		this.separator = separator;
+		this.threads = threads;
+		final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+		calendar.setLenient(false);
+		final long startTime = TimeZoneFormat.parseDate(startDate, calendar);
+		this.startDate = new int[]{calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH)};
+		final long endTime = TimeZoneFormat.parseDate(endDate, calendar);
+		this.endDate = new int[]{calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH)};
+		if (endTime < startTime) {
+			throw new IllegalArgumentException("The range " + startDate + "-" + endDate + " is empty");
+		}
+		// Each input row gives a row per day: keep about the same number of output rows per chunk.
+		final long days = (endTime - startTime) / MILLISECONDS_IN_DAY + 1;
+		rowsPerChunk = (int) Math.max(1, ROWS_PER_CHUNK / days);
+	}
+
+	/**
+	 * Read all the rows of the input, and write the results to the output. Empty lines, lines starting with '#' and
+	 * a header line starting with "timezone" are ignored. Invalid rows are reported to the errors stream.
+	 *
+	 * @return the number of invalid rows.
+	 */
+	int run(ReadableByteChannel input, WritableByteChannel output, PrintStream errors) throws IOException, InterruptedException {
+		final BufferedReader reader = new BufferedReader(Channels.newReader(input, "UTF-8"), BUFFER_SIZE);
+		final Writer writer = new BufferedWriter(Channels.newWriter(output, "UTF-8"), BUFFER_SIZE);
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		// The chunks being calculated, in the order of the input.
+		final LinkedList<Future<ChunkResult>> pendingChunks = new LinkedList<Future<ChunkResult>>();
+		int invalidRows = 0;
+		try {
+			for (int i = 0; i < COLUMNS.length; i++) {
+				if (i > 0) writer.write(separator);
+				writer.write(COLUMNS[i]);
+			}
+			writer.write('\n');
+
+			long firstLineNumber = 1;
+			List<String> lines = new ArrayList<String>(rowsPerChunk);
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+				if (lines.size() == rowsPerChunk) {
+					pendingChunks.add(executor.submit(new Chunk(firstLineNumber, lines)));
+					firstLineNumber += lines.size();
+					lines = new ArrayList<String>(rowsPerChunk);
+					// Wait for the oldest chunk, so that the input isn't read faster than it's calculated.
+					if (pendingChunks.size() >= 2 * threads) {
+						invalidRows += write(pendingChunks.removeFirst(), writer, errors);
+					}
+				}
+			}
+			if (!lines.isEmpty()) {
+				pendingChunks.add(executor.submit(new Chunk(firstLineNumber, lines)));
+			}
+			while (!pendingChunks.isEmpty()) {
+				invalidRows += write(pendingChunks.removeFirst(), writer, errors);
+			}
+			writer.flush();
+		} finally {
+			executor.shutdownNow();
+		}
+		return invalidRows;
+	}
+
+	private static int write(Future<ChunkResult> chunk, Writer writer, PrintStream errors) throws IOException, InterruptedException {
+		final ChunkResult result;
+		try {
+			result = chunk.get();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		writer.write(result.output.toString());
+		for (String error : result.errors) {
+			errors.println(error);
+		}
+		return result.errors.size();
+	}
+
+	private static final class ChunkResult {
+		private final StringBuilder output = new StringBuilder();
+		private final List<String> errors = new ArrayList<String>();
+	}
+
+	private final class Chunk implements Callable<ChunkResult> {
+		private final long firstLineNumber;
+		private final List<String> lines;
+
+		Chunk(long firstLineNumber, List<String> lines) {
+			this.firstLineNumber = firstLineNumber;
+			this.lines = lines;
+		}
+
+		public ChunkResult call() {
+			final ChunkResult result = new ChunkResult();
+			final String[] fields = new String[startDate == null ? 4 : 3];
+			for (int i = 0; i < lines.size(); i++) {
+				final long lineNumber = firstLineNumber + i;
+				final String line = lines.get(i);
+				if (line.trim().length() == 0 || line.startsWith("#")) continue;
+				if (lineNumber == 1 && line.regionMatches(true, 0, COLUMNS[0], 0, COLUMNS[0].length())) continue;
+				try {
+					if (split(line, fields) != fields.length) {
+						throw new IllegalArgumentException("Expected " + fields.length + " columns");
+					}
+					if (startDate == null) {
+						writeRow(fields, result.output);
+					} else {
+						writeDays(fields, result.output);
+					}
+				} catch (IllegalArgumentException e) {
+					// NumberFormatException is also an IllegalArgumentException.
+					result.errors.add("Line " + lineNumber + ": " + e.getMessage() + ": " + line);
+				}
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Split the line in the given fields.
+	 *
+	 * @return the number of fields in the line.
+	 */
+	private int split(String line, String[] fields) {
+		int count = 0;
+		int start = 0;
+		while (true) {
+			final int end = line.indexOf(separator, start);
+			if (count < fields.length) {
+				fields[count] = (end < 0 ? line.substring(start) : line.substring(start, end)).trim();
+			}
+			count++;
+			if (end < 0) return count;
+			start = end + 1;
+		}
+	}
+
+	private void writeRow(String[] fields, StringBuilder output) {
+		final TimeZoneCalendars calendars = getTimeZoneCalendars(fields[0]);
+		final TimeZoneFormat timeZoneFormat = calendars.format;
+		final String date = fields[1];
+		final double latitude = parseCoordinate(fields[2], "latitude", 90);
+		final double longitude = parseCoordinate(fields[3], "longitude", 180);
+		final Calendar day = calendars.calendar;
+		final long timeInMillis = TimeZoneFormat.parseDate(date, day);
+
+		final SolarEvents solarEvents = SunriseSunset.getAllSolarEvents(timeInMillis, latitude, longitude);
+		output.append(fields[0]).append(separator).append(date).append(separator)
+				.append(fields[2]).append(separator).append(fields[3]);
+		appendTime(timeZoneFormat, solarEvents.getSunrise(), output);
+		appendTime(timeZoneFormat, solarEvents.getSunset(), output);
+		appendTime(timeZoneFormat, solarEvents.getCivilTwilightDawn(), output);
+		appendTime(timeZoneFormat, solarEvents.getCivilTwilightDusk(), output);
+		appendTime(timeZoneFormat, solarEvents.getNauticalTwilightDawn(), output);
+		appendTime(timeZoneFormat, solarEvents.getNauticalTwilightDusk(), output);
+		appendTime(timeZoneFormat, solarEvents.getAstronomicalTwilightDawn(), output);
+		appendTime(timeZoneFormat, solarEvents.getAstronomicalTwilightDusk(), output);
+		appendTime(timeZoneFormat, solarEvents.getSolarNoon(), output);
+		final long dayLength = solarEvents.hasSunriseSunset() ? solarEvents.getSunset() - solarEvents.getSunrise()
+				: SunriseSunset.getDayLength(day, latitude, longitude);
+		output.append(separator).append(dayLength).append('\n');
+	}
+
+	/**
+	 * Write a row for each day of the range, for the location of the given row.
+	 */
+	private void writeDays(final String[] fields, final StringBuilder output) {
+		final TimeZoneCalendars calendars = getTimeZoneCalendars(fields[0]);
+		final TimeZoneFormat timeZoneFormat = calendars.format;
+		// The row is validated once, before any day of the range is written.
+		final double latitude = parseCoordinate(fields[1], "latitude", 90);
+		final double longitude = parseCoordinate(fields[2], "longitude", 180);
+		final Calendar startDay = calendars.calendar;
+		startDay.clear();
+		startDay.set(startDate[0], startDate[1], startDate[2], 12, 0, 0);
+		final Calendar endDay = calendars.endCalendar;
+		endDay.clear();
+		endDay.set(endDate[0], endDate[1], endDate[2], 12, 0, 0);
+		SunriseSunsetRange.forEachDay(startDay, endDay, latitude, longitude, SUN_ALTITUDES, new SunriseSunsetRange.Callback() {
+			public void onDay(int year, int month, int dayOfMonth, long solarNoon, long[] dawns, long[] dusks) {
+				output.append(fields[0]).append(separator).append(year);
+				TimeZoneFormat.append2(month + 1, output);
+				TimeZoneFormat.append2(dayOfMonth, output);
+				output.append(separator).append(fields[1]).append(separator).append(fields[2]);
+				for (int i = 0; i < SUN_ALTITUDES.length; i++) {
+					appendTime(timeZoneFormat, dawns[i], output);
+					appendTime(timeZoneFormat, dusks[i], output);
+				}
+				appendTime(timeZoneFormat, solarNoon, output);
+				final long dayLength;
+				if (dawns[0] != SunriseSunset.NO_EVENT) {
+					dayLength = dusks[0] - dawns[0];
+				} else {
+					// There's no solar noon either: the day length is read at noon, local time.
+					final Calendar day = calendars.dayCalendar;
+					day.clear();
+					day.set(year, month, dayOfMonth, 12, 0, 0);
+					dayLength = SunriseSunset.getDayLength(day.getTimeInMillis(), latitude, longitude);
+				}
+				output.append(separator).append(dayLength).append('\n');
+			}
+		});
+	}
+
+	/**
+	 * Append the separator, then the given time, or nothing if there is no event.
+	 */
+	private void appendTime(TimeZoneFormat timeZoneFormat, long timeInMillis, StringBuilder output) {
+		output.append(separator);
+		if (timeInMillis != SunriseSunset.NO_EVENT) {
+			timeZoneFormat.format(timeInMillis, output);
+		}
+	}
+
+	/**
+	 * @return the value of the given latitude or longitude column.
+	 * @throws IllegalArgumentException if the value isn't a number between -max and max.
+	 */
+	private static double parseCoordinate(String value, String name, double max) {
+		final double coordinate = Double.parseDouble(value);
+		if (!(coordinate >= -max && coordinate <= max)) {
+			throw new IllegalArgumentException("Invalid " + name + " " + value);
+		}
+		return coordinate;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the time zone id is unknown.
+	 */
+	private TimeZoneCalendars getTimeZoneCalendars(String timeZoneId) {
+		final Map<String, TimeZoneCalendars> calendars = timeZoneCalendars.get();
+		TimeZoneCalendars result = calendars.get(timeZoneId);
+		if (result == null) {
+			// Unknown ids are GMT: they aren't cached, so the typos of the input don't make the cache grow.
+			final TimeZone timeZone = TimeZone.getTimeZone(timeZoneId);
+			if (!timeZone.getID().equals(timeZoneId)) {
+				throw new IllegalArgumentException("Unknown time zone " + timeZoneId);
+			}
+			result = new TimeZoneCalendars(timeZone);
+			calendars.put(timeZoneId, result);
+		}
+		return result;
+	}
+
+	/**
+	 * The format and the calendars of one time zone, for one thread.
+	 */
+	private static final class TimeZoneCalendars {
+		private final TimeZoneFormat format;
+		private final Calendar calendar;
+		private final Calendar endCalendar;
+		// The days of a range without sunrise.
+		private final Calendar dayCalendar;
+
+		TimeZoneCalendars(TimeZone timeZone) {
+			format = new TimeZoneFormat(timeZone);
+			calendar = Calendar.getInstance(timeZone);
+			calendar.setLenient(false);
+			endCalendar = Calendar.getInstance(timeZone);
+			dayCalendar = Calendar.getInstance(timeZone);
+		}
+	}
+}
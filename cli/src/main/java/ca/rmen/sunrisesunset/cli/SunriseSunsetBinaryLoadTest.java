@@ -0,0 +1,125 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.cli;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends batches of queries to the binary server from concurrent connections, and reports the latency percentiles of
+ * the batches and the throughput in queries per second.
+ */
+final class SunriseSunsetBinaryLoadTest {
+
+	private static final String[] TIME_ZONE_IDS = {"Europe/Paris", "America/Montreal", "Asia/Tokyo", "Australia/Sydney", "UTC"};
+	// 2017-01-01
+	private static final int FIRST_EPOCH_DAY = 17167;
+
+	private final String host;
+	private final int port;
+	private final int queries;
+	private final int connections;
+	private final int batchSize;
+
+	SunriseSunsetBinaryLoadTest(String host, int port, int queries, int connections, int batchSize) {
+		this.host = host;
+		this.port = port;
+		this.queries = queries;
+		this.connections = connections;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Warm up the server with a tenth of the queries, then send the queries and print the statistics.
+	 */
+	void run(PrintStream output) throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(connections);
+		try {
+			send(executor, Math.max(connections * batchSize, queries / 10));
+
+			final long start = System.nanoTime();
+			final long[] latencies = send(executor, queries);
+			final long elapsed = System.nanoTime() - start;
+
+			// The last batch is complete, even if the number of queries isn't a multiple of the batch size.
+			final long sent = (long) latencies.length * batchSize;
+			Arrays.sort(latencies);
+			output.println("queries:     " + sent);
+			output.println("connections: " + connections);
+			output.println("batch size:  " + batchSize);
+			output.println("throughput:  " + Math.round(sent * 1e9 / elapsed) + " queries/s");
+			output.println("batch p50:   " + SunriseSunsetLoadTest.toMillis(SunriseSunsetLoadTest.percentile(latencies, 50)) + " ms");
+			output.println("batch p99:   " + SunriseSunsetLoadTest.toMillis(SunriseSunsetLoadTest.percentile(latencies, 99)) + " ms");
+			output.println("batch max:   " + SunriseSunsetLoadTest.toMillis(latencies[latencies.length - 1]) + " ms");
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * @return the latency of each batch in nanoseconds.
+	 */
+	private long[] send(ExecutorService executor, final int count) throws Exception {
+		final int batches = (count + batchSize - 1) / batchSize;
+		final long[] latencies = new long[batches];
+		final AtomicInteger next = new AtomicInteger();
+		final List<Future<Void>> clients = new ArrayList<Future<Void>>(connections);
+		for (int i = 0; i < connections; i++) {
+			final Random random = new Random(i);
+			clients.add(executor.submit(new Callable<Void>() {
+				public Void call() throws Exception {
+					final double[] latitudes = new double[batchSize];
+					final double[] longitudes = new double[batchSize];
+					final int[] epochDays = new int[batchSize];
+					final String[] timeZoneIds = new String[batchSize];
+					final long[] events = new long[batchSize * SunriseSunsetClient.EVENT_COUNT];
+					for (int j = 0; j < batchSize; j++) {
+						latitudes[j] = random.nextDouble() * 120 - 60;
+						longitudes[j] = random.nextDouble() * 360 - 180;
+						epochDays[j] = FIRST_EPOCH_DAY + random.nextInt(365);
+						timeZoneIds[j] = TIME_ZONE_IDS[random.nextInt(TIME_ZONE_IDS.length)];
+					}
+					final SunriseSunsetClient client = new SunriseSunsetClient(host, port);
+					try {
+						for (int batch = next.getAndIncrement(); batch < batches; batch = next.getAndIncrement()) {
+							final long start = System.nanoTime();
+							client.query(latitudes, longitudes, epochDays, timeZoneIds, events);
+							latencies[batch] = System.nanoTime() - start;
+						}
+					} finally {
+						client.close();
+					}
+					return null;
+				}
+			}));
+		}
+		for (Future<Void> client : clients) {
+			client.get();
+		}
+		return latencies;
+	}
+}
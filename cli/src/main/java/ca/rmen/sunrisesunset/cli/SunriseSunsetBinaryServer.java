@@ -0,0 +1,263 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.cli;
+
+import ca.rmen.sunrisesunset.SunriseSunset;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Answers the requests of the {@link BinaryProtocol} over TCP, on the loopback interface. <br>
+ * One thread accepts the connections, and hands them to a fixed number of event loops. Each event loop owns a
+ * selector and its connections: it reads all the requests available on a connection, and calculates them in one
+ * batch before writing the responses. A connection is not read while its responses can't be written: a client which
+ * doesn't read its responses doesn't make the server buffer more of them.
+ */
+final class SunriseSunsetBinaryServer {
+
+	private static final long MILLISECONDS_IN_DAY = 24 * 60 * 60 * 1000;
+	private static final long MILLISECONDS_IN_HALF_DAY = MILLISECONDS_IN_DAY / 2;
+	// The number of requests read at once from a connection.
+	private static final int BATCH_SIZE = 1024;
+	private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+	private final ServerSocketChannel serverChannel;
+	private final EventLoop[] eventLoops;
+	private final Thread acceptThread;
+	private volatile boolean running;
+
+	/**
+	 * @param port    the port to listen to, or 0 to use any free port.
+	 * @param threads the number of event loops.
+	 */
+	SunriseSunsetBinaryServer(int port, int threads) throws IOException {
+		serverChannel = ServerSocketChannel.open();
+		serverChannel.socket().bind(new InetSocketAddress(InetAddress.getByName(null), port));
+		eventLoops = new EventLoop[threads];
+		for (int i = 0; i < threads; i++) {
+			eventLoops[i] = new EventLoop();
+		}
+		acceptThread = new Thread(new Runnable() {
+			public void run() {
+				accept();
+			}
+		}, "binary-server-accept");
+	}
+
+	void start() {
+		running = true;
+		for (int i = 0; i < eventLoops.length; i++) {
+			new Thread(eventLoops[i], "binary-server-" + i).start();
+		}
+		acceptThread.start();
+	}
+
+	void stop() throws IOException {
+		running = false;
+		serverChannel.close();
+		for (EventLoop eventLoop : eventLoops) {
+			eventLoop.selector.wakeup();
+		}
+	}
+
+	/**
+	 * @return the port the server listens to.
+	 */
+	int getPort() {
+		return serverChannel.socket().getLocalPort();
+	}
+
+	private void accept() {
+		int next = 0;
+		while (running) {
+			try {
+				final SocketChannel channel = serverChannel.accept();
+				eventLoops[next].add(channel);
+				next = (next + 1) % eventLoops.length;
+			} catch (ClosedChannelException e) {
+				// stop() was called.
+				return;
+			} catch (IOException e) {
+				System.err.println("Could not accept a connection: " + e.getMessage());
+			}
+		}
+	}
+
+	private static final class Connection {
+		// Both buffers are always ready to be filled: they are flipped to be drained, then compacted.
+		final ByteBuffer input = ByteBuffer.allocateDirect(BATCH_SIZE * BinaryProtocol.REQUEST_SIZE);
+		final ByteBuffer output = ByteBuffer.allocateDirect(BATCH_SIZE * BinaryProtocol.RESPONSE_SIZE);
+	}
+
+	private final class EventLoop implements Runnable {
+		private final Selector selector;
+		private final Queue<SocketChannel> newChannels = new ConcurrentLinkedQueue<SocketChannel>();
+		private final Map<String, TimeZone> timeZones = new HashMap<String, TimeZone>();
+		// Clients usually send many requests for the same time zone: the last one is reused without any lookup.
+		private final byte[] lastTimeZoneId = new byte[BinaryProtocol.TIME_ZONE_ID_SIZE];
+		private TimeZone lastTimeZone;
+		private final byte[] timeZoneId = new byte[BinaryProtocol.TIME_ZONE_ID_SIZE];
+
+		EventLoop() throws IOException {
+			selector = Selector.open();
+		}
+
+		void add(SocketChannel channel) {
+			newChannels.add(channel);
+			selector.wakeup();
+		}
+
+		public void run() {
+			try {
+				while (running) {
+					selector.select();
+					registerNewChannels();
+					final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+					while (keys.hasNext()) {
+						final SelectionKey key = keys.next();
+						keys.remove();
+						try {
+							handle(key);
+						} catch (IOException e) {
+							close(key);
+						}
+					}
+				}
+			} catch (IOException e) {
+				System.err.println("Event loop stopped: " + e.getMessage());
+			} finally {
+				for (SelectionKey key : selector.keys()) {
+					close(key);
+				}
+				try {
+					selector.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+
+		private void registerNewChannels() throws IOException {
+			SocketChannel channel;
+			while ((channel = newChannels.poll()) != null) {
+				channel.configureBlocking(false);
+				channel.socket().setTcpNoDelay(true);
+				channel.register(selector, SelectionKey.OP_READ, new Connection());
+			}
+		}
+
+		private void handle(SelectionKey key) throws IOException {
+			if (!key.isValid()) return;
+			final SocketChannel channel = (SocketChannel) key.channel();
+			final Connection connection = (Connection) key.attachment();
+			if (key.isReadable() && channel.read(connection.input) < 0) {
+				close(key);
+				return;
+			}
+			process(connection);
+
+			connection.output.flip();
+			channel.write(connection.output);
+			final boolean pending = connection.output.hasRemaining();
+			connection.output.compact();
+			// Stop reading until the pending responses are written.
+			key.interestOps(pending ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+		}
+
+		/**
+		 * Calculate the responses of all the complete requests in the input, as long as there is room in the output.
+		 */
+		private void process(Connection connection) {
+			final ByteBuffer input = connection.input;
+			final ByteBuffer output = connection.output;
+			input.flip();
+			while (input.remaining() >= BinaryProtocol.REQUEST_SIZE && output.remaining() >= BinaryProtocol.RESPONSE_SIZE) {
+				final double latitude = input.getDouble();
+				final double longitude = input.getDouble();
+				final int epochDay = input.getInt();
+				final TimeZone timeZone = readTimeZone(input);
+				if (timeZone == null || !BinaryProtocol.isValidLocation(latitude, longitude)) {
+					BinaryProtocol.putInvalidResponse(output);
+				} else {
+					// Noon of the given day, in the time zone.
+					final long utcNoon = epochDay * MILLISECONDS_IN_DAY + MILLISECONDS_IN_HALF_DAY;
+					final long noon = utcNoon - timeZone.getOffset(utcNoon);
+					BinaryProtocol.putResponse(output, SunriseSunset.getAllSolarEvents(noon, latitude, longitude));
+				}
+			}
+			input.compact();
+		}
+
+		/**
+		 * @return the time zone of the id at the position of the given buffer, or null if the id is invalid or
+		 * unknown.
+		 */
+		private TimeZone readTimeZone(ByteBuffer input) {
+			input.get(timeZoneId);
+			int length = 0;
+			while (length < timeZoneId.length && timeZoneId[length] != 0) {
+				if (!BinaryProtocol.isValidTimeZoneIdChar(timeZoneId[length])) return null;
+				length++;
+			}
+			if (length == 0) return null;
+			for (int i = length; i < timeZoneId.length; i++) {
+				if (timeZoneId[i] != 0) return null;
+			}
+			if (lastTimeZone != null && Arrays.equals(timeZoneId, lastTimeZoneId)) {
+				return lastTimeZone;
+			}
+			final String id = new String(timeZoneId, 0, length, US_ASCII);
+			TimeZone timeZone = timeZones.get(id);
+			if (timeZone == null) {
+				// Unknown ids are GMT: they aren't cached, so a client can't make the cache grow without bound.
+				timeZone = TimeZone.getTimeZone(id);
+				if (!timeZone.getID().equals(id)) return null;
+				timeZones.put(id, timeZone);
+			}
+			System.arraycopy(timeZoneId, 0, lastTimeZoneId, 0, timeZoneId.length);
+			lastTimeZone = timeZone;
+			return timeZone;
+		}
+
+		private void close(SelectionKey key) {
+			key.cancel();
+			try {
+				key.channel().close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+}
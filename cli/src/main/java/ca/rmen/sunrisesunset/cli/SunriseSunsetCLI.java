@@ -21,7 +21,10 @@ package ca.rmen.sunrisesunset.cli;
 import ca.rmen.sunrisesunset.SunriseSunset;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.security.CodeSource;
 import java.security.ProtectionDomain;
 import java.util.*;
@@ -32,6 +35,26 @@ import java.text.*;
  */
 class SunriseSunsetCLI {
 	public static void main(String[] args) throws Throwable {
+		if (args.length > 0 && "--batch".equals(args[0])) {
+			batch(args);
+			return;
+		}
+		if (args.length > 0 && "--serve".equals(args[0])) {
+			serve(args);
+			return;
+		}
+		if (args.length > 0 && "--serve-binary".equals(args[0])) {
+			serveBinary(args);
+			return;
+		}
+		if (args.length > 0 && "--binary-load-test".equals(args[0])) {
+			binaryLoadTest(args);
+			return;
+		}
+		if (args.length > 0 && "--load-test".equals(args[0])) {
+			loadTest(args);
+			return;
+		}
 		if (args.length != 4) {
 			usage();
 			return;
@@ -87,6 +110,161 @@ class SunriseSunsetCLI {
 		printCalendar(tz, solarNoon);
 	}
 
+	/**
+	 * --batch [--tsv] [--threads &lt;n&gt;] [--range &lt;yyyyMMdd&gt; &lt;yyyyMMdd&gt; | --year &lt;yyyy&gt;] [&lt;file&gt;]:
+	 * read the rows from the file, or from the standard input.
+	 */
+	private static void batch(String[] args) throws Throwable {
+		char separator = ',';
+		int threads = Runtime.getRuntime().availableProcessors();
+		String startDate = null;
+		String endDate = null;
+		String fileName = null;
+		for (int i = 1; i < args.length; i++) {
+			if ("--tsv".equals(args[i])) {
+				separator = '\t';
+			} else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+				threads = Integer.parseInt(args[++i]);
+			} else if ("--range".equals(args[i]) && i + 2 < args.length && startDate == null) {
+				startDate = args[++i];
+				endDate = args[++i];
+			} else if ("--year".equals(args[i]) && i + 1 < args.length && startDate == null) {
+				startDate = args[++i] + "0101";
+				endDate = args[i] + "1231";
+			} else if (fileName == null && !args[i].startsWith("--")) {
+				fileName = args[i];
+			} else {
+				usage();
+				return;
+			}
+		}
+		if (threads < 1) {
+			usage();
+			return;
+		}
+
+		SunriseSunsetBatch sunriseSunsetBatch;
+		try {
+			sunriseSunsetBatch = startDate == null ? new SunriseSunsetBatch(separator, threads)
+					: new SunriseSunsetBatch(separator, threads, startDate, endDate);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			usage();
+			return;
+		}
+
+		ReadableByteChannel input = fileName == null ? Channels.newChannel(System.in) : new FileInputStream(fileName).getChannel();
+		int invalidRows;
+		try {
+			invalidRows = sunriseSunsetBatch.run(input, Channels.newChannel(System.out), System.err);
+		} finally {
+			input.close();
+		}
+		System.out.flush();
+		if (invalidRows > 0) {
+			System.err.println(invalidRows + " invalid rows");
+			System.exit(2);
+		}
+	}
+
+	/**
+	 * --serve [--port &lt;n&gt;]: answer the queries over HTTP until the process is stopped.
+	 */
+	private static void serve(String[] args) throws Throwable {
+		int port = 8080;
+		if (args.length == 3 && "--port".equals(args[1])) {
+			port = Integer.parseInt(args[2]);
+		} else if (args.length != 1) {
+			usage();
+			return;
+		}
+		SunriseSunsetServer server = new SunriseSunsetServer(port);
+		server.start();
+		System.err.println("Listening on http://localhost:" + server.getPort() + "/");
+	}
+
+	/**
+	 * --load-test [--requests &lt;n&gt;] [--concurrency &lt;n&gt;] &lt;url&gt;
+	 */
+	private static void loadTest(String[] args) throws Throwable {
+		int requests = 100000;
+		int concurrency = 16;
+		String url = null;
+		for (int i = 1; i < args.length; i++) {
+			if ("--requests".equals(args[i]) && i + 1 < args.length) {
+				requests = Integer.parseInt(args[++i]);
+			} else if ("--concurrency".equals(args[i]) && i + 1 < args.length) {
+				concurrency = Integer.parseInt(args[++i]);
+			} else if (url == null && !args[i].startsWith("--")) {
+				url = args[i];
+			} else {
+				usage();
+				return;
+			}
+		}
+		if (url == null || requests < 1 || concurrency < 1) {
+			usage();
+			return;
+		}
+		int errors = new SunriseSunsetLoadTest(new URL(url), requests, concurrency).run(System.out);
+		if (errors > 0) System.exit(2);
+	}
+
+	/**
+	 * --serve-binary [--port &lt;n&gt;] [--threads &lt;n&gt;]: answer the queries of the binary protocol until the process is
+	 * stopped.
+	 */
+	private static void serveBinary(String[] args) throws Throwable {
+		int port = 8081;
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (int i = 1; i < args.length; i++) {
+			if ("--port".equals(args[i]) && i + 1 < args.length) {
+				port = Integer.parseInt(args[++i]);
+			} else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+				threads = Integer.parseInt(args[++i]);
+			} else {
+				usage();
+				return;
+			}
+		}
+		if (threads < 1) {
+			usage();
+			return;
+		}
+		SunriseSunsetBinaryServer server = new SunriseSunsetBinaryServer(port, threads);
+		server.start();
+		System.err.println("Listening on localhost:" + server.getPort());
+	}
+
+	/**
+	 * --binary-load-test [--queries &lt;n&gt;] [--connections &lt;n&gt;] [--batch &lt;n&gt;] &lt;port&gt;
+	 */
+	private static void binaryLoadTest(String[] args) throws Throwable {
+		int queries = 1000000;
+		int connections = 4;
+		int batchSize = 1000;
+		String port = null;
+		for (int i = 1; i < args.length; i++) {
+			if ("--queries".equals(args[i]) && i + 1 < args.length) {
+				queries = Integer.parseInt(args[++i]);
+			} else if ("--connections".equals(args[i]) && i + 1 < args.length) {
+				connections = Integer.parseInt(args[++i]);
+			} else if ("--batch".equals(args[i]) && i + 1 < args.length) {
+				batchSize = Integer.parseInt(args[++i]);
+			} else if (port == null && !args[i].startsWith("--")) {
+				port = args[i];
+			} else {
+				usage();
+				return;
+			}
+		}
+		if (port == null || queries < 1 || connections < 1 || batchSize < 1) {
+			usage();
+			return;
+		}
+		new SunriseSunsetBinaryLoadTest("localhost", Integer.parseInt(port), queries, connections, batchSize).run(System.out);
+	}
+
 	private static void printCalendar(TimeZone tz, Calendar cal) {
 		SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss zzzz");
 		simpleDateFormat.setTimeZone(tz);
@@ -104,6 +282,19 @@ class SunriseSunsetCLI {
 
 	private static void usage() {
 		System.err.println(getProgramName() + " <timezone> <yyyyMMdd> <latitude> <longitude>");
+		System.err.println(getProgramName() + " --batch [--tsv] [--threads <n>] [--range <yyyyMMdd> <yyyyMMdd> | --year <yyyy>] [<file>]");
+		System.err.println("  Reads rows of <timezone>,<yyyyMMdd>,<latitude>,<longitude> from the file, or the standard input,");
+		System.err.println("  and writes a row of the solar events of each of them. With --tsv, the columns are separated by tabs.");
+		System.err.println("  With --range or --year, reads rows of <timezone>,<latitude>,<longitude>, and writes a row for each day.");
+		System.err.println(getProgramName() + " --serve [--port <n>]");
+		System.err.println("  Answers GET /events?timezone=<timezone>&date=<yyyyMMdd>&latitude=<latitude>&longitude=<longitude>");
+		System.err.println("  and GET /day-period?latitude=<latitude>&longitude=<longitude>[&time=<millis>] on localhost, in JSON.");
+		System.err.println(getProgramName() + " --load-test [--requests <n>] [--concurrency <n>] <url>");
+		System.err.println("  Sends GET requests to the url, and prints the p50 and p99 latencies and the throughput.");
+		System.err.println(getProgramName() + " --serve-binary [--port <n>] [--threads <n>]");
+		System.err.println("  Answers the queries of the binary protocol of SunriseSunsetClient on localhost.");
+		System.err.println(getProgramName() + " --binary-load-test [--queries <n>] [--connections <n>] [--batch <n>] <port>");
+		System.err.println("  Sends batches of queries to the binary server on localhost, and prints the throughput.");
 		System.exit(1);
 	}
 
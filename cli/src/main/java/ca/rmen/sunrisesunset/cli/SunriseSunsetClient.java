@@ -0,0 +1,179 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.cli;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Client of the binary protocol of the server started with <code>--serve-binary</code>. <br>
+ * {@link #query(double[], double[], int[], String[], long[])} sends the requests in chunks, without waiting for the
+ * responses of the previous chunk: many queries cost a few round trips. <br>
+ * Instances of this class are not thread-safe: use one client per thread.
+ */
+public final class SunriseSunsetClient implements Closeable {
+
+	/**
+	 * The number of events returned for each query.
+	 */
+	public static final int EVENT_COUNT = BinaryProtocol.EVENT_COUNT;
+	/**
+	 * The indexes of the events in the results of a query.
+	 */
+	public static final int SUNRISE = 0;
+	public static final int SUNSET = 1;
+	public static final int CIVIL_TWILIGHT_DAWN = 2;
+	public static final int CIVIL_TWILIGHT_DUSK = 3;
+	public static final int NAUTICAL_TWILIGHT_DAWN = 4;
+	public static final int NAUTICAL_TWILIGHT_DUSK = 5;
+	public static final int ASTRONOMICAL_TWILIGHT_DAWN = 6;
+	public static final int ASTRONOMICAL_TWILIGHT_DUSK = 7;
+	public static final int SOLAR_NOON = 8;
+	/**
+	 * The value of the events which don't occur.
+	 */
+	public static final long NO_EVENT = BinaryProtocol.NO_EVENT;
+
+	// The number of requests per write. At most two chunks are sent before their responses are read: the
+	// server can calculate a chunk while the next one is sent, and neither side waits for the other to read.
+	private static final int CHUNK_SIZE = 256;
+	private static final int CHUNKS_IN_FLIGHT = 2;
+
+	private final SocketChannel channel;
+	private final ByteBuffer requests = ByteBuffer.allocateDirect(CHUNK_SIZE * BinaryProtocol.REQUEST_SIZE);
+	private final ByteBuffer responses = ByteBuffer.allocateDirect(CHUNK_SIZE * BinaryProtocol.RESPONSE_SIZE);
+
+	/**
+	 * Connect to the server.
+	 */
+	public SunriseSunsetClient(String host, int port) throws IOException {
+		channel = SocketChannel.open(new InetSocketAddress(host, port));
+		channel.socket().setTcpNoDelay(true);
+	}
+
+	/**
+	 * @param latitude   the latitude of the location in degrees.
+	 * @param longitude  the longitude of the location in degrees (West is negative)
+	 * @param epochDay   the number of days since 1970-01-01 of the date, in the given time zone
+	 * @param timeZoneId the id of the time zone, as in {@link java.util.TimeZone#getTimeZone(String)}
+	 * @return the {@link #EVENT_COUNT} events of the day, in seconds since 1970-01-01 UTC, or {@link #NO_EVENT}.
+	 * @see #SUNRISE
+	 */
+	public long[] query(double latitude, double longitude, int epochDay, String timeZoneId) throws IOException {
+		final long[] events = new long[EVENT_COUNT];
+		query(new double[]{latitude}, new double[]{longitude}, new int[]{epochDay}, new String[]{timeZoneId}, events);
+		return events;
+	}
+
+	/**
+	 * Send many queries, and read their results.
+	 *
+	 * @param events the results: the {@link #EVENT_COUNT} events of the query i start at the index
+	 *               i * {@link #EVENT_COUNT}, in seconds since 1970-01-01 UTC, or {@link #NO_EVENT}.
+	 * @throws IllegalArgumentException if a location or a time zone id is invalid, or if an array is too short.
+	 * @throws IOException              if the server rejected a query, for example because its time zone id is
+	 *                                  unknown. The responses of the queries already sent are read first, so the
+	 *                                  client can still be used.
+	 * @see #query(double, double, int, String)
+	 */
+	public void query(double[] latitudes, double[] longitudes, int[] epochDays, String[] timeZoneIds, long[] events)
+			throws IOException {
+		final int count = latitudes.length;
+		if (longitudes.length < count || epochDays.length < count || timeZoneIds.length < count
+				|| events.length < count * EVENT_COUNT) {
+			throw new IllegalArgumentException("The arrays must have at least " + count + " queries");
+		}
+		for (int i = 0; i < count; i++) {
+			validate(latitudes[i], longitudes[i], timeZoneIds[i]);
+		}
+		int sent = 0;
+		int received = 0;
+		int rejected = -1;
+		while (received < count) {
+			// After a rejected query, only the responses of the chunks already sent are read.
+			if (rejected >= 0 && received == sent) break;
+			while (rejected < 0 && sent < count && sent - received < CHUNKS_IN_FLIGHT * CHUNK_SIZE) {
+				final int end = Math.min(sent + CHUNK_SIZE, count);
+				requests.clear();
+				for (int i = sent; i < end; i++) {
+					BinaryProtocol.putRequest(requests, latitudes[i], longitudes[i], epochDays[i], timeZoneIds[i]);
+				}
+				requests.flip();
+				while (requests.hasRemaining()) {
+					channel.write(requests);
+				}
+				sent = end;
+			}
+			final int end = Math.min(received + CHUNK_SIZE, count);
+			final int chunkRejected = readResponses(received, end, events);
+			if (rejected < 0) rejected = chunkRejected;
+			received = end;
+		}
+		if (rejected >= 0) {
+			throw new IOException("The server rejected the query " + rejected);
+		}
+	}
+
+	/**
+	 * Read all the responses of a chunk.
+	 *
+	 * @return the index of the first query of the chunk rejected by the server, or -1.
+	 */
+	private int readResponses(int start, int end, long[] events) throws IOException {
+		responses.clear();
+		responses.limit((end - start) * BinaryProtocol.RESPONSE_SIZE);
+		while (responses.hasRemaining()) {
+			if (channel.read(responses) < 0) {
+				throw new EOFException("The server closed the connection");
+			}
+		}
+		responses.flip();
+		int rejected = -1;
+		for (int i = start; i < end; i++) {
+			if (responses.getInt() != BinaryProtocol.STATUS_OK && rejected < 0) {
+				rejected = i;
+			}
+			for (int j = 0; j < EVENT_COUNT; j++) {
+				events[i * EVENT_COUNT + j] = responses.getLong();
+			}
+		}
+		return rejected;
+	}
+
+	private static void validate(double latitude, double longitude, String timeZoneId) {
+		if (!BinaryProtocol.isValidLocation(latitude, longitude)) {
+			throw new IllegalArgumentException("Invalid location " + latitude + "," + longitude);
+		}
+		boolean valid = timeZoneId.length() > 0 && timeZoneId.length() <= BinaryProtocol.TIME_ZONE_ID_SIZE;
+		for (int i = 0; valid && i < timeZoneId.length(); i++) {
+			valid = BinaryProtocol.isValidTimeZoneIdChar(timeZoneId.charAt(i));
+		}
+		if (!valid) {
+			throw new IllegalArgumentException("Invalid time zone id " + timeZoneId);
+		}
+	}
+
+	public void close() throws IOException {
+		channel.close();
+	}
+}
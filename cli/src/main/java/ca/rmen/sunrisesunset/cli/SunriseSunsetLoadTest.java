@@ -0,0 +1,146 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends GET requests to a URL from concurrent clients, and reports the latency percentiles and the throughput.
+ */
+final class SunriseSunsetLoadTest {
+
+	private final URL url;
+	private final int requests;
+	private final int concurrency;
+
+	SunriseSunsetLoadTest(URL url, int requests, int concurrency) {
+		this.url = url;
+		this.requests = requests;
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Warm up the server with a tenth of the requests, then send the requests and print the statistics.
+	 *
+	 * @return the number of requests which failed, or didn't return a status 200.
+	 */
+	int run(PrintStream output) throws Exception {
+		// Keep a connection alive for each client: by default, HttpURLConnection keeps only 5 of them.
+		if (System.getProperty("http.maxConnections") == null) {
+			System.setProperty("http.maxConnections", String.valueOf(concurrency));
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+		try {
+			send(executor, Math.max(concurrency, requests / 10));
+
+			final long start = System.nanoTime();
+			final long[] latencies = send(executor, requests);
+			final long elapsed = System.nanoTime() - start;
+
+			int errors = 0;
+			for (long latency : latencies) {
+				if (latency < 0) errors++;
+			}
+			Arrays.sort(latencies);
+			// The failed requests have a negative latency: they are at the start of the sorted array.
+			final long[] successes = new long[latencies.length - errors];
+			System.arraycopy(latencies, errors, successes, 0, successes.length);
+			output.println("requests:    " + requests + " (" + errors + " errors)");
+			output.println("concurrency: " + concurrency);
+			output.println("throughput:  " + Math.round(requests * 1e9 / elapsed) + " requests/s");
+			if (successes.length > 0) {
+				output.println("p50:         " + toMillis(percentile(successes, 50)) + " ms");
+				output.println("p99:         " + toMillis(percentile(successes, 99)) + " ms");
+				output.println("max:         " + toMillis(successes[successes.length - 1]) + " ms");
+			}
+			return errors;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * @return the latency of each request in nanoseconds, or -1 for the requests which failed.
+	 */
+	private long[] send(ExecutorService executor, final int count) throws Exception {
+		final long[] latencies = new long[count];
+		final AtomicInteger next = new AtomicInteger();
+		final List<Future<Void>> clients = new ArrayList<Future<Void>>(concurrency);
+		for (int i = 0; i < concurrency; i++) {
+			clients.add(executor.submit(new Callable<Void>() {
+				public Void call() {
+					for (int request = next.getAndIncrement(); request < count; request = next.getAndIncrement()) {
+						final long start = System.nanoTime();
+						latencies[request] = get() ? System.nanoTime() - start : -1;
+					}
+					return null;
+				}
+			}));
+		}
+		for (Future<Void> client : clients) {
+			client.get();
+		}
+		return latencies;
+	}
+
+	/**
+	 * Read the whole response: the connection is then kept alive for the next request.
+	 */
+	private boolean get() {
+		try {
+			final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+			final int status = connection.getResponseCode();
+			final InputStream is = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+			if (is != null) {
+				final byte[] buffer = new byte[4096];
+				while (is.read(buffer) >= 0) {
+					// Discard the body.
+				}
+				is.close();
+			}
+			return status == HttpURLConnection.HTTP_OK;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return the nearest-rank percentile of the given sorted values.
+	 */
+	static long percentile(long[] sortedValues, int percentile) {
+		final int rank = (int) Math.ceil(percentile / 100.0 * sortedValues.length);
+		return sortedValues[Math.max(0, rank - 1)];
+	}
+
+	static String toMillis(long nanos) {
+		return String.format("%.3f", nanos / 1e6);
+	}
+}
@@ -0,0 +1,252 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.cli;
+
+import ca.rmen.sunrisesunset.DayPeriodTransition;
+import ca.rmen.sunrisesunset.SolarEvents;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Answers the SunriseSunset queries over HTTP, on the loopback interface. The responses are JSON objects.
+ * <ul>
+ * <li>GET /events?timezone=Europe/Paris&amp;date=20171125&amp;latitude=48.8&amp;longitude=2.35: all the solar events
+ * of the day, in the given time zone, and the day length in milliseconds.</li>
+ * <li>GET /day-period?latitude=48.8&amp;longitude=2.35[&amp;time=&lt;milliseconds since 1970-01-01 UTC&gt;]: the
+ * period of the day at the given time, or now, and the next change of period.</li>
+ * </ul>
+ * Each request is handled by its own thread: a virtual thread if the JVM supports them (Java 21+), otherwise a
+ * thread of a cached thread pool.
+ */
+final class SunriseSunsetServer {
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	// The formats are thread-safe, so they are shared by all the requests.
+	private final ConcurrentMap<String, TimeZoneFormat> timeZoneFormats = new ConcurrentHashMap<String, TimeZoneFormat>();
+
+	/**
+	 * @param port the port to listen to, or 0 to use any free port.
+	 */
+	SunriseSunsetServer(int port) throws IOException {
+		// Without TCP_NODELAY, the small responses wait for the delayed ACK of the client: about 40ms per request.
+		// The property is read once, when the JDK server is first used.
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getByName(null), port), 0);
+		server.createContext("/events", new EventsHandler());
+		server.createContext("/day-period", new DayPeriodHandler());
+		executor = createExecutor();
+		server.setExecutor(executor);
+	}
+
+	/**
+	 * @return an executor which runs each task in a new virtual thread, if the JVM supports them. Reflection is
+	 * used only here, so that the cli still runs on older JVMs.
+	 */
+	static ExecutorService createExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (Exception e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	void start() {
+		server.start();
+	}
+
+	void stop() {
+		server.stop(0);
+		executor.shutdown();
+	}
+
+	/**
+	 * @return the port the server listens to.
+	 */
+	int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	private final class EventsHandler extends JsonHandler {
+		void handle(Map<String, String> parameters, StringBuilder output) {
+			final String timeZoneId = getParameter(parameters, "timezone");
+			final String date = getParameter(parameters, "date");
+			final double latitude = getCoordinate(parameters, "latitude", 90);
+			final double longitude = getCoordinate(parameters, "longitude", 180);
+			final TimeZoneFormat timeZoneFormat = getTimeZoneFormat(timeZoneId);
+			final Calendar day = Calendar.getInstance(timeZoneFormat.getTimeZone());
+			day.setLenient(false);
+			final long timeInMillis = TimeZoneFormat.parseDate(date, day);
+
+			final SolarEvents solarEvents = SunriseSunset.getAllSolarEvents(timeInMillis, latitude, longitude);
+			final long dayLength = solarEvents.hasSunriseSunset() ? solarEvents.getSunset() - solarEvents.getSunrise()
+					: SunriseSunset.getDayLength(day, latitude, longitude);
+			final long noEvent = SunriseSunset.NO_EVENT;
+			new JsonWriter(output)
+					.field("timezone", timeZoneFormat.getTimeZone().getID())
+					.field("date", date)
+					.field("latitude", latitude)
+					.field("longitude", longitude)
+					.timeField("sunrise", solarEvents.getSunrise(), noEvent, timeZoneFormat)
+					.timeField("sunset", solarEvents.getSunset(), noEvent, timeZoneFormat)
+					.timeField("civilTwilightDawn", solarEvents.getCivilTwilightDawn(), noEvent, timeZoneFormat)
+					.timeField("civilTwilightDusk", solarEvents.getCivilTwilightDusk(), noEvent, timeZoneFormat)
+					.timeField("nauticalTwilightDawn", solarEvents.getNauticalTwilightDawn(), noEvent, timeZoneFormat)
+					.timeField("nauticalTwilightDusk", solarEvents.getNauticalTwilightDusk(), noEvent, timeZoneFormat)
+					.timeField("astronomicalTwilightDawn", solarEvents.getAstronomicalTwilightDawn(), noEvent, timeZoneFormat)
+					.timeField("astronomicalTwilightDusk", solarEvents.getAstronomicalTwilightDusk(), noEvent, timeZoneFormat)
+					.timeField("solarNoon", solarEvents.getSolarNoon(), noEvent, timeZoneFormat)
+					.field("dayLength", dayLength)
+					.end();
+		}
+	}
+
+	private static final class DayPeriodHandler extends JsonHandler {
+		void handle(Map<String, String> parameters, StringBuilder output) {
+			final double latitude = getCoordinate(parameters, "latitude", 90);
+			final double longitude = getCoordinate(parameters, "longitude", 180);
+			final String time = parameters.get("time");
+			final long timeInMillis = time == null ? System.currentTimeMillis() : Long.parseLong(time);
+
+			final DayPeriodTransition transition = SunriseSunset.getNextDayPeriodTransition(timeInMillis, latitude, longitude);
+			final JsonWriter writer = new JsonWriter(output)
+					.field("latitude", latitude)
+					.field("longitude", longitude)
+					.field("time", timeInMillis)
+					.field("dayPeriod", SunriseSunset.getDayPeriod(timeInMillis, latitude, longitude).name());
+			if (transition == null) {
+				writer.field("nextDayPeriod", null).field("nextDayPeriodTime", null);
+			} else {
+				writer.field("nextDayPeriod", transition.getDayPeriod().name()).field("nextDayPeriodTime", transition.getTime());
+			}
+			writer.end();
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the time zone id is unknown.
+	 */
+	private TimeZoneFormat getTimeZoneFormat(String timeZoneId) {
+		TimeZoneFormat timeZoneFormat = timeZoneFormats.get(timeZoneId);
+		if (timeZoneFormat == null) {
+			// Unknown ids are GMT: they aren't cached, so clients can't make the cache grow without bound.
+			final TimeZone timeZone = TimeZone.getTimeZone(timeZoneId);
+			if (!timeZone.getID().equals(timeZoneId)) {
+				throw new IllegalArgumentException("Unknown time zone " + timeZoneId);
+			}
+			timeZoneFormat = new TimeZoneFormat(timeZone);
+			final TimeZoneFormat previous = timeZoneFormats.putIfAbsent(timeZoneId, timeZoneFormat);
+			if (previous != null) timeZoneFormat = previous;
+		}
+		return timeZoneFormat;
+	}
+
+	/**
+	 * Parses the query parameters of GET requests, and writes the JSON object returned by the subclass, or an error.
+	 */
+	private abstract static class JsonHandler implements HttpHandler {
+
+		/**
+		 * Write the response to the given parameters.
+		 *
+		 * @throws IllegalArgumentException if a parameter is missing or invalid.
+		 */
+		abstract void handle(Map<String, String> parameters, StringBuilder output);
+
+		public void handle(HttpExchange exchange) throws IOException {
+			try {
+				final StringBuilder output = new StringBuilder(512);
+				int status = 200;
+				if (!"GET".equals(exchange.getRequestMethod())) {
+					status = 405;
+					new JsonWriter(output).field("error", "Only GET is supported").end();
+				} else {
+					try {
+						handle(parseQuery(exchange.getRequestURI().getRawQuery()), output);
+					} catch (IllegalArgumentException e) {
+						// NumberFormatException is also an IllegalArgumentException.
+						status = 400;
+						output.setLength(0);
+						new JsonWriter(output).field("error", e.getMessage()).end();
+					}
+				}
+				final byte[] body = output.toString().getBytes("UTF-8");
+				exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+				exchange.sendResponseHeaders(status, body.length);
+				final OutputStream os = exchange.getResponseBody();
+				os.write(body);
+				os.close();
+			} finally {
+				exchange.close();
+			}
+		}
+
+		private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+			final Map<String, String> parameters = new HashMap<String, String>();
+			if (query == null) return parameters;
+			for (String parameter : query.split("&")) {
+				final int equals = parameter.indexOf('=');
+				if (equals > 0) {
+					parameters.put(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"),
+							URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+				}
+			}
+			return parameters;
+		}
+
+		static String getParameter(Map<String, String> parameters, String name) {
+			final String value = parameters.get(name);
+			if (value == null) {
+				throw new IllegalArgumentException("Missing parameter " + name);
+			}
+			return value;
+		}
+
+		/**
+		 * @return the value of the given latitude or longitude parameter.
+		 * @throws IllegalArgumentException if the value is missing, or not between -max and max.
+		 */
+		static double getCoordinate(Map<String, String> parameters, String name, double max) {
+			final double value = Double.parseDouble(getParameter(parameters, name));
+			if (!(value >= -max && value <= max)) {
+				throw new IllegalArgumentException("Invalid " + name + " " + value);
+			}
+			return value;
+		}
+	}
+}
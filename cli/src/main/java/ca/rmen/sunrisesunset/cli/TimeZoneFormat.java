@@ -0,0 +1,101 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.cli;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Formats times in one time zone, like SimpleDateFormat with the pattern yyyy-MM-dd'T'HH:mm:ssZ. <br>
+ * Unlike SimpleDateFormat, this class is thread-safe, and doesn't allocate anything per time.
+ */
+final class TimeZoneFormat {
+	private static final long MILLISECONDS_IN_DAY = 24 * 60 * 60 * 1000;
+	private final TimeZone timeZone;
+
+	TimeZoneFormat(TimeZone timeZone) {
+		this.timeZone = timeZone;
+	}
+
+	TimeZone getTimeZone() {
+		return timeZone;
+	}
+
+	/**
+	 * Append the given time, in milliseconds since 1970-01-01 UTC.
+	 */
+	void format(long timeInMillis, StringBuilder output) {
+		final int offset = timeZone.getOffset(timeInMillis);
+		final long localTime = timeInMillis + offset;
+		final long epochDay = floorDiv(localTime, MILLISECONDS_IN_DAY);
+		final int millisOfDay = (int) (localTime - epochDay * MILLISECONDS_IN_DAY);
+
+		// Convert the epoch day to a date in the proleptic Gregorian calendar, with years starting on March 1st.
+		final long days = epochDay + 719468;
+		final long era = floorDiv(days, 146097);
+		final int dayOfEra = (int) (days - era * 146097);
+		final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		final int mp = (5 * dayOfYear + 2) / 153;
+		final int dayOfMonth = dayOfYear - (153 * mp + 2) / 5 + 1;
+		final int month = mp < 10 ? mp + 3 : mp - 9;
+		final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+		output.append(year).append('-');
+		append2(month, output).append('-');
+		append2(dayOfMonth, output).append('T');
+		append2(millisOfDay / 3600000, output).append(':');
+		append2(millisOfDay / 60000 % 60, output).append(':');
+		append2(millisOfDay / 1000 % 60, output);
+		final int offsetMinutes = Math.abs(offset) / 60000;
+		output.append(offset < 0 ? '-' : '+');
+		append2(offsetMinutes / 60, output);
+		append2(offsetMinutes % 60, output);
+	}
+
+	static StringBuilder append2(int value, StringBuilder output) {
+		return output.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+	}
+
+	private static long floorDiv(long x, long y) {
+		final long quotient = x / y;
+		return (x % y != 0 && (x < 0) != (y < 0)) ? quotient - 1 : quotient;
+	}
+
+	/**
+	 * Set the calendar to noon of the given date.
+	 *
+	 * @param date a date, as yyyyMMdd
+	 * @return the time of the calendar.
+	 * @throws IllegalArgumentException if the date is invalid.
+	 */
+	static long parseDate(String date, Calendar calendar) {
+		if (date.length() != 8) {
+			throw new IllegalArgumentException("Invalid date " + date);
+		}
+		try {
+			calendar.clear();
+			calendar.set(Integer.parseInt(date.substring(0, 4)), Integer.parseInt(date.substring(4, 6)) - 1,
+					Integer.parseInt(date.substring(6, 8)), 12, 0, 0);
+			return calendar.getTimeInMillis();
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid date " + date);
+		}
+	}
+}
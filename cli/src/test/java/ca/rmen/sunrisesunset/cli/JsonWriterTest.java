@@ -0,0 +1,59 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.cli;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+/**
+ * Unit tests for the JSON output of the HTTP server.
+ */
+public class JsonWriterTest {
+
+    @Test
+    public void testFields() {
+        StringBuilder output = new StringBuilder();
+        new JsonWriter(output)
+                .field("name", "value")
+                .field("null", null)
+                .field("long", -1234567890123L)
+                .field("double", 48.8567)
+                .timeField("time", 1498039200000L, Long.MIN_VALUE, new TimeZoneFormat(TimeZone.getTimeZone("Europe/Paris")))
+                .timeField("noTime", Long.MIN_VALUE, Long.MIN_VALUE, null)
+                .end();
+        Assert.assertEquals("{\"name\":\"value\",\"null\":null,\"long\":-1234567890123,\"double\":48.8567,"
+                + "\"time\":\"2017-06-21T12:00:00+0200\",\"noTime\":null}", output.toString());
+    }
+
+    @Test
+    public void testEmpty() {
+        StringBuilder output = new StringBuilder();
+        new JsonWriter(output).end();
+        Assert.assertEquals("{}", output.toString());
+    }
+
+    @Test
+    public void testEscaping() {
+        StringBuilder output = new StringBuilder();
+        new JsonWriter(output).field("a\"b", "c\\d\ne\u0001f\u001fg/hé").end();
+        Assert.assertEquals("{\"a\\\"b\":\"c\\\\d\\u000ae\\u0001f\\u001fg/hé\"}", output.toString());
+    }
+}
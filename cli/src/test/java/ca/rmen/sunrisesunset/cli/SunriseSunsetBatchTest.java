@@ -0,0 +1,205 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.cli;
+
+import ca.rmen.sunrisesunset.SolarEvents;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Unit tests for the batch mode of the command-line interface.
+ */
+public class SunriseSunsetBatchTest {
+
+    private static final String[] TIME_ZONE_IDS = {"Europe/Paris", "America/Montreal", "Australia/Sydney", "Asia/Kathmandu", "UTC"};
+
+    @Test
+    public void testRows() throws IOException, InterruptedException {
+        // More rows than a chunk, with invalid rows in several chunks.
+        Random random = new Random(2017);
+        StringBuilder input = new StringBuilder("timezone,date,latitude,longitude\n# A comment\n\n");
+        StringBuilder expectedOutput = new StringBuilder();
+        int invalidRows = 0;
+        for (int i = 0; i < 5000; i++) {
+            String timeZoneId = TIME_ZONE_IDS[random.nextInt(TIME_ZONE_IDS.length)];
+            String date = String.format("%04d%02d%02d", 1950 + random.nextInt(100), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            String latitude = String.valueOf(-89 + random.nextInt(179) + 0.5);
+            String longitude = String.valueOf(-179 + random.nextInt(359) + 0.25);
+            if (i % 997 == 0) {
+                input.append(timeZoneId).append(",not a date,").append(latitude).append(',').append(longitude).append('\n');
+                invalidRows++;
+            } else if (i % 1009 == 0) {
+                input.append(timeZoneId).append(',').append(date).append(',').append(latitude).append('\n');
+                invalidRows++;
+            } else {
+                input.append(timeZoneId).append(',').append(date).append(',').append(latitude).append(',').append(longitude).append('\n');
+                appendExpectedRow(timeZoneId, date, latitude, longitude, expectedOutput);
+            }
+        }
+
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        String output = run(new SunriseSunsetBatch(',', 4), input.toString(), errors, invalidRows);
+        Assert.assertEquals(getHeader(',') + expectedOutput, output);
+        String[] errorLines = errors.toString("UTF-8").split("\n");
+        Assert.assertEquals(invalidRows, errorLines.length);
+        // The errors are reported in the order of the input, with the line numbers of the input.
+        Assert.assertTrue(errorLines[0], errorLines[0].startsWith("Line 4: Invalid date not a date"));
+        Assert.assertTrue(errorLines[2], errorLines[2].startsWith("Line 1013: Expected 4 columns"));
+    }
+
+    @Test
+    public void testInvalidRows() throws IOException, InterruptedException {
+        StringBuilder expectedOutput = new StringBuilder();
+        appendExpectedRow("Europe/Paris", "20170621", "48.8567", "2.351", expectedOutput);
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        String output = run(new SunriseSunsetBatch(',', 2), "Europe/Pari,20170621,48.8567,2.351\n"
+                + "Europe/Paris,20170621,148.8567,2.351\n"
+                + "Europe/Paris,20170621,48.8567,-180.5\n"
+                + "UTC,20170621,NaN,2.351\n"
+                + "Europe/Paris,20170621,48.8567,2.351\n"
+                + "Europe/Pari,20170621,48.8567,2.351\n", errors, 5);
+        Assert.assertEquals(getHeader(',') + expectedOutput, output);
+        Assert.assertEquals("Line 1: Unknown time zone Europe/Pari: Europe/Pari,20170621,48.8567,2.351\n"
+                + "Line 2: Invalid latitude 148.8567: Europe/Paris,20170621,148.8567,2.351\n"
+                + "Line 3: Invalid longitude -180.5: Europe/Paris,20170621,48.8567,-180.5\n"
+                + "Line 4: Invalid latitude NaN: UTC,20170621,NaN,2.351\n"
+                + "Line 6: Unknown time zone Europe/Pari: Europe/Pari,20170621,48.8567,2.351\n",
+                errors.toString("UTF-8").replace(System.getProperty("line.separator"), "\n"));
+    }
+
+    @Test
+    public void testTsv() throws IOException, InterruptedException {
+        StringBuilder expectedOutput = new StringBuilder();
+        appendExpectedRow("Europe/Paris", "20170621", "48.8567", "2.351", expectedOutput);
+        String output = run(new SunriseSunsetBatch('\t', 1), "Europe/Paris\t20170621\t48.8567\t2.351\n", new ByteArrayOutputStream(), 0);
+        Assert.assertEquals(getHeader('\t') + expectedOutput.toString().replace(',', '\t'), output);
+    }
+
+    @Test
+    public void testRange() throws IOException, InterruptedException {
+        // Across the end of a year, and daylight saving time changes in both hemispheres.
+        testRange("20171225", "20180105");
+        testRange("20170320", "20170410");
+        testRange("20170621", "20170621");
+    }
+
+    @Test
+    public void testInvalidRangeRows() throws IOException, InterruptedException {
+        // Each invalid row is reported once, without any row for the days of the range.
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        String output = run(new SunriseSunsetBatch(',', 2, "20170620", "20170621"), "Europe/Pari,48.8567,2.351\n"
+                + "Europe/Paris,48.8567,NaN\n"
+                + "Europe/Paris,-90.5,2.351\n", errors, 3);
+        Assert.assertEquals(getHeader(','), output);
+        Assert.assertEquals("Line 1: Unknown time zone Europe/Pari: Europe/Pari,48.8567,2.351\n"
+                + "Line 2: Invalid longitude NaN: Europe/Paris,48.8567,NaN\n"
+                + "Line 3: Invalid latitude -90.5: Europe/Paris,-90.5,2.351\n",
+                errors.toString("UTF-8").replace(System.getProperty("line.separator"), "\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyRange() {
+        new SunriseSunsetBatch(',', 1, "20170102", "20170101");
+    }
+
+    /**
+     * The rows of a range must be the same as the rows of each date of the range.
+     */
+    private static void testRange(String startDate, String endDate) throws IOException, InterruptedException {
+        Random random = new Random(2017);
+        StringBuilder rangeInput = new StringBuilder();
+        StringBuilder datesInput = new StringBuilder();
+        Calendar end = parse(endDate);
+        for (int i = 0; i < 300; i++) {
+            String timeZoneId = TIME_ZONE_IDS[i % TIME_ZONE_IDS.length];
+            // Include polar days and nights.
+            String latitude = String.valueOf(-89 + random.nextInt(179) + 0.5);
+            String longitude = String.valueOf(-179 + random.nextInt(359) + 0.25);
+            rangeInput.append(timeZoneId).append(',').append(latitude).append(',').append(longitude).append('\n');
+            for (Calendar day = parse(startDate); !day.after(end); day.add(Calendar.DAY_OF_MONTH, 1)) {
+                datesInput.append(timeZoneId).append(',').append(format(day)).append(',')
+                        .append(latitude).append(',').append(longitude).append('\n');
+            }
+        }
+        String rangeOutput = run(new SunriseSunsetBatch(',', 3, startDate, endDate), rangeInput.toString(), new ByteArrayOutputStream(), 0);
+        String datesOutput = run(new SunriseSunsetBatch(',', 3), datesInput.toString(), new ByteArrayOutputStream(), 0);
+        Assert.assertEquals(datesOutput, rangeOutput);
+    }
+
+    private static String run(SunriseSunsetBatch batch, String input, ByteArrayOutputStream errors, int expectedInvalidRows)
+            throws IOException, InterruptedException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int invalidRows = batch.run(Channels.newChannel(new ByteArrayInputStream(input.getBytes("UTF-8"))),
+                Channels.newChannel(output), new PrintStream(errors, true, "UTF-8"));
+        Assert.assertEquals(expectedInvalidRows, invalidRows);
+        return output.toString("UTF-8");
+    }
+
+    private static String getHeader(char separator) {
+        return ("timezone,date,latitude,longitude,sunrise,sunset,civil_twilight_dawn,civil_twilight_dusk,"
+                + "nautical_twilight_dawn,nautical_twilight_dusk,astronomical_twilight_dawn,astronomical_twilight_dusk,"
+                + "solar_noon,day_length\n").replace(',', separator);
+    }
+
+    private static void appendExpectedRow(String timeZoneId, String date, String latitude, String longitude, StringBuilder output) {
+        TimeZone timeZone = TimeZone.getTimeZone(timeZoneId);
+        Calendar day = Calendar.getInstance(timeZone);
+        day.clear();
+        day.set(Integer.parseInt(date.substring(0, 4)), Integer.parseInt(date.substring(4, 6)) - 1, Integer.parseInt(date.substring(6)), 12, 0, 0);
+        double lat = Double.parseDouble(latitude);
+        double lon = Double.parseDouble(longitude);
+        SolarEvents events = SunriseSunset.getAllSolarEvents(day.getTimeInMillis(), lat, lon);
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+        format.setTimeZone(timeZone);
+        output.append(timeZoneId).append(',').append(date).append(',').append(latitude).append(',').append(longitude);
+        long[] times = {events.getSunrise(), events.getSunset(), events.getCivilTwilightDawn(), events.getCivilTwilightDusk(),
+                events.getNauticalTwilightDawn(), events.getNauticalTwilightDusk(),
+                events.getAstronomicalTwilightDawn(), events.getAstronomicalTwilightDusk(), events.getSolarNoon()};
+        for (long time : times) {
+            output.append(',');
+            if (time != SunriseSunset.NO_EVENT) output.append(format.format(new Date(time)));
+        }
+        long dayLength = events.hasSunriseSunset() ? events.getSunset() - events.getSunrise()
+                : SunriseSunset.getDayLength(day.getTimeInMillis(), lat, lon);
+        output.append(',').append(dayLength).append('\n');
+    }
+
+    private static Calendar parse(String date) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(Integer.parseInt(date.substring(0, 4)), Integer.parseInt(date.substring(4, 6)) - 1, Integer.parseInt(date.substring(6)));
+        return calendar;
+    }
+
+    private static String format(Calendar day) {
+        return String.format("%04d%02d%02d", day.get(Calendar.YEAR), day.get(Calendar.MONTH) + 1, day.get(Calendar.DAY_OF_MONTH));
+    }
+}
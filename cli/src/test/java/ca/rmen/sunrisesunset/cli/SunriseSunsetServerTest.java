@@ -0,0 +1,202 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.cli;
+
+import ca.rmen.sunrisesunset.DayPeriodTransition;
+import ca.rmen.sunrisesunset.SolarEvents;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Round trips to the HTTP and binary servers of the command-line interface.
+ */
+public class SunriseSunsetServerTest {
+
+    private static final String[] TIME_ZONE_IDS = {"Europe/Paris", "America/Montreal", "Australia/Sydney", "Asia/Kathmandu", "UTC"};
+
+    @Test
+    public void testEvents() throws IOException {
+        SunriseSunsetServer server = new SunriseSunsetServer(0);
+        server.start();
+        try {
+            String url = "http://localhost:" + server.getPort() + "/events?timezone=Europe/Paris&date=20171125&latitude=48.8&longitude=2.35";
+            String response = get(url, 200);
+            Calendar day = getNoon("Europe/Paris", 2017, Calendar.NOVEMBER, 25);
+            SolarEvents events = SunriseSunset.getAllSolarEvents(day.getTimeInMillis(), 48.8, 2.35);
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+            format.setTimeZone(day.getTimeZone());
+            Assert.assertTrue(response, response.startsWith("{\"timezone\":\"Europe/Paris\",\"date\":\"20171125\",\"latitude\":48.8,\"longitude\":2.35,"));
+            assertField(response, "sunrise", "\"" + format.format(new Date(events.getSunrise())) + "\"");
+            assertField(response, "sunset", "\"" + format.format(new Date(events.getSunset())) + "\"");
+            assertField(response, "astronomicalTwilightDusk", "\"" + format.format(new Date(events.getAstronomicalTwilightDusk())) + "\"");
+            assertField(response, "solarNoon", "\"" + format.format(new Date(events.getSolarNoon())) + "\"");
+            assertField(response, "dayLength", String.valueOf(events.getSunset() - events.getSunrise()));
+
+            // Polar night.
+            response = get("http://localhost:" + server.getPort() + "/events?timezone=UTC&date=20171221&latitude=85&longitude=0", 200);
+            assertField(response, "sunrise", "null");
+            assertField(response, "dayLength", "0");
+
+            get("http://localhost:" + server.getPort() + "/events?timezone=Europe/Pari&date=20171125&latitude=48.8&longitude=2.35", 400);
+            get("http://localhost:" + server.getPort() + "/events?timezone=Europe/Paris&date=20171131&latitude=48.8&longitude=2.35", 400);
+            get("http://localhost:" + server.getPort() + "/events?timezone=Europe/Paris&date=20171125&latitude=91&longitude=2.35", 400);
+            get("http://localhost:" + server.getPort() + "/events?timezone=Europe/Paris&date=20171125&latitude=48.8", 400);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testDayPeriod() throws IOException {
+        SunriseSunsetServer server = new SunriseSunsetServer(0);
+        server.start();
+        try {
+            long time = 1500000000000L;
+            String response = get("http://localhost:" + server.getPort() + "/day-period?latitude=48.8&longitude=2.35&time=" + time, 200);
+            DayPeriodTransition transition = SunriseSunset.getNextDayPeriodTransition(time, 48.8, 2.35);
+            Assert.assertEquals("{\"latitude\":48.8,\"longitude\":2.35,\"time\":" + time
+                    + ",\"dayPeriod\":\"" + SunriseSunset.getDayPeriod(time, 48.8, 2.35).name()
+                    + "\",\"nextDayPeriod\":\"" + transition.getDayPeriod().name()
+                    + "\",\"nextDayPeriodTime\":" + transition.getTime() + "}", response);
+
+            response = get("http://localhost:" + server.getPort() + "/day-period?latitude=48.8&longitude=2.35", 200);
+            Assert.assertTrue(response, response.contains("\"dayPeriod\":\""));
+            get("http://localhost:" + server.getPort() + "/day-period?latitude=48.8&longitude=181", 400);
+            get("http://localhost:" + server.getPort() + "/day-period?latitude=48.8&longitude=2.35&time=now", 400);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testBinaryQueries() throws IOException {
+        SunriseSunsetBinaryServer server = new SunriseSunsetBinaryServer(0, 2);
+        server.start();
+        SunriseSunsetClient client = new SunriseSunsetClient("localhost", server.getPort());
+        try {
+            // More queries than the chunks in flight, so the requests are pipelined.
+            Random random = new Random(2017);
+            int count = 2000;
+            double[] latitudes = new double[count];
+            double[] longitudes = new double[count];
+            int[] epochDays = new int[count];
+            String[] timeZoneIds = new String[count];
+            for (int i = 0; i < count; i++) {
+                latitudes[i] = -90 + 180 * random.nextDouble();
+                longitudes[i] = -180 + 360 * random.nextDouble();
+                epochDays[i] = random.nextInt(50000);
+                timeZoneIds[i] = TIME_ZONE_IDS[random.nextInt(TIME_ZONE_IDS.length)];
+            }
+            long[] events = new long[count * SunriseSunsetClient.EVENT_COUNT];
+            client.query(latitudes, longitudes, epochDays, timeZoneIds, events);
+            for (int i = 0; i < count; i++) {
+                long[] expectedEvents = getExpectedEvents(latitudes[i], longitudes[i], epochDays[i], timeZoneIds[i]);
+                for (int j = 0; j < SunriseSunsetClient.EVENT_COUNT; j++) {
+                    Assert.assertEquals("Query " + i + ", event " + j, expectedEvents[j], events[i * SunriseSunsetClient.EVENT_COUNT + j]);
+                }
+            }
+
+            // An unknown time zone is rejected, and the connection can still be used.
+            timeZoneIds[1500] = "Europe/Pari";
+            try {
+                client.query(latitudes, longitudes, epochDays, timeZoneIds, events);
+                Assert.fail("Unknown time zone accepted");
+            } catch (IOException e) {
+                Assert.assertEquals("The server rejected the query 1500", e.getMessage());
+            }
+            Assert.assertArrayEquals(getExpectedEvents(48.8, 2.35, 17495, "Europe/Paris"), client.query(48.8, 2.35, 17495, "Europe/Paris"));
+        } finally {
+            client.close();
+            server.stop();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBinaryQuery() throws IOException {
+        SunriseSunsetBinaryServer server = new SunriseSunsetBinaryServer(0, 1);
+        server.start();
+        SunriseSunsetClient client = new SunriseSunsetClient("localhost", server.getPort());
+        try {
+            client.query(91, 2.35, 17495, "Europe/Paris");
+        } finally {
+            client.close();
+            server.stop();
+        }
+    }
+
+    /**
+     * @return the events of the day, in seconds, as returned by the binary protocol.
+     */
+    private static long[] getExpectedEvents(double latitude, double longitude, int epochDay, String timeZoneId) {
+        Calendar day = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        day.clear();
+        day.setTimeInMillis(epochDay * 24L * 60 * 60 * 1000);
+        day = getNoon(timeZoneId, day.get(Calendar.YEAR), day.get(Calendar.MONTH), day.get(Calendar.DAY_OF_MONTH));
+        SolarEvents events = SunriseSunset.getAllSolarEvents(day.getTimeInMillis(), latitude, longitude);
+        long[] times = {events.getSunrise(), events.getSunset(), events.getCivilTwilightDawn(), events.getCivilTwilightDusk(),
+                events.getNauticalTwilightDawn(), events.getNauticalTwilightDusk(),
+                events.getAstronomicalTwilightDawn(), events.getAstronomicalTwilightDusk(), events.getSolarNoon()};
+        for (int i = 0; i < times.length; i++) {
+            times[i] = times[i] == SunriseSunset.NO_EVENT ? SunriseSunsetClient.NO_EVENT : (long) Math.floor(times[i] / 1000.0);
+        }
+        return times;
+    }
+
+    private static Calendar getNoon(String timeZoneId, int year, int month, int dayOfMonth) {
+        Calendar day = Calendar.getInstance(TimeZone.getTimeZone(timeZoneId));
+        day.clear();
+        day.set(year, month, dayOfMonth, 12, 0, 0);
+        return day;
+    }
+
+    private static void assertField(String response, String name, String value) {
+        Assert.assertTrue(response, response.contains("\"" + name + "\":" + value + ",") || response.endsWith("\"" + name + "\":" + value + "}"));
+    }
+
+    private static String get(String url, int expectedStatus) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            Assert.assertEquals(url, expectedStatus, connection.getResponseCode());
+            Assert.assertEquals("application/json; charset=utf-8", connection.getContentType());
+            InputStream is = expectedStatus == 200 ? connection.getInputStream() : connection.getErrorStream();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = is.read(buffer)) > 0) {
+                body.write(buffer, 0, read);
+            }
+            is.close();
+            return body.toString("UTF-8");
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.cli;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Unit tests for the formatting of times in a time zone.
+ */
+public class TimeZoneFormatTest {
+
+    private static final String[] TIME_ZONE_IDS = {"UTC", "Europe/Paris", "America/Los_Angeles", "America/St_Johns",
+            "Asia/Kathmandu", "Australia/Lord_Howe", "Pacific/Apia", "Pacific/Kiritimati", "Pacific/Pago_Pago"};
+    private static final long HOUR = 60 * 60 * 1000;
+
+    @Test
+    public void testRandomTimes() {
+        Random random = new Random(2017);
+        for (String timeZoneId : TIME_ZONE_IDS) {
+            TimeZone timeZone = TimeZone.getTimeZone(timeZoneId);
+            SimpleDateFormat simpleDateFormat = createSimpleDateFormat(timeZone);
+            TimeZoneFormat timeZoneFormat = new TimeZoneFormat(timeZone);
+            // From 1950 to 2100.
+            for (int i = 0; i < 10000; i++) {
+                long timeInMillis = -631152000000L + (long) (random.nextDouble() * 4733510400000L);
+                testFormat(simpleDateFormat, timeZoneFormat, timeInMillis);
+            }
+        }
+    }
+
+    @Test
+    public void testDaylightSavingTimeChanges() {
+        for (String timeZoneId : TIME_ZONE_IDS) {
+            TimeZone timeZone = TimeZone.getTimeZone(timeZoneId);
+            SimpleDateFormat simpleDateFormat = createSimpleDateFormat(timeZone);
+            TimeZoneFormat timeZoneFormat = new TimeZoneFormat(timeZone);
+            // Around each change of offset, from 2010 to 2020.
+            for (long time = 1262304000000L; time < 1577836800000L; time += HOUR) {
+                if (timeZone.getOffset(time) != timeZone.getOffset(time + HOUR)) {
+                    for (long t = time - 1000; t <= time + HOUR + 1000; t += 1000) {
+                        testFormat(simpleDateFormat, timeZoneFormat, t);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testParseDate() {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("Europe/Paris"));
+        calendar.setLenient(false);
+        Assert.assertEquals(1498039200000L, TimeZoneFormat.parseDate("20170621", calendar));
+        Assert.assertEquals(12, calendar.get(Calendar.HOUR_OF_DAY));
+        testInvalidDate("2017062", calendar);
+        testInvalidDate("20170631", calendar);
+        testInvalidDate("2017a621", calendar);
+    }
+
+    private static SimpleDateFormat createSimpleDateFormat(TimeZone timeZone) {
+        SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+        simpleDateFormat.setTimeZone(timeZone);
+        return simpleDateFormat;
+    }
+
+    private static void testFormat(SimpleDateFormat simpleDateFormat, TimeZoneFormat timeZoneFormat, long timeInMillis) {
+        StringBuilder output = new StringBuilder();
+        timeZoneFormat.format(timeInMillis, output);
+        Assert.assertEquals(timeZoneFormat.getTimeZone().getID() + " " + timeInMillis,
+                simpleDateFormat.format(new Date(timeInMillis)), output.toString());
+    }
+
+    private static void testInvalidDate(String date, Calendar calendar) {
+        try {
+            TimeZoneFormat.parseDate(date, calendar);
+            Assert.fail("Parsed " + date);
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Invalid date " + date, e.getMessage());
+        }
+    }
+}
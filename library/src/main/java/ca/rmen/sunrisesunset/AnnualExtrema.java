@@ -0,0 +1,271 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+import java.util.Calendar;
+
+/**
+ * Finds the days of a year with the earliest or latest sunrise, sunset or solar noon, and the longest or shortest
+ * day, at a location or at many locations. <br>
+ * The times of day of these events, and the day length, are smooth curves of the day of the year, with one or two
+ * extrema. Instead of calculating the events of every day, the curve is sampled once a month, and each local extremum
+ * of the samples is refined with Brent's method on whole days (parabolic interpolation, with a golden-section step
+ * when the parabola doesn't converge): this calculates the events of about 25 to 35 days per year, instead of 365. <br>
+ * The times of day are compared in local mean solar time, which differs from the standard time of the location by a
+ * constant: the days found are the same in standard time, but daylight saving time isn't taken into account. <br>
+ * Only the days with a sunrise and a sunset are considered: {@link PolarYear} finds the polar days and nights. Above
+ * {@value #SCAN_LATITUDE} degrees of latitude, where the days with a sunrise may only last a few weeks, every day of
+ * the year is calculated.
+ *
+ * @author Carmen Alvarez
+ */
+public final class AnnualExtrema {
+
+	/**
+	 * The extremum to find.
+	 */
+	public enum Extremum {
+		EARLIEST_SUNRISE,
+		LATEST_SUNRISE,
+		EARLIEST_SUNSET,
+		LATEST_SUNSET,
+		EARLIEST_SOLAR_NOON,
+		LATEST_SOLAR_NOON,
+		LONGEST_DAY,
+		SHORTEST_DAY
+	}
+
+	/**
+	 * Above this latitude, in degrees, every day of the year is calculated.
+	 */
+	public static final double SCAN_LATITUDE = 65;
+
+	private static final long MILLISECONDS_IN_DAY = 60 * 60 * 24 * 1000;
+	// The days between two samples of the curve.
+	private static final int SAMPLE_STEP_DAYS = 30;
+	private static final double GOLDEN_SECTION = (3 - Math.sqrt(5)) / 2;
+
+	private AnnualExtrema() {
+		// Prevent instantiation of this utility class
+	}
+
+	/**
+	 * @param extremum  the extremum to find
+	 * @param year      the year, in UTC. The days which overlap the year are included.
+	 * @param latitude  the latitude of the location in degrees.
+	 * @param longitude the longitude of the location in degrees (West is negative)
+	 * @return the time, in milliseconds since 1970-01-01 UTC, of the event on the day of the extremum: the sunrise,
+	 * the sunset, or the solar noon. For the longest and shortest days, this is their solar noon. This is
+	 * {@link SunriseSunset#NO_EVENT} if the sun never rises during the year.
+	 */
+	public static long find(Extremum extremum, int year, double latitude, double longitude) {
+		final long startTime = SunriseSunsetRange.getEpochDay(year, Calendar.JANUARY, 1) * MILLISECONDS_IN_DAY;
+		final long endTime = SunriseSunsetRange.getEpochDay(year + 1, Calendar.JANUARY, 1) * MILLISECONDS_IN_DAY;
+		return find(extremum, startTime, endTime, latitude, longitude);
+	}
+
+	/**
+	 * Find the same extremum for many locations.
+	 *
+	 * @param extremum   the extremum to find
+	 * @param year       the year, in UTC. The days which overlap the year are included.
+	 * @param latitudes  the latitudes of the locations in degrees.
+	 * @param longitudes the longitudes of the locations in degrees (West is negative)
+	 * @param result     will be filled with the time of the event on the day of the extremum of each location, as
+	 *                   returned by {@link #find(Extremum, int, double, double)}. Its size must be the number of locations.
+	 */
+	public static void find(Extremum extremum, int year, double[] latitudes, double[] longitudes, long[] result) {
+		if (latitudes.length != longitudes.length || latitudes.length != result.length) {
+			throw new IllegalArgumentException("The input and result arrays must all have the same size");
+		}
+		final long startTime = SunriseSunsetRange.getEpochDay(year, Calendar.JANUARY, 1) * MILLISECONDS_IN_DAY;
+		final long endTime = SunriseSunsetRange.getEpochDay(year + 1, Calendar.JANUARY, 1) * MILLISECONDS_IN_DAY;
+		for (int i = 0; i < latitudes.length; i++) {
+			result[i] = find(extremum, startTime, endTime, latitudes[i], longitudes[i]);
+		}
+	}
+
+	private static long find(Extremum extremum, long startTime, long endTime, double latitude, double longitude) {
+		final double firstCycle = SunriseSunset.getJulianCycle(SunriseSunset.julianDateFromEpochMillis(startTime), longitude);
+		final double lastCycle = SunriseSunset.getJulianCycle(SunriseSunset.julianDateFromEpochMillis(endTime - 1), longitude);
+		final int days = (int) (lastCycle - firstCycle) + 1;
+		final double latitudeRad = Math.toRadians(latitude);
+		final double sinLatitude = Math.sin(latitudeRad);
+		final double cosLatitude = Math.cos(latitudeRad);
+
+		int bestDay = -1;
+		if (Math.abs(latitude) > SCAN_LATITUDE) {
+			double bestValue = Double.POSITIVE_INFINITY;
+			for (int day = 0; day < days; day++) {
+				final double value = getValue(extremum, firstCycle + day, longitude, sinLatitude, cosLatitude);
+				if (value < bestValue) {
+					bestDay = day;
+					bestValue = value;
+				}
+			}
+		} else {
+			// Sample the curve, including the last day.
+			double bestValue = Double.NaN;
+			final int sampleCount = (days - 1 + SAMPLE_STEP_DAYS - 1) / SAMPLE_STEP_DAYS + 1;
+			double previousValue = Double.NaN;
+			double value = getValue(extremum, firstCycle, longitude, sinLatitude, cosLatitude);
+			for (int i = 0; i < sampleCount; i++) {
+				final double nextValue = i + 1 < sampleCount
+						? getValue(extremum, firstCycle + getSampleDay(i + 1, days), longitude, sinLatitude, cosLatitude)
+						: Double.NaN;
+				// Refine each local minimum of the samples, between the samples before and after it.
+				if (!(previousValue < value) && !(nextValue < value)) {
+					final int day = findMinimum(extremum, firstCycle, longitude, sinLatitude, cosLatitude,
+							getSampleDay(Math.max(0, i - 1), days), i > 0 ? previousValue : value,
+							getSampleDay(i, days), value,
+							getSampleDay(Math.min(sampleCount - 1, i + 1), days), i + 1 < sampleCount ? nextValue : value);
+					// The values are only needed to compare several local minima.
+					if (bestDay < 0) {
+						bestDay = day;
+					} else {
+						if (Double.isNaN(bestValue)) {
+							bestValue = getValue(extremum, firstCycle + bestDay, longitude, sinLatitude, cosLatitude);
+						}
+						final double dayValue = getValue(extremum, firstCycle + day, longitude, sinLatitude, cosLatitude);
+						if (dayValue < bestValue) {
+							bestDay = day;
+							bestValue = dayValue;
+						}
+					}
+				}
+				previousValue = value;
+				value = nextValue;
+			}
+		}
+		if (bestDay < 0) {
+			return SunriseSunset.NO_EVENT;
+		}
+		return getTime(extremum, firstCycle + bestDay, longitude, sinLatitude, cosLatitude);
+	}
+
+	private static int getSampleDay(int sample, int days) {
+		return Math.min(sample * SAMPLE_STEP_DAYS, days - 1);
+	}
+
+	/**
+	 * Search the day with the minimum value between the days a and b, included, knowing the values at a, x and b.
+	 * The values must decrease, then increase, between a and b, and the value at x must not be more than the values
+	 * at a and b. <br>
+	 * This is Brent's method on whole days: the next day is the minimum of the parabola through a, x and b, or, if the
+	 * parabola doesn't shrink the interval fast enough, the golden section of the larger side of x.
+	 */
+	private static int findMinimum(Extremum extremum, double firstCycle, double longitude, double sinLatitude, double cosLatitude,
+								   int a, double fa, int x, double fx, int b, double fb) {
+		int previousWidth = Integer.MAX_VALUE;
+		while (x - a > 1 || b - x > 1) {
+			int u = a;
+			if (b - a < previousWidth / 2 + 1) {
+				final double p = (x - a) * (fx - fb);
+				final double q = (x - b) * (fx - fa);
+				final double denominator = 2 * (p - q);
+				if (denominator != 0) {
+					u = (int) Math.round(x - ((x - a) * p - (x - b) * q) / denominator);
+				}
+			}
+			previousWidth = b - a;
+			if (u <= a || u >= b || u == x) {
+				u = x - a > b - x ? x - Math.max(1, (int) Math.round(GOLDEN_SECTION * (x - a)))
+						: x + Math.max(1, (int) Math.round(GOLDEN_SECTION * (b - x)));
+			}
+			final double fu = getValue(extremum, firstCycle + u, longitude, sinLatitude, cosLatitude);
+			if (fu < fx) {
+				if (u < x) {
+					b = x;
+					fb = fx;
+				} else {
+					a = x;
+					fa = fx;
+				}
+				x = u;
+				fx = fu;
+			} else if (u < x) {
+				a = u;
+				fa = fu;
+			} else {
+				b = u;
+				fb = fu;
+			}
+		}
+		return x;
+	}
+
+	/**
+	 * @return the value to minimize for the given extremum, on the given day, or positive infinity if the sun doesn't
+	 * rise or set on that day. The times of day are in days since the mean solar noon.
+	 */
+	private static double getValue(Extremum extremum, double n, double longitude, double sinLatitude, double cosLatitude) {
+		final double jstar = SunriseSunset.getApproximateSolarNoon(n, longitude);
+		final double m = SunriseSunset.getSolarMeanAnomaly(jstar);
+		final double lambda = SunriseSunset.getEclipticLongitude(m);
+		final double delta = SunriseSunset.getDeclination(lambda);
+		final double omega = SunriseSunset.getHourAngle(SunriseSunset.SIN_SUN_ALTITUDE_SUNRISE_SUNSET,
+				sinLatitude, cosLatitude, Math.sin(delta), Math.cos(delta));
+		if (Double.isNaN(omega)) {
+			return Double.POSITIVE_INFINITY;
+		}
+		final double transit = SunriseSunset.getSolarTransit(jstar, m, lambda) - jstar;
+		final double halfDayLength = omega / (2 * Math.PI);
+		switch (extremum) {
+			case EARLIEST_SUNRISE:
+				return transit - halfDayLength;
+			case LATEST_SUNRISE:
+				return halfDayLength - transit;
+			case EARLIEST_SUNSET:
+				return transit + halfDayLength;
+			case LATEST_SUNSET:
+				return -transit - halfDayLength;
+			case EARLIEST_SOLAR_NOON:
+				return transit;
+			case LATEST_SOLAR_NOON:
+				return -transit;
+			case LONGEST_DAY:
+				return -halfDayLength;
+			default:
+				return halfDayLength;
+		}
+	}
+
+	/**
+	 * @return the time of the event of the given extremum, on the given day.
+	 */
+	private static long getTime(Extremum extremum, double n, double longitude, double sinLatitude, double cosLatitude) {
+		final double jstar = SunriseSunset.getApproximateSolarNoon(n, longitude);
+		final double m = SunriseSunset.getSolarMeanAnomaly(jstar);
+		final double lambda = SunriseSunset.getEclipticLongitude(m);
+		final double delta = SunriseSunset.getDeclination(lambda);
+		final double jtransit = SunriseSunset.getSolarTransit(jstar, m, lambda);
+		final double omega = SunriseSunset.getHourAngle(SunriseSunset.SIN_SUN_ALTITUDE_SUNRISE_SUNSET,
+				sinLatitude, cosLatitude, Math.sin(delta), Math.cos(delta));
+		switch (extremum) {
+			case EARLIEST_SUNRISE:
+			case LATEST_SUNRISE:
+				return SunriseSunset.getSunriseTime(jtransit, omega);
+			case EARLIEST_SUNSET:
+			case LATEST_SUNSET:
+				return SunriseSunset.getSunsetTime(jtransit, omega);
+			default:
+				return SunriseSunset.epochMillisFromJulianDate(jtransit);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+/**
+ * A time interval during which the period of the day at a location doesn't change, as returned by
+ * {@link DayPeriodTimeline}. <br>
+ * Instances of this class are immutable.
+ *
+ * @author Carmen Alvarez
+ */
+public final class DayPeriodInterval {
+
+	private final long startTime;
+	private final long endTime;
+	private final SunriseSunset.DayPeriod dayPeriod;
+
+	DayPeriodInterval(long startTime, long endTime, SunriseSunset.DayPeriod dayPeriod) {
+		this.startTime = startTime;
+		this.endTime = endTime;
+		this.dayPeriod = dayPeriod;
+	}
+
+	/**
+	 * @return the first millisecond of the interval, in milliseconds since 1970-01-01 UTC.
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * @return the end of the interval, excluded, in milliseconds since 1970-01-01 UTC.
+	 */
+	public long getEndTime() {
+		return endTime;
+	}
+
+	/**
+	 * @return the duration of the interval, in milliseconds.
+	 */
+	public long getDuration() {
+		return endTime - startTime;
+	}
+
+	/**
+	 * @return the period of the day during the whole interval.
+	 */
+	public SunriseSunset.DayPeriod getDayPeriod() {
+		return dayPeriod;
+	}
+
+	@Override
+	public String toString() {
+		return "DayPeriodInterval[startTime=" + startTime + ", endTime=" + endTime + ", dayPeriod=" + dayPeriod + "]";
+	}
+}
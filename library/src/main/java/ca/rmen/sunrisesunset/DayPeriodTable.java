@@ -0,0 +1,209 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * The period of the day at one location, for every minute of a time range. <br>
+ * The table is calculated once, and then {@link #getDayPeriod(long)} and {@link #isDay(long)} are array lookups,
+ * without any calculation of the sunrise equation. The period of a minute is the one returned by
+ * {@link SunriseSunset#getDayPeriod(long, double, double)} at the first millisecond of that minute. <br>
+ * Each minute takes 3 bits: a table for a year takes about 200 KB. <br>
+ * Instances of this class are immutable, and may be serialized to be reused later.
+ *
+ * @author Carmen Alvarez
+ */
+public final class DayPeriodTable implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final long MILLISECONDS_IN_MINUTE = 60 * 1000;
+	private static final int BITS_PER_MINUTE = 3;
+	private static final int MINUTES_PER_WORD = 64 / BITS_PER_MINUTE;
+	private static final long MINUTE_MASK = (1 << BITS_PER_MINUTE) - 1;
+	private static final SunriseSunset.DayPeriod[] DAY_PERIODS = SunriseSunset.DayPeriod.values();
+
+	private final double latitude;
+	private final double longitude;
+	private final long startTime;
+	private final int minutes;
+	private final long[] words;
+
+	private DayPeriodTable(double latitude, double longitude, long startTime, int minutes, long[] words) {
+		this.latitude = latitude;
+		this.longitude = longitude;
+		this.startTime = startTime;
+		this.minutes = minutes;
+		this.words = words;
+	}
+
+	/**
+	 * Calculate the table for the given location and time range. <br>
+	 * The table is filled by following the changes of the period of the day with
+	 * {@link SunriseSunset#getNextDayPeriodTransition(long, double, double)}: this calculates the sunrise equation
+	 * a few times per transition, instead of once per minute.
+	 *
+	 * @param latitude          the latitude of the location in degrees.
+	 * @param longitude         the longitude of the location in degrees (West is negative)
+	 * @param startTimeInMillis the start of the first minute of the table, in milliseconds since 1970-01-01 UTC
+	 * @param minutes           the number of minutes in the table
+	 * @return the table of the periods of the day.
+	 */
+	public static DayPeriodTable create(double latitude, double longitude, long startTimeInMillis, int minutes) {
+		if (minutes <= 0) {
+			throw new IllegalArgumentException("Invalid number of minutes: " + minutes);
+		}
+		final long[] words = new long[(minutes + MINUTES_PER_WORD - 1) / MINUTES_PER_WORD];
+		final long endTime = startTimeInMillis + minutes * MILLISECONDS_IN_MINUTE;
+		long time = startTimeInMillis;
+		SunriseSunset.DayPeriod dayPeriod = SunriseSunset.getDayPeriod(time, latitude, longitude);
+		int minute = 0;
+		while (minute < minutes) {
+			final DayPeriodTransition transition = SunriseSunset.getNextDayPeriodTransition(time, latitude, longitude);
+			final long transitionTime = transition == null ? endTime : Math.min(transition.getTime(), endTime);
+			// The minutes starting before the transition have the current period.
+			final int transitionMinute = (int) ((transitionTime - startTimeInMillis + MILLISECONDS_IN_MINUTE - 1) / MILLISECONDS_IN_MINUTE);
+			for (; minute < transitionMinute; minute++) {
+				set(words, minute, dayPeriod);
+			}
+			if (transition == null) break;
+			time = transition.getTime();
+			dayPeriod = transition.getDayPeriod();
+		}
+		return new DayPeriodTable(latitude, longitude, startTimeInMillis, minutes, words);
+	}
+
+	/**
+	 * Calculate the table for every minute of the given year.
+	 *
+	 * @param latitude  the latitude of the location in degrees.
+	 * @param longitude the longitude of the location in degrees (West is negative)
+	 * @param year      the year
+	 * @param timeZone  the time zone in which the year starts and ends
+	 * @return the table of the periods of the day.
+	 * @see #create(double, double, long, int)
+	 */
+	public static DayPeriodTable createForYear(double latitude, double longitude, int year, TimeZone timeZone) {
+		final Calendar calendar = Calendar.getInstance(timeZone);
+		calendar.clear();
+		calendar.set(year, Calendar.JANUARY, 1);
+		final long startTime = calendar.getTimeInMillis();
+		calendar.add(Calendar.YEAR, 1);
+		final long endTime = calendar.getTimeInMillis();
+		return create(latitude, longitude, startTime, (int) ((endTime - startTime) / MILLISECONDS_IN_MINUTE));
+	}
+
+	private static void set(long[] words, int minute, SunriseSunset.DayPeriod dayPeriod) {
+		final int shift = (minute % MINUTES_PER_WORD) * BITS_PER_MINUTE;
+		words[minute / MINUTES_PER_WORD] |= ((long) dayPeriod.ordinal()) << shift;
+	}
+
+	/**
+	 * @param timeInMillis a datetime, in milliseconds since 1970-01-01 UTC, between {@link #getStartTime()} included
+	 *                     and {@link #getEndTime()} excluded.
+	 * @return the period of the day at the start of the minute of the given datetime.
+	 * @throws IllegalArgumentException if the datetime is not in the time range of this table.
+	 */
+	public SunriseSunset.DayPeriod getDayPeriod(long timeInMillis) {
+		if (!contains(timeInMillis)) {
+			throw new IllegalArgumentException("Time " + timeInMillis + " is not between " + startTime + " and " + getEndTime());
+		}
+		final int minute = (int) ((timeInMillis - startTime) / MILLISECONDS_IN_MINUTE);
+		final int shift = (minute % MINUTES_PER_WORD) * BITS_PER_MINUTE;
+		return DAY_PERIODS[(int) ((words[minute / MINUTES_PER_WORD] >>> shift) & MINUTE_MASK)];
+	}
+
+	/**
+	 * @see #getDayPeriod(long)
+	 */
+	public boolean isDay(long timeInMillis) {
+		return getDayPeriod(timeInMillis) == SunriseSunset.DayPeriod.DAY;
+	}
+
+	/**
+	 * @see #getDayPeriod(long)
+	 */
+	public boolean isNight(long timeInMillis) {
+		return getDayPeriod(timeInMillis) == SunriseSunset.DayPeriod.NIGHT;
+	}
+
+	/**
+	 * @return true if it is civil, nautical, or astronomical twilight at the start of the minute of the given datetime.
+	 * @see #getDayPeriod(long)
+	 */
+	public boolean isTwilight(long timeInMillis) {
+		final SunriseSunset.DayPeriod dayPeriod = getDayPeriod(timeInMillis);
+		return dayPeriod != SunriseSunset.DayPeriod.DAY && dayPeriod != SunriseSunset.DayPeriod.NIGHT;
+	}
+
+	/**
+	 * @return true if the given datetime, in milliseconds since 1970-01-01 UTC, is in the time range of this table.
+	 */
+	public boolean contains(long timeInMillis) {
+		return timeInMillis >= startTime && timeInMillis < getEndTime();
+	}
+
+	/**
+	 * @return the latitude of the location in degrees.
+	 */
+	public double getLatitude() {
+		return latitude;
+	}
+
+	/**
+	 * @return the longitude of the location in degrees (West is negative)
+	 */
+	public double getLongitude() {
+		return longitude;
+	}
+
+	/**
+	 * @return the start of the first minute of the table, in milliseconds since 1970-01-01 UTC.
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * @return the end of the last minute of the table, excluded, in milliseconds since 1970-01-01 UTC.
+	 */
+	public long getEndTime() {
+		return startTime + minutes * MILLISECONDS_IN_MINUTE;
+	}
+
+	/**
+	 * @return the number of minutes in the table.
+	 */
+	public int getMinutes() {
+		return minutes;
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if (minutes <= 0 || words == null || words.length != (minutes + MINUTES_PER_WORD - 1) / MINUTES_PER_WORD) {
+			throw new InvalidObjectException("Invalid day period table of " + minutes + " minutes");
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The sequence of the periods of the day at a location during a time range: for example, civil twilight from 06:12
+ * to 06:44, day from 06:44 to 17:58, civil twilight from 17:58 to 18:30... <br>
+ * The intervals are ordered, contiguous, and two consecutive intervals have different periods. Their boundaries are
+ * the transitions found by {@link SunriseSunset#getNextDayPeriodTransition(long, double, double)}, so they are
+ * consistent with {@link SunriseSunset#getDayPeriod(long, double, double)}. During polar days and nights, an interval
+ * may last several months. <br>
+ * The intervals are calculated as they are iterated, and not stored: a range of many years can be iterated without
+ * keeping all its intervals in memory. Each iterator calculates them again. <br>
+ * Instances of this class are immutable, and may be shared between threads. Their iterators may not.
+ *
+ * @author Carmen Alvarez
+ */
+public final class DayPeriodTimeline implements Iterable<DayPeriodInterval> {
+
+	private static final long MILLISECONDS_IN_DAY = 60 * 60 * 24 * 1000;
+
+	private final double latitude;
+	private final double longitude;
+	private final long startTime;
+	private final long endTime;
+
+	/**
+	 * @param latitude          the latitude of the location in degrees.
+	 * @param longitude         the longitude of the location in degrees (West is negative)
+	 * @param startTimeInMillis the start of the range, in milliseconds since 1970-01-01 UTC. The first interval starts
+	 *                          at this time, even if its period started before.
+	 * @param endTimeInMillis   the end of the range, excluded, in milliseconds since 1970-01-01 UTC. The last interval
+	 *                          ends at this time, even if its period continues after.
+	 */
+	public DayPeriodTimeline(double latitude, double longitude, long startTimeInMillis, long endTimeInMillis) {
+		if (endTimeInMillis < startTimeInMillis) {
+			throw new IllegalArgumentException("The end time " + endTimeInMillis + " is before the start time " + startTimeInMillis);
+		}
+		this.latitude = latitude;
+		this.longitude = longitude;
+		this.startTime = startTimeInMillis;
+		this.endTime = endTimeInMillis;
+	}
+
+	/**
+	 * @return the latitude of the location in degrees.
+	 */
+	public double getLatitude() {
+		return latitude;
+	}
+
+	/**
+	 * @return the longitude of the location in degrees (West is negative)
+	 */
+	public double getLongitude() {
+		return longitude;
+	}
+
+	/**
+	 * @return the start of the range, in milliseconds since 1970-01-01 UTC.
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * @return the end of the range, excluded, in milliseconds since 1970-01-01 UTC.
+	 */
+	public long getEndTime() {
+		return endTime;
+	}
+
+	/**
+	 * @return an iterator over the intervals of the range, in chronological order. It doesn't support
+	 * {@link Iterator#remove()}.
+	 */
+	public Iterator<DayPeriodInterval> iterator() {
+		return new IntervalIterator();
+	}
+
+	private final class IntervalIterator implements Iterator<DayPeriodInterval> {
+		private long time = startTime;
+		private SunriseSunset.DayPeriod dayPeriod;
+
+		public boolean hasNext() {
+			return time < endTime;
+		}
+
+		public DayPeriodInterval next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			if (dayPeriod == null) {
+				dayPeriod = SunriseSunset.getDayPeriod(time, latitude, longitude);
+			}
+			final long intervalStart = time;
+			final SunriseSunset.DayPeriod intervalDayPeriod = dayPeriod;
+			while (time < endTime) {
+				final DayPeriodTransition transition = SunriseSunset.getNextDayPeriodTransition(time, latitude, longitude);
+				if (transition == null) {
+					// The period doesn't change in the searched days: continue the search after them.
+					time = Math.min(endTime, time + SunriseSunset.MAX_TRANSITION_SEARCH_DAYS * MILLISECONDS_IN_DAY);
+				} else {
+					time = Math.min(endTime, transition.getTime());
+					dayPeriod = transition.getDayPeriod();
+					break;
+				}
+			}
+			return new DayPeriodInterval(intervalStart, time, intervalDayPeriod);
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+/**
+ * A change of the period of the day at a location, as returned by
+ * {@link SunriseSunset#getNextDayPeriodTransition(long, double, double)}. <br>
+ * Instances of this class are immutable.
+ *
+ * @author Carmen Alvarez
+ */
+public final class DayPeriodTransition {
+
+	private final long time;
+	private final SunriseSunset.DayPeriod dayPeriod;
+
+	DayPeriodTransition(long time, SunriseSunset.DayPeriod dayPeriod) {
+		this.time = time;
+		this.dayPeriod = dayPeriod;
+	}
+
+	/**
+	 * @return the first millisecond of the new period, in milliseconds since 1970-01-01 UTC.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * @return the period of the day starting at {@link #getTime()}.
+	 */
+	public SunriseSunset.DayPeriod getDayPeriod() {
+		return dayPeriod;
+	}
+
+	@Override
+	public String toString() {
+		return "DayPeriodTransition[time=" + time + ", dayPeriod=" + dayPeriod + "]";
+	}
+}
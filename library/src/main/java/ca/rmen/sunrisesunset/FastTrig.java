@@ -0,0 +1,124 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+/**
+ * Polynomial approximations of the trigonometric functions used by the sunrise equation, for
+ * {@link SunriseSunsetCalculator.Precision#FAST}. <br>
+ * They are a few times faster than the {@link Math} functions, which compute correctly rounded (or almost)
+ * results for any argument. The absolute errors of these functions are:
+ * <ul>
+ * <li>{@link #sin(double)} and {@link #cos(double)}: below 1e-11 for arguments between -1000 and 1000 radians.</li>
+ * <li>{@link #acos(double)}: below 3e-8 radians.</li>
+ * </ul>
+ *
+ * @author Carmen Alvarez
+ */
+final class FastTrig {
+
+	private static final double HALF_PI = Math.PI / 2;
+	private static final double TWO_OVER_PI = 2 / Math.PI;
+
+	// Taylor series of sin and cos: the remainders are below 1e-11 on [-pi/4, pi/4].
+	private static final double S3 = -1.0 / 6;
+	private static final double S5 = 1.0 / 120;
+	private static final double S7 = -1.0 / 5040;
+	private static final double S9 = 1.0 / 362880;
+	private static final double S11 = -1.0 / 39916800;
+	private static final double C2 = -1.0 / 2;
+	private static final double C4 = 1.0 / 24;
+	private static final double C6 = -1.0 / 720;
+	private static final double C8 = 1.0 / 40320;
+	private static final double C10 = -1.0 / 3628800;
+	private static final double C12 = 1.0 / 479001600;
+
+	// Abramowitz and Stegun, Handbook of Mathematical Functions, 4.4.46: acos(x) = sqrt(1 - x) * (A0 + A1 x + ... + A7 x^7)
+	// for x in [0, 1], with an error below 2e-8.
+	private static final double A0 = 1.5707963050;
+	private static final double A1 = -0.2145988016;
+	private static final double A2 = 0.0889789874;
+	private static final double A3 = -0.0501743046;
+	private static final double A4 = 0.0308918810;
+	private static final double A5 = -0.0170881256;
+	private static final double A6 = 0.0066700901;
+	private static final double A7 = -0.0012624911;
+
+	private FastTrig() {
+		// prevent instantiation
+	}
+
+	/**
+	 * @param x an angle, in radians
+	 * @return the sine of the angle.
+	 */
+	static double sin(final double x) {
+		// x = quadrant * pi/2 + r, with r in [-pi/4, pi/4]
+		final double quadrant = Math.floor(x * TWO_OVER_PI + 0.5);
+		final double r = x - quadrant * HALF_PI;
+		switch ((int) ((long) quadrant & 3)) {
+			case 0:
+				return sinReduced(r);
+			case 1:
+				return cosReduced(r);
+			case 2:
+				return -sinReduced(r);
+			default:
+				return -cosReduced(r);
+		}
+	}
+
+	/**
+	 * @param x an angle, in radians
+	 * @return the cosine of the angle.
+	 */
+	static double cos(final double x) {
+		final double quadrant = Math.floor(x * TWO_OVER_PI + 0.5);
+		final double r = x - quadrant * HALF_PI;
+		switch ((int) ((long) quadrant & 3)) {
+			case 0:
+				return cosReduced(r);
+			case 1:
+				return -sinReduced(r);
+			case 2:
+				return -cosReduced(r);
+			default:
+				return sinReduced(r);
+		}
+	}
+
+	/**
+	 * @param x a value between -1 and 1
+	 * @return the arc cosine of the value, in radians, between 0 and pi, or NaN if the value is not between -1 and 1.
+	 */
+	static double acos(final double x) {
+		final double a = Math.abs(x);
+		final double acos = Math.sqrt(1 - a) * (A0 + a * (A1 + a * (A2 + a * (A3 + a * (A4 + a * (A5 + a * (A6 + a * A7)))))));
+		return x < 0 ? Math.PI - acos : acos;
+	}
+
+	private static double sinReduced(final double r) {
+		final double r2 = r * r;
+		return r + r * r2 * (S3 + r2 * (S5 + r2 * (S7 + r2 * (S9 + r2 * S11))));
+	}
+
+	private static double cosReduced(final double r) {
+		final double r2 = r * r;
+		return 1 + r2 * (C2 + r2 * (C4 + r2 * (C6 + r2 * (C8 + r2 * (C10 + r2 * C12)))));
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+/**
+ * A span of consecutive days during which the sun stays above, or below, an altitude for 24 hours, as returned by
+ * {@link PolarYear}: for example a polar day, a polar night, or a span without astronomical night. <br>
+ * Instances of this class are immutable.
+ *
+ * @author Carmen Alvarez
+ */
+public final class PolarPeriod {
+
+	private final long startTime;
+	private final long endTime;
+
+	PolarPeriod(long startTime, long endTime) {
+		this.startTime = startTime;
+		this.endTime = endTime;
+	}
+
+	/**
+	 * @return the start of the first day of the span, in milliseconds since 1970-01-01 UTC. The days start and end
+	 * half a day from the solar transit.
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * @return the end of the last day of the span, excluded, in milliseconds since 1970-01-01 UTC.
+	 */
+	public long getEndTime() {
+		return endTime;
+	}
+
+	/**
+	 * @return the duration of the span, in milliseconds.
+	 */
+	public long getDuration() {
+		return endTime - startTime;
+	}
+
+	@Override
+	public String toString() {
+		return "PolarPeriod[startTime=" + startTime + ", endTime=" + endTime + "]";
+	}
+}
@@ -0,0 +1,246 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * The polar days and nights of a year at a location, and more generally the days during which the sun stays above
+ * or below an altitude for 24 hours (for example, the days without astronomical night). <br>
+ * In the sunrise equation, the declination of the sun is constant during a Julian cycle (a day from half a day before
+ * a solar transit to half a day after it): whether the sun crosses an altitude during a day only depends on the
+ * declination of that day. This calculates the declination of each day of the year once, so that finding the spans
+ * doesn't need to probe the sunrise of each day, and checking a given time is a lookup. <br>
+ * The results are consistent with {@link SunriseSunset#getSunriseSunset(long, double, double, double, long[])}: a time
+ * is in a polar day or night exactly when there is no sunrise or sunset on its day. <br>
+ * Instances of this class are immutable, and may be shared between threads.
+ *
+ * @author Carmen Alvarez
+ */
+public final class PolarYear {
+
+	private static final long MILLISECONDS_IN_DAY = 60 * 60 * 24 * 1000;
+
+	private final double latitude;
+	private final double longitude;
+	private final int year;
+	private final double sinLatitude;
+	private final double cosLatitude;
+	// The Julian cycle of the first day, and the sine and cosine of the declination of each day.
+	private final double firstCycle;
+	private final double[] sinDeltas;
+	private final double[] cosDeltas;
+
+	private PolarYear(double latitude, double longitude, int year, double firstCycle, double[] sinDeltas, double[] cosDeltas) {
+		this.latitude = latitude;
+		this.longitude = longitude;
+		this.year = year;
+		final double latitudeRad = Math.toRadians(latitude);
+		this.sinLatitude = Math.sin(latitudeRad);
+		this.cosLatitude = Math.cos(latitudeRad);
+		this.firstCycle = firstCycle;
+		this.sinDeltas = sinDeltas;
+		this.cosDeltas = cosDeltas;
+	}
+
+	/**
+	 * @param latitude  the latitude of the location in degrees.
+	 * @param longitude the longitude of the location in degrees (West is negative). The days start and end half a day
+	 *                  from the solar transit, so they depend on the longitude.
+	 * @param year      the year, in UTC. The days which overlap the year are included.
+	 * @return the polar days and nights of the given year at the given location.
+	 */
+	public static PolarYear create(double latitude, double longitude, int year) {
+		final long startTime = SunriseSunsetRange.getEpochDay(year, Calendar.JANUARY, 1) * MILLISECONDS_IN_DAY;
+		final long endTime = SunriseSunsetRange.getEpochDay(year + 1, Calendar.JANUARY, 1) * MILLISECONDS_IN_DAY;
+		final double firstCycle = SunriseSunset.getJulianCycle(SunriseSunset.julianDateFromEpochMillis(startTime), longitude);
+		final double lastCycle = SunriseSunset.getJulianCycle(SunriseSunset.julianDateFromEpochMillis(endTime - 1), longitude);
+		final int days = (int) (lastCycle - firstCycle) + 1;
+		final double[] sinDeltas = new double[days];
+		final double[] cosDeltas = new double[days];
+		for (int i = 0; i < days; i++) {
+			final double m = SunriseSunset.getSolarMeanAnomaly(firstCycle + i, longitude);
+			final double delta = SunriseSunset.getDeclination(SunriseSunset.getEclipticLongitude(m));
+			sinDeltas[i] = Math.sin(delta);
+			cosDeltas[i] = Math.cos(delta);
+		}
+		return new PolarYear(latitude, longitude, year, firstCycle, sinDeltas, cosDeltas);
+	}
+
+	/**
+	 * @return the latitude of the location in degrees.
+	 */
+	public double getLatitude() {
+		return latitude;
+	}
+
+	/**
+	 * @return the longitude of the location in degrees (West is negative)
+	 */
+	public double getLongitude() {
+		return longitude;
+	}
+
+	/**
+	 * @return the year, in UTC.
+	 */
+	public int getYear() {
+		return year;
+	}
+
+	/**
+	 * @return the start of the first day, in milliseconds since 1970-01-01 UTC. This may be before the start of the
+	 * year.
+	 */
+	public long getStartTime() {
+		return getDayStart(0);
+	}
+
+	/**
+	 * @return the end of the last day, excluded, in milliseconds since 1970-01-01 UTC. This may be after the end of
+	 * the year.
+	 */
+	public long getEndTime() {
+		return getDayStart(sinDeltas.length);
+	}
+
+	/**
+	 * @param timeInMillis a datetime between {@link #getStartTime()} and {@link #getEndTime()}, in milliseconds since
+	 *                     1970-01-01 UTC
+	 * @return true if the sun doesn't set on the day of the given time.
+	 * @throws IllegalArgumentException if the time isn't in this year.
+	 */
+	public boolean isPolarDay(long timeInMillis) {
+		return isAlwaysAbove(timeInMillis, SunriseSunset.SUN_ALTITUDE_SUNRISE_SUNSET);
+	}
+
+	/**
+	 * @param timeInMillis a datetime between {@link #getStartTime()} and {@link #getEndTime()}, in milliseconds since
+	 *                     1970-01-01 UTC
+	 * @return true if the sun doesn't rise on the day of the given time.
+	 * @throws IllegalArgumentException if the time isn't in this year.
+	 */
+	public boolean isPolarNight(long timeInMillis) {
+		return isAlwaysBelow(timeInMillis, SunriseSunset.SUN_ALTITUDE_SUNRISE_SUNSET);
+	}
+
+	/**
+	 * @param timeInMillis a datetime between {@link #getStartTime()} and {@link #getEndTime()}, in milliseconds since
+	 *                     1970-01-01 UTC
+	 * @param sunAltitude  the altitude of the sun, in degrees. For example,
+	 *                     {@link SunriseSunset#SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT} to check if there is no night.
+	 * @return true if the sun stays above the given altitude during the whole day of the given time.
+	 * @throws IllegalArgumentException if the time isn't in this year.
+	 */
+	public boolean isAlwaysAbove(long timeInMillis, double sunAltitude) {
+		return getCosHourAngle(getDayIndex(timeInMillis), Math.sin(Math.toRadians(sunAltitude))) < -1;
+	}
+
+	/**
+	 * @param timeInMillis a datetime between {@link #getStartTime()} and {@link #getEndTime()}, in milliseconds since
+	 *                     1970-01-01 UTC
+	 * @param sunAltitude  the altitude of the sun, in degrees.
+	 * @return true if the sun stays below the given altitude during the whole day of the given time.
+	 * @throws IllegalArgumentException if the time isn't in this year.
+	 */
+	public boolean isAlwaysBelow(long timeInMillis, double sunAltitude) {
+		return getCosHourAngle(getDayIndex(timeInMillis), Math.sin(Math.toRadians(sunAltitude))) > 1;
+	}
+
+	/**
+	 * @return the spans of days during which the sun doesn't set, in chronological order.
+	 */
+	public PolarPeriod[] getPolarDays() {
+		return getPeriodsAbove(SunriseSunset.SUN_ALTITUDE_SUNRISE_SUNSET);
+	}
+
+	/**
+	 * @return the spans of days during which the sun doesn't rise, in chronological order.
+	 */
+	public PolarPeriod[] getPolarNights() {
+		return getPeriodsBelow(SunriseSunset.SUN_ALTITUDE_SUNRISE_SUNSET);
+	}
+
+	/**
+	 * @param sunAltitude the altitude of the sun, in degrees.
+	 * @return the spans of days during which the sun stays above the given altitude, in chronological order.
+	 */
+	public PolarPeriod[] getPeriodsAbove(double sunAltitude) {
+		return getPeriods(Math.sin(Math.toRadians(sunAltitude)), true);
+	}
+
+	/**
+	 * @param sunAltitude the altitude of the sun, in degrees.
+	 * @return the spans of days during which the sun stays below the given altitude, in chronological order.
+	 */
+	public PolarPeriod[] getPeriodsBelow(double sunAltitude) {
+		return getPeriods(Math.sin(Math.toRadians(sunAltitude)), false);
+	}
+
+	private PolarPeriod[] getPeriods(double sinSunAltitude, boolean above) {
+		final List<PolarPeriod> periods = new ArrayList<PolarPeriod>();
+		int start = -1;
+		for (int i = 0; i <= sinDeltas.length; i++) {
+			final boolean inPeriod;
+			if (i == sinDeltas.length) {
+				inPeriod = false;
+			} else {
+				final double cosHourAngle = getCosHourAngle(i, sinSunAltitude);
+				inPeriod = above ? cosHourAngle < -1 : cosHourAngle > 1;
+			}
+			if (inPeriod && start < 0) {
+				start = i;
+			} else if (!inPeriod && start >= 0) {
+				periods.add(new PolarPeriod(getDayStart(start), getDayStart(i)));
+				start = -1;
+			}
+		}
+		return periods.toArray(new PolarPeriod[periods.size()]);
+	}
+
+	private double getCosHourAngle(int dayIndex, double sinSunAltitude) {
+		return SunriseSunset.getCosHourAngle(sinSunAltitude, sinLatitude, cosLatitude, sinDeltas[dayIndex], cosDeltas[dayIndex]);
+	}
+
+	private int getDayIndex(long timeInMillis) {
+		final double dayIndex = getJulianCycle(timeInMillis) - firstCycle;
+		if (dayIndex < 0 || dayIndex >= sinDeltas.length) {
+			throw new IllegalArgumentException("The time " + timeInMillis + " isn't in the year " + year);
+		}
+		return (int) dayIndex;
+	}
+
+	/**
+	 * @return the first millisecond of the given day.
+	 */
+	private long getDayStart(int dayIndex) {
+		final double cycle = firstCycle + dayIndex;
+		long dayStart = SunriseSunset.epochMillisFromJulianDate(SunriseSunset.getJulianCycleStart(cycle, longitude));
+		// The start of the cycle is rounded to the millisecond: it may be a millisecond off.
+		while (getJulianCycle(dayStart) < cycle) dayStart++;
+		while (getJulianCycle(dayStart - 1) >= cycle) dayStart--;
+		return dayStart;
+	}
+
+	private double getJulianCycle(long timeInMillis) {
+		return SunriseSunset.getJulianCycle(SunriseSunset.julianDateFromEpochMillis(timeInMillis), longitude);
+	}
+}
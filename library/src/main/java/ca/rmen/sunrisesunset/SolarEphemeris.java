@@ -0,0 +1,401 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A table of the solar events of many locations for many days, precalculated in a file. <br>
+ * The file is written once by {@link #write(File, double[], double[], int, int)}. {@link #open(File)} memory-maps it,
+ * without reading it: a query reads only the record of one location and one day, at a position calculated from the
+ * location and the day. Opening even a very large file is fast, and the pages of the file are loaded by the
+ * operating system as they are used. <br>
+ * The times are precise to the second. <br>
+ * Instances of this class are immutable, and may be shared between threads.
+ *
+ * @author Carmen Alvarez
+ */
+public final class SolarEphemeris {
+
+	private static final int MAGIC = 0x50455353; // "SSEP" in little endian
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 20;
+	private static final int LOCATION_SIZE = 16;
+	private static final int RECORD_SIZE = 12;
+	private static final int BUFFER_SIZE = RECORD_SIZE * 4096;
+	private static final long SECONDS_IN_DAY = 86400;
+	// A mapped buffer can't be larger than 2 GB: the records are mapped in several segments.
+	private static final int RECORDS_PER_SEGMENT = Integer.MAX_VALUE / RECORD_SIZE;
+	// The half durations of the events which don't occur.
+	private static final int NO_HALF_DURATION = 0xFFFF;
+
+	private static final double[] SIN_SUN_ALTITUDES = {
+			SunriseSunset.SIN_SUN_ALTITUDE_SUNRISE_SUNSET,
+			SunriseSunset.SIN_SUN_ALTITUDE_CIVIL_TWILIGHT,
+			SunriseSunset.SIN_SUN_ALTITUDE_NAUTICAL_TWILIGHT,
+			SunriseSunset.SIN_SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT};
+	private static final int SUNRISE_SUNSET = 0;
+	private static final int CIVIL_TWILIGHT = 1;
+	private static final int NAUTICAL_TWILIGHT = 2;
+	private static final int ASTRONOMICAL_TWILIGHT = 3;
+
+	private final double[] latitudes;
+	private final double[] longitudes;
+	private final int firstEpochDay;
+	private final int days;
+	private final MappedByteBuffer[] segments;
+
+	private SolarEphemeris(double[] latitudes, double[] longitudes, int firstEpochDay, int days, MappedByteBuffer[] segments) {
+		this.latitudes = latitudes;
+		this.longitudes = longitudes;
+		this.firstEpochDay = firstEpochDay;
+		this.days = days;
+		this.segments = segments;
+	}
+
+	/**
+	 * Calculate the solar events of the given locations and days, and write them to a file. The format is, in
+	 * little endian:
+	 * <ul>
+	 * <li>The header:
+	 * <ul>
+	 * <li>int: the magic number 0x50455353 (the bytes "SSEP" in ASCII)</li>
+	 * <li>int: the version of the format: 1</li>
+	 * <li>int: the number of locations</li>
+	 * <li>int: the first day, in days since 1970-01-01</li>
+	 * <li>int: the number of days</li>
+	 * </ul>
+	 * </li>
+	 * <li>For each location, two doubles: the latitude and the longitude</li>
+	 * <li>For each location, for each day, a record of 12 bytes:
+	 * <ul>
+	 * <li>int: the solar transit, in seconds since the local mean midnight of the day. The local mean midnight is
+	 * the UTC midnight of the day, minus 240 seconds per degree of longitude, rounded to the second.</li>
+	 * <li>4 unsigned shorts: the number of seconds between the solar transit and the sunset, civil twilight dusk,
+	 * nautical twilight dusk and astronomical twilight dusk. The sunrise and the dawns are as long before the
+	 * transit. 0xFFFF if the event doesn't occur.</li>
+	 * </ul>
+	 * </li>
+	 * </ul>
+	 *
+	 * @param file          the file to write
+	 * @param latitudes     the latitudes of the locations, in degrees
+	 * @param longitudes    the longitudes of the locations, in degrees (West is negative)
+	 * @param firstEpochDay the first day, in days since 1970-01-01
+	 * @param days          the number of days
+	 * @throws IOException if the file couldn't be written.
+	 */
+	public static void write(File file, double[] latitudes, double[] longitudes, int firstEpochDay, int days) throws IOException {
+		if (latitudes.length != longitudes.length) {
+			throw new IllegalArgumentException("Got " + latitudes.length + " latitudes and " + longitudes.length + " longitudes");
+		}
+		if (days <= 0) {
+			throw new IllegalArgumentException("Invalid number of days: " + days);
+		}
+		final FileOutputStream os = new FileOutputStream(file);
+		try {
+			final FileChannel channel = os.getChannel();
+			final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + LOCATION_SIZE * latitudes.length).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(latitudes.length).putInt(firstEpochDay).putInt(days);
+			for (int location = 0; location < latitudes.length; location++) {
+				header.putDouble(latitudes[location]).putDouble(longitudes[location]);
+			}
+			header.flip();
+			writeFully(channel, header);
+
+			final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			for (int location = 0; location < latitudes.length; location++) {
+				final double latitudeRad = Math.toRadians(latitudes[location]);
+				final double sinLatitude = Math.sin(latitudeRad);
+				final double cosLatitude = Math.cos(latitudeRad);
+				for (int day = 0; day < days; day++) {
+					if (buffer.remaining() < RECORD_SIZE) {
+						buffer.flip();
+						writeFully(channel, buffer);
+						buffer.clear();
+					}
+					putRecord(buffer, longitudes[location], sinLatitude, cosLatitude, firstEpochDay + day);
+				}
+			}
+			buffer.flip();
+			writeFully(channel, buffer);
+		} finally {
+			os.close();
+		}
+	}
+
+	/**
+	 * @return the number of seconds between the UTC midnight and the local mean midnight of a day, at the given
+	 * longitude.
+	 */
+	private static long getReferenceOffset(double longitude) {
+		return -Math.round(longitude * SECONDS_IN_DAY / 360);
+	}
+
+	private static void putRecord(ByteBuffer buffer, double longitude, double sinLatitude, double cosLatitude, int epochDay) {
+		// The events of a day at a location are the ones of the Julian cycle around UTC noon: its solar transit is
+		// around the local noon.
+		final long referenceTime = (epochDay * SECONDS_IN_DAY + getReferenceOffset(longitude)) * 1000;
+		final double n = SunriseSunset.getJulianCycle(SunriseSunset.julianDateFromEpochMillis(epochDay * SECONDS_IN_DAY * 1000 + 43200000), longitude);
+		final SunriseSunset.SolarEquationVariables solarEquationVariables = SunriseSunset.getSolarEquationVariablesForJulianCycle(n, longitude);
+		final double jtransit = solarEquationVariables.jtransit;
+		final double sinDelta = Math.sin(solarEquationVariables.delta);
+		final double cosDelta = Math.cos(solarEquationVariables.delta);
+
+		final long transit = SunriseSunset.epochMillisFromJulianDate(jtransit);
+		buffer.putInt((int) Math.round((transit - referenceTime) / 1000.0));
+		for (double sinSunAltitude : SIN_SUN_ALTITUDES) {
+			final double omega = SunriseSunset.getHourAngle(sinSunAltitude, sinLatitude, cosLatitude, sinDelta, cosDelta);
+			if (Double.isNaN(omega)) {
+				buffer.putShort((short) NO_HALF_DURATION);
+			} else {
+				final long sunset = SunriseSunset.getSunsetTime(jtransit, omega);
+				buffer.putShort((short) Math.round((sunset - transit) / 1000.0));
+			}
+		}
+	}
+
+	/**
+	 * Open a file written by {@link #write(File, double[], double[], int, int)}. The file is memory-mapped: only the
+	 * header and the locations are read.
+	 *
+	 * @throws IOException if the file couldn't be read, or isn't a solar ephemeris file.
+	 */
+	public static SolarEphemeris open(File file) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = raf.getChannel();
+			final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			readFully(channel, header, 0);
+			header.flip();
+			if (header.getInt() != MAGIC) {
+				throw new IOException("Not a solar ephemeris");
+			}
+			final int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported solar ephemeris version " + version);
+			}
+			final int locationCount = header.getInt();
+			final int firstEpochDay = header.getInt();
+			final int days = header.getInt();
+			if (locationCount < 0 || days <= 0) {
+				throw new IOException("Invalid solar ephemeris of " + locationCount + " locations and " + days + " days");
+			}
+
+			final ByteBuffer locations = ByteBuffer.allocate(LOCATION_SIZE * locationCount).order(ByteOrder.LITTLE_ENDIAN);
+			readFully(channel, locations, HEADER_SIZE);
+			locations.flip();
+			final double[] latitudes = new double[locationCount];
+			final double[] longitudes = new double[locationCount];
+			for (int location = 0; location < locationCount; location++) {
+				latitudes[location] = locations.getDouble();
+				longitudes[location] = locations.getDouble();
+			}
+
+			final long recordsStart = HEADER_SIZE + (long) LOCATION_SIZE * locationCount;
+			final long recordCount = (long) locationCount * days;
+			if (channel.size() != recordsStart + recordCount * RECORD_SIZE) {
+				throw new IOException("Unexpected size of solar ephemeris: " + channel.size());
+			}
+			final MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((recordCount + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT)];
+			for (int i = 0; i < segments.length; i++) {
+				final long firstRecord = (long) i * RECORDS_PER_SEGMENT;
+				final long segmentRecords = Math.min(RECORDS_PER_SEGMENT, recordCount - firstRecord);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, recordsStart + firstRecord * RECORD_SIZE,
+						segmentRecords * RECORD_SIZE);
+				segments[i].order(ByteOrder.LITTLE_ENDIAN);
+			}
+			// The mapping stays valid after the channel is closed.
+			return new SolarEphemeris(latitudes, longitudes, firstEpochDay, days, segments);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * @return the number of locations in the table.
+	 */
+	public int getLocationCount() {
+		return latitudes.length;
+	}
+
+	/**
+	 * @return the latitude of the location with the given index, in degrees.
+	 */
+	public double getLatitude(int location) {
+		return latitudes[location];
+	}
+
+	/**
+	 * @return the longitude of the location with the given index, in degrees (West is negative)
+	 */
+	public double getLongitude(int location) {
+		return longitudes[location];
+	}
+
+	/**
+	 * @return the first day of the table, in days since 1970-01-01.
+	 */
+	public int getFirstEpochDay() {
+		return firstEpochDay;
+	}
+
+	/**
+	 * @return the number of days in the table.
+	 */
+	public int getDays() {
+		return days;
+	}
+
+	/**
+	 * @param location the index of the location
+	 * @param epochDay the day, in days since 1970-01-01
+	 * @param sunriseSunset a two-element array, which will be filled with the sunrise and sunset,
+	 *                      in milliseconds since 1970-01-01 UTC.
+	 * @return true if there is a sunrise and sunset on the given day, false otherwise.
+	 * @see SunriseSunset#getSunriseSunset(long, double, double, long[])
+	 */
+	public boolean getSunriseSunset(int location, int epochDay, long[] sunriseSunset) {
+		return getEvents(location, epochDay, SUNRISE_SUNSET, sunriseSunset);
+	}
+
+	/**
+	 * @see #getSunriseSunset(int, int, long[])
+	 * @see SunriseSunset#getCivilTwilight(long, double, double, long[])
+	 */
+	public boolean getCivilTwilight(int location, int epochDay, long[] civilTwilight) {
+		return getEvents(location, epochDay, CIVIL_TWILIGHT, civilTwilight);
+	}
+
+	/**
+	 * @see #getSunriseSunset(int, int, long[])
+	 * @see SunriseSunset#getNauticalTwilight(long, double, double, long[])
+	 */
+	public boolean getNauticalTwilight(int location, int epochDay, long[] nauticalTwilight) {
+		return getEvents(location, epochDay, NAUTICAL_TWILIGHT, nauticalTwilight);
+	}
+
+	/**
+	 * @see #getSunriseSunset(int, int, long[])
+	 * @see SunriseSunset#getAstronomicalTwilight(long, double, double, long[])
+	 */
+	public boolean getAstronomicalTwilight(int location, int epochDay, long[] astronomicalTwilight) {
+		return getEvents(location, epochDay, ASTRONOMICAL_TWILIGHT, astronomicalTwilight);
+	}
+
+	/**
+	 * @param location the index of the location
+	 * @param epochDay the day, in days since 1970-01-01
+	 * @return the solar noon, in milliseconds since 1970-01-01 UTC, or {@link SunriseSunset#NO_EVENT} if there is no
+	 * sunrise on that day.
+	 * @see SunriseSunset#getSolarNoon(long, double, double)
+	 */
+	public long getSolarNoon(int location, int epochDay) {
+		final long record = getRecordPosition(location, epochDay);
+		if (getHalfDuration(record, SUNRISE_SUNSET) == NO_HALF_DURATION) {
+			return SunriseSunset.NO_EVENT;
+		}
+		return getTransit(location, epochDay, record);
+	}
+
+	/**
+	 * @param location the index of the location
+	 * @param epochDay the day, in days since 1970-01-01
+	 * @return all the solar events of the given location and day.
+	 * @see SunriseSunset#getAllSolarEvents(long, double, double)
+	 */
+	public SolarEvents getAllSolarEvents(int location, int epochDay) {
+		final long record = getRecordPosition(location, epochDay);
+		final long transit = getTransit(location, epochDay, record);
+		final long[] events = new long[8];
+		for (int i = 0; i < SIN_SUN_ALTITUDES.length; i++) {
+			final int halfDuration = getHalfDuration(record, i);
+			events[2 * i] = halfDuration == NO_HALF_DURATION ? SunriseSunset.NO_EVENT : transit - halfDuration * 1000L;
+			events[2 * i + 1] = halfDuration == NO_HALF_DURATION ? SunriseSunset.NO_EVENT : transit + halfDuration * 1000L;
+		}
+		return new SolarEvents(events[0], events[1], events[2], events[3], events[4], events[5], events[6], events[7],
+				events[0] == SunriseSunset.NO_EVENT ? SunriseSunset.NO_EVENT : transit);
+	}
+
+	private boolean getEvents(int location, int epochDay, int altitude, long[] events) {
+		final long record = getRecordPosition(location, epochDay);
+		final int halfDuration = getHalfDuration(record, altitude);
+		if (halfDuration == NO_HALF_DURATION) {
+			return false;
+		}
+		final long transit = getTransit(location, epochDay, record);
+		events[0] = transit - halfDuration * 1000L;
+		events[1] = transit + halfDuration * 1000L;
+		return true;
+	}
+
+	/**
+	 * @return the position of the record of the given location and day, in all the records.
+	 */
+	private long getRecordPosition(int location, int epochDay) {
+		if (location < 0 || location >= latitudes.length) {
+			throw new IllegalArgumentException("Invalid location " + location);
+		}
+		final int day = epochDay - firstEpochDay;
+		if (day < 0 || day >= days) {
+			throw new IllegalArgumentException("Day " + epochDay + " is not between " + firstEpochDay + " and " + (firstEpochDay + days - 1));
+		}
+		return (long) location * days + day;
+	}
+
+	private long getTransit(int location, int epochDay, long record) {
+		final long referenceTime = (epochDay * SECONDS_IN_DAY + getReferenceOffset(longitudes[location])) * 1000;
+		return referenceTime + getSegment(record).getInt(getOffset(record)) * 1000L;
+	}
+
+	private int getHalfDuration(long record, int altitude) {
+		return getSegment(record).getShort(getOffset(record) + 4 + 2 * altitude) & 0xFFFF;
+	}
+
+	private MappedByteBuffer getSegment(long record) {
+		return segments[(int) (record / RECORDS_PER_SEGMENT)];
+	}
+
+	private static int getOffset(long record) {
+		return (int) (record % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			final int read = channel.read(buffer, position);
+			if (read < 0) {
+				throw new IOException("Unexpected end of solar ephemeris");
+			}
+			position += read;
+		}
+	}
+}
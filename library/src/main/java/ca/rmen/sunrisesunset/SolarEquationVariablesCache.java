@@ -0,0 +1,250 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, thread-safe cache of the intermediate variables of the sunrise equation (solar mean anomaly,
+ * ecliptic longitude, solar transit and declination of the sun). <br>
+ * These variables only depend on the Julian cycle (the day) and the longitude, so when the same locations are
+ * queried repeatedly for the same days, most of the trigonometry can be skipped. <br>
+ * The longitudes are quantized: all the longitudes which round to the same multiple of the longitude resolution
+ * share the same entry, calculated for that multiple. The results don't depend on the order of the queries, and
+ * differ from the results without a cache by at most half the longitude resolution, times 240 seconds per degree. <br>
+ * Set a cache with {@link SunriseSunset#setSolarEquationVariablesCache(SolarEquationVariablesCache)}.
+ *
+ * @author Carmen Alvarez
+ */
+public final class SolarEquationVariablesCache {
+
+	/**
+	 * How to choose the entry to remove when the cache is full.
+	 */
+	public enum EvictionPolicy {
+		/**
+		 * Remove the least recently used entry. Every lookup takes a lock.
+		 */
+		LRU,
+		/**
+		 * Remove an entry which hasn't been used since the last time the clock hand went over it. This approximates
+		 * LRU, but hits don't take a lock.
+		 */
+		CLOCK
+	}
+
+	/**
+	 * The default longitude resolution, in degrees. This is about 1 cm at the equator.
+	 */
+	public static final double DEFAULT_LONGITUDE_RESOLUTION = 0.0000001;
+
+	private final int maxSize;
+	private final EvictionPolicy evictionPolicy;
+	private final double longitudeResolution;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	// Used for LRU
+	private final LinkedHashMap<Long, SunriseSunset.SolarEquationVariables> lruMap;
+
+	// Used for CLOCK
+	private final ConcurrentHashMap<Long, ClockEntry> clockMap;
+	private final ClockEntry[] clockEntries;
+	private int clockHand;
+	private int clockSize;
+
+	private static final class ClockEntry {
+		final long key;
+		final SunriseSunset.SolarEquationVariables solarEquationVariables;
+		volatile boolean referenced;
+
+		private ClockEntry(long key, SunriseSunset.SolarEquationVariables solarEquationVariables) {
+			this.key = key;
+			this.solarEquationVariables = solarEquationVariables;
+		}
+	}
+
+	/**
+	 * Create a LRU cache with the default longitude resolution.
+	 *
+	 * @param maxSize the maximum number of entries in the cache.
+	 */
+	public SolarEquationVariablesCache(int maxSize) {
+		this(maxSize, EvictionPolicy.LRU, DEFAULT_LONGITUDE_RESOLUTION);
+	}
+
+	/**
+	 * @param maxSize             the maximum number of entries in the cache.
+	 * @param evictionPolicy      how to choose the entry to remove when the cache is full.
+	 * @param longitudeResolution the longitudes which round to the same multiple of this value, in degrees, share
+	 *                            the same entry.
+	 * @throws IllegalArgumentException if maxSize isn't positive, or if the longitude resolution is too small.
+	 */
+	public SolarEquationVariablesCache(final int maxSize, EvictionPolicy evictionPolicy, double longitudeResolution) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("The maximum size must be positive: " + maxSize);
+		}
+		if (!(longitudeResolution > 0) || 180 / longitudeResolution > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid longitude resolution: " + longitudeResolution);
+		}
+		this.maxSize = maxSize;
+		this.evictionPolicy = evictionPolicy;
+		this.longitudeResolution = longitudeResolution;
+		if (evictionPolicy == EvictionPolicy.LRU) {
+			lruMap = new LinkedHashMap<Long, SunriseSunset.SolarEquationVariables>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Long, SunriseSunset.SolarEquationVariables> eldest) {
+					return size() > maxSize;
+				}
+			};
+			clockMap = null;
+			clockEntries = null;
+		} else {
+			lruMap = null;
+			clockMap = new ConcurrentHashMap<Long, ClockEntry>();
+			clockEntries = new ClockEntry[maxSize];
+		}
+	}
+
+	/**
+	 * @param n         the Julian cycle
+	 * @param longitude the longitude of the location in degrees (West is negative)
+	 * @return the intermediate variables of the sunrise equation, from the cache if they are there.
+	 */
+	SunriseSunset.SolarEquationVariables get(double n, double longitude) {
+		final double scaledLongitude = longitude / longitudeResolution;
+		// The index of the longitude is an int: the longitudes beyond its range, and NaN, aren't cached.
+		if (!(Math.abs(scaledLongitude) < Integer.MAX_VALUE)) {
+			return SunriseSunset.getSolarEquationVariablesForJulianCycle(n, longitude);
+		}
+		final int longitudeIndex = (int) Math.round(scaledLongitude);
+		final Long key = ((long) n << 32) | (longitudeIndex & 0xFFFFFFFFL);
+		final double quantizedLongitude = longitudeIndex * longitudeResolution;
+		if (evictionPolicy == EvictionPolicy.LRU) {
+			SunriseSunset.SolarEquationVariables solarEquationVariables;
+			synchronized (lruMap) {
+				solarEquationVariables = lruMap.get(key);
+			}
+			if (solarEquationVariables != null) {
+				hitCount.incrementAndGet();
+				return solarEquationVariables;
+			}
+			missCount.incrementAndGet();
+			solarEquationVariables = SunriseSunset.getSolarEquationVariablesForJulianCycle(n, quantizedLongitude);
+			synchronized (lruMap) {
+				lruMap.put(key, solarEquationVariables);
+			}
+			return solarEquationVariables;
+		}
+
+		ClockEntry entry = clockMap.get(key);
+		if (entry != null) {
+			if (!entry.referenced) entry.referenced = true;
+			hitCount.incrementAndGet();
+			return entry.solarEquationVariables;
+		}
+		missCount.incrementAndGet();
+		entry = new ClockEntry(key, SunriseSunset.getSolarEquationVariablesForJulianCycle(n, quantizedLongitude));
+		synchronized (clockEntries) {
+			// Another thread may have added it in the meantime.
+			final ClockEntry existingEntry = clockMap.get(key);
+			if (existingEntry != null) {
+				return existingEntry.solarEquationVariables;
+			}
+			if (clockSize < maxSize) {
+				clockEntries[clockSize++] = entry;
+			} else {
+				// Give a second chance to the entries which were used since the hand last went over them.
+				while (clockEntries[clockHand].referenced) {
+					clockEntries[clockHand].referenced = false;
+					clockHand = (clockHand + 1) % maxSize;
+				}
+				clockMap.remove(clockEntries[clockHand].key);
+				clockEntries[clockHand] = entry;
+				clockHand = (clockHand + 1) % maxSize;
+			}
+			clockMap.put(key, entry);
+		}
+		return entry.solarEquationVariables;
+	}
+
+	/**
+	 * @return the number of entries in the cache.
+	 */
+	public int size() {
+		if (evictionPolicy == EvictionPolicy.LRU) {
+			synchronized (lruMap) {
+				return lruMap.size();
+			}
+		}
+		return clockMap.size();
+	}
+
+	/**
+	 * @return the maximum number of entries in the cache.
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public EvictionPolicy getEvictionPolicy() {
+		return evictionPolicy;
+	}
+
+	/**
+	 * @return the number of lookups which found their entry in the cache.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the number of lookups which didn't find their entry in the cache.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Remove all the entries and reset the hit and miss counts.
+	 */
+	public void clear() {
+		if (evictionPolicy == EvictionPolicy.LRU) {
+			synchronized (lruMap) {
+				lruMap.clear();
+			}
+		} else {
+			synchronized (clockEntries) {
+				clockMap.clear();
+				for (int i = 0; i < clockEntries.length; i++) {
+					clockEntries[i] = null;
+				}
+				clockSize = 0;
+				clockHand = 0;
+			}
+		}
+		hitCount.set(0);
+		missCount.set(0);
+	}
+}
@@ -0,0 +1,407 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Notifies listeners when solar events (sunrise, sunset, and the dawns and dusks of the twilights) occur at
+ * registered locations. <br>
+ * Only the next event of each registration is calculated, when it is registered and after each event. The
+ * registrations are kept in a priority queue ordered by the time of their next event, and a dispatcher thread
+ * waits for the earliest one. The listeners are called on an {@link Executor}: with a bounded executor such as
+ * the one created by {@link #newBoundedExecutor(int, int)}, the dispatcher thread slows down when the listeners
+ * can't keep up, instead of queueing an unbounded number of notifications.
+ *
+ * @author Carmen Alvarez
+ */
+public final class SolarEventScheduler {
+
+	/**
+	 * The solar events which can be scheduled.
+	 */
+	public enum EventType {
+		SUNRISE(SunriseSunset.SUN_ALTITUDE_SUNRISE_SUNSET, true),
+		SUNSET(SunriseSunset.SUN_ALTITUDE_SUNRISE_SUNSET, false),
+		CIVIL_TWILIGHT_DAWN(SunriseSunset.SUN_ALTITUDE_CIVIL_TWILIGHT, true),
+		CIVIL_TWILIGHT_DUSK(SunriseSunset.SUN_ALTITUDE_CIVIL_TWILIGHT, false),
+		NAUTICAL_TWILIGHT_DAWN(SunriseSunset.SUN_ALTITUDE_NAUTICAL_TWILIGHT, true),
+		NAUTICAL_TWILIGHT_DUSK(SunriseSunset.SUN_ALTITUDE_NAUTICAL_TWILIGHT, false),
+		ASTRONOMICAL_TWILIGHT_DAWN(SunriseSunset.SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT, true),
+		ASTRONOMICAL_TWILIGHT_DUSK(SunriseSunset.SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT, false);
+
+		private final double sunAltitude;
+		private final boolean isDawn;
+
+		EventType(double sunAltitude, boolean isDawn) {
+			this.sunAltitude = sunAltitude;
+			this.isDawn = isDawn;
+		}
+
+		/**
+		 * @return the altitude the sun crosses at this event.
+		 */
+		public double getSunAltitude() {
+			return sunAltitude;
+		}
+
+		/**
+		 * @return true if the sun rises above the altitude at this event, false if it sets below it.
+		 */
+		public boolean isDawn() {
+			return isDawn;
+		}
+	}
+
+	/**
+	 * Notified of the events of a registration.
+	 */
+	public interface Listener {
+		/**
+		 * Called on the executor of the scheduler, once the event has occurred. An exception thrown by the listener
+		 * is passed to the uncaught exception handler of the thread which called it, and doesn't stop the scheduler.
+		 *
+		 * @param registration the registration of the location
+		 * @param eventType    the event which occurred
+		 * @param timeInMillis the time of the event, in milliseconds since 1970-01-01 UTC.
+		 */
+		void onSolarEvent(Registration registration, EventType eventType, long timeInMillis);
+	}
+
+	/**
+	 * The source of the current time of the scheduler.
+	 */
+	public interface Clock {
+		/**
+		 * @return the current time, in milliseconds since 1970-01-01 UTC.
+		 */
+		long currentTimeMillis();
+	}
+
+	/**
+	 * A location registered with {@link #register(double, double, Set, Listener)}.
+	 */
+	public static final class Registration {
+		private final double latitude;
+		private final double longitude;
+		private final EventType[] eventTypes;
+		private final Listener listener;
+		private final long[] sunriseSunset = new long[2];
+		private volatile boolean isCancelled;
+		// Only modified while the registration isn't in the queue, since the queue is ordered by the next event time.
+		private volatile long nextEventTime = SunriseSunset.NO_EVENT;
+		private volatile EventType nextEventType;
+
+		private Registration(double latitude, double longitude, Set<EventType> eventTypes, Listener listener) {
+			this.latitude = latitude;
+			this.longitude = longitude;
+			this.eventTypes = eventTypes.toArray(new EventType[eventTypes.size()]);
+			this.listener = listener;
+		}
+
+		public double getLatitude() {
+			return latitude;
+		}
+
+		public double getLongitude() {
+			return longitude;
+		}
+
+		/**
+		 * @return the time of the next event of this registration, in milliseconds since 1970-01-01 UTC, or
+		 * {@link SunriseSunset#NO_EVENT} if it is cancelled or none of its events occur in the next
+		 * {@value SunriseSunset#MAX_TRANSITION_SEARCH_DAYS} days.
+		 */
+		public long getNextEventTime() {
+			return isCancelled ? SunriseSunset.NO_EVENT : nextEventTime;
+		}
+
+		/**
+		 * @return the type of the next event of this registration, or null.
+		 */
+		public EventType getNextEventType() {
+			return isCancelled ? null : nextEventType;
+		}
+
+		/**
+		 * Stop notifying the listener of this registration. An event already being dispatched may still be notified.
+		 */
+		public void cancel() {
+			// The registration is removed from the queue by the dispatcher thread, when it reaches the head.
+			isCancelled = true;
+		}
+
+		public boolean isCancelled() {
+			return isCancelled;
+		}
+
+		/**
+		 * Calculate the first event of this registration strictly after the given time.
+		 *
+		 * @return true if there is such an event.
+		 */
+		private boolean scheduleNextEvent(long afterTimeInMillis) {
+			long bestTime = Long.MAX_VALUE;
+			EventType bestType = null;
+			// The events calculated for a time are those of the Julian cycle of that time, so the next event is
+			// in the cycle of the given time or the next one, unless the sun doesn't cross the altitudes for a while.
+			for (int day = -1; day < SunriseSunset.MAX_TRANSITION_SEARCH_DAYS; day++) {
+				final long timeInMillis = afterTimeInMillis + day * MILLISECONDS_IN_DAY;
+				for (EventType eventType : eventTypes) {
+					if (SunriseSunset.getSunriseSunset(timeInMillis, latitude, longitude, eventType.sunAltitude, sunriseSunset)) {
+						final long eventTime = eventType.isDawn ? sunriseSunset[0] : sunriseSunset[1];
+						if (eventTime > afterTimeInMillis && eventTime < bestTime) {
+							bestTime = eventTime;
+							bestType = eventType;
+						}
+					}
+				}
+				if (bestType != null && day >= 1) break;
+			}
+			if (bestType == null) {
+				nextEventTime = SunriseSunset.NO_EVENT;
+				nextEventType = null;
+				return false;
+			}
+			nextEventTime = bestTime;
+			nextEventType = bestType;
+			return true;
+		}
+	}
+
+	private static final long MILLISECONDS_IN_DAY = 24 * 60 * 60 * 1000;
+
+	private static final Clock SYSTEM_CLOCK = new Clock() {
+		public long currentTimeMillis() {
+			return System.currentTimeMillis();
+		}
+	};
+
+	private final Executor executor;
+	private final Clock clock;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition queueChanged = lock.newCondition();
+	private final PriorityQueue<Registration> queue = new PriorityQueue<Registration>(1024, new Comparator<Registration>() {
+		public int compare(Registration registration1, Registration registration2) {
+			final long time1 = registration1.nextEventTime;
+			final long time2 = registration2.nextEventTime;
+			return time1 < time2 ? -1 : (time1 == time2 ? 0 : 1);
+		}
+	});
+	private final Thread dispatcherThread;
+	private boolean isShutdown;
+
+	/**
+	 * Create a scheduler, which uses the system clock.
+	 *
+	 * @param executor the executor on which the listeners will be called.
+	 */
+	public SolarEventScheduler(Executor executor) {
+		this(executor, SYSTEM_CLOCK);
+	}
+
+	/**
+	 * Create a scheduler.
+	 *
+	 * @param executor the executor on which the listeners will be called.
+	 * @param clock    the source of the current time.
+	 */
+	public SolarEventScheduler(Executor executor, Clock clock) {
+		this.executor = executor;
+		this.clock = clock;
+		dispatcherThread = new Thread(new Runnable() {
+			public void run() {
+				dispatch();
+			}
+		}, "SolarEventScheduler");
+		dispatcherThread.setDaemon(true);
+		dispatcherThread.start();
+	}
+
+	/**
+	 * @param threads       the number of threads which call the listeners
+	 * @param queueCapacity the maximum number of notifications waiting for a thread. When it is reached, the
+	 *                      dispatcher thread calls the listeners itself, which slows down the dispatching.
+	 * @return an executor suitable for the listeners of a scheduler. It must be shut down by the caller.
+	 */
+	public static ThreadPoolExecutor newBoundedExecutor(int threads, int queueCapacity) {
+		return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueCapacity), new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	/**
+	 * Register a location, to be notified of its events starting from now.
+	 *
+	 * @param latitude   the latitude of the location in degrees.
+	 * @param longitude  the longitude of the location in degrees (West is negative)
+	 * @param eventTypes the events to notify
+	 * @param listener   notified of each event
+	 * @return the registration, which can be cancelled.
+	 */
+	public Registration register(double latitude, double longitude, Set<EventType> eventTypes, Listener listener) {
+		if (eventTypes.isEmpty()) {
+			throw new IllegalArgumentException("At least one event type is required");
+		}
+		final Registration registration = new Registration(latitude, longitude, EnumSet.copyOf(eventTypes), listener);
+		if (registration.scheduleNextEvent(clock.currentTimeMillis())) {
+			lock.lock();
+			try {
+				if (isShutdown) {
+					throw new IllegalStateException("The scheduler is shut down");
+				}
+				queue.add(registration);
+				// Wake up the dispatcher, in case this event is before the one it waits for.
+				queueChanged.signal();
+			} finally {
+				lock.unlock();
+			}
+		}
+		return registration;
+	}
+
+	/**
+	 * @return the number of registrations waiting for an event, including the cancelled ones which weren't
+	 * removed yet.
+	 */
+	public int getScheduledCount() {
+		lock.lock();
+		try {
+			return queue.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Stop the dispatcher thread. The listeners won't be notified of any new event. This doesn't shut down the executor.
+	 */
+	public void shutdown() {
+		lock.lock();
+		try {
+			isShutdown = true;
+			queue.clear();
+			queueChanged.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void dispatch() {
+		final List<Registration> dueRegistrations = new ArrayList<Registration>();
+		final List<EventType> dueEventTypes = new ArrayList<EventType>();
+		final List<Long> dueEventTimes = new ArrayList<Long>();
+		while (true) {
+			lock.lock();
+			try {
+				while (!isShutdown && dueRegistrations.isEmpty()) {
+					final Registration first = queue.peek();
+					if (first == null) {
+						queueChanged.await();
+						continue;
+					}
+					if (first.isCancelled) {
+						queue.poll();
+						continue;
+					}
+					final long now = clock.currentTimeMillis();
+					final long delay = first.nextEventTime - now;
+					if (delay > 0) {
+						queueChanged.await(delay, TimeUnit.MILLISECONDS);
+						continue;
+					}
+					// Take all the events which are due. Their registrations are rescheduled outside of the lock.
+					while (!queue.isEmpty() && queue.peek().nextEventTime <= now) {
+						final Registration registration = queue.poll();
+						if (registration.isCancelled) continue;
+						dueRegistrations.add(registration);
+						dueEventTypes.add(registration.nextEventType);
+						dueEventTimes.add(registration.nextEventTime);
+					}
+				}
+				if (isShutdown) return;
+			} catch (InterruptedException e) {
+				return;
+			} finally {
+				lock.unlock();
+			}
+
+			// Calculate the next event of each registration without blocking the registrations and the shutdown.
+			final boolean[] isRescheduled = new boolean[dueRegistrations.size()];
+			for (int i = 0; i < dueRegistrations.size(); i++) {
+				isRescheduled[i] = dueRegistrations.get(i).scheduleNextEvent(dueEventTimes.get(i));
+			}
+			lock.lock();
+			try {
+				if (isShutdown) return;
+				for (int i = 0; i < dueRegistrations.size(); i++) {
+					if (isRescheduled[i]) queue.add(dueRegistrations.get(i));
+				}
+			} finally {
+				lock.unlock();
+			}
+
+			// Call the listeners outside of the lock, so the executor can block without blocking registrations.
+			for (int i = 0; i < dueRegistrations.size(); i++) {
+				final Registration registration = dueRegistrations.get(i);
+				final EventType eventType = dueEventTypes.get(i);
+				final long eventTime = dueEventTimes.get(i);
+				try {
+					executor.execute(new Runnable() {
+						public void run() {
+							if (!registration.isCancelled) {
+								// The executor may run the listener on the dispatcher thread, which must survive it.
+								try {
+									registration.listener.onSolarEvent(registration, eventType, eventTime);
+								} catch (RuntimeException e) {
+									reportException(e);
+								}
+							}
+						}
+					});
+				} catch (RejectedExecutionException e) {
+					reportException(e);
+				}
+			}
+			dueRegistrations.clear();
+			dueEventTypes.clear();
+			dueEventTimes.clear();
+		}
+	}
+
+	/**
+	 * Pass an exception of a listener or of the executor to the uncaught exception handler of the current thread,
+	 * without stopping it.
+	 */
+	private static void reportException(RuntimeException e) {
+		final Thread thread = Thread.currentThread();
+		thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+/**
+ * All the solar events of a given day at a given location, as returned by
+ * {@link SunriseSunset#getAllSolarEvents(long, double, double)}. <br>
+ * The times are in milliseconds since 1970-01-01 UTC. An event which doesn't occur on the
+ * day (Ex: no sunrise in Antarctica in June) is {@link SunriseSunset#NO_EVENT}. <br>
+ * Instances of this class are immutable.
+ *
+ * @author Carmen Alvarez
+ */
+public final class SolarEvents {
+
+	private final long sunrise;
+	private final long sunset;
+	private final long civilTwilightDawn;
+	private final long civilTwilightDusk;
+	private final long nauticalTwilightDawn;
+	private final long nauticalTwilightDusk;
+	private final long astronomicalTwilightDawn;
+	private final long astronomicalTwilightDusk;
+	private final long solarNoon;
+
+	SolarEvents(long sunrise, long sunset,
+				long civilTwilightDawn, long civilTwilightDusk,
+				long nauticalTwilightDawn, long nauticalTwilightDusk,
+				long astronomicalTwilightDawn, long astronomicalTwilightDusk,
+				long solarNoon) {
+		this.sunrise = sunrise;
+		this.sunset = sunset;
+		this.civilTwilightDawn = civilTwilightDawn;
+		this.civilTwilightDusk = civilTwilightDusk;
+		this.nauticalTwilightDawn = nauticalTwilightDawn;
+		this.nauticalTwilightDusk = nauticalTwilightDusk;
+		this.astronomicalTwilightDawn = astronomicalTwilightDawn;
+		this.astronomicalTwilightDusk = astronomicalTwilightDusk;
+		this.solarNoon = solarNoon;
+	}
+
+	/**
+	 * @return the sunrise, or {@link SunriseSunset#NO_EVENT} if there is no sunrise.
+	 */
+	public long getSunrise() {
+		return sunrise;
+	}
+
+	/**
+	 * @return the sunset, or {@link SunriseSunset#NO_EVENT} if there is no sunset.
+	 */
+	public long getSunset() {
+		return sunset;
+	}
+
+	/**
+	 * @return the civil twilight dawn, or {@link SunriseSunset#NO_EVENT} if there is no civil twilight.
+	 */
+	public long getCivilTwilightDawn() {
+		return civilTwilightDawn;
+	}
+
+	/**
+	 * @return the civil twilight dusk, or {@link SunriseSunset#NO_EVENT} if there is no civil twilight.
+	 */
+	public long getCivilTwilightDusk() {
+		return civilTwilightDusk;
+	}
+
+	/**
+	 * @return the nautical twilight dawn, or {@link SunriseSunset#NO_EVENT} if there is no nautical twilight.
+	 */
+	public long getNauticalTwilightDawn() {
+		return nauticalTwilightDawn;
+	}
+
+	/**
+	 * @return the nautical twilight dusk, or {@link SunriseSunset#NO_EVENT} if there is no nautical twilight.
+	 */
+	public long getNauticalTwilightDusk() {
+		return nauticalTwilightDusk;
+	}
+
+	/**
+	 * @return the astronomical twilight dawn, or {@link SunriseSunset#NO_EVENT} if there is no astronomical twilight.
+	 */
+	public long getAstronomicalTwilightDawn() {
+		return astronomicalTwilightDawn;
+	}
+
+	/**
+	 * @return the astronomical twilight dusk, or {@link SunriseSunset#NO_EVENT} if there is no astronomical twilight.
+	 */
+	public long getAstronomicalTwilightDusk() {
+		return astronomicalTwilightDusk;
+	}
+
+	/**
+	 * @return the solar noon, or {@link SunriseSunset#NO_EVENT} if there is no sunrise or sunset.
+	 */
+	public long getSolarNoon() {
+		return solarNoon;
+	}
+
+	/**
+	 * @return true if there is a sunrise and sunset. (Ex: no sunrise in Antarctica in June)
+	 */
+	public boolean hasSunriseSunset() {
+		return sunrise != SunriseSunset.NO_EVENT;
+	}
+
+	/**
+	 * @return true if there is civil twilight. (Ex: no twilight in Antarctica in December)
+	 */
+	public boolean hasCivilTwilight() {
+		return civilTwilightDawn != SunriseSunset.NO_EVENT;
+	}
+
+	/**
+	 * @return true if there is nautical twilight. (Ex: no twilight in Antarctica in December)
+	 */
+	public boolean hasNauticalTwilight() {
+		return nauticalTwilightDawn != SunriseSunset.NO_EVENT;
+	}
+
+	/**
+	 * @return true if there is astronomical twilight. (Ex: no twilight in Antarctica in December)
+	 */
+	public boolean hasAstronomicalTwilight() {
+		return astronomicalTwilightDawn != SunriseSunset.NO_EVENT;
+	}
+}
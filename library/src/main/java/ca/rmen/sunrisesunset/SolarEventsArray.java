@@ -0,0 +1,142 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+/**
+ * The solar events of many locations, filled in by {@link SunriseSunsetBulk}. <br>
+ * This is the equivalent of an array of {@link SolarEvents}, stored as one primitive array per event:
+ * the events of the location at index i of the input arrays are at index i of each of these arrays. <br>
+ * The times are in milliseconds since 1970-01-01 UTC. An event which doesn't occur on the
+ * day (Ex: no sunrise in Antarctica in June) is {@link SunriseSunset#NO_EVENT}. The status array
+ * indicates which events occur, as a combination of the <code>HAS_*</code> flags. <br>
+ * An instance can be reused for successive calculations of the same number of locations.
+ *
+ * @author Carmen Alvarez
+ */
+public final class SolarEventsArray {
+
+	/**
+	 * Status flag set if there is a sunrise and sunset.
+	 */
+	public static final byte HAS_SUNRISE_SUNSET = 1;
+
+	/**
+	 * Status flag set if there is civil twilight.
+	 */
+	public static final byte HAS_CIVIL_TWILIGHT = 1 << 1;
+
+	/**
+	 * Status flag set if there is nautical twilight.
+	 */
+	public static final byte HAS_NAUTICAL_TWILIGHT = 1 << 2;
+
+	/**
+	 * Status flag set if there is astronomical twilight.
+	 */
+	public static final byte HAS_ASTRONOMICAL_TWILIGHT = 1 << 3;
+
+	private final long[] sunrises;
+	private final long[] sunsets;
+	private final long[] civilTwilightDawns;
+	private final long[] civilTwilightDusks;
+	private final long[] nauticalTwilightDawns;
+	private final long[] nauticalTwilightDusks;
+	private final long[] astronomicalTwilightDawns;
+	private final long[] astronomicalTwilightDusks;
+	private final long[] solarNoons;
+	private final byte[] statuses;
+
+	/**
+	 * @param size the number of locations.
+	 */
+	public SolarEventsArray(int size) {
+		sunrises = new long[size];
+		sunsets = new long[size];
+		civilTwilightDawns = new long[size];
+		civilTwilightDusks = new long[size];
+		nauticalTwilightDawns = new long[size];
+		nauticalTwilightDusks = new long[size];
+		astronomicalTwilightDawns = new long[size];
+		astronomicalTwilightDusks = new long[size];
+		solarNoons = new long[size];
+		statuses = new byte[size];
+	}
+
+	/**
+	 * @return the number of locations.
+	 */
+	public int size() {
+		return statuses.length;
+	}
+
+	public long[] getSunrises() {
+		return sunrises;
+	}
+
+	public long[] getSunsets() {
+		return sunsets;
+	}
+
+	public long[] getCivilTwilightDawns() {
+		return civilTwilightDawns;
+	}
+
+	public long[] getCivilTwilightDusks() {
+		return civilTwilightDusks;
+	}
+
+	public long[] getNauticalTwilightDawns() {
+		return nauticalTwilightDawns;
+	}
+
+	public long[] getNauticalTwilightDusks() {
+		return nauticalTwilightDusks;
+	}
+
+	public long[] getAstronomicalTwilightDawns() {
+		return astronomicalTwilightDawns;
+	}
+
+	public long[] getAstronomicalTwilightDusks() {
+		return astronomicalTwilightDusks;
+	}
+
+	public long[] getSolarNoons() {
+		return solarNoons;
+	}
+
+	/**
+	 * @return for each location, a combination of the <code>HAS_*</code> flags, indicating which events occur.
+	 */
+	public byte[] getStatuses() {
+		return statuses;
+	}
+
+	/**
+	 * @param index the index of a location
+	 * @return the solar events of the location at the given index.
+	 */
+	public SolarEvents get(int index) {
+		return new SolarEvents(sunrises[index], sunsets[index],
+				civilTwilightDawns[index], civilTwilightDusks[index],
+				nauticalTwilightDawns[index], nauticalTwilightDusks[index],
+				astronomicalTwilightDawns[index], astronomicalTwilightDusks[index],
+				solarNoons[index]);
+	}
+}
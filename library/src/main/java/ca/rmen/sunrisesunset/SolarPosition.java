@@ -0,0 +1,171 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+/**
+ * The position of the sun in the sky (elevation and azimuth) at a location, at regular intervals of time. <br>
+ * The position is calculated with the same solar transit and declination as the sunrise equation: the declination
+ * and the equation of time are calculated once per Julian cycle, and the hour angle is advanced from one sample to
+ * the next by a rotation, so that only the arc sine of the elevation and the arc tangent of the azimuth are
+ * calculated per sample. Nothing is allocated per sample. <br>
+ * The elevation is the geometric elevation of the center of the sun, without atmospheric refraction: it is
+ * {@link SunriseSunset#SUN_ALTITUDE_SUNRISE_SUNSET} at the sunrise and sunset.
+ *
+ * @author Carmen Alvarez
+ */
+public final class SolarPosition {
+
+	private static final long MILLISECONDS_IN_DAY = 60 * 60 * 24 * 1000;
+
+	/**
+	 * Receives the samples of {@link #getSolarPositions(double, double, long, long, int, Callback)}.
+	 */
+	public interface Callback {
+		/**
+		 * @param timeInMillis the time of the sample, in milliseconds since 1970-01-01 UTC
+		 * @param elevation    the elevation of the sun, in degrees above the horizon
+		 * @param azimuth      the azimuth of the sun, in degrees clockwise from the North
+		 */
+		void onSolarPosition(long timeInMillis, double elevation, double azimuth);
+	}
+
+	private SolarPosition() {
+		// Prevent instantiation of this utility class
+	}
+
+	/**
+	 * @param timeInMillis a datetime, in milliseconds since 1970-01-01 UTC
+	 * @param latitude     the latitude of the location in degrees.
+	 * @param longitude    the longitude of the location in degrees (West is negative)
+	 * @return the elevation of the sun, in degrees above the horizon.
+	 */
+	public static double getElevation(long timeInMillis, double latitude, double longitude) {
+		final double[] elevation = new double[1];
+		getSolarPositions(latitude, longitude, timeInMillis, 1, elevation, null);
+		return elevation[0];
+	}
+
+	/**
+	 * @param timeInMillis a datetime, in milliseconds since 1970-01-01 UTC
+	 * @param latitude     the latitude of the location in degrees.
+	 * @param longitude    the longitude of the location in degrees (West is negative)
+	 * @return the azimuth of the sun, in degrees clockwise from the North, between 0 and 360.
+	 */
+	public static double getAzimuth(long timeInMillis, double latitude, double longitude) {
+		final double[] azimuth = new double[1];
+		getSolarPositions(latitude, longitude, timeInMillis, 1, null, azimuth);
+		return azimuth[0];
+	}
+
+	/**
+	 * Calculate the position of the sun at regular intervals of time, and store it in the given arrays. The sample
+	 * i is at <code>startTimeInMillis + i * stepInMillis</code>.
+	 *
+	 * @param latitude          the latitude of the location in degrees.
+	 * @param longitude         the longitude of the location in degrees (West is negative)
+	 * @param startTimeInMillis the time of the first sample, in milliseconds since 1970-01-01 UTC
+	 * @param stepInMillis      the time between two samples, in milliseconds
+	 * @param elevations        will be filled with the elevations of the sun, in degrees above the horizon. May be null
+	 *                          if only the azimuths are needed.
+	 * @param azimuths          will be filled with the azimuths of the sun, in degrees clockwise from the North, between
+	 *                          0 and 360. May be null if only the elevations are needed, which is faster.
+	 */
+	public static void getSolarPositions(double latitude, double longitude, long startTimeInMillis, long stepInMillis,
+										 double[] elevations, double[] azimuths) {
+		if (elevations == null && azimuths == null) {
+			throw new IllegalArgumentException("At least one of the elevations and azimuths must be given");
+		}
+		if (elevations != null && azimuths != null && elevations.length != azimuths.length) {
+			throw new IllegalArgumentException("Got " + elevations.length + " elevations and " + azimuths.length + " azimuths");
+		}
+		final int count = elevations != null ? elevations.length : azimuths.length;
+		calculate(latitude, longitude, startTimeInMillis, stepInMillis, count, elevations, azimuths, null);
+	}
+
+	/**
+	 * Calculate the position of the sun at regular intervals of time, and pass each sample to the given callback, in
+	 * chronological order. The sample i is at <code>startTimeInMillis + i * stepInMillis</code>.
+	 *
+	 * @param latitude          the latitude of the location in degrees.
+	 * @param longitude         the longitude of the location in degrees (West is negative)
+	 * @param startTimeInMillis the time of the first sample, in milliseconds since 1970-01-01 UTC
+	 * @param stepInMillis      the time between two samples, in milliseconds
+	 * @param count             the number of samples
+	 * @param callback          called for each sample, on the calling thread
+	 */
+	public static void getSolarPositions(double latitude, double longitude, long startTimeInMillis, long stepInMillis,
+										 int count, Callback callback) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Invalid number of samples: " + count);
+		}
+		calculate(latitude, longitude, startTimeInMillis, stepInMillis, count, null, null, callback);
+	}
+
+	private static void calculate(double latitude, double longitude, long startTimeInMillis, long stepInMillis, int count,
+								  double[] elevations, double[] azimuths, Callback callback) {
+		if (stepInMillis <= 0) {
+			throw new IllegalArgumentException("Invalid step: " + stepInMillis);
+		}
+		final double latitudeRad = Math.toRadians(latitude);
+		final double sinLatitude = Math.sin(latitudeRad);
+		final double cosLatitude = Math.cos(latitudeRad);
+		final double stepAngle = 2 * Math.PI * stepInMillis / MILLISECONDS_IN_DAY;
+		final double sinStep = Math.sin(stepAngle);
+		final double cosStep = Math.cos(stepAngle);
+		final boolean hasElevations = callback != null || elevations != null;
+		final boolean hasAzimuths = callback != null || azimuths != null;
+
+		int i = 0;
+		while (i < count) {
+			// The solar transit and declination of the Julian cycle of the sample.
+			final double julianDate = SunriseSunset.julianDateFromEpochMillis(startTimeInMillis + i * stepInMillis);
+			final SunriseSunset.SolarEquationVariables solarEquationVariables = SunriseSunset.getSolarEquationVariables(julianDate, longitude);
+			final long cycleEnd = SunriseSunset.epochMillisFromJulianDate(SunriseSunset.getJulianCycleStart(solarEquationVariables.n + 1, longitude));
+			final double sinDelta = Math.sin(solarEquationVariables.delta);
+			final double cosDelta = Math.cos(solarEquationVariables.delta);
+			final double sinLatitudeSinDelta = sinLatitude * sinDelta;
+			final double cosLatitudeCosDelta = cosLatitude * cosDelta;
+			final double sinLatitudeCosDelta = sinLatitude * cosDelta;
+			final double cosLatitudeSinDelta = cosLatitude * sinDelta;
+
+			// The hour angle is calculated for the first sample of the cycle, and rotated by the step for the others.
+			final double hourAngle = 2 * Math.PI * (julianDate - solarEquationVariables.jtransit);
+			double sinHourAngle = Math.sin(hourAngle);
+			double cosHourAngle = Math.cos(hourAngle);
+			do {
+				final long time = startTimeInMillis + i * stepInMillis;
+				final double elevation = !hasElevations ? Double.NaN : Math.toDegrees(Math.asin(sinLatitudeSinDelta + cosLatitudeCosDelta * cosHourAngle));
+				// The azimuth from the South is atan2(sin(H), cos(H) * sin(latitude) - tan(delta) * cos(latitude)),
+				// multiplied here by cos(delta), which is positive.
+				final double azimuth = !hasAzimuths ? Double.NaN
+						: Math.toDegrees(Math.atan2(sinHourAngle * cosDelta, cosHourAngle * sinLatitudeCosDelta - cosLatitudeSinDelta)) + 180;
+				if (callback != null) {
+					callback.onSolarPosition(time, elevation, azimuth);
+				} else {
+					if (elevations != null) elevations[i] = elevation;
+					if (azimuths != null) azimuths[i] = azimuth;
+				}
+				final double nextSinHourAngle = sinHourAngle * cosStep + cosHourAngle * sinStep;
+				cosHourAngle = cosHourAngle * cosStep - sinHourAngle * sinStep;
+				sinHourAngle = nextSinHourAngle;
+				i++;
+			} while (i < count && startTimeInMillis + i * stepInMillis < cycleEnd);
+		}
+	}
+}
@@ -19,8 +19,8 @@
 package ca.rmen.sunrisesunset;
 
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Calendar;
-import java.util.TimeZone;
 
 /**
  * Provides methods to determine the sunrise, sunset, civil twilight,
@@ -64,16 +64,37 @@ public final class SunriseSunset {
 	 */
 	public static final double SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT = -18.0;
 
+	/**
+	 * Returned by the methods which work with epoch milliseconds instead of Calendars, when
+	 * the event doesn't occur on the given day. (Ex: no solar noon in Antarctica in June)
+	 */
+	public static final long NO_EVENT = Long.MIN_VALUE;
+
+	/**
+	 * The number of days after which {@link #getNextDayPeriodTransition(long, double, double)} stops searching.
+	 */
+	public static final int MAX_TRANSITION_SEARCH_DAYS = 400;
+
+	static final double SIN_SUN_ALTITUDE_SUNRISE_SUNSET = Math.sin(Math.toRadians(SUN_ALTITUDE_SUNRISE_SUNSET));
+	static final double SIN_SUN_ALTITUDE_CIVIL_TWILIGHT = Math.sin(Math.toRadians(SUN_ALTITUDE_CIVIL_TWILIGHT));
+	static final double SIN_SUN_ALTITUDE_NAUTICAL_TWILIGHT = Math.sin(Math.toRadians(SUN_ALTITUDE_NAUTICAL_TWILIGHT));
+	static final double SIN_SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT = Math.sin(Math.toRadians(SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT));
+	// The altitudes at which the period of the day changes.
+	private static final double[] SIN_DAY_PERIOD_SUN_ALTITUDES = {SIN_SUN_ALTITUDE_SUNRISE_SUNSET, SIN_SUN_ALTITUDE_CIVIL_TWILIGHT,
+			SIN_SUN_ALTITUDE_NAUTICAL_TWILIGHT, SIN_SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT};
+
 	private static final int JULIAN_DATE_2000_01_01 = 2451545;
+	private static final double JULIAN_DATE_1970_01_01 = 2440587.5;
 	private static final double CONST_0009 = 0.0009;
 	private static final double CONST_360 = 360;
 	private static final long MILLISECONDS_IN_DAY = 60 * 60 * 24 * 1000;
+	private static final int TRANSITION_PRECISION_MILLIS = 2;
 
 	/**
 	 * Intermediate variables used in the sunrise equation
 	 * @see <a href="http://en.wikipedia.org/wiki/Sunrise_equation">Sunrise equation on Wikipedia</a>
 	 */
-	private static class SolarEquationVariables {
+	static final class SolarEquationVariables {
 		final double n;// Julian cycle (number of days since 2000-01-01).
 		final double m; // solar mean anomaly
 		final double lambda; // ecliptic longitude
@@ -89,142 +110,83 @@ public final class SunriseSunset {
 		}
 	}
 
+	private static volatile SolarEquationVariablesCache solarEquationVariablesCache;
+
 	private SunriseSunset() {
 		// Prevent instantiation of this utility class
 	}
 
+	/**
+	 * Set a cache for the intermediate variables of the sunrise equation, which only depend on the day and
+	 * the longitude. This speeds up the calculations when the same locations are queried repeatedly for the same days.
+	 *
+	 * @param cache the cache to use from now on, or null to stop using a cache (the default).
+	 */
+	public static void setSolarEquationVariablesCache(SolarEquationVariablesCache cache) {
+		solarEquationVariablesCache = cache;
+	}
+
+	/**
+	 * @return the cache set with {@link #setSolarEquationVariablesCache(SolarEquationVariablesCache)}, or null.
+	 */
+	public static SolarEquationVariablesCache getSolarEquationVariablesCache() {
+		return solarEquationVariablesCache;
+	}
+
 	/**
 	 * Convert a Gregorian calendar date to a Julian date. Accuracy is to the
-	 * second.
+	 * millisecond.
 	 * <br>
-	 * This is based on the Wikipedia article for Julian day.
+	 * Only the time of the calendar, in milliseconds since 1970-01-01 UTC, is used: this is
+	 * {@link #julianDateFromEpochMillis(long)}.
 	 *
 	 * @param gregorianDate Gregorian date in any time zone.
 	 * @return the Julian date for the given Gregorian date.
-	 * @see <a href="http://en.wikipedia.org/wiki/Julian_day#Converting_Julian_or_Gregorian_calendar_date_to_Julian_Day_Number">Converting to Julian day number on Wikipedia</a>
 	 */
 	public static double getJulianDate(final Calendar gregorianDate) {
-		// Convert the date to the UTC time zone.
-		TimeZone tzUTC = TimeZone.getTimeZone("UTC");
-		Calendar gregorianDateUTC = Calendar.getInstance(tzUTC);
-		gregorianDateUTC.setTimeInMillis(gregorianDate.getTimeInMillis());
-		// For the year (Y) astronomical year numbering is used, thus 1 BC is 0,
-		// 2 BC is -1, and 4713 BC is -4712.
-		int year = gregorianDateUTC.get(Calendar.YEAR);
-		// The months (M) January to December are 1 to 12
-		int month = gregorianDateUTC.get(Calendar.MONTH) + 1;
-		// D is the day of the month.
-		int day = gregorianDateUTC.get(Calendar.DAY_OF_MONTH);
-		int a = (14 - month) / 12;
-		int y = year + 4800 - a;
-		int m = month + 12 * a - 3;
-
-		int julianDay = day + (153 * m + 2) / 5 + 365 * y + (y / 4) - (y / 100)
-				+ (y / 400) - 32045;
-		int hour = gregorianDateUTC.get(Calendar.HOUR_OF_DAY);
-		int minute = gregorianDateUTC.get(Calendar.MINUTE);
-		int second = gregorianDateUTC.get(Calendar.SECOND);
-
-		return julianDay + ((double) hour - 12) / 24
-				+ ((double) minute) / 1440 + ((double) second) / 86400;
+		return julianDateFromEpochMillis(gregorianDate.getTimeInMillis());
 	}
 
 	/**
 	 * Convert a Julian date to a Gregorian date. The Gregorian date will be in
-	 * the local time zone. Accuracy is to the second.
+	 * the local time zone. Accuracy is to the millisecond.
 	 * <br>
-	 * This is based on the Wikipedia article for Julian day.
+	 * The time of the calendar is {@link #epochMillisFromJulianDate(double)}: only the calendar itself is allocated.
 	 *
 	 * @param julianDate The date to convert
 	 * @return a Gregorian date in the local time zone.
-	 * @see <a href="http://en.wikipedia.org/wiki/Julian_day#Gregorian_calendar_from_Julian_day_number">Converting from Julian day to Gregorian date, on Wikipedia</a>
 	 */
 	public static Calendar getGregorianDate(final double julianDate) {
-
-		final int DAYS_PER_4000_YEARS = 146097;
-		final int DAYS_PER_CENTURY = 36524;
-		final int DAYS_PER_4_YEARS = 1461;
-		final int DAYS_PER_5_MONTHS = 153;
-
-		// Let J = JD + 0.5: (note: this shifts the epoch back by one half day,
-		// to start it at 00:00UTC, instead of 12:00 UTC);
-		int J = (int) (julianDate + 0.5);
-
-		// let j = J + 32044; (note: this shifts the epoch back to astronomical
-		// year -4800 instead of the start of the Christian era in year AD 1 of
-		// the proleptic Gregorian calendar).
-		int j = J + 32044;
-
-		// let g = j div 146097; let dg = j mod 146097;
-		int g = j / DAYS_PER_4000_YEARS;
-		int dg = j % DAYS_PER_4000_YEARS;
-
-		// let c = (dg div 36524 + 1) * 3 div 4; let dc = dg - c * 36524;
-		int c = ((dg / DAYS_PER_CENTURY + 1) * 3) / 4;
-		int dc = dg - c * DAYS_PER_CENTURY;
-
-		// let b = dc div 1461; let db = dc mod 1461;
-		int b = dc / DAYS_PER_4_YEARS;
-		int db = dc % DAYS_PER_4_YEARS;
-
-		// let a = (db div 365 + 1) * 3 div 4; let da = db - a * 365;
-		int a = ((db / 365 + 1) * 3) / 4;
-		int da = db - a * 365;
-
-		// let y = g * 400 + c * 100 + b * 4 + a; (note: this is the integer
-		// number of full years elapsed since March 1, 4801 BC at 00:00 UTC);
-		int y = g * 400 + c * 100 + b * 4 + a;
-
-		// let m = (da * 5 + 308) div 153 - 2; (note: this is the integer number
-		// of full months elapsed since the last March 1 at 00:00 UTC);
-		int m = (da * 5 + 308) / DAYS_PER_5_MONTHS - 2;
-
-		// let d = da -(m + 4) * 153 div 5 + 122; (note: this is the number of
-		// days elapsed since day 1 of the month at 00:00 UTC, including
-		// fractions of one day);
-		int d = da - ((m + 4) * DAYS_PER_5_MONTHS) / 5 + 122;
-
-		// let Y = y - 4800 + (m + 2) div 12;
-		int year = y - 4800 + (m + 2) / 12;
-
-		// let M = (m + 2) mod 12 + 1;
-		int month = (m + 2) % 12;
-
-		// let D = d + 1;
-		int day = d + 1;
-
-		// Apply the fraction of the day in the Julian date to the Gregorian
-		// date.
-		// Example: dayFraction = 0.717
-		final double dayFraction = (julianDate + 0.5) - J;
-
-		// Ex: 0.717*24 = 17.208 hours. We truncate to 17 hours.
-		final int hours = (int) (dayFraction * 24);
-		// Ex: 17.208 - 17 = 0.208 days. 0.208*60 = 12.48 minutes. We truncate
-		// to 12 minutes.
-		final int minutes = (int) ((dayFraction * 24 - hours) * 60d);
-		// Ex: 17.208*60 - (17*60 + 12) = 1032.48 - 1032 = 0.48 minutes. 0.48*60
-		// = 28.8 seconds.
-		// We round to 29 seconds.
-		final int seconds = (int) ((dayFraction * 24 * 3600 - (hours * 3600 + minutes * 60)) + .5);
-
-		// Create the gregorian date in UTC.
-		final Calendar gregorianDateUTC = Calendar.getInstance(TimeZone
-				.getTimeZone("UTC"));
-		gregorianDateUTC.set(Calendar.YEAR, year);
-		gregorianDateUTC.set(Calendar.MONTH, month);
-		gregorianDateUTC.set(Calendar.DAY_OF_MONTH, day);
-		gregorianDateUTC.set(Calendar.HOUR_OF_DAY, hours);
-		gregorianDateUTC.set(Calendar.MINUTE, minutes);
-		gregorianDateUTC.set(Calendar.SECOND, seconds);
-		gregorianDateUTC.set(Calendar.MILLISECOND, 0);
-
-		// Convert to a Gregorian date in the local time zone.
 		Calendar gregorianDate = Calendar.getInstance();
-		gregorianDate.setTimeInMillis(gregorianDateUTC.getTimeInMillis());
+		gregorianDate.setTimeInMillis(epochMillisFromJulianDate(julianDate));
 		return gregorianDate;
 	}
 
+	/**
+	 * Convert a time in milliseconds since 1970-01-01 UTC to a Julian date. Accuracy is to the millisecond.
+	 * <br>
+	 * The Julian date 2440587.5 is 1970-01-01 00:00:00 UTC, and a Julian day lasts exactly 86400 seconds, so this
+	 * is only arithmetic: no Calendar or TimeZone is used.
+	 *
+	 * @param timeInMillis the number of milliseconds since 1970-01-01 00:00:00 UTC
+	 * @return the Julian date for the given time.
+	 */
+	public static double julianDateFromEpochMillis(final long timeInMillis) {
+		return JULIAN_DATE_1970_01_01 + (double) timeInMillis / MILLISECONDS_IN_DAY;
+	}
+
+	/**
+	 * Convert a Julian date to a time in milliseconds since 1970-01-01 UTC. Accuracy is to the millisecond.
+	 * <br>
+	 * This is the inverse of {@link #julianDateFromEpochMillis(long)}: no Calendar or TimeZone is used.
+	 *
+	 * @param julianDate The date to convert
+	 * @return the number of milliseconds since 1970-01-01 00:00:00 UTC
+	 */
+	public static long epochMillisFromJulianDate(final double julianDate) {
+		return Math.round((julianDate - JULIAN_DATE_1970_01_01) * MILLISECONDS_IN_DAY);
+	}
+
 	/**
 	 * Calculate the civil twilight time for the given date and given location.
 	 *
@@ -286,52 +248,306 @@ public final class SunriseSunset {
 		return getSunriseSunset(day, latitude, longitude, SUN_ALTITUDE_SUNRISE_SUNSET);
 	}
 
+	/**
+	 * Calculate the civil twilight time for the given time and given location, without allocating any Calendar.
+	 *
+	 * @param timeInMillis  The time, in milliseconds since 1970-01-01 UTC, of the day for which to calculate civil twilight
+	 * @param latitude      the latitude of the location in degrees.
+	 * @param longitude     the longitude of the location in degrees (West is negative)
+	 * @param civilTwilight a two-element array, which will be filled with the civil twilight dawn and dusk,
+	 *                      in milliseconds since 1970-01-01 UTC.
+	 * @return true if there is civil twilight on the given day, false otherwise. (Ex: no twilight in Antarctica in December)
+	 */
+	public static boolean getCivilTwilight(final long timeInMillis,
+										   final double latitude, double longitude, final long[] civilTwilight) {
+		return getSunriseSunset(timeInMillis, latitude, longitude, SUN_ALTITUDE_CIVIL_TWILIGHT, civilTwilight);
+	}
+
+	/**
+	 * Calculate the nautical twilight time for the given time and given location, without allocating any Calendar.
+	 *
+	 * @param timeInMillis     The time, in milliseconds since 1970-01-01 UTC, of the day for which to calculate nautical twilight
+	 * @param latitude         the latitude of the location in degrees.
+	 * @param longitude        the longitude of the location in degrees (West is negative)
+	 * @param nauticalTwilight a two-element array, which will be filled with the nautical twilight dawn and dusk,
+	 *                         in milliseconds since 1970-01-01 UTC.
+	 * @return true if there is nautical twilight on the given day, false otherwise. (Ex: no twilight in Antarctica in December)
+	 */
+	public static boolean getNauticalTwilight(final long timeInMillis,
+											  final double latitude, double longitude, final long[] nauticalTwilight) {
+		return getSunriseSunset(timeInMillis, latitude, longitude, SUN_ALTITUDE_NAUTICAL_TWILIGHT, nauticalTwilight);
+	}
+
+	/**
+	 * Calculate the astronomical twilight time for the given time and given location, without allocating any Calendar.
+	 *
+	 * @param timeInMillis         The time, in milliseconds since 1970-01-01 UTC, of the day for which to calculate astronomical twilight
+	 * @param latitude             the latitude of the location in degrees.
+	 * @param longitude            the longitude of the location in degrees (West is negative)
+	 * @param astronomicalTwilight a two-element array, which will be filled with the astronomical twilight dawn and dusk,
+	 *                             in milliseconds since 1970-01-01 UTC.
+	 * @return true if there is astronomical twilight on the given day, false otherwise. (Ex: no twilight in Antarctica in December)
+	 */
+	public static boolean getAstronomicalTwilight(final long timeInMillis,
+												  final double latitude, double longitude, final long[] astronomicalTwilight) {
+		return getSunriseSunset(timeInMillis, latitude, longitude, SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT, astronomicalTwilight);
+	}
+
+	/**
+	 * Calculate the sunrise and sunset times for the given time and given location, without allocating any Calendar.
+	 *
+	 * @param timeInMillis  The time, in milliseconds since 1970-01-01 UTC, of the day for which to calculate sunrise and sunset
+	 * @param latitude      the latitude of the location in degrees.
+	 * @param longitude     the longitude of the location in degrees (West is negative)
+	 * @param sunriseSunset a two-element array, which will be filled with the sunrise and sunset,
+	 *                      in milliseconds since 1970-01-01 UTC.
+	 * @return true if there is a sunrise and sunset on the given day, false otherwise. (Ex: no sunrise in Antarctica in June)
+	 */
+	public static boolean getSunriseSunset(final long timeInMillis,
+										   final double latitude, double longitude, final long[] sunriseSunset) {
+		return getSunriseSunset(timeInMillis, latitude, longitude, SUN_ALTITUDE_SUNRISE_SUNSET, sunriseSunset);
+	}
+
 	/**
 	 * Return intermediate variables used for calculating sunrise, sunset, and solar noon.
 	 *
-	 * @param day         The day for which to calculate the ecliptic longitude and jtransit
+	 * @param julianDate  The day for which to calculate the ecliptic longitude and jtransit, as a Julian date
 	 * @param longitude   the longitude of the location in degrees (West is negative)
-     * @return a 2-element array with the ecliptic longitude (lambda) as the first element, and solar transit (jtransit) as the second element
+	 * @return the Julian cycle, solar mean anomaly, ecliptic longitude, solar transit and declination for the given day.
 	 * @see <a href="http://en.wikipedia.org/wiki/Sunrise_equation">Sunrise equation on Wikipedia</a>
-     */
-	private static SolarEquationVariables getSolarEquationVariables(final Calendar day, double longitude) {
+	 */
+	static SolarEquationVariables getSolarEquationVariables(final double julianDate, final double longitude) {
+		final double n = getJulianCycle(julianDate, longitude);
+		final SolarEquationVariablesCache cache = solarEquationVariablesCache;
+		if (cache != null) {
+			return cache.get(n, longitude);
+		}
+		return getSolarEquationVariablesForJulianCycle(n, longitude);
+	}
 
-		longitude = -longitude;
+	/**
+	 * @param n         the Julian cycle
+	 * @param longitude the longitude of the location in degrees (West is negative)
+	 * @return the intermediate variables of the sunrise equation for the given Julian cycle.
+	 * @see #getSolarEquationVariables(double, double)
+	 */
+	static SolarEquationVariables getSolarEquationVariablesForJulianCycle(final double n, final double longitude) {
+		final double m = getSolarMeanAnomaly(n, longitude);
+		final double lambda = getEclipticLongitude(m);
+		final double jtransit = getSolarTransit(n, longitude, m, lambda);
+		final double delta = getDeclination(lambda);
+		return new SolarEquationVariables(n, m, lambda, jtransit, delta);
+	}
 
-		// Get the given date as a Julian date.
-		final double julianDate = getJulianDate(day);
+	// The following methods calculate the individual variables of the sunrise equation. They take and return
+	// primitives, so that the methods which work with epoch milliseconds don't allocate anything.
+	// They are also used by the other calculators in this package.
 
-		// Calculate current Julian cycle (number of days since 2000-01-01).
+	/**
+	 * @param julianDate the day, as a Julian date
+	 * @param longitude  the longitude of the location in degrees (West is negative)
+	 * @return the current Julian cycle (number of days since 2000-01-01).
+	 */
+	static double getJulianCycle(final double julianDate, final double longitude) {
 		final double nstar = julianDate - JULIAN_DATE_2000_01_01 - CONST_0009
-				- longitude / CONST_360;
-		final double n = Math.round(nstar);
+				+ longitude / CONST_360;
+		return Math.round(nstar);
+	}
 
-		// Approximate solar noon
-		final double jstar = JULIAN_DATE_2000_01_01 + CONST_0009 + longitude
+	/**
+	 * @param n         the Julian cycle
+	 * @param longitude the longitude of the location in degrees (West is negative)
+	 * @return the approximate solar noon, as a Julian date.
+	 */
+	static double getApproximateSolarNoon(final double n, final double longitude) {
+		return JULIAN_DATE_2000_01_01 + CONST_0009 - longitude
 				/ CONST_360 + n;
-		// Solar mean anomaly
-		final double m = Math
+	}
+
+	/**
+	 * @param n         the Julian cycle
+	 * @param longitude the longitude of the location in degrees (West is negative)
+	 * @return the solar mean anomaly, in radians.
+	 */
+	static double getSolarMeanAnomaly(final double n, final double longitude) {
+		return getSolarMeanAnomaly(getApproximateSolarNoon(n, longitude));
+	}
+
+	/**
+	 * @param jstar the approximate solar noon, as a Julian date
+	 * @return the solar mean anomaly, in radians.
+	 * @see #getSolarMeanAnomaly(double, double)
+	 */
+	static double getSolarMeanAnomaly(final double jstar) {
+		return Math
 				.toRadians((357.5291 + 0.98560028 * (jstar - JULIAN_DATE_2000_01_01))
 						% CONST_360);
+	}
 
+	/**
+	 * @param m the solar mean anomaly, in radians.
+	 * @return the ecliptic longitude, in radians.
+	 */
+	static double getEclipticLongitude(final double m) {
 		// Equation of center
 		final double c = 1.9148 * Math.sin(m) + 0.0200 * Math.sin(2 * m)
 				+ 0.0003 * Math.sin(3 * m);
 
-		// Ecliptic longitude
-		final double lambda = Math
+		return Math
 				.toRadians((Math.toDegrees(m) + 102.9372 + c + 180) % CONST_360);
+	}
+
+	/**
+	 * @param n         the Julian cycle
+	 * @param longitude the longitude of the location in degrees (West is negative)
+	 * @param m         the solar mean anomaly, in radians.
+	 * @param lambda    the ecliptic longitude, in radians.
+	 * @return the solar transit (hour angle for solar noon), as a Julian date.
+	 */
+	static double getSolarTransit(final double n, final double longitude, final double m, final double lambda) {
+		return getSolarTransit(getApproximateSolarNoon(n, longitude), m, lambda);
+	}
 
-		// Solar transit (hour angle for solar noon)
-		final double jtransit = jstar + 0.0053 * Math.sin(m) - 0.0069
+	/**
+	 * @param jstar  the approximate solar noon, as a Julian date
+	 * @param m      the solar mean anomaly, in radians.
+	 * @param lambda the ecliptic longitude, in radians.
+	 * @return the solar transit (hour angle for solar noon), as a Julian date.
+	 * @see #getSolarTransit(double, double, double, double)
+	 */
+	static double getSolarTransit(final double jstar, final double m, final double lambda) {
+		return jstar + 0.0053 * Math.sin(m) - 0.0069
 				* Math.sin(2 * lambda);
+	}
 
-		// Declination of the sun.
-		final double delta = Math.asin(Math.sin(lambda)
+	/**
+	 * @param lambda the ecliptic longitude, in radians.
+	 * @return the declination of the sun, in radians.
+	 */
+	static double getDeclination(final double lambda) {
+		return Math.asin(Math.sin(lambda)
 				* Math.sin(Math.toRadians(23.439)));
+	}
+
+	/**
+	 * @param latitude    the latitude of the location in degrees.
+	 * @param sunAltitude the altitude of the sun, in degrees
+	 * @param delta       the declination of the sun, in radians
+	 * @return the hour angle, in radians, at which the sun reaches the given altitude, or NaN if the sun
+	 * stays above or below that altitude all day.
+	 */
+	private static double getHourAngle(final double latitude, final double sunAltitude, final double delta) {
+		final double latitudeRad = Math.toRadians(latitude);
+		return getHourAngle(Math.sin(Math.toRadians(sunAltitude)), Math.sin(latitudeRad), Math.cos(latitudeRad),
+				Math.sin(delta), Math.cos(delta));
+	}
 
+	/**
+	 * Like {@link #getHourAngle(double, double, double)}, for callers which calculate the hour angle for several altitudes
+	 * and reuse the sines and cosines of the latitude and declination.
+	 */
+	static double getHourAngle(final double sinSunAltitude, final double sinLatitude, final double cosLatitude,
+									   final double sinDelta, final double cosDelta) {
+		return Math.acos(getCosHourAngle(sinSunAltitude, sinLatitude, cosLatitude, sinDelta, cosDelta));
+	}
 
-		return new SolarEquationVariables(n, m, lambda, jtransit, delta);
+	/**
+	 * @return the cosine of the hour angle at which the sun reaches the altitude with the given sine. It is below -1
+	 * if the sun stays above that altitude all day, and above 1 if it stays below it all day.
+	 * @see #getHourAngle(double, double, double, double, double)
+	 */
+	static double getCosHourAngle(final double sinSunAltitude, final double sinLatitude, final double cosLatitude,
+								  final double sinDelta, final double cosDelta) {
+		return (sinSunAltitude - sinLatitude * sinDelta)
+				/ (cosLatitude * cosDelta);
+	}
+
+	/**
+	 * @param jtransit the solar transit, as a Julian date
+	 * @param omega    the hour angle, in radians
+	 * @return the Julian date of the sunset (or dusk, depending on the altitude used for the hour angle).
+	 */
+	private static double getSunsetJulianDate(final double jtransit, final double omega) {
+		return jtransit + Math.toDegrees(omega) / CONST_360;
+	}
+
+	/**
+	 * @param jtransit the solar transit, as a Julian date
+	 * @param omega    the hour angle, in radians, or NaN if the event doesn't occur
+	 * @return the sunrise (or dawn, depending on the altitude used for the hour angle), in milliseconds
+	 * since 1970-01-01 UTC, or {@link #NO_EVENT}.
+	 */
+	static long getSunriseTime(final double jtransit, final double omega) {
+		if (Double.isNaN(omega)) {
+			return NO_EVENT;
+		}
+		final double jset = getSunsetJulianDate(jtransit, omega);
+		return epochMillisFromJulianDate(jtransit - (jset - jtransit));
+	}
+
+	/**
+	 * @param jtransit the solar transit, as a Julian date
+	 * @param omega    the hour angle, in radians, or NaN if the event doesn't occur
+	 * @return the sunset (or dusk, depending on the altitude used for the hour angle), in milliseconds
+	 * since 1970-01-01 UTC, or {@link #NO_EVENT}.
+	 */
+	static long getSunsetTime(final double jtransit, final double omega) {
+		if (Double.isNaN(omega)) {
+			return NO_EVENT;
+		}
+		return epochMillisFromJulianDate(getSunsetJulianDate(jtransit, omega));
+	}
+
+	/**
+	 * Calculate all the solar events for the given date and given location: sunrise, sunset, civil, nautical and
+	 * astronomical twilights, and solar noon. <br>
+	 * This is faster than calling the methods for each event separately: the intermediate variables of the
+	 * sunrise equation are calculated only once.
+	 *
+	 * @param day       The day for which to calculate the solar events
+	 * @param latitude  the latitude of the location in degrees.
+	 * @param longitude the longitude of the location in degrees (West is negative)
+	 * @return the solar events for the given day. Events which don't occur on that day are {@link #NO_EVENT}.
+	 */
+	public static SolarEvents getAllSolarEvents(final Calendar day, final double latitude, final double longitude) {
+		return getAllSolarEvents(day.getTimeInMillis(), latitude, longitude);
+	}
+
+	/**
+	 * Calculate all the solar events for the given time and given location: sunrise, sunset, civil, nautical and
+	 * astronomical twilights, and solar noon. <br>
+	 * This is faster than calling the methods for each event separately: the intermediate variables of the
+	 * sunrise equation are calculated only once.
+	 *
+	 * @param timeInMillis The time, in milliseconds since 1970-01-01 UTC, of the day for which to calculate the solar events
+	 * @param latitude     the latitude of the location in degrees.
+	 * @param longitude    the longitude of the location in degrees (West is negative)
+	 * @return the solar events for the given day. Events which don't occur on that day are {@link #NO_EVENT}.
+	 */
+	public static SolarEvents getAllSolarEvents(final long timeInMillis, final double latitude, final double longitude) {
+		final SolarEquationVariables solarEquationVariables = getSolarEquationVariables(julianDateFromEpochMillis(timeInMillis), longitude);
+		final double jtransit = solarEquationVariables.jtransit;
+
+		final double latitudeRad = Math.toRadians(latitude);
+		final double sinLatitude = Math.sin(latitudeRad);
+		final double cosLatitude = Math.cos(latitudeRad);
+		final double sinDelta = Math.sin(solarEquationVariables.delta);
+		final double cosDelta = Math.cos(solarEquationVariables.delta);
+
+		final double omegaSunriseSunset = getHourAngle(SIN_SUN_ALTITUDE_SUNRISE_SUNSET, sinLatitude, cosLatitude, sinDelta, cosDelta);
+		final double omegaCivilTwilight = getHourAngle(SIN_SUN_ALTITUDE_CIVIL_TWILIGHT, sinLatitude, cosLatitude, sinDelta, cosDelta);
+		final double omegaNauticalTwilight = getHourAngle(SIN_SUN_ALTITUDE_NAUTICAL_TWILIGHT, sinLatitude, cosLatitude, sinDelta, cosDelta);
+		final double omegaAstronomicalTwilight = getHourAngle(SIN_SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT, sinLatitude, cosLatitude, sinDelta, cosDelta);
+
+		// If there's no sunrise, there's no solar noon.
+		final long solarNoon = Double.isNaN(omegaSunriseSunset) ? NO_EVENT : epochMillisFromJulianDate(jtransit);
+
+		return new SolarEvents(
+				getSunriseTime(jtransit, omegaSunriseSunset), getSunsetTime(jtransit, omegaSunriseSunset),
+				getSunriseTime(jtransit, omegaCivilTwilight), getSunsetTime(jtransit, omegaCivilTwilight),
+				getSunriseTime(jtransit, omegaNauticalTwilight), getSunsetTime(jtransit, omegaNauticalTwilight),
+				getSunriseTime(jtransit, omegaAstronomicalTwilight), getSunsetTime(jtransit, omegaAstronomicalTwilight),
+				solarNoon);
 	}
 
 	/**
@@ -349,39 +565,65 @@ public final class SunriseSunset {
 	 */
 	public static Calendar[] getSunriseSunset(final Calendar day,
 											  final double latitude, double longitude, double sunAltitude) {
+		final long[] sunriseSunset = new long[2];
+		if (!getSunriseSunset(day.getTimeInMillis(), latitude, longitude, sunAltitude, sunriseSunset)) {
+			return null;
+		}
 
-		final SolarEquationVariables solarEquationVariables = getSolarEquationVariables(day, longitude);
+		// Convert the sunset and sunrise to the timezone of the day parameter
+		final Calendar gregRise = Calendar.getInstance(day.getTimeZone());
+		gregRise.setTimeInMillis(sunriseSunset[0]);
+		final Calendar gregSet = Calendar.getInstance(day.getTimeZone());
+		gregSet.setTimeInMillis(sunriseSunset[1]);
+		return new Calendar[]{gregRise, gregSet};
+	}
 
-		longitude = -longitude;
-		final double latitudeRad = Math.toRadians(latitude);
+	/**
+	 * Calculate the sunrise and sunset times for the given time, given
+	 * location, and sun altitude, without allocating any Calendar.
+	 * This is based on the Wikipedia article on the Sunrise equation.
+	 *
+	 * @param timeInMillis  The time, in milliseconds since 1970-01-01 UTC, of the day for which to calculate sunrise and sunset
+	 * @param latitude      the latitude of the location in degrees.
+	 * @param longitude     the longitude of the location in degrees (West is negative)
+	 * @param sunAltitude   <a href="http://en.wikipedia.org/wiki/Solar_zenith_angle#Solar_elevation_angle">the angle between the horizon and the center of the sun's disc.</a>
+	 * @param sunriseSunset a two-element array, which will be filled with the sunrise and the sunset,
+	 *                      in milliseconds since 1970-01-01 UTC.
+	 * @return true if there is a sunrise and sunset on the given day, false otherwise. (Ex: no sunrise in Antarctica in June)
+	 * @see <a href="http://en.wikipedia.org/wiki/Sunrise_equation">Sunrise equation on Wikipedia</a>
+	 */
+	public static boolean getSunriseSunset(final long timeInMillis,
+										   final double latitude, double longitude, double sunAltitude, final long[] sunriseSunset) {
+
+		final double julianDate = julianDateFromEpochMillis(timeInMillis);
+		final SolarEquationVariablesCache cache = solarEquationVariablesCache;
+		if (cache != null) {
+			final SolarEquationVariables solarEquationVariables = cache.get(getJulianCycle(julianDate, longitude), longitude);
+			return solveSunriseSunset(solarEquationVariables.jtransit, solarEquationVariables.delta, latitude, sunAltitude, sunriseSunset);
+		}
+		final double n = getJulianCycle(julianDate, longitude);
+		final double m = getSolarMeanAnomaly(n, longitude);
+		final double lambda = getEclipticLongitude(m);
+		return solveSunriseSunset(getSolarTransit(n, longitude, m, lambda), getDeclination(lambda), latitude, sunAltitude, sunriseSunset);
+	}
 
+	/**
+	 * Solve the sunrise equation for the given solar transit and declination.
+	 *
+	 * @see #getSunriseSunset(long, double, double, double, long[])
+	 */
+	private static boolean solveSunriseSunset(final double jtransit, final double delta,
+											  final double latitude, final double sunAltitude, final long[] sunriseSunset) {
 		// Hour angle
-		final double omega = Math.acos((Math.sin(Math.toRadians(sunAltitude)) - Math
-				.sin(latitudeRad) * Math.sin(solarEquationVariables.delta))
-				/ (Math.cos(latitudeRad) * Math.cos(solarEquationVariables.delta)));
+		final double omega = getHourAngle(latitude, sunAltitude, delta);
 
 		if (Double.isNaN(omega)) {
-			return null;
+			return false;
 		}
 
-		// Sunset
-		final double jset = JULIAN_DATE_2000_01_01
-				+ CONST_0009
-				+ ((Math.toDegrees(omega) + longitude) / CONST_360 + solarEquationVariables.n + 0.0053
-				* Math.sin(solarEquationVariables.m) - 0.0069 * Math.sin(2 * solarEquationVariables.lambda));
-
-		// Sunrise
-		final double jrise = solarEquationVariables.jtransit - (jset - solarEquationVariables.jtransit);
-		// Convert sunset and sunrise to Gregorian dates, in UTC
-		final Calendar gregRiseUTC = getGregorianDate(jrise);
-		final Calendar gregSetUTC = getGregorianDate(jset);
-
-		// Convert the sunset and sunrise to the timezone of the day parameter
-		final Calendar gregRise = Calendar.getInstance(day.getTimeZone());
-		gregRise.setTimeInMillis(gregRiseUTC.getTimeInMillis());
-		final Calendar gregSet = Calendar.getInstance(day.getTimeZone());
-		gregSet.setTimeInMillis(gregSetUTC.getTimeInMillis());
-		return new Calendar[]{gregRise, gregSet};
+		sunriseSunset[0] = getSunriseTime(jtransit, omega);
+		sunriseSunset[1] = getSunsetTime(jtransit, omega);
+		return true;
 	}
 
 	/**
@@ -395,28 +637,57 @@ public final class SunriseSunset {
 	 * @see <a href="http://en.wikipedia.org/wiki/Sunrise_equation">Sunrise equation on Wikipedia</a>
 	 */
 	public static Calendar getSolarNoon(final Calendar day, final double latitude, double longitude) {
-		SolarEquationVariables solarEquationVariables = getSolarEquationVariables(day, longitude);
+		final long solarNoon = getSolarNoon(day.getTimeInMillis(), latitude, longitude);
+		if (solarNoon == NO_EVENT) {
+			return null;
+		}
+
+		final Calendar gregNoon = Calendar.getInstance(day.getTimeZone());
+		gregNoon.setTimeInMillis(solarNoon);
+		return gregNoon;
+	}
+
+	/**
+	 * Calculate the solar noon time for the given time and given location, without allocating any Calendar.
+	 * This is based on the Wikipedia article on the Sunrise equation.
+	 *
+	 * @param timeInMillis The time, in milliseconds since 1970-01-01 UTC, of the day for which to calculate solar noon
+	 * @param latitude     the latitude of the location in degrees.
+	 * @param longitude    the longitude of the location in degrees (West is negative)
+	 * @return the solar noon for the given day, in milliseconds since 1970-01-01 UTC, or {@link #NO_EVENT}
+	 * if there is no solar noon. (Ex: no solar noon in Antarctica in June)
+	 * @see <a href="http://en.wikipedia.org/wiki/Sunrise_equation">Sunrise equation on Wikipedia</a>
+	 */
+	public static long getSolarNoon(final long timeInMillis, final double latitude, double longitude) {
+		final double julianDate = julianDateFromEpochMillis(timeInMillis);
+		final SolarEquationVariablesCache cache = solarEquationVariablesCache;
+		if (cache != null) {
+			final SolarEquationVariables solarEquationVariables = cache.get(getJulianCycle(julianDate, longitude), longitude);
+			return solveSolarNoon(solarEquationVariables.jtransit, solarEquationVariables.delta, latitude);
+		}
+		final double n = getJulianCycle(julianDate, longitude);
+		final double m = getSolarMeanAnomaly(n, longitude);
+		final double lambda = getEclipticLongitude(m);
+		return solveSolarNoon(getSolarTransit(n, longitude, m, lambda), getDeclination(lambda), latitude);
+	}
 
+	/**
+	 * Solve the sunrise equation for the given solar transit and declination.
+	 *
+	 * @see #getSolarNoon(long, double, double)
+	 */
+	private static long solveSolarNoon(final double jtransit, final double delta, final double latitude) {
 		// Add a check for Antarctica in June and December (sun always down or up, respectively).
 		// In this case, jtransit will be filled in, but we need to check the hour angle omega for
 		// sunrise.
 		// If there's no sunrise (omega is NaN), there's no solar noon.
-		final double latitudeRad = Math.toRadians(latitude);
-
-		// Hour angle
-		final double omega = Math.acos((Math.sin(Math.toRadians(SUN_ALTITUDE_SUNRISE_SUNSET)) - Math
-				.sin(latitudeRad) * Math.sin(solarEquationVariables.delta))
-				/ (Math.cos(latitudeRad) * Math.cos(solarEquationVariables.delta)));
+		final double omega = getHourAngle(latitude, SUN_ALTITUDE_SUNRISE_SUNSET, delta);
 
 		if (Double.isNaN(omega)) {
-			return null;
+			return NO_EVENT;
 		}
 
-		// Convert jtransit Gregorian dates, in UTC
-		final Calendar gregNoonUTC = getGregorianDate(solarEquationVariables.jtransit);
-		final Calendar gregNoon = Calendar.getInstance(day.getTimeZone());
-		gregNoon.setTimeInMillis(gregNoonUTC.getTimeInMillis());
-		return gregNoon;
+		return epochMillisFromJulianDate(jtransit);
 	}
 
 	/**
@@ -444,20 +715,7 @@ public final class SunriseSunset {
 		// In extreme latitudes, there may be no sunrise/sunset time in summer or
 		// winter, because it will be day or night 24 hours
 		if (sunriseSunset == null) {
-			int month = calendar.get(Calendar.MONTH); // Reminder: January = 0
-			if (latitude > 0) {
-				if (month >= 3 && month <= 10) {
-					return true; // Always day at the north pole in June
-				} else {
-					return false; // Always night at the north pole in December
-				}
-			} else {
-				if (month >= 3 && month <= 10) {
-					return false; // Always night at the south pole in June
-				} else {
-					return true; // Always day at the south pole in December
-				}
-			}
+			return isAlwaysAbove(SIN_SUN_ALTITUDE_SUNRISE_SUNSET, calendar.getTimeInMillis(), latitude, longitude);
 		}
 		Calendar sunrise = sunriseSunset[0];
 		Calendar sunset = sunriseSunset[1];
@@ -487,20 +745,8 @@ public final class SunriseSunset {
 	public static boolean isNight(Calendar calendar, double latitude, double longitude) {
 		Calendar[] astronomicalTwilight = getAstronomicalTwilight(calendar, latitude, longitude);
 		if (astronomicalTwilight == null) {
-			int month = calendar.get(Calendar.MONTH); // Reminder: January = 0
-			if (latitude > 0) {
-				if (month >= 3 && month <= 10) {
-					return false; // Always day at the north pole in June
-				} else {
-					return true; // Always night at the north pole in December
-				}
-			} else {
-				if (month >= 3 && month <= 10) {
-					return true; // Always night at the south pole in June
-				} else {
-					return false; // Always day at the south pole in December
-				}
-			}
+			// Night all day, or no night at all if the sun stays above the astronomical twilight altitude.
+			return !isAlwaysAbove(SIN_SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT, calendar.getTimeInMillis(), latitude, longitude);
 		}
 		Calendar dawn = astronomicalTwilight[0];
 		Calendar dusk = astronomicalTwilight[1];
@@ -625,15 +871,213 @@ public final class SunriseSunset {
 				|| isAstronomicalTwilight(calendar, latitude, longitude);
 	}
 
+	/**
+	 * Determine the period of the day at the given location and datetime. <br>
+	 * This calculates the altitude of the sun once, at the given datetime, and compares it to the altitudes of
+	 * sunrise/sunset and of the twilights. This gives the same result as calling {@link #isDay(Calendar, double, double)},
+	 * {@link #isCivilTwilight(Calendar, double, double)}, {@link #isNauticalTwilight(Calendar, double, double)},
+	 * {@link #isAstronomicalTwilight(Calendar, double, double)} and {@link #isNight(Calendar, double, double)}, at the
+	 * cost of a single sunrise calculation.
+	 *
+	 * @param calendar  a datetime
+	 * @param latitude  the latitude of the location in degrees.
+	 * @param longitude the longitude of the location in degrees (West is negative)
+	 * @return the period of the day at the given location and datetime.
+	 */
 	public static DayPeriod getDayPeriod(Calendar calendar, double latitude, double longitude) {
-		if (isDay(calendar, latitude, longitude)) return DayPeriod.DAY;
-		if (isCivilTwilight(calendar, latitude, longitude)) return DayPeriod.CIVIL_TWILIGHT;
-		if (isNauticalTwilight(calendar, latitude, longitude)) return DayPeriod.NAUTICAL_TWILIGHT;
-		if (isAstronomicalTwilight(calendar, latitude, longitude)) return DayPeriod.ASTRONOMICAL_TWILIGHT;
-		if (isNight(calendar, latitude, longitude)) return DayPeriod.NIGHT;
+		return getDayPeriod(calendar.getTimeInMillis(), latitude, longitude);
+	}
+
+	/**
+	 * Like {@link #getDayPeriod(Calendar, double, double)}, without allocating any Calendar.
+	 *
+	 * @param timeInMillis a datetime, in milliseconds since 1970-01-01 UTC
+	 * @param latitude     the latitude of the location in degrees.
+	 * @param longitude    the longitude of the location in degrees (West is negative)
+	 * @return the period of the day at the given location and datetime.
+	 */
+	public static DayPeriod getDayPeriod(long timeInMillis, double latitude, double longitude) {
+		final double julianDate = julianDateFromEpochMillis(timeInMillis);
+		final SolarEquationVariablesCache cache = solarEquationVariablesCache;
+		if (cache != null) {
+			final SolarEquationVariables solarEquationVariables = cache.get(getJulianCycle(julianDate, longitude), longitude);
+			return solveDayPeriod(julianDate, solarEquationVariables.jtransit, solarEquationVariables.delta, latitude);
+		}
+		final double n = getJulianCycle(julianDate, longitude);
+		final double m = getSolarMeanAnomaly(n, longitude);
+		final double lambda = getEclipticLongitude(m);
+		return solveDayPeriod(julianDate, getSolarTransit(n, longitude, m, lambda), getDeclination(lambda), latitude);
+	}
+
+	/**
+	 * Solve the sunrise equation for the given solar transit and declination.
+	 *
+	 * @see #getDayPeriod(long, double, double)
+	 */
+	private static DayPeriod solveDayPeriod(final double julianDate, final double jtransit, final double delta,
+											final double latitude) {
+		final double latitudeRad = Math.toRadians(latitude);
+		return solveDayPeriod(julianDate, jtransit, delta, Math.sin(latitudeRad), Math.cos(latitudeRad));
+	}
+
+	/**
+	 * Like {@link #solveDayPeriod(double, double, double, double)}, for callers which already have the sine and
+	 * cosine of the latitude.
+	 */
+	static DayPeriod solveDayPeriod(final double julianDate, final double jtransit, final double delta,
+									final double sinLatitude, final double cosLatitude) {
+		final double sinDelta = Math.sin(delta);
+		final double sinLatitudeSinDelta = sinLatitude * sinDelta;
+		final double cosLatitudeCosDelta = cosLatitude * Math.cos(delta);
+
+		// The sunrise, sunset and twilights we compare to are the ones around the solar transit of this
+		// Julian cycle. Past half a day from the transit, we are after the last dusk or before the first dawn
+		// of this cycle, as if the sun were at its lowest.
+		final double daysFromTransit = julianDate - jtransit;
+		final double cosHourAngle = Math.abs(daysFromTransit) > 0.5 ? -1 : Math.cos(2 * Math.PI * daysFromTransit);
+
+		// The sine of the altitude of the sun now, and at its highest and lowest in this Julian cycle.
+		// The sun crosses a given altitude during the cycle only if that altitude is between its lowest and highest.
+		final double sinAltitude = sinLatitudeSinDelta + cosLatitudeCosDelta * cosHourAngle;
+		final double sinMaxAltitude = sinLatitudeSinDelta + cosLatitudeCosDelta;
+		final double sinMinAltitude = sinLatitudeSinDelta - cosLatitudeCosDelta;
+
+		final boolean hasSunriseSunset = isCrossed(SIN_SUN_ALTITUDE_SUNRISE_SUNSET, sinMinAltitude, sinMaxAltitude);
+		final boolean hasCivilTwilight = isCrossed(SIN_SUN_ALTITUDE_CIVIL_TWILIGHT, sinMinAltitude, sinMaxAltitude);
+		final boolean hasNauticalTwilight = isCrossed(SIN_SUN_ALTITUDE_NAUTICAL_TWILIGHT, sinMinAltitude, sinMaxAltitude);
+		final boolean hasAstronomicalTwilight = isCrossed(SIN_SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT, sinMinAltitude, sinMaxAltitude);
+
+		// Each period is only considered if both the sun altitudes which delimit it occur, like in
+		// isDay, isCivilTwilight, isNauticalTwilight and isAstronomicalTwilight.
+		if (hasSunriseSunset) {
+			if (sinAltitude > SIN_SUN_ALTITUDE_SUNRISE_SUNSET) return DayPeriod.DAY;
+		} else if (isAlwaysAbove(SIN_SUN_ALTITUDE_SUNRISE_SUNSET, sinLatitude, sinDelta)) {
+			return DayPeriod.DAY;
+		}
+		if (hasSunriseSunset && hasCivilTwilight
+				&& sinAltitude < SIN_SUN_ALTITUDE_SUNRISE_SUNSET && sinAltitude > SIN_SUN_ALTITUDE_CIVIL_TWILIGHT) {
+			return DayPeriod.CIVIL_TWILIGHT;
+		}
+		if (hasCivilTwilight && hasNauticalTwilight
+				&& sinAltitude < SIN_SUN_ALTITUDE_CIVIL_TWILIGHT && sinAltitude > SIN_SUN_ALTITUDE_NAUTICAL_TWILIGHT) {
+			return DayPeriod.NAUTICAL_TWILIGHT;
+		}
+		if (hasNauticalTwilight && hasAstronomicalTwilight
+				&& sinAltitude < SIN_SUN_ALTITUDE_NAUTICAL_TWILIGHT && sinAltitude > SIN_SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT) {
+			return DayPeriod.ASTRONOMICAL_TWILIGHT;
+		}
 		return DayPeriod.NIGHT;
 	}
 
+	/**
+	 * Find when the period of the day at the given location will next change. <br>
+	 * The result is consistent with {@link #getDayPeriod(long, double, double)}: the period is the same from the
+	 * given time until the time of the transition, excluded. This allows to wait until the period changes, instead
+	 * of polling {@link #getDayPeriod(long, double, double)}.
+	 *
+	 * @param timeInMillis a datetime, in milliseconds since 1970-01-01 UTC
+	 * @param latitude     the latitude of the location in degrees.
+	 * @param longitude    the longitude of the location in degrees (West is negative)
+	 * @return the next transition after the given time, or null if the period doesn't change in the next
+	 * {@value #MAX_TRANSITION_SEARCH_DAYS} days.
+	 */
+	public static DayPeriodTransition getNextDayPeriodTransition(long timeInMillis, double latitude, double longitude) {
+		final DayPeriod dayPeriod = getDayPeriod(timeInMillis, latitude, longitude);
+		final double firstN = getJulianCycle(julianDateFromEpochMillis(timeInMillis), longitude);
+		final double latitudeRad = Math.toRadians(latitude);
+		final double sinLatitude = Math.sin(latitudeRad);
+		final double cosLatitude = Math.cos(latitudeRad);
+		final long[] candidates = new long[3 * 11];
+
+		// The period can only change when the sun crosses one of the altitudes of the day periods, half a day
+		// from a solar transit, or when the Julian cycle changes, with the declination: this is also when polar days
+		// and nights start and end.
+		// Check each Julian cycle, with the candidates of the cycles before and after, because the candidates
+		// of a cycle can be slightly outside of it.
+		long previousCandidate = timeInMillis;
+		for (int i = 0; i < MAX_TRANSITION_SEARCH_DAYS; i++) {
+			final double n = firstN + i;
+			final long cycleEnd = epochMillisFromJulianDate(getJulianCycleStart(n + 1, longitude));
+			int candidateCount = 0;
+			for (double cycle = n - 1; cycle <= n + 1; cycle++) {
+				candidateCount = addTransitionCandidates(cycle, longitude, sinLatitude, cosLatitude, candidates, candidateCount);
+			}
+			Arrays.sort(candidates, 0, candidateCount);
+			for (int j = 0; j < candidateCount; j++) {
+				final long candidate = candidates[j];
+				if (candidate <= previousCandidate || candidate > cycleEnd) continue;
+				final DayPeriodTransition transition = getDayPeriodTransition(previousCandidate, candidate, dayPeriod, latitude, longitude);
+				if (transition != null) return transition;
+				previousCandidate = candidate;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the Julian date at which the given Julian cycle starts, for the given longitude.
+	 * @see #getJulianCycle(double, double)
+	 */
+	static double getJulianCycleStart(double n, double longitude) {
+		return n - 0.5 + JULIAN_DATE_2000_01_01 + CONST_0009 - longitude / CONST_360;
+	}
+
+	/**
+	 * Add the times, in milliseconds since 1970-01-01 UTC, at which the period of the day may change during the
+	 * given Julian cycle.
+	 *
+	 * @return the new number of candidates.
+	 */
+	private static int addTransitionCandidates(double n, double longitude, double sinLatitude, double cosLatitude,
+											   long[] candidates, int candidateCount) {
+		final double m = getSolarMeanAnomaly(n, longitude);
+		final double lambda = getEclipticLongitude(m);
+		final double delta = getDeclination(lambda);
+		final double jtransit = getSolarTransit(n, longitude, m, lambda);
+		final double sinDelta = Math.sin(delta);
+		final double cosDelta = Math.cos(delta);
+		candidates[candidateCount++] = epochMillisFromJulianDate(getJulianCycleStart(n, longitude));
+		candidates[candidateCount++] = epochMillisFromJulianDate(jtransit - 0.5);
+		candidates[candidateCount++] = epochMillisFromJulianDate(jtransit + 0.5);
+		for (double sinSunAltitude : SIN_DAY_PERIOD_SUN_ALTITUDES) {
+			final double omega = getHourAngle(sinSunAltitude, sinLatitude, cosLatitude, sinDelta, cosDelta);
+			if (!Double.isNaN(omega)) {
+				candidates[candidateCount++] = getSunriseTime(jtransit, omega);
+				candidates[candidateCount++] = getSunsetTime(jtransit, omega);
+			}
+		}
+		return candidateCount;
+	}
+
+	/**
+	 * The period of the day is the same from previousCandidate to just before candidate. Check if it changes
+	 * around candidate.
+	 *
+	 * @return the transition around the candidate, or null if the period doesn't change there.
+	 */
+	private static DayPeriodTransition getDayPeriodTransition(long previousCandidate, long candidate, DayPeriod dayPeriod,
+															  double latitude, double longitude) {
+		// The candidates are rounded to the millisecond, so the period may change one or two milliseconds
+		// around them.
+		final long to = candidate + TRANSITION_PRECISION_MILLIS;
+		if (getDayPeriod(to, latitude, longitude) == dayPeriod) return null;
+		for (long time = Math.max(previousCandidate + 1, candidate - TRANSITION_PRECISION_MILLIS); time <= to; time++) {
+			final DayPeriod newDayPeriod = getDayPeriod(time, latitude, longitude);
+			if (newDayPeriod != dayPeriod) {
+				return new DayPeriodTransition(time, newDayPeriod);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return true if the sun crosses the altitude with the given sine, during a Julian cycle in which the sine of
+	 * its altitude goes from sinMinAltitude to sinMaxAltitude.
+	 */
+	private static boolean isCrossed(double sinSunAltitude, double sinMinAltitude, double sinMaxAltitude) {
+		return sinSunAltitude > sinMinAltitude && sinSunAltitude < sinMaxAltitude;
+	}
+
 	/**
 	 *
 	 * @param calendar the datetime for which to determine the day length
@@ -642,24 +1086,73 @@ public final class SunriseSunset {
 	 * @return the number of milliseconds between sunrise and sunset.
 	 */
 	public static long getDayLength(Calendar calendar, double latitude, double longitude) {
-		Calendar[] sunriseSunset = getSunriseSunset(calendar, latitude, longitude);
-		if (sunriseSunset == null) {
-			int month = calendar.get(Calendar.MONTH); // Reminder: January = 0
-			if (latitude > 0) {
-				if (month >= 3 && month <= 10) {
-					return MILLISECONDS_IN_DAY; // Always day at the north pole in June
-				} else {
-					return 0; // Always night at the north pole in December
-				}
-			} else {
-				if (month >= 3 && month <= 10) {
-					return 0; // Always night at the south pole in June
-				} else {
-					return MILLISECONDS_IN_DAY; // Always day at the south pole in December
-				}
-			}
+		return getDayLength(calendar.getTimeInMillis(), latitude, longitude);
+	}
+
+	/**
+	 * Like {@link #getDayLength(Calendar, double, double)}, without allocating any Calendar.
+	 *
+	 * @param timeInMillis the datetime, in milliseconds since 1970-01-01 UTC, for which to determine the day length
+	 * @param latitude     the latitude of the location in degrees.
+	 * @param longitude    the longitude of the location in degrees (West is negative)
+	 * @return the number of milliseconds between sunrise and sunset.
+	 */
+	public static long getDayLength(long timeInMillis, double latitude, double longitude) {
+		final double julianDate = julianDateFromEpochMillis(timeInMillis);
+		final SolarEquationVariablesCache cache = solarEquationVariablesCache;
+		final double delta;
+		final double jtransit;
+		if (cache != null) {
+			final SolarEquationVariables solarEquationVariables = cache.get(getJulianCycle(julianDate, longitude), longitude);
+			delta = solarEquationVariables.delta;
+			jtransit = solarEquationVariables.jtransit;
+		} else {
+			final double n = getJulianCycle(julianDate, longitude);
+			final double m = getSolarMeanAnomaly(n, longitude);
+			final double lambda = getEclipticLongitude(m);
+			delta = getDeclination(lambda);
+			jtransit = getSolarTransit(n, longitude, m, lambda);
 		}
-		return sunriseSunset[1].getTimeInMillis() - sunriseSunset[0].getTimeInMillis();
+		final double omega = getHourAngle(latitude, SUN_ALTITUDE_SUNRISE_SUNSET, delta);
+		if (Double.isNaN(omega)) {
+			return getPolarDayLength(Math.sin(Math.toRadians(latitude)), Math.sin(delta));
+		}
+		return getSunsetTime(jtransit, omega) - getSunriseTime(jtransit, omega);
+	}
+
+	/**
+	 * In extreme latitudes, there may be no sunrise/sunset time in summer or
+	 * winter, because it will be day or night 24 hours.
+	 *
+	 * @param sinLatitude the sine of the latitude
+	 * @param sinDelta    the sine of the declination of the sun during the day
+	 * @return the day length for a day without sunrise or sunset.
+	 */
+	static long getPolarDayLength(double sinLatitude, double sinDelta) {
+		return isAlwaysAbove(SIN_SUN_ALTITUDE_SUNRISE_SUNSET, sinLatitude, sinDelta) ? MILLISECONDS_IN_DAY : 0;
+	}
+
+	/**
+	 * For a Julian cycle during which the sun doesn't cross the altitude with the given sine, determine if it stays
+	 * above or below that altitude. This only depends on the declination of the sun during the cycle.
+	 *
+	 * @param sinSunAltitude the sine of the altitude of the sun
+	 * @param sinLatitude    the sine of the latitude
+	 * @param sinDelta       the sine of the declination of the sun during the Julian cycle
+	 * @return true if the sun stays above the altitude for 24 hours, false if it stays below it.
+	 */
+	static boolean isAlwaysAbove(double sinSunAltitude, double sinLatitude, double sinDelta) {
+		// The cosine of the hour angle, (sinSunAltitude - sinLatitude * sinDelta) / (cosLatitude * cosDelta), is
+		// below -1 or above 1, and its denominator is positive.
+		return sinSunAltitude < sinLatitude * sinDelta;
+	}
+
+	/**
+	 * Like {@link #isAlwaysAbove(double, double, double)}, for the Julian cycle of the given time.
+	 */
+	private static boolean isAlwaysAbove(double sinSunAltitude, long timeInMillis, double latitude, double longitude) {
+		final SolarEquationVariables solarEquationVariables = getSolarEquationVariables(julianDateFromEpochMillis(timeInMillis), longitude);
+		return isAlwaysAbove(sinSunAltitude, Math.sin(Math.toRadians(latitude)), Math.sin(solarEquationVariables.delta));
 	}
 
 }
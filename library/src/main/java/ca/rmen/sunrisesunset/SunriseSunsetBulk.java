@@ -0,0 +1,223 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Provides methods to calculate the solar events of many locations at once. <br>
+ * The locations are given as parallel arrays of latitudes and longitudes, and the results are written to a
+ * {@link SolarEventsArray}. The results are the same as calling
+ * {@link SunriseSunset#getAllSolarEvents(long, double, double)} for each location. <br>
+ * The calculation is done in passes over primitive arrays, each pass doing the same arithmetic for every
+ * location, without allocating any object per location. The locations can also be split in chunks
+ * calculated in parallel by an {@link ExecutorService}.
+ *
+ * @author Carmen Alvarez
+ */
+public final class SunriseSunsetBulk {
+
+	// Below this number of locations, it's not worth splitting the work between threads.
+	private static final int MIN_CHUNK_SIZE = 4096;
+
+	private SunriseSunsetBulk() {
+		// Prevent instantiation of this utility class
+	}
+
+	/**
+	 * Calculate the solar events of the given locations, for the given day.
+	 *
+	 * @param timeInMillis The time, in milliseconds since 1970-01-01 UTC, of the day for which to calculate the solar events
+	 * @param latitudes    the latitudes of the locations in degrees.
+	 * @param longitudes   the longitudes of the locations in degrees (West is negative)
+	 * @param result       will be filled with the solar events of each location. Its size must be the number of locations.
+	 */
+	public static void getAllSolarEvents(long timeInMillis, double[] latitudes, double[] longitudes, SolarEventsArray result) {
+		checkSizes(null, latitudes, longitudes, result);
+		getAllSolarEvents(timeInMillis, null, latitudes, longitudes, result, 0, latitudes.length);
+	}
+
+	/**
+	 * Calculate the solar events of the given locations, each for its own day.
+	 *
+	 * @param timesInMillis for each location, the time, in milliseconds since 1970-01-01 UTC, of the day for which to
+	 *                      calculate the solar events
+	 * @param latitudes     the latitudes of the locations in degrees.
+	 * @param longitudes    the longitudes of the locations in degrees (West is negative)
+	 * @param result        will be filled with the solar events of each location. Its size must be the number of locations.
+	 */
+	public static void getAllSolarEvents(long[] timesInMillis, double[] latitudes, double[] longitudes, SolarEventsArray result) {
+		checkSizes(timesInMillis, latitudes, longitudes, result);
+		getAllSolarEvents(0, timesInMillis, latitudes, longitudes, result, 0, latitudes.length);
+	}
+
+	/**
+	 * Like {@link #getAllSolarEvents(long, double[], double[], SolarEventsArray)}, but splits the locations
+	 * in chunks, calculated in parallel by the given executor. This method returns once all the chunks are calculated.
+	 *
+	 * @param executor the executor which will calculate the chunks. The calling thread waits for them.
+	 * @throws InterruptedException if the calling thread is interrupted while waiting for the chunks.
+	 */
+	public static void getAllSolarEvents(long timeInMillis, double[] latitudes, double[] longitudes, SolarEventsArray result,
+										 ExecutorService executor) throws InterruptedException {
+		checkSizes(null, latitudes, longitudes, result);
+		getAllSolarEvents(timeInMillis, null, latitudes, longitudes, result, executor);
+	}
+
+	/**
+	 * Like {@link #getAllSolarEvents(long[], double[], double[], SolarEventsArray)}, but splits the locations
+	 * in chunks, calculated in parallel by the given executor. This method returns once all the chunks are calculated.
+	 *
+	 * @param executor the executor which will calculate the chunks. The calling thread waits for them.
+	 * @throws InterruptedException if the calling thread is interrupted while waiting for the chunks.
+	 */
+	public static void getAllSolarEvents(long[] timesInMillis, double[] latitudes, double[] longitudes, SolarEventsArray result,
+										 ExecutorService executor) throws InterruptedException {
+		checkSizes(timesInMillis, latitudes, longitudes, result);
+		getAllSolarEvents(0, timesInMillis, latitudes, longitudes, result, executor);
+	}
+
+	private static void checkSizes(long[] timesInMillis, double[] latitudes, double[] longitudes, SolarEventsArray result) {
+		if (latitudes.length != longitudes.length
+				|| latitudes.length != result.size()
+				|| (timesInMillis != null && timesInMillis.length != latitudes.length)) {
+			throw new IllegalArgumentException("The input and result arrays must all have the same size");
+		}
+	}
+
+	private static void getAllSolarEvents(final long timeInMillis, final long[] timesInMillis,
+										  final double[] latitudes, final double[] longitudes,
+										  final SolarEventsArray result, ExecutorService executor) throws InterruptedException {
+		final int size = latitudes.length;
+		final int chunkCount = Math.min(Runtime.getRuntime().availableProcessors() * 4, size / MIN_CHUNK_SIZE);
+		if (chunkCount <= 1) {
+			getAllSolarEvents(timeInMillis, timesInMillis, latitudes, longitudes, result, 0, size);
+			return;
+		}
+
+		final int chunkSize = (size + chunkCount - 1) / chunkCount;
+		final List<Future<Void>> futures = new ArrayList<Future<Void>>(chunkCount);
+		try {
+			for (int from = 0; from < size; from += chunkSize) {
+				final int chunkFrom = from;
+				final int chunkTo = Math.min(from + chunkSize, size);
+				futures.add(executor.submit(new Callable<Void>() {
+					public Void call() {
+						getAllSolarEvents(timeInMillis, timesInMillis, latitudes, longitudes, result, chunkFrom, chunkTo);
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (ExecutionException e) {
+			// The calculation doesn't throw checked exceptions.
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new IllegalStateException(cause);
+		} finally {
+			for (Future<Void> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Calculate the solar events of the locations from index <code>from</code> (inclusive) to
+	 * <code>to</code> (exclusive).
+	 *
+	 * @param timesInMillis if null, timeInMillis is used for all the locations.
+	 */
+	private static void getAllSolarEvents(long timeInMillis, long[] timesInMillis,
+										  double[] latitudes, double[] longitudes,
+										  SolarEventsArray result, int from, int to) {
+		final int length = to - from;
+		final double[] jtransits = new double[length];
+		final double[] sinLatitudeSinDeltas = new double[length];
+		final double[] cosLatitudeCosDeltas = new double[length];
+
+		// First pass: the variables of the sunrise equation which don't depend on the sun altitude.
+		for (int i = 0; i < length; i++) {
+			final int location = from + i;
+			final double julianDate = SunriseSunset.julianDateFromEpochMillis(timesInMillis == null ? timeInMillis : timesInMillis[location]);
+			final double longitude = longitudes[location];
+			final double n = SunriseSunset.getJulianCycle(julianDate, longitude);
+			final double m = SunriseSunset.getSolarMeanAnomaly(n, longitude);
+			final double lambda = SunriseSunset.getEclipticLongitude(m);
+			final double delta = SunriseSunset.getDeclination(lambda);
+			final double latitudeRad = Math.toRadians(latitudes[location]);
+			jtransits[i] = SunriseSunset.getSolarTransit(n, longitude, m, lambda);
+			sinLatitudeSinDeltas[i] = Math.sin(latitudeRad) * Math.sin(delta);
+			cosLatitudeCosDeltas[i] = Math.cos(latitudeRad) * Math.cos(delta);
+		}
+
+		// One pass per sun altitude.
+		final byte[] statuses = result.getStatuses();
+		for (int i = 0; i < length; i++) {
+			statuses[from + i] = 0;
+		}
+		fillEvents(SunriseSunset.SIN_SUN_ALTITUDE_SUNRISE_SUNSET, SolarEventsArray.HAS_SUNRISE_SUNSET,
+				jtransits, sinLatitudeSinDeltas, cosLatitudeCosDeltas,
+				result.getSunrises(), result.getSunsets(), statuses, from);
+		fillEvents(SunriseSunset.SIN_SUN_ALTITUDE_CIVIL_TWILIGHT, SolarEventsArray.HAS_CIVIL_TWILIGHT,
+				jtransits, sinLatitudeSinDeltas, cosLatitudeCosDeltas,
+				result.getCivilTwilightDawns(), result.getCivilTwilightDusks(), statuses, from);
+		fillEvents(SunriseSunset.SIN_SUN_ALTITUDE_NAUTICAL_TWILIGHT, SolarEventsArray.HAS_NAUTICAL_TWILIGHT,
+				jtransits, sinLatitudeSinDeltas, cosLatitudeCosDeltas,
+				result.getNauticalTwilightDawns(), result.getNauticalTwilightDusks(), statuses, from);
+		fillEvents(SunriseSunset.SIN_SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT, SolarEventsArray.HAS_ASTRONOMICAL_TWILIGHT,
+				jtransits, sinLatitudeSinDeltas, cosLatitudeCosDeltas,
+				result.getAstronomicalTwilightDawns(), result.getAstronomicalTwilightDusks(), statuses, from);
+
+		// Last pass: if there's no sunrise, there's no solar noon.
+		final long[] solarNoons = result.getSolarNoons();
+		for (int i = 0; i < length; i++) {
+			solarNoons[from + i] = (statuses[from + i] & SolarEventsArray.HAS_SUNRISE_SUNSET) == 0 ?
+					SunriseSunset.NO_EVENT : SunriseSunset.epochMillisFromJulianDate(jtransits[i]);
+		}
+	}
+
+	/**
+	 * Fill the dawn and dusk times (or sunrise and sunset) for one sun altitude.
+	 *
+	 * @param sinSunAltitude the sine of the sun altitude
+	 * @param flag           the status flag to set for the locations where the sun reaches this altitude
+	 * @param from           the index in the result arrays of the first location in the other input arrays.
+	 */
+	private static void fillEvents(double sinSunAltitude, byte flag,
+								   double[] jtransits, double[] sinLatitudeSinDeltas, double[] cosLatitudeCosDeltas,
+								   long[] dawns, long[] dusks, byte[] statuses, int from) {
+		for (int i = 0; i < jtransits.length; i++) {
+			// Hour angle. This is NaN if the sun doesn't reach the altitude.
+			final double omega = Math.acos((sinSunAltitude - sinLatitudeSinDeltas[i]) / cosLatitudeCosDeltas[i]);
+			dawns[from + i] = SunriseSunset.getSunriseTime(jtransits[i], omega);
+			dusks[from + i] = SunriseSunset.getSunsetTime(jtransits[i], omega);
+			if (!Double.isNaN(omega)) {
+				statuses[from + i] |= flag;
+			}
+		}
+	}
+}
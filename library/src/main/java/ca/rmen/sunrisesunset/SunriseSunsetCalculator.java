@@ -0,0 +1,417 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+import java.util.Calendar;
+
+/**
+ * Calculate the solar events of one location. <br>
+ * The {@link SunriseSunset} methods recalculate the terms of the sunrise equation which only depend on the
+ * location (the sine and cosine of the latitude, the part of the solar noon due to the longitude, and the sines
+ * of the sun altitudes) at every call. This calculator calculates them once, when it is created, which makes
+ * each query cheaper when many queries are done for the same location. <br>
+ * The results are the same as the ones of the {@link SunriseSunset} methods with the same name, unless the
+ * calculator is created with {@link Precision#FAST}. <br>
+ * Instances of this class are immutable, and may be shared between threads.
+ *
+ * @author Carmen Alvarez
+ */
+public final class SunriseSunsetCalculator {
+
+	/**
+	 * The precision of the calculations.
+	 */
+	public enum Precision {
+		/**
+		 * The results are the same as the ones of the {@link SunriseSunset} methods.
+		 */
+		EXACT,
+		/**
+		 * The trigonometric functions are replaced by polynomial approximations, which are a few times faster. The
+		 * times of the events differ from the {@link #EXACT} ones by a few milliseconds, and less than one second when
+		 * the sun barely reaches the altitude. <br>
+		 * When the sun barely reaches an altitude (a sunrise a few seconds before the sunset, near the polar circles),
+		 * the event may occur with one precision and not with the other. <br>
+		 * {@link SunriseSunsetCalculator#getDayPeriod(long)} is calculated with the exact functions.
+		 */
+		FAST
+	}
+
+	private static final double SIN_EARTH_OBLIQUITY = Math.sin(Math.toRadians(23.439));
+
+	private final double latitude;
+	private final double longitude;
+	private final Precision precision;
+	private final double sinLatitude;
+	private final double cosLatitude;
+	/**
+	 * The approximate solar noon of the Julian cycle n, as a Julian date, is this + n.
+	 */
+	private final double approximateSolarNoonOffset;
+	private final double[] sunAltitudes;
+	private final double[] sinSunAltitudes;
+
+	/**
+	 * @param latitude     the latitude of the location in degrees.
+	 * @param longitude    the longitude of the location in degrees (West is negative)
+	 * @param sunAltitudes additional altitudes of the sun, in degrees, for which to calculate the times with
+	 *                     {@link #getSunAltitudeCrossings(long, int, long[])}. The altitudes of sunrise/sunset and
+	 *                     of the twilights don't need to be given.
+	 */
+	public SunriseSunsetCalculator(final double latitude, final double longitude, final double... sunAltitudes) {
+		this(latitude, longitude, Precision.EXACT, sunAltitudes);
+	}
+
+	/**
+	 * @param latitude     the latitude of the location in degrees.
+	 * @param longitude    the longitude of the location in degrees (West is negative)
+	 * @param precision    the precision of the calculations.
+	 * @param sunAltitudes additional altitudes of the sun, in degrees, for which to calculate the times with
+	 *                     {@link #getSunAltitudeCrossings(long, int, long[])}. The altitudes of sunrise/sunset and
+	 *                     of the twilights don't need to be given.
+	 */
+	public SunriseSunsetCalculator(final double latitude, final double longitude, final Precision precision,
+								   final double... sunAltitudes) {
+		this.latitude = latitude;
+		this.longitude = longitude;
+		this.precision = precision;
+		final double latitudeRad = Math.toRadians(latitude);
+		sinLatitude = Math.sin(latitudeRad);
+		cosLatitude = Math.cos(latitudeRad);
+		approximateSolarNoonOffset = SunriseSunset.getApproximateSolarNoon(0, longitude);
+		this.sunAltitudes = sunAltitudes.clone();
+		sinSunAltitudes = new double[sunAltitudes.length];
+		for (int i = 0; i < sunAltitudes.length; i++) {
+			sinSunAltitudes[i] = Math.sin(Math.toRadians(sunAltitudes[i]));
+		}
+	}
+
+	/**
+	 * @return the latitude of the location in degrees.
+	 */
+	public double getLatitude() {
+		return latitude;
+	}
+
+	/**
+	 * @return the longitude of the location in degrees (West is negative)
+	 */
+	public double getLongitude() {
+		return longitude;
+	}
+
+	/**
+	 * @return the precision of the calculations.
+	 */
+	public Precision getPrecision() {
+		return precision;
+	}
+
+	/**
+	 * @return the additional altitudes of the sun given when creating this calculator, in degrees.
+	 */
+	public double[] getSunAltitudes() {
+		return sunAltitudes.clone();
+	}
+
+	/**
+	 * @see SunriseSunset#getSunriseSunset(long, double, double, long[])
+	 */
+	public boolean getSunriseSunset(final long timeInMillis, final long[] sunriseSunset) {
+		return getSunAltitudeTimes(timeInMillis, SunriseSunset.SIN_SUN_ALTITUDE_SUNRISE_SUNSET, sunriseSunset);
+	}
+
+	/**
+	 * @see SunriseSunset#getCivilTwilight(long, double, double, long[])
+	 */
+	public boolean getCivilTwilight(final long timeInMillis, final long[] civilTwilight) {
+		return getSunAltitudeTimes(timeInMillis, SunriseSunset.SIN_SUN_ALTITUDE_CIVIL_TWILIGHT, civilTwilight);
+	}
+
+	/**
+	 * @see SunriseSunset#getNauticalTwilight(long, double, double, long[])
+	 */
+	public boolean getNauticalTwilight(final long timeInMillis, final long[] nauticalTwilight) {
+		return getSunAltitudeTimes(timeInMillis, SunriseSunset.SIN_SUN_ALTITUDE_NAUTICAL_TWILIGHT, nauticalTwilight);
+	}
+
+	/**
+	 * @see SunriseSunset#getAstronomicalTwilight(long, double, double, long[])
+	 */
+	public boolean getAstronomicalTwilight(final long timeInMillis, final long[] astronomicalTwilight) {
+		return getSunAltitudeTimes(timeInMillis, SunriseSunset.SIN_SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT, astronomicalTwilight);
+	}
+
+	/**
+	 * Calculate the times at which the sun crosses one of the altitudes given when creating this calculator.
+	 *
+	 * @param timeInMillis     The time, in milliseconds since 1970-01-01 UTC, of the day for which to calculate the times
+	 * @param sunAltitudeIndex the index of the altitude in the altitudes given when creating this calculator.
+	 * @param times            a two-element array, which will be filled with the times at which the sun rises above
+	 *                         and sets below the altitude, in milliseconds since 1970-01-01 UTC.
+	 * @return true if the sun crosses the altitude on the given day, false otherwise.
+	 * @see SunriseSunset#getSunriseSunset(long, double, double, double, long[])
+	 */
+	public boolean getSunAltitudeCrossings(final long timeInMillis, final int sunAltitudeIndex, final long[] times) {
+		return getSunAltitudeTimes(timeInMillis, sinSunAltitudes[sunAltitudeIndex], times);
+	}
+
+	/**
+	 * @see SunriseSunset#getSunriseSunset(Calendar, double, double)
+	 */
+	public Calendar[] getSunriseSunset(final Calendar day) {
+		return toCalendars(day, SunriseSunset.SIN_SUN_ALTITUDE_SUNRISE_SUNSET);
+	}
+
+	/**
+	 * @see SunriseSunset#getCivilTwilight(Calendar, double, double)
+	 */
+	public Calendar[] getCivilTwilight(final Calendar day) {
+		return toCalendars(day, SunriseSunset.SIN_SUN_ALTITUDE_CIVIL_TWILIGHT);
+	}
+
+	/**
+	 * @see SunriseSunset#getNauticalTwilight(Calendar, double, double)
+	 */
+	public Calendar[] getNauticalTwilight(final Calendar day) {
+		return toCalendars(day, SunriseSunset.SIN_SUN_ALTITUDE_NAUTICAL_TWILIGHT);
+	}
+
+	/**
+	 * @see SunriseSunset#getAstronomicalTwilight(Calendar, double, double)
+	 */
+	public Calendar[] getAstronomicalTwilight(final Calendar day) {
+		return toCalendars(day, SunriseSunset.SIN_SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT);
+	}
+
+	/**
+	 * @see SunriseSunset#getSolarNoon(long, double, double)
+	 */
+	public long getSolarNoon(final long timeInMillis) {
+		final double n = SunriseSunset.getJulianCycle(SunriseSunset.julianDateFromEpochMillis(timeInMillis), longitude);
+		final double jstar = approximateSolarNoonOffset + n;
+		final double m = SunriseSunset.getSolarMeanAnomaly(jstar);
+		final double lambda = getEclipticLongitude(m);
+		// If there's no sunrise, there's no solar noon.
+		if (Double.isNaN(getHourAngle(SunriseSunset.SIN_SUN_ALTITUDE_SUNRISE_SUNSET, lambda))) {
+			return SunriseSunset.NO_EVENT;
+		}
+		return SunriseSunset.epochMillisFromJulianDate(getSolarTransit(jstar, m, lambda));
+	}
+
+	/**
+	 * @see SunriseSunset#getSolarNoon(Calendar, double, double)
+	 */
+	public Calendar getSolarNoon(final Calendar day) {
+		final long solarNoon = getSolarNoon(day.getTimeInMillis());
+		if (solarNoon == SunriseSunset.NO_EVENT) {
+			return null;
+		}
+		final Calendar gregNoon = Calendar.getInstance(day.getTimeZone());
+		gregNoon.setTimeInMillis(solarNoon);
+		return gregNoon;
+	}
+
+	/**
+	 * @see SunriseSunset#getDayLength(long, double, double)
+	 */
+	public long getDayLength(final long timeInMillis) {
+		final double n = SunriseSunset.getJulianCycle(SunriseSunset.julianDateFromEpochMillis(timeInMillis), longitude);
+		final double jstar = approximateSolarNoonOffset + n;
+		final double m = SunriseSunset.getSolarMeanAnomaly(jstar);
+		final double lambda = getEclipticLongitude(m);
+		final double omega = getHourAngle(SunriseSunset.SIN_SUN_ALTITUDE_SUNRISE_SUNSET, lambda);
+		if (Double.isNaN(omega)) {
+			final double sinDelta = precision == Precision.FAST ? getSinDeclination(lambda) : Math.sin(SunriseSunset.getDeclination(lambda));
+			return SunriseSunset.getPolarDayLength(sinLatitude, sinDelta);
+		}
+		final double jtransit = getSolarTransit(jstar, m, lambda);
+		return SunriseSunset.getSunsetTime(jtransit, omega) - SunriseSunset.getSunriseTime(jtransit, omega);
+	}
+
+	/**
+	 * @see SunriseSunset#getDayLength(Calendar, double, double)
+	 */
+	public long getDayLength(final Calendar calendar) {
+		return getDayLength(calendar.getTimeInMillis());
+	}
+
+	/**
+	 * @see SunriseSunset#getDayPeriod(long, double, double)
+	 */
+	public SunriseSunset.DayPeriod getDayPeriod(final long timeInMillis) {
+		final double julianDate = SunriseSunset.julianDateFromEpochMillis(timeInMillis);
+		final double n = SunriseSunset.getJulianCycle(julianDate, longitude);
+		final double jstar = approximateSolarNoonOffset + n;
+		final double m = SunriseSunset.getSolarMeanAnomaly(jstar);
+		final double lambda = SunriseSunset.getEclipticLongitude(m);
+		return SunriseSunset.solveDayPeriod(julianDate, SunriseSunset.getSolarTransit(jstar, m, lambda),
+				SunriseSunset.getDeclination(lambda), sinLatitude, cosLatitude);
+	}
+
+	/**
+	 * @see SunriseSunset#getDayPeriod(Calendar, double, double)
+	 */
+	public SunriseSunset.DayPeriod getDayPeriod(final Calendar calendar) {
+		return getDayPeriod(calendar.getTimeInMillis());
+	}
+
+	/**
+	 * @see SunriseSunset#getAllSolarEvents(long, double, double)
+	 */
+	public SolarEvents getAllSolarEvents(final long timeInMillis) {
+		final double n = SunriseSunset.getJulianCycle(SunriseSunset.julianDateFromEpochMillis(timeInMillis), longitude);
+		final double jstar = approximateSolarNoonOffset + n;
+		final double m = SunriseSunset.getSolarMeanAnomaly(jstar);
+		final double lambda = getEclipticLongitude(m);
+		final double jtransit = getSolarTransit(jstar, m, lambda);
+		final double sinDelta;
+		final double cosDelta;
+		if (precision == Precision.FAST) {
+			sinDelta = getSinDeclination(lambda);
+			cosDelta = getCosDeclination(sinDelta);
+		} else {
+			final double delta = SunriseSunset.getDeclination(lambda);
+			sinDelta = Math.sin(delta);
+			cosDelta = Math.cos(delta);
+		}
+
+		final double omegaSunriseSunset = getHourAngle(SunriseSunset.SIN_SUN_ALTITUDE_SUNRISE_SUNSET, sinDelta, cosDelta);
+		final double omegaCivilTwilight = getHourAngle(SunriseSunset.SIN_SUN_ALTITUDE_CIVIL_TWILIGHT, sinDelta, cosDelta);
+		final double omegaNauticalTwilight = getHourAngle(SunriseSunset.SIN_SUN_ALTITUDE_NAUTICAL_TWILIGHT, sinDelta, cosDelta);
+		final double omegaAstronomicalTwilight = getHourAngle(SunriseSunset.SIN_SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT, sinDelta, cosDelta);
+
+		// If there's no sunrise, there's no solar noon.
+		final long solarNoon = Double.isNaN(omegaSunriseSunset) ? SunriseSunset.NO_EVENT : SunriseSunset.epochMillisFromJulianDate(jtransit);
+
+		return new SolarEvents(
+				SunriseSunset.getSunriseTime(jtransit, omegaSunriseSunset), SunriseSunset.getSunsetTime(jtransit, omegaSunriseSunset),
+				SunriseSunset.getSunriseTime(jtransit, omegaCivilTwilight), SunriseSunset.getSunsetTime(jtransit, omegaCivilTwilight),
+				SunriseSunset.getSunriseTime(jtransit, omegaNauticalTwilight), SunriseSunset.getSunsetTime(jtransit, omegaNauticalTwilight),
+				SunriseSunset.getSunriseTime(jtransit, omegaAstronomicalTwilight), SunriseSunset.getSunsetTime(jtransit, omegaAstronomicalTwilight),
+				solarNoon);
+	}
+
+	/**
+	 * @see SunriseSunset#getAllSolarEvents(Calendar, double, double)
+	 */
+	public SolarEvents getAllSolarEvents(final Calendar day) {
+		return getAllSolarEvents(day.getTimeInMillis());
+	}
+
+	/**
+	 * Solve the sunrise equation for the sun altitude with the given sine.
+	 *
+	 * @see SunriseSunset#getSunriseSunset(long, double, double, double, long[])
+	 */
+	private boolean getSunAltitudeTimes(final long timeInMillis, final double sinSunAltitude, final long[] times) {
+		final double n = SunriseSunset.getJulianCycle(SunriseSunset.julianDateFromEpochMillis(timeInMillis), longitude);
+		final double jstar = approximateSolarNoonOffset + n;
+		final double m = SunriseSunset.getSolarMeanAnomaly(jstar);
+		final double lambda = getEclipticLongitude(m);
+		final double omega = getHourAngle(sinSunAltitude, lambda);
+		if (Double.isNaN(omega)) {
+			return false;
+		}
+		final double jtransit = getSolarTransit(jstar, m, lambda);
+		times[0] = SunriseSunset.getSunriseTime(jtransit, omega);
+		times[1] = SunriseSunset.getSunsetTime(jtransit, omega);
+		return true;
+	}
+
+	/**
+	 * @param lambda the ecliptic longitude, in radians.
+	 * @see SunriseSunset#getHourAngle(double, double, double, double, double)
+	 */
+	private double getHourAngle(final double sinSunAltitude, final double lambda) {
+		if (precision == Precision.FAST) {
+			final double sinDelta = getSinDeclination(lambda);
+			return getHourAngle(sinSunAltitude, sinDelta, getCosDeclination(sinDelta));
+		}
+		final double delta = SunriseSunset.getDeclination(lambda);
+		return SunriseSunset.getHourAngle(sinSunAltitude, sinLatitude, cosLatitude, Math.sin(delta), Math.cos(delta));
+	}
+
+	/**
+	 * @see SunriseSunset#getHourAngle(double, double, double, double, double)
+	 */
+	private double getHourAngle(final double sinSunAltitude, final double sinDelta, final double cosDelta) {
+		if (precision == Precision.FAST) {
+			return FastTrig.acos((sinSunAltitude - sinLatitude * sinDelta) / (cosLatitude * cosDelta));
+		}
+		return SunriseSunset.getHourAngle(sinSunAltitude, sinLatitude, cosLatitude, sinDelta, cosDelta);
+	}
+
+	/**
+	 * @see SunriseSunset#getEclipticLongitude(double)
+	 */
+	private double getEclipticLongitude(final double m) {
+		if (precision == Precision.FAST) {
+			// sin(2m) and sin(3m) from sin(m) and cos(m). The result isn't reduced to [0, 2pi): it's only used
+			// in sines.
+			final double sinM = FastTrig.sin(m);
+			final double cosM = FastTrig.cos(m);
+			final double c = 1.9148 * sinM + 0.0200 * 2 * sinM * cosM + 0.0003 * sinM * (3 - 4 * sinM * sinM);
+			return m + Math.toRadians(102.9372 + c + 180);
+		}
+		return SunriseSunset.getEclipticLongitude(m);
+	}
+
+	/**
+	 * @see SunriseSunset#getSolarTransit(double, double, double)
+	 */
+	private double getSolarTransit(final double jstar, final double m, final double lambda) {
+		if (precision == Precision.FAST) {
+			return jstar + 0.0053 * FastTrig.sin(m) - 0.0069 * FastTrig.sin(2 * lambda);
+		}
+		return SunriseSunset.getSolarTransit(jstar, m, lambda);
+	}
+
+	/**
+	 * @return the sine of the declination of the sun. This avoids calculating the declination itself (an arc sine).
+	 * @see SunriseSunset#getDeclination(double)
+	 */
+	private static double getSinDeclination(final double lambda) {
+		return FastTrig.sin(lambda) * SIN_EARTH_OBLIQUITY;
+	}
+
+	/**
+	 * @return the cosine of the declination of the sun, which is positive: the declination is between -23.44 and
+	 * 23.44 degrees.
+	 */
+	private static double getCosDeclination(final double sinDelta) {
+		return Math.sqrt(1 - sinDelta * sinDelta);
+	}
+
+	/**
+	 * @return the times at which the sun crosses the altitude with the given sine, in the time zone of the given day,
+	 * or null if it doesn't cross it.
+	 */
+	private Calendar[] toCalendars(final Calendar day, final double sinSunAltitude) {
+		final long[] times = new long[2];
+		if (!getSunAltitudeTimes(day.getTimeInMillis(), sinSunAltitude, times)) {
+			return null;
+		}
+		final Calendar gregRise = Calendar.getInstance(day.getTimeZone());
+		gregRise.setTimeInMillis(times[0]);
+		final Calendar gregSet = Calendar.getInstance(day.getTimeZone());
+		gregSet.setTimeInMillis(times[1]);
+		return new Calendar[]{gregRise, gregSet};
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Provides a method to calculate the solar events of a location for every day of a date range. <br>
+ * This gives the same results as calling {@link SunriseSunset#getSunriseSunset(Calendar, double, double, double)}
+ * and {@link SunriseSunset#getSolarNoon(Calendar, double, double)} with a Calendar set to noon of each day, but
+ * no Calendar is created per day: the days are iterated with date arithmetic, the terms which only depend on the
+ * location and sun altitudes are calculated once, and the results are passed to a {@link Callback} which reuses
+ * the same arrays for every day.
+ *
+ * @author Carmen Alvarez
+ */
+public final class SunriseSunsetRange {
+
+	private static final long MILLISECONDS_IN_DAY = 24 * 60 * 60 * 1000;
+	private static final long MILLISECONDS_IN_HALF_DAY = MILLISECONDS_IN_DAY / 2;
+
+	// The Julian day number of 1970-01-01
+	private static final int JULIAN_DAY_1970_01_01 = 2440588;
+
+	/**
+	 * Receives the solar events of each day of the range.
+	 */
+	public interface Callback {
+		/**
+		 * Called once per day of the range, in chronological order.
+		 *
+		 * @param year       the year of the day, in the time zone of the range.
+		 * @param month      the month of the day, in the time zone of the range (January = 0, like {@link Calendar#MONTH}).
+		 * @param dayOfMonth the day of the month, in the time zone of the range.
+		 * @param solarNoon  the solar noon, in milliseconds since 1970-01-01 UTC, or {@link SunriseSunset#NO_EVENT}
+		 *                   if there is no sunrise or sunset on this day.
+		 * @param dawns      for each sun altitude, the time at which the sun rises above it, in milliseconds since
+		 *                   1970-01-01 UTC, or {@link SunriseSunset#NO_EVENT}. This array is reused for the next day.
+		 * @param dusks      for each sun altitude, the time at which the sun sets below it, in milliseconds since
+		 *                   1970-01-01 UTC, or {@link SunriseSunset#NO_EVENT}. This array is reused for the next day.
+		 */
+		void onDay(int year, int month, int dayOfMonth, long solarNoon, long[] dawns, long[] dusks);
+	}
+
+	private SunriseSunsetRange() {
+		// Prevent instantiation of this utility class
+	}
+
+	/**
+	 * Calculate the solar events of the given location for every day from startDay to endDay.
+	 *
+	 * @param startDay     the first day of the range. Its time zone is the time zone of the whole range: it determines
+	 *                     in which day each event falls, including across daylight saving time transitions.
+	 * @param endDay       the last day (inclusive) of the range. Its year, month and day of month are read in its own
+	 *                     time zone.
+	 * @param latitude     the latitude of the location in degrees.
+	 * @param longitude    the longitude of the location in degrees (West is negative)
+	 * @param sunAltitudes the altitudes of the sun for which to calculate the dawns and dusks, for example
+	 *                     {@link SunriseSunset#SUN_ALTITUDE_SUNRISE_SUNSET} and {@link SunriseSunset#SUN_ALTITUDE_CIVIL_TWILIGHT}.
+	 * @param callback     receives the events of each day.
+	 */
+	public static void forEachDay(Calendar startDay, Calendar endDay,
+								  double latitude, double longitude, double[] sunAltitudes,
+								  Callback callback) {
+		final TimeZone timeZone = startDay.getTimeZone();
+		final long startEpochDay = getEpochDay(startDay.get(Calendar.YEAR), startDay.get(Calendar.MONTH), startDay.get(Calendar.DAY_OF_MONTH));
+		final long endEpochDay = getEpochDay(endDay.get(Calendar.YEAR), endDay.get(Calendar.MONTH), endDay.get(Calendar.DAY_OF_MONTH));
+
+		// The terms which don't change from one day to the next.
+		final double latitudeRad = Math.toRadians(latitude);
+		final double sinLatitude = Math.sin(latitudeRad);
+		final double cosLatitude = Math.cos(latitudeRad);
+		final double[] sinSunAltitudes = new double[sunAltitudes.length];
+		for (int i = 0; i < sunAltitudes.length; i++) {
+			sinSunAltitudes[i] = Math.sin(Math.toRadians(sunAltitudes[i]));
+		}
+
+		final long[] dawns = new long[sunAltitudes.length];
+		final long[] dusks = new long[sunAltitudes.length];
+		final int[] date = new int[3];
+
+		for (long epochDay = startEpochDay; epochDay <= endEpochDay; epochDay++) {
+			// Noon, local time, like the Calendar we'd pass to SunriseSunset for this day.
+			final long noon = getUtcTime(timeZone, epochDay * MILLISECONDS_IN_DAY + MILLISECONDS_IN_HALF_DAY);
+			final double n = SunriseSunset.getJulianCycle(SunriseSunset.julianDateFromEpochMillis(noon), longitude);
+			final double m = SunriseSunset.getSolarMeanAnomaly(n, longitude);
+			final double lambda = SunriseSunset.getEclipticLongitude(m);
+			final double delta = SunriseSunset.getDeclination(lambda);
+			final double jtransit = SunriseSunset.getSolarTransit(n, longitude, m, lambda);
+			final double sinDelta = Math.sin(delta);
+			final double cosDelta = Math.cos(delta);
+
+			for (int i = 0; i < sinSunAltitudes.length; i++) {
+				final double omega = SunriseSunset.getHourAngle(sinSunAltitudes[i], sinLatitude, cosLatitude, sinDelta, cosDelta);
+				dawns[i] = SunriseSunset.getSunriseTime(jtransit, omega);
+				dusks[i] = SunriseSunset.getSunsetTime(jtransit, omega);
+			}
+
+			// If there's no sunrise, there's no solar noon.
+			final double omegaSunriseSunset = SunriseSunset.getHourAngle(SunriseSunset.SIN_SUN_ALTITUDE_SUNRISE_SUNSET,
+					sinLatitude, cosLatitude, sinDelta, cosDelta);
+			final long solarNoon = Double.isNaN(omegaSunriseSunset) ? SunriseSunset.NO_EVENT
+					: SunriseSunset.epochMillisFromJulianDate(jtransit);
+
+			getDate(epochDay, date);
+			callback.onDay(date[0], date[1], date[2], solarNoon, dawns, dusks);
+		}
+	}
+
+	/**
+	 * @param timeZone  a time zone
+	 * @param localTime a local time in the given time zone, expressed as milliseconds since 1970-01-01 in that time zone.
+	 * @return the same time, in milliseconds since 1970-01-01 UTC.
+	 */
+	static long getUtcTime(TimeZone timeZone, long localTime) {
+		// First approximate the offset with the raw offset, then take the offset at the approximate time,
+		// to account for daylight saving time.
+		final long approximateUtcTime = localTime - timeZone.getOffset(localTime - timeZone.getRawOffset());
+		return localTime - timeZone.getOffset(approximateUtcTime);
+	}
+
+	/**
+	 * @param year       the year
+	 * @param month      the month (January = 0)
+	 * @param dayOfMonth the day of the month
+	 * @return the number of days since 1970-01-01.
+	 * @see SunriseSunset#getJulianDate(Calendar)
+	 */
+	static long getEpochDay(int year, int month, int dayOfMonth) {
+		month++;
+		int a = (14 - month) / 12;
+		int y = year + 4800 - a;
+		int m = month + 12 * a - 3;
+		int julianDay = dayOfMonth + (153 * m + 2) / 5 + 365 * y + (y / 4) - (y / 100)
+				+ (y / 400) - 32045;
+		return julianDay - JULIAN_DAY_1970_01_01;
+	}
+
+	/**
+	 * @param epochDay the number of days since 1970-01-01.
+	 * @param date     will be filled with the year, month (January = 0) and day of month.
+	 * @see SunriseSunset#getGregorianDate(double)
+	 */
+	static void getDate(long epochDay, int[] date) {
+		int j = (int) epochDay + JULIAN_DAY_1970_01_01 + 32044;
+		int g = j / 146097;
+		int dg = j % 146097;
+		int c = ((dg / 36524 + 1) * 3) / 4;
+		int dc = dg - c * 36524;
+		int b = dc / 1461;
+		int db = dc % 1461;
+		int a = ((db / 365 + 1) * 3) / 4;
+		int da = db - a * 365;
+		int y = g * 400 + c * 100 + b * 4 + a;
+		int m = (da * 5 + 308) / 153 - 2;
+		int d = da - ((m + 4) * 153) / 5 + 122;
+		date[0] = y - 4800 + (m + 2) / 12;
+		date[1] = (m + 2) % 12;
+		date[2] = d + 1;
+	}
+}
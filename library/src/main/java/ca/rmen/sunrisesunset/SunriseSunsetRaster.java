@@ -0,0 +1,441 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * The sunrise, sunset and day length of every cell of a latitude/longitude grid, for a given day. <br>
+ * The cells are stored row by row in flat primitive arrays: the cell at (row, column) is at index
+ * <code>row * columns + column</code>. Each row has one latitude and each column has one longitude. <br>
+ * The variables of the sunrise equation which depend on the day and the longitude (solar transit and declination)
+ * are calculated once per column, and the terms which depend on the latitude once per row, so only the hour angle
+ * is calculated per cell. The rows can be split in chunks calculated in parallel by an {@link ExecutorService}. <br>
+ * The sunrises and sunsets are in seconds since the reference time, which is midnight UTC of the day. The raster
+ * can be written to and read from a binary file: see {@link #write(WritableByteChannel)}.
+ *
+ * @author Carmen Alvarez
+ */
+public final class SunriseSunsetRaster {
+
+	/**
+	 * The value of a sunrise or sunset which doesn't occur on the day.
+	 */
+	public static final int NO_EVENT = Integer.MIN_VALUE;
+
+	// The bytes of "SSRS" in ASCII, read as a little endian int
+	private static final int MAGIC = 0x53525353;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 56;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final long MILLISECONDS_IN_DAY = 24 * 60 * 60 * 1000;
+	private static final float HOURS_IN_DAY = 24;
+
+	// Below this number of cells, it's not worth splitting the work between threads.
+	private static final int MIN_PARALLEL_SIZE = 65536;
+
+	private final double latitudeStart;
+	private final double latitudeStep;
+	private final int rows;
+	private final double longitudeStart;
+	private final double longitudeStep;
+	private final int columns;
+	private final int[] sunrises;
+	private final int[] sunsets;
+	private final float[] dayLengths;
+	private long referenceTime;
+
+	/**
+	 * Create a raster. Its cells are calculated by {@link #calculate(long)}.
+	 *
+	 * @param latitudeStart  the latitude of the first row, in degrees.
+	 * @param latitudeStep   the difference of latitude between two rows, in degrees. This can be negative, for
+	 *                       rasters whose first row is the northernmost.
+	 * @param rows           the number of rows
+	 * @param longitudeStart the longitude of the first column, in degrees (West is negative)
+	 * @param longitudeStep  the difference of longitude between two columns, in degrees.
+	 * @param columns        the number of columns
+	 */
+	public SunriseSunsetRaster(double latitudeStart, double latitudeStep, int rows,
+							   double longitudeStart, double longitudeStep, int columns) {
+		if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid raster size: " + rows + "x" + columns);
+		}
+		this.latitudeStart = latitudeStart;
+		this.latitudeStep = latitudeStep;
+		this.rows = rows;
+		this.longitudeStart = longitudeStart;
+		this.longitudeStep = longitudeStep;
+		this.columns = columns;
+		sunrises = new int[rows * columns];
+		sunsets = new int[rows * columns];
+		dayLengths = new float[rows * columns];
+	}
+
+	/**
+	 * Create a raster covering the whole earth. The first row is the northernmost and the first column the
+	 * westernmost. The latitudes and longitudes are those of the centers of the cells.
+	 *
+	 * @param cellSize the size of a cell, in degrees. Ex: 0.1 for a 1800 x 3600 raster.
+	 * @return a global raster, whose cells are calculated by {@link #calculate(long)}.
+	 */
+	public static SunriseSunsetRaster createGlobal(double cellSize) {
+		final int rows = (int) Math.round(180 / cellSize);
+		final int columns = (int) Math.round(360 / cellSize);
+		return new SunriseSunsetRaster(90 - cellSize / 2, -cellSize, rows, -180 + cellSize / 2, cellSize, columns);
+	}
+
+	/**
+	 * Calculate the sunrise, sunset and day length of every cell.
+	 *
+	 * @param timeInMillis The time, in milliseconds since 1970-01-01 UTC, of the day for which to calculate the cells.
+	 *                     Each cell has the same results as
+	 *                     {@link SunriseSunset#getSunriseSunset(long, double, double, long[])} for this time.
+	 */
+	public void calculate(long timeInMillis) {
+		referenceTime = timeInMillis - ((timeInMillis % MILLISECONDS_IN_DAY) + MILLISECONDS_IN_DAY) % MILLISECONDS_IN_DAY;
+		final ColumnVariables columnVariables = new ColumnVariables(timeInMillis);
+		calculate(columnVariables, 0, rows);
+	}
+
+	/**
+	 * Like {@link #calculate(long)}, but splits the rows in chunks, calculated in parallel by the given executor.
+	 * This method returns once all the chunks are calculated.
+	 *
+	 * @param executor the executor which will calculate the chunks. The calling thread waits for them.
+	 * @throws InterruptedException if the calling thread is interrupted while waiting for the chunks.
+	 */
+	public void calculate(long timeInMillis, ExecutorService executor) throws InterruptedException {
+		referenceTime = timeInMillis - ((timeInMillis % MILLISECONDS_IN_DAY) + MILLISECONDS_IN_DAY) % MILLISECONDS_IN_DAY;
+		final ColumnVariables columnVariables = new ColumnVariables(timeInMillis);
+		final int chunkCount = Math.min(Runtime.getRuntime().availableProcessors() * 4, rows);
+		if (chunkCount <= 1 || sunrises.length < MIN_PARALLEL_SIZE) {
+			calculate(columnVariables, 0, rows);
+			return;
+		}
+
+		final int chunkSize = (rows + chunkCount - 1) / chunkCount;
+		final List<Future<Void>> futures = new ArrayList<Future<Void>>(chunkCount);
+		try {
+			for (int from = 0; from < rows; from += chunkSize) {
+				final int chunkFrom = from;
+				final int chunkTo = Math.min(from + chunkSize, rows);
+				futures.add(executor.submit(new Callable<Void>() {
+					public Void call() {
+						calculate(columnVariables, chunkFrom, chunkTo);
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (ExecutionException e) {
+			// The calculation doesn't throw checked exceptions.
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new IllegalStateException(cause);
+		} finally {
+			for (Future<Void> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * The variables of the sunrise equation which are the same for all the cells of a column.
+	 */
+	private final class ColumnVariables {
+		final double[] jtransits = new double[columns];
+		final double[] sinDeltas = new double[columns];
+		final double[] cosDeltas = new double[columns];
+
+		ColumnVariables(long timeInMillis) {
+			final double julianDate = SunriseSunset.julianDateFromEpochMillis(timeInMillis);
+			for (int column = 0; column < columns; column++) {
+				final double longitude = getLongitude(column);
+				final double n = SunriseSunset.getJulianCycle(julianDate, longitude);
+				final double m = SunriseSunset.getSolarMeanAnomaly(n, longitude);
+				final double lambda = SunriseSunset.getEclipticLongitude(m);
+				final double delta = SunriseSunset.getDeclination(lambda);
+				jtransits[column] = SunriseSunset.getSolarTransit(n, longitude, m, lambda);
+				sinDeltas[column] = Math.sin(delta);
+				cosDeltas[column] = Math.cos(delta);
+			}
+		}
+	}
+
+	/**
+	 * Calculate the cells of the rows from <code>fromRow</code> (inclusive) to <code>toRow</code> (exclusive).
+	 */
+	private void calculate(ColumnVariables columnVariables, int fromRow, int toRow) {
+		final double[] jtransits = columnVariables.jtransits;
+		final double[] sinDeltas = columnVariables.sinDeltas;
+		final double[] cosDeltas = columnVariables.cosDeltas;
+		for (int row = fromRow; row < toRow; row++) {
+			final double latitudeRad = Math.toRadians(getLatitude(row));
+			final double sinLatitude = Math.sin(latitudeRad);
+			final double cosLatitude = Math.cos(latitudeRad);
+			int index = row * columns;
+			for (int column = 0; column < columns; column++, index++) {
+				final double cosOmega = (SunriseSunset.SIN_SUN_ALTITUDE_SUNRISE_SUNSET - sinLatitude * sinDeltas[column])
+						/ (cosLatitude * cosDeltas[column]);
+				if (cosOmega >= -1 && cosOmega <= 1) {
+					final double omega = Math.acos(cosOmega);
+					final long sunrise = SunriseSunset.getSunriseTime(jtransits[column], omega);
+					final long sunset = SunriseSunset.getSunsetTime(jtransits[column], omega);
+					sunrises[index] = toSeconds(sunrise);
+					sunsets[index] = toSeconds(sunset);
+					dayLengths[index] = (float) ((sunset - sunrise) / 3600000.0);
+				} else {
+					// The sun doesn't cross the horizon: it stays above it if the hour angle would be more than
+					// 180 degrees (cos < -1), and below it otherwise.
+					sunrises[index] = NO_EVENT;
+					sunsets[index] = NO_EVENT;
+					dayLengths[index] = cosOmega < -1 ? HOURS_IN_DAY : 0;
+				}
+			}
+		}
+	}
+
+	private int toSeconds(long timeInMillis) {
+		return (int) Math.round((timeInMillis - referenceTime) / 1000.0);
+	}
+
+	/**
+	 * @return the latitude of the given row, in degrees.
+	 */
+	public double getLatitude(int row) {
+		return latitudeStart + row * latitudeStep;
+	}
+
+	/**
+	 * @return the longitude of the given column, in degrees.
+	 */
+	public double getLongitude(int column) {
+		return longitudeStart + column * longitudeStep;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * @return the index of the given cell in the arrays of sunrises, sunsets and day lengths.
+	 */
+	public int getIndex(int row, int column) {
+		return row * columns + column;
+	}
+
+	/**
+	 * @return midnight UTC of the day of the last calculation, in milliseconds since 1970-01-01 UTC.
+	 * The sunrises and sunsets are relative to this time.
+	 */
+	public long getReferenceTime() {
+		return referenceTime;
+	}
+
+	/**
+	 * @return for each cell, the sunrise in seconds since the reference time, or {@link #NO_EVENT}.
+	 */
+	public int[] getSunrises() {
+		return sunrises;
+	}
+
+	/**
+	 * @return for each cell, the sunset in seconds since the reference time, or {@link #NO_EVENT}.
+	 */
+	public int[] getSunsets() {
+		return sunsets;
+	}
+
+	/**
+	 * @return for each cell, the time between sunrise and sunset in hours. If the sun doesn't rise or set, this
+	 * is 24 if the sun stays above the horizon, and 0 if it stays below.
+	 */
+	public float[] getDayLengths() {
+		return dayLengths;
+	}
+
+	/**
+	 * Write the raster to a file. See {@link #write(WritableByteChannel)} for the format.
+	 *
+	 * @throws IOException if the file couldn't be written.
+	 */
+	public void write(File file) throws IOException {
+		FileOutputStream os = new FileOutputStream(file);
+		try {
+			write(os.getChannel());
+		} finally {
+			os.close();
+		}
+	}
+
+	/**
+	 * Write the raster to a channel. The format is, in little endian:
+	 * <ul>
+	 * <li>The header:
+	 * <ul>
+	 * <li>int: the magic number 0x53525353 (the bytes "SSRS" in ASCII)</li>
+	 * <li>int: the version of the format: 1</li>
+	 * <li>int: the number of rows</li>
+	 * <li>int: the number of columns</li>
+	 * <li>double: the latitude of the first row, and the difference of latitude between two rows</li>
+	 * <li>double: the longitude of the first column, and the difference of longitude between two columns</li>
+	 * <li>long: the reference time, in milliseconds since 1970-01-01 UTC</li>
+	 * </ul>
+	 * </li>
+	 * <li>rows * columns ints: the sunrises, in seconds since the reference time, or {@link #NO_EVENT}</li>
+	 * <li>rows * columns ints: the sunsets, in seconds since the reference time, or {@link #NO_EVENT}</li>
+	 * <li>rows * columns floats: the day lengths, in hours</li>
+	 * </ul>
+	 *
+	 * @throws IOException if the raster couldn't be written.
+	 */
+	public void write(WritableByteChannel channel) throws IOException {
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(columns)
+				.putDouble(latitudeStart).putDouble(latitudeStep)
+				.putDouble(longitudeStart).putDouble(longitudeStep)
+				.putLong(referenceTime);
+		header.flip();
+		writeFully(channel, header);
+
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		final int cellsPerBuffer = BUFFER_SIZE / 4;
+		for (int[] cells : new int[][]{sunrises, sunsets}) {
+			for (int from = 0; from < cells.length; from += cellsPerBuffer) {
+				final int length = Math.min(cellsPerBuffer, cells.length - from);
+				buffer.clear();
+				buffer.asIntBuffer().put(cells, from, length);
+				buffer.limit(length * 4);
+				writeFully(channel, buffer);
+			}
+		}
+		for (int from = 0; from < dayLengths.length; from += cellsPerBuffer) {
+			final int length = Math.min(cellsPerBuffer, dayLengths.length - from);
+			buffer.clear();
+			buffer.asFloatBuffer().put(dayLengths, from, length);
+			buffer.limit(length * 4);
+			writeFully(channel, buffer);
+		}
+	}
+
+	/**
+	 * Read a raster written by {@link #write(File)}.
+	 *
+	 * @throws IOException if the file couldn't be read, or isn't a raster file.
+	 */
+	public static SunriseSunsetRaster read(File file) throws IOException {
+		FileInputStream is = new FileInputStream(file);
+		try {
+			FileChannel channel = is.getChannel();
+			return read(channel);
+		} finally {
+			is.close();
+		}
+	}
+
+	/**
+	 * Read a raster written by {@link #write(WritableByteChannel)}.
+	 *
+	 * @throws IOException if the channel couldn't be read, or doesn't contain a raster.
+	 */
+	public static SunriseSunsetRaster read(ReadableByteChannel channel) throws IOException {
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, header);
+		header.flip();
+		if (header.getInt() != MAGIC) {
+			throw new IOException("Not a sunrise sunset raster");
+		}
+		final int version = header.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported raster version " + version);
+		}
+		final int rows = header.getInt();
+		final int columns = header.getInt();
+		final double latitudeStart = header.getDouble();
+		final double latitudeStep = header.getDouble();
+		final double longitudeStart = header.getDouble();
+		final double longitudeStep = header.getDouble();
+		final SunriseSunsetRaster raster;
+		try {
+			raster = new SunriseSunsetRaster(latitudeStart, latitudeStep, rows, longitudeStart, longitudeStep, columns);
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage());
+		}
+		raster.referenceTime = header.getLong();
+
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		final int cellsPerBuffer = BUFFER_SIZE / 4;
+		for (int[] cells : new int[][]{raster.sunrises, raster.sunsets}) {
+			for (int from = 0; from < cells.length; from += cellsPerBuffer) {
+				final int length = Math.min(cellsPerBuffer, cells.length - from);
+				buffer.clear();
+				buffer.limit(length * 4);
+				readFully(channel, buffer);
+				buffer.flip();
+				buffer.asIntBuffer().get(cells, from, length);
+			}
+		}
+		for (int from = 0; from < raster.dayLengths.length; from += cellsPerBuffer) {
+			final int length = Math.min(cellsPerBuffer, raster.dayLengths.length - from);
+			buffer.clear();
+			buffer.limit(length * 4);
+			readFully(channel, buffer);
+			buffer.flip();
+			buffer.asFloatBuffer().get(raster.dayLengths, from, length);
+		}
+		return raster;
+	}
+
+	private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new IOException("Unexpected end of raster");
+			}
+		}
+	}
+}
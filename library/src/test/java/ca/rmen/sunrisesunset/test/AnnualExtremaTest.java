@@ -0,0 +1,159 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.AnnualExtrema;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Unit tests for the annual extrema of the sunrise, sunset, solar noon and day length.
+ */
+public class AnnualExtremaTest {
+
+    private static final long HOUR = 60 * 60 * 1000;
+    private static final long DAY = 24 * HOUR;
+
+    @Test
+    public void testParis() {
+        testDate(AnnualExtrema.Extremum.EARLIEST_SUNRISE, 2017, 48.8567, 2.351, "20170616", "20170617");
+        testDate(AnnualExtrema.Extremum.LATEST_SUNSET, 2017, 48.8567, 2.351, "20170625", "20170626");
+        testDate(AnnualExtrema.Extremum.LONGEST_DAY, 2017, 48.8567, 2.351, "20170620", "20170621", "20170622");
+        testDate(AnnualExtrema.Extremum.SHORTEST_DAY, 2017, 48.8567, 2.351, "20171220", "20171221", "20171222");
+        testDate(AnnualExtrema.Extremum.EARLIEST_SOLAR_NOON, 2017, 48.8567, 2.351, "20171102", "20171103", "20171104");
+        testDate(AnnualExtrema.Extremum.LATEST_SOLAR_NOON, 2017, 48.8567, 2.351, "20170210", "20170211", "20170212");
+    }
+
+    @Test
+    public void testScan() {
+        // The extrema must be the same as the ones found by calculating every day of the year.
+        Random random = new Random(2017);
+        for (int i = 0; i < 30; i++) {
+            double latitude = i < 5 ? 65 + 20 * random.nextDouble() : -65 + 130 * random.nextDouble();
+            double longitude = -180 + 360 * random.nextDouble();
+            int year = 2000 + random.nextInt(40);
+            for (AnnualExtrema.Extremum extremum : AnnualExtrema.Extremum.values()) {
+                long time = AnnualExtrema.find(extremum, year, latitude, longitude);
+                String message = extremum + " at " + latitude + "," + longitude + " in " + year + ": " + new Date(time);
+                Assert.assertEquals(message, scan(extremum, year, latitude, longitude), getValue(extremum, time, latitude, longitude), 1);
+            }
+        }
+    }
+
+    @Test
+    public void testBatch() {
+        double[] latitudes = {48.8567, -33.8688, 0.39, 82.5018};
+        double[] longitudes = {2.351, 151.2093, 9.45, -62.3481};
+        long[] result = new long[latitudes.length];
+        for (AnnualExtrema.Extremum extremum : AnnualExtrema.Extremum.values()) {
+            AnnualExtrema.find(extremum, 2017, latitudes, longitudes, result);
+            for (int i = 0; i < latitudes.length; i++) {
+                Assert.assertEquals(AnnualExtrema.find(extremum, 2017, latitudes[i], longitudes[i]), result[i]);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentSizes() {
+        AnnualExtrema.find(AnnualExtrema.Extremum.LONGEST_DAY, 2017, new double[2], new double[2], new long[3]);
+    }
+
+    private static void testDate(AnnualExtrema.Extremum extremum, int year, double latitude, double longitude, String... expectedDates) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        String date = format.format(new Date(AnnualExtrema.find(extremum, year, latitude, longitude)));
+        for (String expectedDate : expectedDates) {
+            if (expectedDate.equals(date)) return;
+        }
+        Assert.fail(extremum + " on " + date);
+    }
+
+    /**
+     * @return the minimum value of the given extremum, calculated for each day of the year.
+     */
+    private static double scan(AnnualExtrema.Extremum extremum, int year, double latitude, double longitude) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(year, Calendar.JANUARY, 1);
+        long startTime = calendar.getTimeInMillis();
+        calendar.add(Calendar.YEAR, 1);
+        long endTime = calendar.getTimeInMillis();
+        // The days, in local mean solar time, which overlap the UTC year.
+        long offset = Math.round(longitude / 360 * DAY);
+        double min = Double.POSITIVE_INFINITY;
+        long[] sunriseSunset = new long[2];
+        for (long time = getMeanNoon(startTime, offset); time <= getMeanNoon(endTime - 1, offset); time += DAY) {
+            if (!SunriseSunset.getSunriseSunset(time, latitude, longitude, sunriseSunset)) continue;
+            long event;
+            switch (extremum) {
+                case EARLIEST_SUNRISE:
+                case LATEST_SUNRISE:
+                    event = sunriseSunset[0];
+                    break;
+                case EARLIEST_SUNSET:
+                case LATEST_SUNSET:
+                    event = sunriseSunset[1];
+                    break;
+                default:
+                    event = SunriseSunset.getSolarNoon(time, latitude, longitude);
+            }
+            min = Math.min(min, getValue(extremum, event, latitude, longitude));
+        }
+        return min;
+    }
+
+    /**
+     * @return the value minimized by the extremum, for the given event: its time of day in local mean solar time,
+     * or the day length, in milliseconds.
+     */
+    private static double getValue(AnnualExtrema.Extremum extremum, long event, double latitude, double longitude) {
+        // The solar noon of the day of the event.
+        long shift = extremum.name().contains("SUNRISE") ? 6 * HOUR : extremum.name().contains("SUNSET") ? -6 * HOUR : 0;
+        long solarNoon = SunriseSunset.getSolarNoon(event + shift, latitude, longitude);
+        long meanNoon = getMeanNoon(solarNoon, Math.round(longitude / 360 * DAY));
+        switch (extremum) {
+            case EARLIEST_SUNRISE:
+            case EARLIEST_SUNSET:
+            case EARLIEST_SOLAR_NOON:
+                return event - meanNoon;
+            case LATEST_SUNRISE:
+            case LATEST_SUNSET:
+            case LATEST_SOLAR_NOON:
+                return meanNoon - event;
+            case LONGEST_DAY:
+                return -SunriseSunset.getDayLength(solarNoon, latitude, longitude);
+            default:
+                return SunriseSunset.getDayLength(solarNoon, latitude, longitude);
+        }
+    }
+
+    /**
+     * @return the noon, in local mean solar time, of the day of the given time.
+     */
+    private static long getMeanNoon(long time, long offset) {
+        return (long) Math.floor((double) (time + offset) / DAY) * DAY + DAY / 2 - offset;
+    }
+}
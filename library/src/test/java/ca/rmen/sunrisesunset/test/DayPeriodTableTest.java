@@ -0,0 +1,112 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.DayPeriodTable;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.TimeZone;
+
+/**
+ * Unit tests for the per-minute table of day periods.
+ */
+public class DayPeriodTableTest {
+
+    private static final long MINUTE = 60000;
+
+    @Test
+    public void testParis() {
+        testSameAsSunriseSunset(DayPeriodTable.createForYear(48.8567, 2.351, 2016, TimeZone.getTimeZone("Europe/Paris")));
+    }
+
+    @Test
+    public void testMcMurdo() {
+        testSameAsSunriseSunset(DayPeriodTable.createForYear(-77.8456, 166.6693, 2016, TimeZone.getTimeZone("Antarctica/McMurdo")));
+    }
+
+    @Test
+    public void testYear() {
+        DayPeriodTable table = DayPeriodTable.createForYear(48.8567, 2.351, 2016, TimeZone.getTimeZone("UTC"));
+        Assert.assertEquals(366 * 24 * 60, table.getMinutes());
+        Assert.assertEquals(SunriseSunsetTestUtils.parseDate("UTC", "20160101").getTimeInMillis() - 12 * 3600000L, table.getStartTime());
+        Assert.assertEquals(SunriseSunsetTestUtils.parseDate("UTC", "20170101").getTimeInMillis() - 12 * 3600000L, table.getEndTime());
+        Assert.assertTrue(table.contains(table.getStartTime()));
+        Assert.assertFalse(table.contains(table.getEndTime()));
+        Assert.assertFalse(table.contains(table.getStartTime() - 1));
+
+        long noon = SunriseSunsetTestUtils.parseDate("Europe/Paris", "20160621").getTimeInMillis();
+        Assert.assertTrue(table.isDay(noon));
+        Assert.assertFalse(table.isNight(noon));
+        Assert.assertFalse(table.isTwilight(noon));
+        Assert.assertTrue(table.isNight(noon - 12 * 3600000L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfRange() {
+        DayPeriodTable table = DayPeriodTable.create(48.8567, 2.351, 0, 60);
+        table.getDayPeriod(60 * MINUTE);
+    }
+
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        long start = SunriseSunsetTestUtils.parseDate("Europe/Paris", "20160301").getTimeInMillis();
+        DayPeriodTable table = DayPeriodTable.create(48.8567, 2.351, start, 7 * 24 * 60 + 13);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        oos.writeObject(table);
+        oos.close();
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        DayPeriodTable readTable = (DayPeriodTable) ois.readObject();
+        ois.close();
+
+        Assert.assertEquals(table.getLatitude(), readTable.getLatitude(), 0);
+        Assert.assertEquals(table.getLongitude(), readTable.getLongitude(), 0);
+        Assert.assertEquals(table.getStartTime(), readTable.getStartTime());
+        Assert.assertEquals(table.getMinutes(), readTable.getMinutes());
+        for (long time = table.getStartTime(); time < table.getEndTime(); time += MINUTE) {
+            Assert.assertEquals(table.getDayPeriod(time), readTable.getDayPeriod(time));
+        }
+    }
+
+    /**
+     * The period of each minute must be the one given by SunriseSunset at the start of the minute.
+     */
+    private static void testSameAsSunriseSunset(DayPeriodTable table) {
+        double latitude = table.getLatitude();
+        double longitude = table.getLongitude();
+        int changes = 0;
+        SunriseSunset.DayPeriod previousDayPeriod = null;
+        for (long time = table.getStartTime(); time < table.getEndTime(); time += MINUTE) {
+            SunriseSunset.DayPeriod dayPeriod = SunriseSunset.getDayPeriod(time, latitude, longitude);
+            Assert.assertEquals("At " + time, dayPeriod, table.getDayPeriod(time));
+            Assert.assertEquals(dayPeriod, table.getDayPeriod(time + MINUTE - 1));
+            if (dayPeriod != previousDayPeriod) changes++;
+            previousDayPeriod = dayPeriod;
+        }
+        Assert.assertTrue(changes > 1);
+    }
+}
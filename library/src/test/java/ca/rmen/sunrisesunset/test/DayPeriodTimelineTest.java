@@ -0,0 +1,112 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.DayPeriodInterval;
+import ca.rmen.sunrisesunset.DayPeriodTimeline;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Unit tests for the intervals of the periods of the day.
+ */
+public class DayPeriodTimelineTest {
+
+    private static final long HOUR = 60 * 60 * 1000;
+    private static final long DAY = 24 * HOUR;
+
+    @Test
+    public void testParis() {
+        long start = SunriseSunsetTestUtils.parseDate("Europe/Paris", "20170101").getTimeInMillis();
+        int count = testTimeline(48.8567, 2.351, start, start + 365 * DAY);
+        // Night, three twilights, day, three twilights: 8 intervals a day, except around the summer solstice,
+        // when there is no night.
+        Assert.assertTrue("Got " + count + " intervals", count > 6 * 365 && count <= 8 * 365 + 1);
+    }
+
+    @Test
+    public void testPolar() {
+        // McMurdo has months of polar day and polar night.
+        long start = SunriseSunsetTestUtils.parseDate("Antarctica/McMurdo", "20170101").getTimeInMillis();
+        int count = testTimeline(-77.8456, 166.6693, start, start + 365 * DAY);
+        Assert.assertTrue("Got " + count + " intervals", count < 6 * 365);
+
+        // The pole has one day and one night a year, with twilights in between.
+        start = SunriseSunsetTestUtils.parseDate("UTC", "20170101").getTimeInMillis();
+        long longest = 0;
+        for (DayPeriodInterval interval : new DayPeriodTimeline(90, 0, start, start + 3 * 365 * DAY)) {
+            longest = Math.max(longest, interval.getDuration());
+        }
+        Assert.assertTrue("Longest interval " + longest, longest > 100 * DAY);
+    }
+
+    @Test
+    public void testClipped() {
+        long start = SunriseSunsetTestUtils.parseDate("Europe/Paris", "20170621").getTimeInMillis();
+        Iterator<DayPeriodInterval> iterator = new DayPeriodTimeline(48.8567, 2.351, start, start + HOUR).iterator();
+        DayPeriodInterval interval = iterator.next();
+        Assert.assertEquals(start, interval.getStartTime());
+        Assert.assertEquals(start + HOUR, interval.getEndTime());
+        Assert.assertEquals(SunriseSunset.DayPeriod.DAY, interval.getDayPeriod());
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testEmpty() {
+        Iterator<DayPeriodInterval> iterator = new DayPeriodTimeline(48.8567, 2.351, 0, 0).iterator();
+        Assert.assertFalse(iterator.hasNext());
+        iterator.next();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+        new DayPeriodTimeline(48.8567, 2.351, 1, 0);
+    }
+
+    /**
+     * Check that the intervals of the timeline cover its whole range, without overlapping, and that their periods are
+     * the ones of {@link SunriseSunset#getDayPeriod(long, double, double)}.
+     *
+     * @return the number of intervals
+     */
+    private static int testTimeline(double latitude, double longitude, long start, long end) {
+        DayPeriodTimeline timeline = new DayPeriodTimeline(latitude, longitude, start, end);
+        long time = start;
+        SunriseSunset.DayPeriod previousDayPeriod = null;
+        int count = 0;
+        for (DayPeriodInterval interval : timeline) {
+            Assert.assertEquals(time, interval.getStartTime());
+            Assert.assertTrue(interval.toString(), interval.getEndTime() > interval.getStartTime());
+            Assert.assertNotSame(previousDayPeriod, interval.getDayPeriod());
+            Assert.assertEquals(interval.toString(), interval.getDayPeriod(),
+                    SunriseSunset.getDayPeriod(interval.getStartTime(), latitude, longitude));
+            Assert.assertEquals(interval.toString(), interval.getDayPeriod(),
+                    SunriseSunset.getDayPeriod(interval.getEndTime() - 1, latitude, longitude));
+            time = interval.getEndTime();
+            previousDayPeriod = interval.getDayPeriod();
+            count++;
+        }
+        Assert.assertEquals(end, time);
+        return count;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.PolarPeriod;
+import ca.rmen.sunrisesunset.PolarYear;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Calendar;
+
+/**
+ * Unit tests for the polar days and nights.
+ */
+public class PolarYearTest {
+
+    private static final long HOUR = 60 * 60 * 1000;
+    private static final long DAY = 24 * HOUR;
+
+    @Test
+    public void testAlert() {
+        PolarYear polarYear = PolarYear.create(82.5018, -62.3481, 2016);
+        PolarPeriod[] polarDays = polarYear.getPolarDays();
+        PolarPeriod[] polarNights = polarYear.getPolarNights();
+        // The midnight sun lasts from April to September, the polar night from October to the end of February.
+        Assert.assertEquals(1, polarDays.length);
+        Assert.assertEquals(2, polarNights.length);
+        Assert.assertEquals(polarYear.getStartTime(), polarNights[0].getStartTime());
+        Assert.assertEquals(polarYear.getEndTime(), polarNights[1].getEndTime());
+        Assert.assertTrue(polarDays[0].toString(), polarDays[0].getDuration() > 150 * DAY);
+        testConsistency(polarYear);
+    }
+
+    @Test
+    public void testMcMurdo() {
+        PolarYear polarYear = PolarYear.create(-77.8456, 166.6693, 2015);
+        Assert.assertEquals(2, polarYear.getPolarDays().length);
+        Assert.assertEquals(1, polarYear.getPolarNights().length);
+        testConsistency(polarYear);
+    }
+
+    @Test
+    public void testParis() {
+        PolarYear polarYear = PolarYear.create(48.8567, 2.351, 2017);
+        Assert.assertEquals(0, polarYear.getPolarDays().length);
+        Assert.assertEquals(0, polarYear.getPolarNights().length);
+        // No astronomical night around the summer solstice.
+        PolarPeriod[] noNight = polarYear.getPeriodsAbove(SunriseSunset.SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT);
+        Assert.assertEquals(1, noNight.length);
+        long solstice = SunriseSunsetTestUtils.parseDate("Europe/Paris", "20170621").getTimeInMillis();
+        Assert.assertTrue(noNight[0].getStartTime() < solstice && noNight[0].getEndTime() > solstice);
+        Assert.assertTrue(polarYear.isAlwaysAbove(solstice, SunriseSunset.SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT));
+        Assert.assertFalse(polarYear.isAlwaysAbove(solstice, SunriseSunset.SUN_ALTITUDE_CIVIL_TWILIGHT));
+        testConsistency(polarYear);
+    }
+
+    @Test
+    public void testFallbacks() {
+        // In October, after the last sunset, it is night all day in Alert, and day all day in McMurdo.
+        Calendar alert = SunriseSunsetTestUtils.parseDate("EST", "20161025");
+        Assert.assertFalse(SunriseSunset.isDay(alert, 82.5018, -62.3481));
+        Assert.assertEquals(0, SunriseSunset.getDayLength(alert, 82.5018, -62.3481));
+        Calendar mcMurdo = SunriseSunsetTestUtils.parseDate("Antarctica/McMurdo", "20161025");
+        Assert.assertTrue(SunriseSunset.isDay(mcMurdo, -77.8456, 166.6693));
+        Assert.assertEquals(DAY, SunriseSunset.getDayLength(mcMurdo, -77.8456, 166.6693));
+        Assert.assertFalse(SunriseSunset.isNight(mcMurdo, -77.8456, 166.6693));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutsideOfYear() {
+        PolarYear polarYear = PolarYear.create(82.5018, -62.3481, 2016);
+        polarYear.isPolarDay(polarYear.getEndTime() + DAY);
+    }
+
+    /**
+     * Check that the polar days and nights are the days without sunrise or sunset, and that the lookups are
+     * consistent with the spans.
+     */
+    private static void testConsistency(PolarYear polarYear) {
+        double latitude = polarYear.getLatitude();
+        double longitude = polarYear.getLongitude();
+        PolarPeriod[] polarDays = polarYear.getPolarDays();
+        PolarPeriod[] polarNights = polarYear.getPolarNights();
+        long[] sunriseSunset = new long[2];
+        for (long time = polarYear.getStartTime(); time < polarYear.getEndTime(); time += 6 * HOUR) {
+            boolean hasSunriseSunset = SunriseSunset.getSunriseSunset(time, latitude, longitude, sunriseSunset);
+            long dayLength = SunriseSunset.getDayLength(time, latitude, longitude);
+            Assert.assertEquals(!hasSunriseSunset && dayLength == DAY, polarYear.isPolarDay(time));
+            Assert.assertEquals(!hasSunriseSunset && dayLength == 0, polarYear.isPolarNight(time));
+            Assert.assertEquals(polarYear.isPolarDay(time), contains(polarDays, time));
+            Assert.assertEquals(polarYear.isPolarNight(time), contains(polarNights, time));
+        }
+    }
+
+    private static boolean contains(PolarPeriod[] periods, long time) {
+        for (PolarPeriod period : periods) {
+            if (time >= period.getStartTime() && time < period.getEndTime()) return true;
+        }
+        return false;
+    }
+}
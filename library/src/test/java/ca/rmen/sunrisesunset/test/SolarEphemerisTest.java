@@ -0,0 +1,128 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.SolarEphemeris;
+import ca.rmen.sunrisesunset.SolarEvents;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Unit tests for the solar ephemeris file.
+ */
+public class SolarEphemerisTest {
+
+    private static final long DAY = 24 * 3600000L;
+    private static final double[] LATITUDES = {34.0522, 48.8567, -33.86, -77.8456, 82.50178, 0.0};
+    private static final double[] LONGITUDES = {-118.2437, 2.351, 151.2111, 166.6693, -62.34809, 179.9};
+
+    /**
+     * The events read from the file must be the ones of SunriseSunset at UTC noon of the day, to the second.
+     */
+    @Test
+    public void testSameAsSunriseSunset() throws IOException {
+        int firstEpochDay = (int) (SunriseSunsetTestUtils.parseDate("UTC", "20160101").getTimeInMillis() / DAY);
+        int days = 366;
+        File file = File.createTempFile("ephemeris", ".bin");
+        try {
+            SolarEphemeris.write(file, LATITUDES, LONGITUDES, firstEpochDay, days);
+            Assert.assertEquals(20 + LATITUDES.length * (16 + days * 12), file.length());
+            SolarEphemeris ephemeris = SolarEphemeris.open(file);
+            Assert.assertEquals(LATITUDES.length, ephemeris.getLocationCount());
+            Assert.assertEquals(firstEpochDay, ephemeris.getFirstEpochDay());
+            Assert.assertEquals(days, ephemeris.getDays());
+
+            long[] expected = new long[2];
+            long[] actual = new long[2];
+            for (int location = 0; location < LATITUDES.length; location++) {
+                double latitude = ephemeris.getLatitude(location);
+                double longitude = ephemeris.getLongitude(location);
+                Assert.assertEquals(LATITUDES[location], latitude, 0);
+                Assert.assertEquals(LONGITUDES[location], longitude, 0);
+                for (int epochDay = firstEpochDay; epochDay < firstEpochDay + days; epochDay++) {
+                    long noon = epochDay * DAY + DAY / 2;
+                    Assert.assertEquals(SunriseSunset.getSunriseSunset(noon, latitude, longitude, expected),
+                            ephemeris.getSunriseSunset(location, epochDay, actual));
+                    assertEquals(expected, actual);
+                    Assert.assertEquals(SunriseSunset.getCivilTwilight(noon, latitude, longitude, expected),
+                            ephemeris.getCivilTwilight(location, epochDay, actual));
+                    assertEquals(expected, actual);
+                    Assert.assertEquals(SunriseSunset.getNauticalTwilight(noon, latitude, longitude, expected),
+                            ephemeris.getNauticalTwilight(location, epochDay, actual));
+                    assertEquals(expected, actual);
+                    Assert.assertEquals(SunriseSunset.getAstronomicalTwilight(noon, latitude, longitude, expected),
+                            ephemeris.getAstronomicalTwilight(location, epochDay, actual));
+                    assertEquals(expected, actual);
+
+                    long solarNoon = SunriseSunset.getSolarNoon(noon, latitude, longitude);
+                    if (solarNoon == SunriseSunset.NO_EVENT) {
+                        Assert.assertEquals(SunriseSunset.NO_EVENT, ephemeris.getSolarNoon(location, epochDay));
+                    } else {
+                        Assert.assertEquals(solarNoon, ephemeris.getSolarNoon(location, epochDay), 500.0);
+                    }
+
+                    SolarEvents expectedEvents = SunriseSunset.getAllSolarEvents(noon, latitude, longitude);
+                    SolarEvents actualEvents = ephemeris.getAllSolarEvents(location, epochDay);
+                    Assert.assertEquals(expectedEvents.hasSunriseSunset(), actualEvents.hasSunriseSunset());
+                    Assert.assertEquals(expectedEvents.hasAstronomicalTwilight(), actualEvents.hasAstronomicalTwilight());
+                    if (expectedEvents.hasAstronomicalTwilight()) {
+                        Assert.assertEquals(expectedEvents.getAstronomicalTwilightDusk(), actualEvents.getAstronomicalTwilightDusk(), 1000.0);
+                    }
+                }
+            }
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfRange() throws IOException {
+        File file = File.createTempFile("ephemeris", ".bin");
+        try {
+            SolarEphemeris.write(file, LATITUDES, LONGITUDES, 16000, 10);
+            SolarEphemeris.open(file).getSolarNoon(0, 16010);
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenInvalidFile() throws IOException {
+        File file = File.createTempFile("ephemeris", ".bin");
+        try {
+            FileOutputStream os = new FileOutputStream(file);
+            os.write(new byte[64]);
+            os.close();
+            SolarEphemeris.open(file);
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    private static void assertEquals(long[] expected, long[] actual) {
+        // The times are stored to the second.
+        Assert.assertEquals(expected[0], actual[0], 1000.0);
+        Assert.assertEquals(expected[1], actual[1], 1000.0);
+    }
+}
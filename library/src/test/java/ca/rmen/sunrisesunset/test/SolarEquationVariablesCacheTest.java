@@ -0,0 +1,238 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.SolarEquationVariablesCache;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Unit tests for the cache of the intermediate variables of the sunrise equation.
+ */
+public class SolarEquationVariablesCacheTest {
+
+    private static final double[][] LOCATIONS = {
+            {34.0522, -118.2437}, // Los Angeles
+            {48.8567, 2.351}, // Paris
+            {-33.86, 151.2111}, // Sydney
+            {-77.8456, 166.6693}, // McMurdo
+            {82.50178, -62.34809} // Alert
+    };
+
+    @After
+    public void tearDown() {
+        SunriseSunset.setSolarEquationVariablesCache(null);
+    }
+
+    @Test
+    public void testSameResultsLru() {
+        testSameResults(new SolarEquationVariablesCache(1000));
+    }
+
+    @Test
+    public void testSameResultsClock() {
+        testSameResults(new SolarEquationVariablesCache(1000, SolarEquationVariablesCache.EvictionPolicy.CLOCK,
+                SolarEquationVariablesCache.DEFAULT_LONGITUDE_RESOLUTION));
+    }
+
+    /**
+     * The results with a cache must be the same as without a cache, including when the cache is too small.
+     */
+    private void testSameResults(SolarEquationVariablesCache cache) {
+        long[] expected = new long[2];
+        long[] actual = new long[2];
+        Calendar day = SunriseSunsetTestUtils.parseDate("UTC", "20150101");
+        for (int i = 0; i < 365; i++) {
+            for (double[] location : LOCATIONS) {
+                double latitude = location[0];
+                double longitude = location[1];
+                // Every 5 hours, to test different times of the day.
+                for (int hour = 0; hour < 24; hour += 5) {
+                    long timeInMillis = day.getTimeInMillis() + hour * 3600000L;
+
+                    SunriseSunset.setSolarEquationVariablesCache(null);
+                    boolean expectedFound = SunriseSunset.getCivilTwilight(timeInMillis, latitude, longitude, expected);
+                    long expectedSolarNoon = SunriseSunset.getSolarNoon(timeInMillis, latitude, longitude);
+                    long expectedDayLength = SunriseSunset.getDayLength(timeInMillis, latitude, longitude);
+                    SunriseSunset.DayPeriod expectedDayPeriod = SunriseSunset.getDayPeriod(timeInMillis, latitude, longitude);
+
+                    SunriseSunset.setSolarEquationVariablesCache(cache);
+                    Assert.assertEquals(expectedFound, SunriseSunset.getCivilTwilight(timeInMillis, latitude, longitude, actual));
+                    if (expectedFound) {
+                        Assert.assertEquals(expected[0], actual[0]);
+                        Assert.assertEquals(expected[1], actual[1]);
+                    }
+                    Assert.assertEquals(expectedSolarNoon, SunriseSunset.getSolarNoon(timeInMillis, latitude, longitude));
+                    Assert.assertEquals(expectedDayLength, SunriseSunset.getDayLength(timeInMillis, latitude, longitude));
+                    Assert.assertEquals(expectedDayPeriod, SunriseSunset.getDayPeriod(timeInMillis, latitude, longitude));
+                }
+            }
+            day.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        Assert.assertTrue(cache.getHitCount() > 0);
+        Assert.assertTrue(cache.getMissCount() > 0);
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        SolarEquationVariablesCache cache = new SolarEquationVariablesCache(10);
+        SunriseSunset.setSolarEquationVariablesCache(cache);
+        long timeInMillis = SunriseSunsetTestUtils.parseDate("CET", "20130120").getTimeInMillis();
+        long[] result = new long[2];
+        SunriseSunset.getSunriseSunset(timeInMillis, 48.8567, 2.351, result);
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        // Same day, same longitude, another latitude.
+        SunriseSunset.getSunriseSunset(timeInMillis, 50.0, 2.351, result);
+        SunriseSunset.getSolarNoon(timeInMillis, 48.8567, 2.351);
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        // Another longitude
+        SunriseSunset.getSunriseSunset(timeInMillis, 48.8567, 2.4, result);
+        Assert.assertEquals(2, cache.getMissCount());
+        // Another day
+        SunriseSunset.getSunriseSunset(timeInMillis + 86400000L, 48.8567, 2.351, result);
+        Assert.assertEquals(3, cache.getMissCount());
+        Assert.assertEquals(3, cache.size());
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void testEvictionLru() {
+        SolarEquationVariablesCache cache = new SolarEquationVariablesCache(3);
+        SunriseSunset.setSolarEquationVariablesCache(cache);
+        long timeInMillis = SunriseSunsetTestUtils.parseDate("UTC", "20130120").getTimeInMillis();
+        SunriseSunset.getSolarNoon(timeInMillis, 0, 1);
+        SunriseSunset.getSolarNoon(timeInMillis, 0, 2);
+        SunriseSunset.getSolarNoon(timeInMillis, 0, 3);
+        // Use 1, so 2 is the least recently used.
+        SunriseSunset.getSolarNoon(timeInMillis, 0, 1);
+        SunriseSunset.getSolarNoon(timeInMillis, 0, 4);
+        Assert.assertEquals(3, cache.size());
+        Assert.assertEquals(4, cache.getMissCount());
+
+        SunriseSunset.getSolarNoon(timeInMillis, 0, 1);
+        Assert.assertEquals(4, cache.getMissCount());
+        SunriseSunset.getSolarNoon(timeInMillis, 0, 2);
+        Assert.assertEquals(5, cache.getMissCount());
+    }
+
+    @Test
+    public void testEvictionClock() {
+        SolarEquationVariablesCache cache = new SolarEquationVariablesCache(3, SolarEquationVariablesCache.EvictionPolicy.CLOCK,
+                SolarEquationVariablesCache.DEFAULT_LONGITUDE_RESOLUTION);
+        SunriseSunset.setSolarEquationVariablesCache(cache);
+        long timeInMillis = SunriseSunsetTestUtils.parseDate("UTC", "20130120").getTimeInMillis();
+        SunriseSunset.getSolarNoon(timeInMillis, 0, 1);
+        SunriseSunset.getSolarNoon(timeInMillis, 0, 2);
+        SunriseSunset.getSolarNoon(timeInMillis, 0, 3);
+        // Use 1, so it gets a second chance, and 2 is evicted.
+        SunriseSunset.getSolarNoon(timeInMillis, 0, 1);
+        SunriseSunset.getSolarNoon(timeInMillis, 0, 4);
+        Assert.assertEquals(3, cache.size());
+        Assert.assertEquals(4, cache.getMissCount());
+
+        SunriseSunset.getSolarNoon(timeInMillis, 0, 1);
+        Assert.assertEquals(4, cache.getMissCount());
+        SunriseSunset.getSolarNoon(timeInMillis, 0, 2);
+        Assert.assertEquals(5, cache.getMissCount());
+        Assert.assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testLongitudeResolution() {
+        // The entries are calculated for the multiples of the resolution, whatever the order of the queries.
+        long timeInMillis = SunriseSunsetTestUtils.parseDate("UTC", "20130120").getTimeInMillis();
+        long expected = SunriseSunset.getSolarNoon(timeInMillis, 48.8567, 2.0);
+        for (double[] longitudes : new double[][]{{2.351, 1.9}, {1.9, 2.351}}) {
+            SunriseSunset.setSolarEquationVariablesCache(new SolarEquationVariablesCache(10, SolarEquationVariablesCache.EvictionPolicy.LRU, 1));
+            for (double longitude : longitudes) {
+                Assert.assertEquals(expected, SunriseSunset.getSolarNoon(timeInMillis, 48.8567, longitude));
+            }
+        }
+    }
+
+    @Test
+    public void testLongitudesOutOfRange() {
+        // These longitudes don't fit in the index of the default resolution: they are calculated without the cache.
+        SolarEquationVariablesCache cache = new SolarEquationVariablesCache(10);
+        long timeInMillis = SunriseSunsetTestUtils.parseDate("UTC", "20130120").getTimeInMillis();
+        for (double longitude : new double[]{214.8, -300, 1e10}) {
+            SunriseSunset.setSolarEquationVariablesCache(null);
+            long expected = SunriseSunset.getSolarNoon(timeInMillis, 48.8567, longitude);
+            SunriseSunset.setSolarEquationVariablesCache(cache);
+            Assert.assertEquals(expected, SunriseSunset.getSolarNoon(timeInMillis, 48.8567, longitude));
+        }
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final SolarEquationVariablesCache cache = new SolarEquationVariablesCache(50, SolarEquationVariablesCache.EvictionPolicy.CLOCK,
+                SolarEquationVariablesCache.DEFAULT_LONGITUDE_RESOLUTION);
+        final long timeInMillis = SunriseSunsetTestUtils.parseDate("UTC", "20130120").getTimeInMillis();
+        final long[] expected = new long[100];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = SunriseSunset.getSolarNoon(timeInMillis, 45, i);
+        }
+        SunriseSunset.setSolarEquationVariablesCache(cache);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    public Void call() {
+                        for (int i = 0; i < 10000; i++) {
+                            int longitude = (i * 7) % expected.length;
+                            Assert.assertEquals(expected[longitude], SunriseSunset.getSolarNoon(timeInMillis, 45, longitude));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertTrue(cache.size() <= 50);
+        Assert.assertEquals(40000, cache.getHitCount() + cache.getMissCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLongitudeResolution() {
+        new SolarEquationVariablesCache(10, SolarEquationVariablesCache.EvictionPolicy.LRU, 1e-9);
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.SolarEventScheduler;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for the solar event scheduler.
+ */
+public class SolarEventSchedulerTest {
+
+    private ThreadPoolExecutor executor;
+    private SolarEventScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        executor = SolarEventScheduler.newBoundedExecutor(2, 100);
+    }
+
+    @After
+    public void tearDown() {
+        if (scheduler != null) scheduler.shutdown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testNextEvent() {
+        final long noon = SunriseSunsetTestUtils.parseDate("Europe/Paris", "20150621").getTimeInMillis();
+        scheduler = new SolarEventScheduler(executor, new FixedClock(noon));
+        long[] sunriseSunset = new long[2];
+        long[] civilTwilight = new long[2];
+        SunriseSunset.getSunriseSunset(noon, 48.8567, 2.351, sunriseSunset);
+        SunriseSunset.getCivilTwilight(noon, 48.8567, 2.351, civilTwilight);
+
+        SolarEventScheduler.Registration registration = scheduler.register(48.8567, 2.351,
+                EnumSet.of(SolarEventScheduler.EventType.SUNRISE, SolarEventScheduler.EventType.CIVIL_TWILIGHT_DUSK), null);
+        Assert.assertEquals(SolarEventScheduler.EventType.CIVIL_TWILIGHT_DUSK, registration.getNextEventType());
+        Assert.assertEquals(civilTwilight[1], registration.getNextEventTime());
+        Assert.assertEquals(1, scheduler.getScheduledCount());
+
+        registration = scheduler.register(48.8567, 2.351, EnumSet.of(SolarEventScheduler.EventType.SUNRISE), null);
+        Assert.assertEquals(SolarEventScheduler.EventType.SUNRISE, registration.getNextEventType());
+        SunriseSunset.getSunriseSunset(noon + 24 * 3600000L, 48.8567, 2.351, sunriseSunset);
+        Assert.assertEquals(sunriseSunset[0], registration.getNextEventTime());
+
+        registration.cancel();
+        Assert.assertEquals(SunriseSunset.NO_EVENT, registration.getNextEventTime());
+        Assert.assertNull(registration.getNextEventType());
+    }
+
+    @Test
+    public void testPolarNight() {
+        // No sunrise in McMurdo until August.
+        final long now = SunriseSunsetTestUtils.parseDate("Antarctica/McMurdo", "20150621").getTimeInMillis();
+        scheduler = new SolarEventScheduler(executor, new FixedClock(now));
+        SolarEventScheduler.Registration registration = scheduler.register(-77.8456, 166.6693,
+                EnumSet.of(SolarEventScheduler.EventType.SUNRISE), null);
+        Assert.assertEquals(SolarEventScheduler.EventType.SUNRISE, registration.getNextEventType());
+        long daysUntilSunrise = (registration.getNextEventTime() - now) / (24 * 3600000L);
+        Assert.assertTrue("Sunrise in " + daysUntilSunrise + " days", daysUntilSunrise > 30 && daysUntilSunrise < 80);
+    }
+
+    @Test
+    public void testDispatch() throws InterruptedException {
+        // Pretend it's a little before sunset.
+        long noon = SunriseSunsetTestUtils.parseDate("Europe/Paris", "20150621").getTimeInMillis();
+        final long[] sunriseSunset = new long[2];
+        SunriseSunset.getSunriseSunset(noon, 48.8567, 2.351, sunriseSunset);
+        final long offset = sunriseSunset[1] - 200 - System.currentTimeMillis();
+        scheduler = new SolarEventScheduler(executor, new SolarEventScheduler.Clock() {
+            public long currentTimeMillis() {
+                return System.currentTimeMillis() + offset;
+            }
+        });
+
+        final int registrationCount = 1000;
+        final CountDownLatch latch = new CountDownLatch(registrationCount);
+        final AtomicInteger errorCount = new AtomicInteger();
+        SolarEventScheduler.Listener listener = new SolarEventScheduler.Listener() {
+            public void onSolarEvent(SolarEventScheduler.Registration registration, SolarEventScheduler.EventType eventType, long timeInMillis) {
+                if (eventType != SolarEventScheduler.EventType.SUNSET || timeInMillis != sunriseSunset[1]) {
+                    errorCount.incrementAndGet();
+                }
+                latch.countDown();
+            }
+        };
+        for (int i = 0; i < registrationCount; i++) {
+            scheduler.register(48.8567, 2.351, EnumSet.of(SolarEventScheduler.EventType.SUNRISE, SolarEventScheduler.EventType.SUNSET), listener);
+        }
+        // This one is cancelled, so the listener would count an error if it was called.
+        scheduler.register(48.8567, 2.351, EnumSet.of(SolarEventScheduler.EventType.SUNSET), new SolarEventScheduler.Listener() {
+            public void onSolarEvent(SolarEventScheduler.Registration registration, SolarEventScheduler.EventType eventType, long timeInMillis) {
+                errorCount.incrementAndGet();
+            }
+        }).cancel();
+
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        Assert.assertEquals(0, errorCount.get());
+        // Each registration was rescheduled for the next sunrise.
+        Assert.assertEquals(registrationCount, scheduler.getScheduledCount());
+    }
+
+    @Test
+    public void testListenerExceptions() throws InterruptedException {
+        long noon = SunriseSunsetTestUtils.parseDate("Europe/Paris", "20150621").getTimeInMillis();
+        final long[] sunriseSunset = new long[2];
+        SunriseSunset.getSunriseSunset(noon, 48.8567, 2.351, sunriseSunset);
+        final AtomicLong offset = new AtomicLong(sunriseSunset[1] - 200 - System.currentTimeMillis());
+        // The listeners are called on the dispatcher thread, except the first one, which is rejected.
+        final AtomicInteger executeCount = new AtomicInteger();
+        scheduler = new SolarEventScheduler(new Executor() {
+            public void execute(Runnable command) {
+                if (executeCount.incrementAndGet() == 1) throw new RejectedExecutionException("Test");
+                command.run();
+            }
+        }, new SolarEventScheduler.Clock() {
+            public long currentTimeMillis() {
+                return System.currentTimeMillis() + offset.get();
+            }
+        });
+
+        final CountDownLatch latch = new CountDownLatch(2);
+        SolarEventScheduler.Listener listener = new SolarEventScheduler.Listener() {
+            public void onSolarEvent(SolarEventScheduler.Registration registration, SolarEventScheduler.EventType eventType, long timeInMillis) {
+                latch.countDown();
+                throw new IllegalStateException("Test");
+            }
+        };
+        for (int i = 0; i < 3; i++) {
+            scheduler.register(48.8567, 2.351, EnumSet.of(SolarEventScheduler.EventType.SUNSET), listener);
+        }
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        // The dispatcher thread still notifies the events registered later.
+        final long[] civilTwilight = new long[2];
+        SunriseSunset.getCivilTwilight(noon, 48.8567, 2.351, civilTwilight);
+        offset.set(civilTwilight[1] - 200 - System.currentTimeMillis());
+        final CountDownLatch nextLatch = new CountDownLatch(1);
+        scheduler.register(48.8567, 2.351, EnumSet.of(SolarEventScheduler.EventType.CIVIL_TWILIGHT_DUSK), new SolarEventScheduler.Listener() {
+            public void onSolarEvent(SolarEventScheduler.Registration registration, SolarEventScheduler.EventType eventType, long timeInMillis) {
+                nextLatch.countDown();
+            }
+        });
+        Assert.assertTrue(nextLatch.await(10, TimeUnit.SECONDS));
+    }
+
+    private static class FixedClock implements SolarEventScheduler.Clock {
+        private final long timeInMillis;
+
+        FixedClock(long timeInMillis) {
+            this.timeInMillis = timeInMillis;
+        }
+
+        public long currentTimeMillis() {
+            return timeInMillis;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.SolarPosition;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the elevation and azimuth of the sun.
+ */
+public class SolarPositionTest {
+
+    private static final long MINUTE = 60000;
+
+    @Test
+    public void testSunriseSunset() {
+        // The elevation at sunrise and sunset is the altitude of the sunrise equation.
+        testSunriseSunset("Europe/Paris", "20170621", 48.8567, 2.351);
+        testSunriseSunset("Europe/Paris", "20171225", 48.8567, 2.351);
+        testSunriseSunset("Australia/Sydney", "20170621", -33.8688, 151.2093);
+        testSunriseSunset("America/Los_Angeles", "20170321", 34.0522, -118.2437);
+    }
+
+    @Test
+    public void testSolarNoon() {
+        // At solar noon, the sun is due South in the northern hemisphere, due North in the southern hemisphere.
+        long parisNoon = SunriseSunset.getSolarNoon(SunriseSunsetTestUtils.parseDate("Europe/Paris", "20170621").getTimeInMillis(), 48.8567, 2.351);
+        Assert.assertEquals(180, SolarPosition.getAzimuth(parisNoon, 48.8567, 2.351), 0.01);
+        Assert.assertEquals(90 - 48.8567 + 23.44, SolarPosition.getElevation(parisNoon, 48.8567, 2.351), 0.05);
+
+        long sydneyNoon = SunriseSunset.getSolarNoon(SunriseSunsetTestUtils.parseDate("Australia/Sydney", "20170621").getTimeInMillis(), -33.8688, 151.2093);
+        double sydneyAzimuth = SolarPosition.getAzimuth(sydneyNoon, -33.8688, 151.2093);
+        Assert.assertTrue("Azimuth " + sydneyAzimuth, sydneyAzimuth < 0.01 || sydneyAzimuth > 359.99);
+        Assert.assertEquals(90 - 33.8688 - 23.44, SolarPosition.getElevation(sydneyNoon, -33.8688, 151.2093), 0.05);
+    }
+
+    @Test
+    public void testMorningAndEvening() {
+        long noon = SunriseSunsetTestUtils.parseDate("Europe/Paris", "20170321").getTimeInMillis();
+        double morningAzimuth = SolarPosition.getAzimuth(noon - 4 * 60 * MINUTE, 48.8567, 2.351);
+        double eveningAzimuth = SolarPosition.getAzimuth(noon + 4 * 60 * MINUTE, 48.8567, 2.351);
+        Assert.assertTrue("Azimuth " + morningAzimuth, morningAzimuth > 90 && morningAzimuth < 180);
+        Assert.assertTrue("Azimuth " + eveningAzimuth, eveningAzimuth > 180 && eveningAzimuth < 270);
+        Assert.assertTrue(SolarPosition.getElevation(noon - 12 * 60 * MINUTE, 48.8567, 2.351) < -30);
+    }
+
+    @Test
+    public void testTimeSeries() {
+        // The hour angle is advanced incrementally: the samples must be the same as the ones calculated one by one,
+        // across several Julian cycles. The Julian dates of the samples calculated one by one are precise to about
+        // 40 microseconds, about 2e-7 degrees of hour angle.
+        long start = SunriseSunsetTestUtils.parseDate("Antarctica/McMurdo", "20161220").getTimeInMillis();
+        double[] elevations = new double[3 * 24 * 60 + 7];
+        double[] azimuths = new double[elevations.length];
+        SolarPosition.getSolarPositions(-77.8456, 166.6693, start, MINUTE, elevations, azimuths);
+        for (int i = 0; i < elevations.length; i++) {
+            long time = start + i * MINUTE;
+            Assert.assertEquals("At " + time, SolarPosition.getElevation(time, -77.8456, 166.6693), elevations[i], 1e-6);
+            Assert.assertEquals("At " + time, SolarPosition.getAzimuth(time, -77.8456, 166.6693), azimuths[i], 1e-6);
+        }
+
+        final double[] callbackElevations = new double[elevations.length];
+        final double[] callbackAzimuths = new double[elevations.length];
+        final long[] times = new long[elevations.length];
+        final int[] count = new int[1];
+        SolarPosition.getSolarPositions(-77.8456, 166.6693, start, MINUTE, elevations.length, new SolarPosition.Callback() {
+            public void onSolarPosition(long timeInMillis, double elevation, double azimuth) {
+                times[count[0]] = timeInMillis;
+                callbackElevations[count[0]] = elevation;
+                callbackAzimuths[count[0]] = azimuth;
+                count[0]++;
+            }
+        });
+        Assert.assertEquals(elevations.length, count[0]);
+        for (int i = 0; i < elevations.length; i++) {
+            Assert.assertEquals(start + i * MINUTE, times[i]);
+            Assert.assertEquals(elevations[i], callbackElevations[i], 0);
+            Assert.assertEquals(azimuths[i], callbackAzimuths[i], 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStep() {
+        SolarPosition.getSolarPositions(48.8567, 2.351, 0, 0, new double[10], null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentSizes() {
+        SolarPosition.getSolarPositions(48.8567, 2.351, 0, MINUTE, new double[10], new double[11]);
+    }
+
+    private static void testSunriseSunset(String timeZone, String date, double latitude, double longitude) {
+        long[] sunriseSunset = new long[2];
+        Assert.assertTrue(SunriseSunset.getSunriseSunset(SunriseSunsetTestUtils.parseDate(timeZone, date).getTimeInMillis(),
+                latitude, longitude, sunriseSunset));
+        for (long time : sunriseSunset) {
+            Assert.assertEquals(SunriseSunset.SUN_ALTITUDE_SUNRISE_SUNSET, SolarPosition.getElevation(time, latitude, longitude), 0.001);
+        }
+    }
+}
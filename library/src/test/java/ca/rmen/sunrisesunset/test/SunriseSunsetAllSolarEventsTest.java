@@ -0,0 +1,90 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.SolarEvents;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Calendar;
+
+/**
+ * Unit tests for {@link SunriseSunset#getAllSolarEvents(Calendar, double, double)}.
+ */
+public class SunriseSunsetAllSolarEventsTest {
+
+    /**
+     * The events calculated together must be the same as the events calculated one by one.
+     */
+    @Test
+    public void testSameAsIndividualEvents() {
+        testSameAsIndividualEvents("PST", 34.0522, -118.2437);
+        testSameAsIndividualEvents("Australia/Sydney", -33.86, 151.2111);
+        testSameAsIndividualEvents("Antarctica/McMurdo", -77.8456, 166.6693);
+        testSameAsIndividualEvents("EST", 82.50178, -62.34809);
+    }
+
+    @Test
+    public void testPolar() {
+        Calendar day = SunriseSunsetTestUtils.parseDate("Antarctica/McMurdo", "20150621");
+        SolarEvents solarEvents = SunriseSunset.getAllSolarEvents(day, -77.8456, 166.6693);
+        Assert.assertFalse(solarEvents.hasSunriseSunset());
+        Assert.assertFalse(solarEvents.hasCivilTwilight());
+        Assert.assertTrue(solarEvents.hasNauticalTwilight());
+        Assert.assertTrue(solarEvents.hasAstronomicalTwilight());
+        Assert.assertEquals(SunriseSunset.NO_EVENT, solarEvents.getSunrise());
+        Assert.assertEquals(SunriseSunset.NO_EVENT, solarEvents.getSolarNoon());
+
+        day = SunriseSunsetTestUtils.parseDate("Antarctica/McMurdo", "20151221");
+        solarEvents = SunriseSunset.getAllSolarEvents(day, -77.8456, 166.6693);
+        Assert.assertFalse(solarEvents.hasSunriseSunset());
+        Assert.assertFalse(solarEvents.hasCivilTwilight());
+        Assert.assertFalse(solarEvents.hasNauticalTwilight());
+        Assert.assertFalse(solarEvents.hasAstronomicalTwilight());
+    }
+
+    private static void testSameAsIndividualEvents(String timeZoneString, double latitude, double longitude) {
+        Calendar day = SunriseSunsetTestUtils.parseDate(timeZoneString, "20150101");
+        for (int i = 0; i < 365; i++) {
+            SolarEvents solarEvents = SunriseSunset.getAllSolarEvents(day, latitude, longitude);
+            assertSame(SunriseSunset.getSunriseSunset(day, latitude, longitude),
+                    solarEvents.getSunrise(), solarEvents.getSunset());
+            assertSame(SunriseSunset.getCivilTwilight(day, latitude, longitude),
+                    solarEvents.getCivilTwilightDawn(), solarEvents.getCivilTwilightDusk());
+            assertSame(SunriseSunset.getNauticalTwilight(day, latitude, longitude),
+                    solarEvents.getNauticalTwilightDawn(), solarEvents.getNauticalTwilightDusk());
+            assertSame(SunriseSunset.getAstronomicalTwilight(day, latitude, longitude),
+                    solarEvents.getAstronomicalTwilightDawn(), solarEvents.getAstronomicalTwilightDusk());
+            Calendar solarNoon = SunriseSunset.getSolarNoon(day, latitude, longitude);
+            Assert.assertEquals(solarNoon == null ? SunriseSunset.NO_EVENT : solarNoon.getTimeInMillis(), solarEvents.getSolarNoon());
+            day.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+
+    private static void assertSame(Calendar[] expected, long actualStart, long actualEnd) {
+        if (expected == null) {
+            Assert.assertEquals(SunriseSunset.NO_EVENT, actualStart);
+            Assert.assertEquals(SunriseSunset.NO_EVENT, actualEnd);
+        } else {
+            Assert.assertEquals(expected[0].getTimeInMillis(), actualStart);
+            Assert.assertEquals(expected[1].getTimeInMillis(), actualEnd);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.SolarEvents;
+import ca.rmen.sunrisesunset.SolarEventsArray;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import ca.rmen.sunrisesunset.SunriseSunsetBulk;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Unit tests for {@link SunriseSunsetBulk}.
+ */
+public class SunriseSunsetBulkTest {
+
+    private static final long TIME_2015_06_21 = SunriseSunsetTestUtils.parseDate("UTC", "20150621").getTimeInMillis();
+
+    @Test
+    public void testSameDay() {
+        int size = 10000;
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        fillLocations(latitudes, longitudes);
+        SolarEventsArray result = new SolarEventsArray(size);
+        SunriseSunsetBulk.getAllSolarEvents(TIME_2015_06_21, latitudes, longitudes, result);
+        for (int i = 0; i < size; i++) {
+            assertSame(SunriseSunset.getAllSolarEvents(TIME_2015_06_21, latitudes[i], longitudes[i]), result, i);
+        }
+    }
+
+    @Test
+    public void testDifferentDays() {
+        int size = 10000;
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        long[] timesInMillis = new long[size];
+        fillLocations(latitudes, longitudes);
+        for (int i = 0; i < size; i++) {
+            timesInMillis[i] = TIME_2015_06_21 + i * 3600000L;
+        }
+        SolarEventsArray result = new SolarEventsArray(size);
+        SunriseSunsetBulk.getAllSolarEvents(timesInMillis, latitudes, longitudes, result);
+        for (int i = 0; i < size; i++) {
+            assertSame(SunriseSunset.getAllSolarEvents(timesInMillis[i], latitudes[i], longitudes[i]), result, i);
+        }
+    }
+
+    @Test
+    public void testParallel() throws InterruptedException {
+        int size = 100000;
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        fillLocations(latitudes, longitudes);
+        SolarEventsArray expected = new SolarEventsArray(size);
+        SunriseSunsetBulk.getAllSolarEvents(TIME_2015_06_21, latitudes, longitudes, expected);
+
+        SolarEventsArray actual = new SolarEventsArray(size);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            SunriseSunsetBulk.getAllSolarEvents(TIME_2015_06_21, latitudes, longitudes, actual, executor);
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertArrayEquals(expected.getSunrises(), actual.getSunrises());
+        Assert.assertArrayEquals(expected.getSunsets(), actual.getSunsets());
+        Assert.assertArrayEquals(expected.getAstronomicalTwilightDusks(), actual.getAstronomicalTwilightDusks());
+        Assert.assertArrayEquals(expected.getSolarNoons(), actual.getSolarNoons());
+        Assert.assertArrayEquals(expected.getStatuses(), actual.getStatuses());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongSize() {
+        SunriseSunsetBulk.getAllSolarEvents(TIME_2015_06_21, new double[2], new double[3], new SolarEventsArray(2));
+    }
+
+    private static void fillLocations(double[] latitudes, double[] longitudes) {
+        Random random = new Random(42);
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = random.nextDouble() * 180 - 90;
+            longitudes[i] = random.nextDouble() * 360 - 180;
+        }
+    }
+
+    private static void assertSame(SolarEvents expected, SolarEventsArray actual, int i) {
+        SolarEvents actualSolarEvents = actual.get(i);
+        Assert.assertEquals(expected.getSunrise(), actualSolarEvents.getSunrise());
+        Assert.assertEquals(expected.getSunset(), actualSolarEvents.getSunset());
+        Assert.assertEquals(expected.getCivilTwilightDawn(), actualSolarEvents.getCivilTwilightDawn());
+        Assert.assertEquals(expected.getCivilTwilightDusk(), actualSolarEvents.getCivilTwilightDusk());
+        Assert.assertEquals(expected.getNauticalTwilightDawn(), actualSolarEvents.getNauticalTwilightDawn());
+        Assert.assertEquals(expected.getNauticalTwilightDusk(), actualSolarEvents.getNauticalTwilightDusk());
+        Assert.assertEquals(expected.getAstronomicalTwilightDawn(), actualSolarEvents.getAstronomicalTwilightDawn());
+        Assert.assertEquals(expected.getAstronomicalTwilightDusk(), actualSolarEvents.getAstronomicalTwilightDusk());
+        Assert.assertEquals(expected.getSolarNoon(), actualSolarEvents.getSolarNoon());
+        Assert.assertEquals(expected.hasSunriseSunset(), (actual.getStatuses()[i] & SolarEventsArray.HAS_SUNRISE_SUNSET) != 0);
+        Assert.assertEquals(expected.hasCivilTwilight(), (actual.getStatuses()[i] & SolarEventsArray.HAS_CIVIL_TWILIGHT) != 0);
+        Assert.assertEquals(expected.hasNauticalTwilight(), (actual.getStatuses()[i] & SolarEventsArray.HAS_NAUTICAL_TWILIGHT) != 0);
+        Assert.assertEquals(expected.hasAstronomicalTwilight(), (actual.getStatuses()[i] & SolarEventsArray.HAS_ASTRONOMICAL_TWILIGHT) != 0);
+    }
+}
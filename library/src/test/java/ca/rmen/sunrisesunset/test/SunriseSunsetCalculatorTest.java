@@ -0,0 +1,135 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.SolarEvents;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import ca.rmen.sunrisesunset.SunriseSunsetCalculator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Calendar;
+
+/**
+ * Unit tests for the location-bound calculator.
+ */
+public class SunriseSunsetCalculatorTest {
+
+    private static final Object[][] LOCATIONS = {
+            {"America/Los_Angeles", 34.0522, -118.2437},
+            {"Europe/Paris", 48.8567, 2.351},
+            {"Australia/Sydney", -33.86, 151.2111},
+            {"Antarctica/McMurdo", -77.8456, 166.6693},
+            {"America/Toronto", 82.50178, -62.34809} // Alert
+    };
+
+    private static final long HOUR = 3600000L;
+
+    /**
+     * The calculator must give exactly the same results as the static methods.
+     */
+    @Test
+    public void testSameAsSunriseSunset() {
+        for (Object[] location : LOCATIONS) {
+            String timeZone = (String) location[0];
+            double latitude = (Double) location[1];
+            double longitude = (Double) location[2];
+            SunriseSunsetCalculator calculator = new SunriseSunsetCalculator(latitude, longitude, -3.0);
+            Calendar day = SunriseSunsetTestUtils.parseDate(timeZone, "20160101");
+            for (int i = 0; i < 366; i++) {
+                long timeInMillis = day.getTimeInMillis();
+                long[] expected = new long[2];
+                long[] actual = new long[2];
+
+                Assert.assertEquals(SunriseSunset.getSunriseSunset(timeInMillis, latitude, longitude, expected),
+                        calculator.getSunriseSunset(timeInMillis, actual));
+                Assert.assertArrayEquals(expected, actual);
+                Assert.assertEquals(SunriseSunset.getCivilTwilight(timeInMillis, latitude, longitude, expected),
+                        calculator.getCivilTwilight(timeInMillis, actual));
+                Assert.assertArrayEquals(expected, actual);
+                Assert.assertEquals(SunriseSunset.getNauticalTwilight(timeInMillis, latitude, longitude, expected),
+                        calculator.getNauticalTwilight(timeInMillis, actual));
+                Assert.assertArrayEquals(expected, actual);
+                Assert.assertEquals(SunriseSunset.getAstronomicalTwilight(timeInMillis, latitude, longitude, expected),
+                        calculator.getAstronomicalTwilight(timeInMillis, actual));
+                Assert.assertArrayEquals(expected, actual);
+                Assert.assertEquals(SunriseSunset.getSunriseSunset(timeInMillis, latitude, longitude, -3.0, expected),
+                        calculator.getSunAltitudeCrossings(timeInMillis, 0, actual));
+                Assert.assertArrayEquals(expected, actual);
+
+                Assert.assertEquals(SunriseSunset.getSolarNoon(timeInMillis, latitude, longitude),
+                        calculator.getSolarNoon(timeInMillis));
+                Assert.assertEquals(SunriseSunset.getDayLength(timeInMillis, latitude, longitude),
+                        calculator.getDayLength(timeInMillis));
+                Assert.assertEquals(SunriseSunset.getDayLength(day, latitude, longitude),
+                        calculator.getDayLength(day));
+                assertSame(SunriseSunset.getAllSolarEvents(timeInMillis, latitude, longitude),
+                        calculator.getAllSolarEvents(timeInMillis));
+                assertSame(SunriseSunset.getSunriseSunset(day, latitude, longitude), calculator.getSunriseSunset(day));
+                assertSame(SunriseSunset.getAstronomicalTwilight(day, latitude, longitude), calculator.getAstronomicalTwilight(day));
+                for (long time = timeInMillis - 12 * HOUR; time < timeInMillis + 12 * HOUR; time += HOUR / 4) {
+                    Assert.assertEquals(SunriseSunset.getDayPeriod(time, latitude, longitude), calculator.getDayPeriod(time));
+                }
+                Assert.assertEquals(SunriseSunset.getDayPeriod(day, latitude, longitude), calculator.getDayPeriod(day));
+                day.add(Calendar.DAY_OF_MONTH, 1);
+            }
+        }
+    }
+
+    @Test
+    public void testSunAltitudes() {
+        double[] sunAltitudes = {-3.0, 10.0};
+        SunriseSunsetCalculator calculator = new SunriseSunsetCalculator(48.8567, 2.351, sunAltitudes);
+        sunAltitudes[0] = 0;
+        Assert.assertArrayEquals(new double[]{-3.0, 10.0}, calculator.getSunAltitudes(), 0);
+        Assert.assertEquals(48.8567, calculator.getLatitude(), 0);
+        Assert.assertEquals(2.351, calculator.getLongitude(), 0);
+
+        // The sun is above 10 degrees for a shorter time than above -3 degrees.
+        long timeInMillis = SunriseSunsetTestUtils.parseDate("Europe/Paris", "20160621").getTimeInMillis();
+        long[] low = new long[2];
+        long[] high = new long[2];
+        Assert.assertTrue(calculator.getSunAltitudeCrossings(timeInMillis, 0, low));
+        Assert.assertTrue(calculator.getSunAltitudeCrossings(timeInMillis, 1, high));
+        Assert.assertTrue(low[0] < high[0]);
+        Assert.assertTrue(low[1] > high[1]);
+    }
+
+    private static void assertSame(SolarEvents expected, SolarEvents actual) {
+        Assert.assertEquals(expected.getSunrise(), actual.getSunrise());
+        Assert.assertEquals(expected.getSunset(), actual.getSunset());
+        Assert.assertEquals(expected.getCivilTwilightDawn(), actual.getCivilTwilightDawn());
+        Assert.assertEquals(expected.getCivilTwilightDusk(), actual.getCivilTwilightDusk());
+        Assert.assertEquals(expected.getNauticalTwilightDawn(), actual.getNauticalTwilightDawn());
+        Assert.assertEquals(expected.getNauticalTwilightDusk(), actual.getNauticalTwilightDusk());
+        Assert.assertEquals(expected.getAstronomicalTwilightDawn(), actual.getAstronomicalTwilightDawn());
+        Assert.assertEquals(expected.getAstronomicalTwilightDusk(), actual.getAstronomicalTwilightDusk());
+        Assert.assertEquals(expected.getSolarNoon(), actual.getSolarNoon());
+    }
+
+    private static void assertSame(Calendar[] expected, Calendar[] actual) {
+        if (expected == null) {
+            Assert.assertNull(actual);
+        } else {
+            Assert.assertEquals(expected[0].getTimeInMillis(), actual[0].getTimeInMillis());
+            Assert.assertEquals(expected[1].getTimeInMillis(), actual[1].getTimeInMillis());
+            Assert.assertEquals(expected[0].getTimeZone(), actual[0].getTimeZone());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.SolarEvents;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Calendar;
+
+/**
+ * Unit tests for {@link SunriseSunset#getDayPeriod(Calendar, double, double)}.
+ */
+public class SunriseSunsetDayPeriodTest {
+
+    /**
+     * getDayPeriod must give the same result as checking each period with isDay, isCivilTwilight, etc.
+     */
+    @Test
+    public void testSameAsIsDayIsTwilightIsNight() {
+        testSameAsIsDayIsTwilightIsNight("PST", 34.0522, -118.2437);
+        testSameAsIsDayIsTwilightIsNight("Europe/Dublin", 53.3441, -6.2675);
+        testSameAsIsDayIsTwilightIsNight("Australia/Sydney", -33.86, 151.2111);
+        testSameAsIsDayIsTwilightIsNight("Pacific/Honolulu", 21.3069, -157.8583);
+        testSameAsIsDayIsTwilightIsNight("Antarctica/McMurdo", -77.8456, 166.6693);
+        testSameAsIsDayIsTwilightIsNight("EST", 82.50178, -62.34809);
+    }
+
+    private static void testSameAsIsDayIsTwilightIsNight(String timeZoneString, double latitude, double longitude) {
+        Calendar calendar = SunriseSunsetTestUtils.parseDate(timeZoneString, "20150101");
+        for (int i = 0; i < 365 * 24 * 60 / 37; i++) {
+            SunriseSunset.DayPeriod expected = getDayPeriodFromIsMethods(calendar, latitude, longitude);
+            SunriseSunset.DayPeriod actual = SunriseSunset.getDayPeriod(calendar, latitude, longitude);
+            if (expected != actual && !isNearEvent(calendar, latitude, longitude)) {
+                Assert.fail("Expected " + expected + " but got " + actual + " at " + calendar.getTime()
+                        + " for " + latitude + "," + longitude);
+            }
+            calendar.add(Calendar.MINUTE, 37);
+        }
+    }
+
+    private static SunriseSunset.DayPeriod getDayPeriodFromIsMethods(Calendar calendar, double latitude, double longitude) {
+        if (SunriseSunset.isDay(calendar, latitude, longitude)) return SunriseSunset.DayPeriod.DAY;
+        if (SunriseSunset.isCivilTwilight(calendar, latitude, longitude)) return SunriseSunset.DayPeriod.CIVIL_TWILIGHT;
+        if (SunriseSunset.isNauticalTwilight(calendar, latitude, longitude)) return SunriseSunset.DayPeriod.NAUTICAL_TWILIGHT;
+        if (SunriseSunset.isAstronomicalTwilight(calendar, latitude, longitude)) return SunriseSunset.DayPeriod.ASTRONOMICAL_TWILIGHT;
+        return SunriseSunset.DayPeriod.NIGHT;
+    }
+
+    /**
+     * @return true if the calendar is within a couple of seconds of an event: the events are calculated to the second,
+     * so the two methods may disagree there.
+     */
+    private static boolean isNearEvent(Calendar calendar, double latitude, double longitude) {
+        SolarEvents solarEvents = SunriseSunset.getAllSolarEvents(calendar, latitude, longitude);
+        long[] events = {
+                solarEvents.getSunrise(), solarEvents.getSunset(),
+                solarEvents.getCivilTwilightDawn(), solarEvents.getCivilTwilightDusk(),
+                solarEvents.getNauticalTwilightDawn(), solarEvents.getNauticalTwilightDusk(),
+                solarEvents.getAstronomicalTwilightDawn(), solarEvents.getAstronomicalTwilightDusk()};
+        for (long event : events) {
+            if (event != SunriseSunset.NO_EVENT && Math.abs(event - calendar.getTimeInMillis()) <= 2000) return true;
+        }
+        return false;
+    }
+}
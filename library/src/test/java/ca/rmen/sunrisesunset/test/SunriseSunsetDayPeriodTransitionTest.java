@@ -0,0 +1,98 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.DayPeriodTransition;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the next day period transition.
+ */
+public class SunriseSunsetDayPeriodTransitionTest {
+
+    private static final long SAMPLE_INTERVAL = 17 * 60 * 1000;
+
+    @Test
+    public void testParis() {
+        testTransitions(48.8567, 2.351, "Europe/Paris", "20150101", 366);
+    }
+
+    @Test
+    public void testEquator() {
+        testTransitions(0.0, -78.5, "America/Guayaquil", "20150101", 60);
+    }
+
+    @Test
+    public void testMcMurdo() {
+        testTransitions(-77.8456, 166.6693, "Antarctica/McMurdo", "20150101", 366);
+    }
+
+    @Test
+    public void testAlert() {
+        testTransitions(82.50178, -62.34809, "America/Toronto", "20150101", 366);
+    }
+
+    @Test
+    public void testSunrise() {
+        long timeInMillis = SunriseSunsetTestUtils.parseDate("Europe/Paris", "20150621").getTimeInMillis();
+        long[] civilTwilight = new long[2];
+        Assert.assertTrue(SunriseSunset.getCivilTwilight(timeInMillis, 48.8567, 2.351, civilTwilight));
+        long[] sunriseSunset = new long[2];
+        Assert.assertTrue(SunriseSunset.getSunriseSunset(timeInMillis, 48.8567, 2.351, sunriseSunset));
+
+        // During the civil twilight dawn, the next transition is the sunrise.
+        DayPeriodTransition transition = SunriseSunset.getNextDayPeriodTransition(civilTwilight[0] + 60000, 48.8567, 2.351);
+        Assert.assertEquals(SunriseSunset.DayPeriod.DAY, transition.getDayPeriod());
+        Assert.assertEquals(sunriseSunset[0], transition.getTime(), 2.0);
+
+        // During the day, the next transition is the sunset.
+        transition = SunriseSunset.getNextDayPeriodTransition(timeInMillis, 48.8567, 2.351);
+        Assert.assertEquals(SunriseSunset.DayPeriod.CIVIL_TWILIGHT, transition.getDayPeriod());
+        Assert.assertEquals(sunriseSunset[1], transition.getTime(), 2.0);
+    }
+
+    /**
+     * Follow the transitions for the given number of days, and check that the day period is the one of the
+     * last transition, between the transitions.
+     */
+    private static void testTransitions(double latitude, double longitude, String timeZone, String startDay, int days) {
+        long time = SunriseSunsetTestUtils.parseDate(timeZone, startDay).getTimeInMillis();
+        long end = time + days * 24 * 3600000L;
+        SunriseSunset.DayPeriod dayPeriod = SunriseSunset.getDayPeriod(time, latitude, longitude);
+        int transitionCount = 0;
+        while (time < end) {
+            DayPeriodTransition transition = SunriseSunset.getNextDayPeriodTransition(time, latitude, longitude);
+            Assert.assertNotNull(transition);
+            Assert.assertTrue(transition.getTime() > time);
+            Assert.assertTrue(transition.getDayPeriod() != dayPeriod);
+            Assert.assertEquals(transition.getDayPeriod(), SunriseSunset.getDayPeriod(transition.getTime(), latitude, longitude));
+            Assert.assertEquals(dayPeriod, SunriseSunset.getDayPeriod(transition.getTime() - 1, latitude, longitude));
+            for (long sample = time; sample < transition.getTime(); sample += SAMPLE_INTERVAL) {
+                Assert.assertEquals("At " + sample + ", before the transition " + transition,
+                        dayPeriod, SunriseSunset.getDayPeriod(sample, latitude, longitude));
+            }
+            time = transition.getTime();
+            dayPeriod = transition.getDayPeriod();
+            transitionCount++;
+        }
+        Assert.assertTrue(transitionCount > 0);
+    }
+}
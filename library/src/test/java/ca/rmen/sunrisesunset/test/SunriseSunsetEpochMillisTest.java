@@ -0,0 +1,167 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.SunriseSunset;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Calendar;
+
+/**
+ * Unit tests for the methods of the Sunrise Sunset Calculator which take and return epoch milliseconds.
+ */
+public class SunriseSunsetEpochMillisTest {
+
+    private static final double[][] LOCATIONS = {
+            {34.0522, -118.2437}, // Los Angeles
+            {48.8567, 2.351}, // Paris
+            {-33.86, 151.2111}, // Sydney
+            {0.0, 0.0},
+            {-77.8456, 166.6693}, // McMurdo
+            {82.50178, -62.34809} // Alert
+    };
+
+    /**
+     * The epoch millis methods must give the same results as the Calendar methods.
+     */
+    @Test
+    public void testSameAsCalendar() {
+        Calendar day = SunriseSunsetTestUtils.parseDate("UTC", "20150101");
+        long[] result = new long[2];
+        for (int i = 0; i < 365; i++) {
+            for (double[] location : LOCATIONS) {
+                double latitude = location[0];
+                double longitude = location[1];
+                long timeInMillis = day.getTimeInMillis();
+
+                assertSame(SunriseSunset.getSunriseSunset(day, latitude, longitude),
+                        SunriseSunset.getSunriseSunset(timeInMillis, latitude, longitude, result), result);
+                assertSame(SunriseSunset.getCivilTwilight(day, latitude, longitude),
+                        SunriseSunset.getCivilTwilight(timeInMillis, latitude, longitude, result), result);
+                assertSame(SunriseSunset.getNauticalTwilight(day, latitude, longitude),
+                        SunriseSunset.getNauticalTwilight(timeInMillis, latitude, longitude, result), result);
+                assertSame(SunriseSunset.getAstronomicalTwilight(day, latitude, longitude),
+                        SunriseSunset.getAstronomicalTwilight(timeInMillis, latitude, longitude, result), result);
+
+                Calendar solarNoon = SunriseSunset.getSolarNoon(day, latitude, longitude);
+                long solarNoonMillis = SunriseSunset.getSolarNoon(timeInMillis, latitude, longitude);
+                if (solarNoon == null) {
+                    Assert.assertEquals(SunriseSunset.NO_EVENT, solarNoonMillis);
+                } else {
+                    Assert.assertEquals(solarNoon.getTimeInMillis(), solarNoonMillis);
+                }
+                Assert.assertEquals(SunriseSunset.getDayLength(day, latitude, longitude),
+                        SunriseSunset.getDayLength(timeInMillis, latitude, longitude));
+            }
+            day.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+
+    @Test
+    public void testPolar() {
+        long[] result = new long[2];
+        long timeInMillis = SunriseSunsetTestUtils.parseDate("Antarctica/McMurdo", "20150621").getTimeInMillis();
+        Assert.assertFalse(SunriseSunset.getSunriseSunset(timeInMillis, -77.8456, 166.6693, result));
+        Assert.assertFalse(SunriseSunset.getCivilTwilight(timeInMillis, -77.8456, 166.6693, result));
+        Assert.assertTrue(SunriseSunset.getNauticalTwilight(timeInMillis, -77.8456, 166.6693, result));
+        Assert.assertEquals(SunriseSunset.NO_EVENT, SunriseSunset.getSolarNoon(timeInMillis, -77.8456, 166.6693));
+        Assert.assertEquals(0, SunriseSunset.getDayLength(timeInMillis, -77.8456, 166.6693));
+
+        timeInMillis = SunriseSunsetTestUtils.parseDate("Antarctica/McMurdo", "20151221").getTimeInMillis();
+        Assert.assertEquals(86400000, SunriseSunset.getDayLength(timeInMillis, -77.8456, 166.6693));
+    }
+
+    @Test
+    public void testJulianDateConversion() {
+        Assert.assertEquals(2440587.5, SunriseSunset.julianDateFromEpochMillis(0), 0);
+        Assert.assertEquals(0, SunriseSunset.epochMillisFromJulianDate(2440587.5));
+        // 2000-01-01 12:00:00 UTC
+        Assert.assertEquals(2451545.0, SunriseSunset.julianDateFromEpochMillis(946728000000L), 0);
+
+        // The milliseconds are kept, including before 1970.
+        long[] times = {1, 999, -1, -999, 262522841996L, -262522841996L, 1434887717123L};
+        for (long time : times) {
+            Assert.assertEquals(time, SunriseSunset.epochMillisFromJulianDate(SunriseSunset.julianDateFromEpochMillis(time)));
+        }
+        Assert.assertTrue(SunriseSunset.julianDateFromEpochMillis(1500) > SunriseSunset.julianDateFromEpochMillis(1000));
+    }
+
+    @Test
+    public void testCalendarJulianDateConversion() {
+        Calendar calendar = SunriseSunsetTestUtils.parseDate("CET", "20150621");
+        calendar.set(Calendar.MILLISECOND, 456);
+        double julianDate = SunriseSunset.getJulianDate(calendar);
+        Assert.assertEquals(SunriseSunset.julianDateFromEpochMillis(calendar.getTimeInMillis()), julianDate, 0);
+        Assert.assertEquals(calendar.getTimeInMillis(), SunriseSunset.getGregorianDate(julianDate).getTimeInMillis());
+    }
+
+    /**
+     * Once the JIT has compiled them, the epoch millis methods shouldn't allocate anything.
+     */
+    @Test
+    public void testNoAllocation() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        Assume.assumeTrue(sunThreadMXBean.isThreadAllocatedMemorySupported());
+        sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        long[] result = new long[2];
+        long timeInMillis = SunriseSunsetTestUtils.parseDate("CET", "20130120").getTimeInMillis();
+        // Warm up
+        long checksum = computeEvents(timeInMillis, result, 200000);
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBytesBefore = sunThreadMXBean.getThreadAllocatedBytes(threadId);
+        checksum += computeEvents(timeInMillis, result, 100000);
+        long allocatedBytes = sunThreadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytesBefore;
+        Assert.assertTrue(checksum != 0);
+        // Allow some bytes for the measurement itself.
+        Assert.assertTrue("Allocated " + allocatedBytes + " bytes for 100000 iterations", allocatedBytes < 1024);
+    }
+
+    private static long computeEvents(long timeInMillis, long[] result, int iterations) {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            // Vary the location, so the JIT can't hoist the calculation out of the loop.
+            double latitude = 48.8567 + (i % 10);
+            double longitude = 2.351;
+            if (SunriseSunset.getSunriseSunset(timeInMillis, latitude, longitude, result)) checksum += result[0];
+            if (SunriseSunset.getCivilTwilight(timeInMillis, latitude, longitude, result)) checksum += result[0];
+            if (SunriseSunset.getNauticalTwilight(timeInMillis, latitude, longitude, result)) checksum += result[0];
+            if (SunriseSunset.getAstronomicalTwilight(timeInMillis, latitude, longitude, result)) checksum += result[0];
+            checksum += SunriseSunset.getSolarNoon(timeInMillis, latitude, longitude);
+            checksum += SunriseSunset.getDayLength(timeInMillis, latitude, longitude);
+        }
+        return checksum;
+    }
+
+    private static void assertSame(Calendar[] expected, boolean actualFound, long[] actual) {
+        if (expected == null) {
+            Assert.assertFalse(actualFound);
+        } else {
+            Assert.assertTrue(actualFound);
+            Assert.assertEquals(expected[0].getTimeInMillis(), actual[0]);
+            Assert.assertEquals(expected[1].getTimeInMillis(), actual[1]);
+        }
+    }
+}
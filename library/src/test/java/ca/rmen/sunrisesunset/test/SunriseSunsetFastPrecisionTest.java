@@ -0,0 +1,136 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.SolarEvents;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import ca.rmen.sunrisesunset.SunriseSunsetCalculator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Differential test of {@link SunriseSunsetCalculator.Precision#FAST} against {@link SunriseSunsetCalculator.Precision#EXACT}.
+ */
+public class SunriseSunsetFastPrecisionTest {
+
+    private static final int SAMPLES = 1000000;
+    // 1900-01-01 to 2100-01-01
+    private static final long MIN_TIME = -2208988800000L;
+    private static final long MAX_TIME = 4102444800000L;
+    private static final long DAY = 24 * 3600000L;
+    private static final String[] EVENT_NAMES = {"sunrise", "sunset", "civil dawn", "civil dusk", "nautical dawn",
+            "nautical dusk", "astronomical dawn", "astronomical dusk", "solar noon"};
+
+    /**
+     * The documented maximum drift of the event times.
+     */
+    private static final long MAX_DRIFT = 1000;
+    /**
+     * If an event occurs with one precision and not with the other, the sun must barely reach its altitude:
+     * the dawn and dusk are this close to each other, or to 24 hours apart.
+     */
+    private static final long MAX_BOUNDARY_SPAN = 5 * 60 * 1000;
+
+    @Test
+    public void testFastPrecision() {
+        Random random = new Random(1);
+        long maxDrift = 0;
+        String maxDriftDescription = null;
+        long maxBoundarySpan = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            double latitude = random.nextDouble() * 180 - 90;
+            double longitude = random.nextDouble() * 360 - 180;
+            long timeInMillis = MIN_TIME + (long) (random.nextDouble() * (MAX_TIME - MIN_TIME));
+            SolarEvents exact = new SunriseSunsetCalculator(latitude, longitude).getAllSolarEvents(timeInMillis);
+            SolarEvents fast = new SunriseSunsetCalculator(latitude, longitude, SunriseSunsetCalculator.Precision.FAST)
+                    .getAllSolarEvents(timeInMillis);
+            long[] exactTimes = toArray(exact);
+            long[] fastTimes = toArray(fast);
+            for (int event = 0; event < exactTimes.length; event++) {
+                if ((exactTimes[event] == SunriseSunset.NO_EVENT) != (fastTimes[event] == SunriseSunset.NO_EVENT)) {
+                    long[] times = exactTimes[event] == SunriseSunset.NO_EVENT ? fastTimes : exactTimes;
+                    // The solar noon exists if the sunrise and sunset exist.
+                    int dawn = event == 8 ? 0 : event & ~1;
+                    long span = times[dawn + 1] - times[dawn];
+                    span = Math.min(span, DAY - span);
+                    maxBoundarySpan = Math.max(maxBoundarySpan, span);
+                } else if (exactTimes[event] != SunriseSunset.NO_EVENT) {
+                    long drift = Math.abs(fastTimes[event] - exactTimes[event]);
+                    if (drift > maxDrift) {
+                        maxDrift = drift;
+                        maxDriftDescription = EVENT_NAMES[event] + " at " + latitude + "," + longitude + " on " + timeInMillis;
+                    }
+                }
+            }
+        }
+        Assert.assertTrue("Drift " + maxDrift + " ms: " + maxDriftDescription, maxDrift < MAX_DRIFT);
+        Assert.assertTrue("Span " + maxBoundarySpan + " ms", maxBoundarySpan < MAX_BOUNDARY_SPAN);
+    }
+
+    /**
+     * The other methods of the calculator also use the fast functions.
+     */
+    @Test
+    public void testOtherMethods() {
+        Random random = new Random(2);
+        long[] exact = new long[2];
+        long[] fast = new long[2];
+        for (int i = 0; i < 10000; i++) {
+            double latitude = random.nextDouble() * 120 - 60;
+            double longitude = random.nextDouble() * 360 - 180;
+            long timeInMillis = MIN_TIME + (long) (random.nextDouble() * (MAX_TIME - MIN_TIME));
+            SunriseSunsetCalculator exactCalculator = new SunriseSunsetCalculator(latitude, longitude, -3.0);
+            SunriseSunsetCalculator fastCalculator = new SunriseSunsetCalculator(latitude, longitude,
+                    SunriseSunsetCalculator.Precision.FAST, -3.0);
+            Assert.assertEquals(SunriseSunsetCalculator.Precision.FAST, fastCalculator.getPrecision());
+
+            Assert.assertTrue(exactCalculator.getSunriseSunset(timeInMillis, exact));
+            Assert.assertTrue(fastCalculator.getSunriseSunset(timeInMillis, fast));
+            assertClose(exact, fast);
+            Assert.assertTrue(exactCalculator.getSunAltitudeCrossings(timeInMillis, 0, exact));
+            Assert.assertTrue(fastCalculator.getSunAltitudeCrossings(timeInMillis, 0, fast));
+            assertClose(exact, fast);
+            assertClose(exactCalculator.getSolarNoon(timeInMillis), fastCalculator.getSolarNoon(timeInMillis), MAX_DRIFT);
+            assertClose(exactCalculator.getDayLength(timeInMillis), fastCalculator.getDayLength(timeInMillis), 2 * MAX_DRIFT);
+            Assert.assertEquals(exactCalculator.getDayPeriod(timeInMillis), fastCalculator.getDayPeriod(timeInMillis));
+        }
+    }
+
+    private static void assertClose(long[] exact, long[] fast) {
+        assertClose(exact[0], fast[0], MAX_DRIFT);
+        assertClose(exact[1], fast[1], MAX_DRIFT);
+    }
+
+    /**
+     * Assert.assertEquals with a delta would convert the times to floats, which are only precise to a few minutes.
+     */
+    private static void assertClose(long exact, long fast, long maxDrift) {
+        Assert.assertTrue("Expected " + exact + ", got " + fast, Math.abs(fast - exact) <= maxDrift);
+    }
+
+    private static long[] toArray(SolarEvents solarEvents) {
+        return new long[]{solarEvents.getSunrise(), solarEvents.getSunset(),
+                solarEvents.getCivilTwilightDawn(), solarEvents.getCivilTwilightDusk(),
+                solarEvents.getNauticalTwilightDawn(), solarEvents.getNauticalTwilightDusk(),
+                solarEvents.getAstronomicalTwilightDawn(), solarEvents.getAstronomicalTwilightDusk(),
+                solarEvents.getSolarNoon()};
+    }
+}
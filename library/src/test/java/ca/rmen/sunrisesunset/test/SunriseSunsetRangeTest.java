@@ -0,0 +1,71 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.SunriseSunset;
+import ca.rmen.sunrisesunset.SunriseSunsetRange;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Calendar;
+
+/**
+ * Unit tests for {@link SunriseSunsetRange}.
+ */
+public class SunriseSunsetRangeTest {
+
+    /**
+     * The events of each day must be the same as the ones calculated for that day at noon with the Calendar methods.
+     * The ranges include leap days and daylight saving time transitions.
+     */
+    @Test
+    public void testSameAsCalendar() {
+        testSameAsCalendar("Europe/Paris", "20150101", "20161231", 48.8567, 2.351, 731);
+        testSameAsCalendar("America/Argentina/Buenos_Aires", "20071201", "20080331", -34.6092, -58.3732, 122);
+        testSameAsCalendar("Antarctica/McMurdo", "20150101", "20151231", -77.8456, 166.6693, 365);
+        testSameAsCalendar("Pacific/Honolulu", "20150827", "20150827", 21.3069, -157.8583, 1);
+    }
+
+    private static void testSameAsCalendar(String timeZoneString, String startDayString, String endDayString,
+                                           final double latitude, final double longitude, int expectedDayCount) {
+        final double[] sunAltitudes = {SunriseSunset.SUN_ALTITUDE_SUNRISE_SUNSET, SunriseSunset.SUN_ALTITUDE_CIVIL_TWILIGHT,
+                SunriseSunset.SUN_ALTITUDE_NAUTICAL_TWILIGHT, SunriseSunset.SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT};
+        final Calendar expectedDay = SunriseSunsetTestUtils.parseDate(timeZoneString, startDayString);
+        final int[] dayCount = new int[1];
+        SunriseSunsetRange.forEachDay(expectedDay, SunriseSunsetTestUtils.parseDate(timeZoneString, endDayString),
+                latitude, longitude, sunAltitudes, new SunriseSunsetRange.Callback() {
+                    public void onDay(int year, int month, int dayOfMonth, long solarNoon, long[] dawns, long[] dusks) {
+                        Assert.assertEquals(expectedDay.get(Calendar.YEAR), year);
+                        Assert.assertEquals(expectedDay.get(Calendar.MONTH), month);
+                        Assert.assertEquals(expectedDay.get(Calendar.DAY_OF_MONTH), dayOfMonth);
+
+                        Calendar expectedSolarNoon = SunriseSunset.getSolarNoon(expectedDay, latitude, longitude);
+                        Assert.assertEquals(expectedSolarNoon == null ? SunriseSunset.NO_EVENT : expectedSolarNoon.getTimeInMillis(), solarNoon);
+                        for (int i = 0; i < sunAltitudes.length; i++) {
+                            Calendar[] expected = SunriseSunset.getSunriseSunset(expectedDay, latitude, longitude, sunAltitudes[i]);
+                            Assert.assertEquals(expected == null ? SunriseSunset.NO_EVENT : expected[0].getTimeInMillis(), dawns[i]);
+                            Assert.assertEquals(expected == null ? SunriseSunset.NO_EVENT : expected[1].getTimeInMillis(), dusks[i]);
+                        }
+                        expectedDay.add(Calendar.DAY_OF_MONTH, 1);
+                        dayCount[0]++;
+                    }
+                });
+        Assert.assertEquals(expectedDayCount, dayCount[0]);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.test;
+
+import ca.rmen.sunrisesunset.SunriseSunset;
+import ca.rmen.sunrisesunset.SunriseSunsetRaster;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Unit tests for the sunrise sunset raster.
+ */
+public class SunriseSunsetRasterTest {
+
+    /**
+     * Each cell must have the same results as the SunriseSunset methods.
+     */
+    @Test
+    public void testSameAsSunriseSunset() {
+        long timeInMillis = SunriseSunsetTestUtils.parseDate("UTC", "20150621").getTimeInMillis();
+        SunriseSunsetRaster raster = SunriseSunsetRaster.createGlobal(2.5);
+        Assert.assertEquals(72, raster.getRows());
+        Assert.assertEquals(144, raster.getColumns());
+        raster.calculate(timeInMillis);
+        Assert.assertEquals(SunriseSunsetTestUtils.parseDate("UTC", "20150621").getTimeInMillis() - 12 * 3600000L,
+                raster.getReferenceTime());
+
+        long[] sunriseSunset = new long[2];
+        int polarDays = 0;
+        int polarNights = 0;
+        for (int row = 0; row < raster.getRows(); row++) {
+            for (int column = 0; column < raster.getColumns(); column++) {
+                double latitude = raster.getLatitude(row);
+                double longitude = raster.getLongitude(column);
+                int index = raster.getIndex(row, column);
+                if (SunriseSunset.getSunriseSunset(timeInMillis, latitude, longitude, sunriseSunset)) {
+                    Assert.assertEquals(sunriseSunset[0], raster.getReferenceTime() + raster.getSunrises()[index] * 1000L, 500.0);
+                    Assert.assertEquals(sunriseSunset[1], raster.getReferenceTime() + raster.getSunsets()[index] * 1000L, 500.0);
+                    Assert.assertEquals((sunriseSunset[1] - sunriseSunset[0]) / 3600000.0, raster.getDayLengths()[index], 0.0001);
+                } else {
+                    Assert.assertEquals(SunriseSunsetRaster.NO_EVENT, raster.getSunrises()[index]);
+                    Assert.assertEquals(SunriseSunsetRaster.NO_EVENT, raster.getSunsets()[index]);
+                    // Polar day in the north, polar night in the south, in June.
+                    if (latitude > 0) {
+                        Assert.assertEquals(24, raster.getDayLengths()[index], 0);
+                        polarDays++;
+                    } else {
+                        Assert.assertEquals(0, raster.getDayLengths()[index], 0);
+                        polarNights++;
+                    }
+                }
+            }
+        }
+        Assert.assertTrue(polarDays > 0);
+        Assert.assertTrue(polarNights > 0);
+    }
+
+    @Test
+    public void testParallel() throws InterruptedException {
+        long timeInMillis = SunriseSunsetTestUtils.parseDate("UTC", "20151221").getTimeInMillis();
+        SunriseSunsetRaster sequentialRaster = SunriseSunsetRaster.createGlobal(0.5);
+        sequentialRaster.calculate(timeInMillis);
+        SunriseSunsetRaster parallelRaster = SunriseSunsetRaster.createGlobal(0.5);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            parallelRaster.calculate(timeInMillis, executor);
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertTrue(Arrays.equals(sequentialRaster.getSunrises(), parallelRaster.getSunrises()));
+        Assert.assertTrue(Arrays.equals(sequentialRaster.getSunsets(), parallelRaster.getSunsets()));
+        Assert.assertTrue(Arrays.equals(sequentialRaster.getDayLengths(), parallelRaster.getDayLengths()));
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        long timeInMillis = SunriseSunsetTestUtils.parseDate("UTC", "20150320").getTimeInMillis();
+        SunriseSunsetRaster raster = new SunriseSunsetRaster(60, -0.3, 400, -10, 0.2, 200);
+        raster.calculate(timeInMillis);
+
+        File file = File.createTempFile("raster", ".bin");
+        try {
+            raster.write(file);
+            Assert.assertEquals(56 + 400 * 200 * 12, file.length());
+
+            // The magic number, in little endian
+            FileInputStream is = new FileInputStream(file);
+            byte[] magic = new byte[4];
+            Assert.assertEquals(4, is.read(magic));
+            is.close();
+            Assert.assertEquals("SSRS", new String(magic, "US-ASCII"));
+
+            SunriseSunsetRaster readRaster = SunriseSunsetRaster.read(file);
+            Assert.assertEquals(raster.getRows(), readRaster.getRows());
+            Assert.assertEquals(raster.getColumns(), readRaster.getColumns());
+            Assert.assertEquals(raster.getReferenceTime(), readRaster.getReferenceTime());
+            Assert.assertEquals(raster.getLatitude(399), readRaster.getLatitude(399), 0);
+            Assert.assertEquals(raster.getLongitude(199), readRaster.getLongitude(199), 0);
+            Assert.assertTrue(Arrays.equals(raster.getSunrises(), readRaster.getSunrises()));
+            Assert.assertTrue(Arrays.equals(raster.getSunsets(), readRaster.getSunsets()));
+            Assert.assertTrue(Arrays.equals(raster.getDayLengths(), readRaster.getDayLengths()));
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadInvalidFile() throws IOException {
+        File file = File.createTempFile("raster", ".bin");
+        try {
+            SunriseSunsetRaster.read(file);
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+}
@@ -96,9 +96,10 @@ class SunriseSunsetTestUtils {
             expectedGregorianCal.setTime(expectedGregorianDate);
             Calendar calculatedGregorianCal = SunriseSunset
                     .getGregorianDate(inputJulianDate);
-            // Truncate milliseconds in the calculated result so we can compare
+            // Round the calculated result to the second so we can compare
             // with the expected result.
-            calculatedGregorianCal.set(Calendar.MILLISECOND, 0);
+            long calculatedMillis = calculatedGregorianCal.getTimeInMillis();
+            calculatedGregorianCal.setTimeInMillis(Math.round(calculatedMillis / 1000d) * 1000);
             String calculatedGregorianDateStr = format(DATE_FORMAT_SECONDS,
                     calculatedGregorianCal);
             Assert.assertEquals("Expected gregorian date "
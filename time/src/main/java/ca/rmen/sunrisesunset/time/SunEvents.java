@@ -0,0 +1,79 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.time;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The times at which the sun rises above and sets below a given altitude on a given day:
+ * sunrise and sunset, or the dawn and dusk of a twilight. <br>
+ * Instances of this class are immutable.
+ *
+ * @author Carmen Alvarez
+ */
+public final class SunEvents {
+
+	private final Instant rise;
+	private final Instant set;
+
+	SunEvents(Instant rise, Instant set) {
+		this.rise = rise;
+		this.set = set;
+	}
+
+	/**
+	 * @return the time at which the sun rises above the altitude: the sunrise, or the dawn of a twilight.
+	 */
+	public Instant getRise() {
+		return rise;
+	}
+
+	/**
+	 * @return the time at which the sun sets below the altitude: the sunset, or the dusk of a twilight.
+	 */
+	public Instant getSet() {
+		return set;
+	}
+
+	/**
+	 * @return the time between the rise and the set.
+	 */
+	public Duration getDuration() {
+		return Duration.between(rise, set);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof SunEvents)) return false;
+		SunEvents other = (SunEvents) o;
+		return rise.equals(other.rise) && set.equals(other.set);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * rise.hashCode() + set.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "SunEvents[rise=" + rise + ", set=" + set + "]";
+	}
+}
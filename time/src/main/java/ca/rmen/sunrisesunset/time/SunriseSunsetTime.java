@@ -0,0 +1,191 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.time;
+
+import ca.rmen.sunrisesunset.SunriseSunset;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+/**
+ * The methods of {@link SunriseSunset}, with java.time types instead of Calendar. <br>
+ * A day is given as a LocalDate and the ZoneId in which it is a day, and the events are returned as Instants.
+ * The calculations are done with the epoch milliseconds methods of {@link SunriseSunset}: no Calendar is created. <br>
+ * The results are the same as the Calendar methods of {@link SunriseSunset} with a Calendar set to noon of the day,
+ * in the given time zone.
+ *
+ * @author Carmen Alvarez
+ */
+public final class SunriseSunsetTime {
+
+	private SunriseSunsetTime() {
+		// Prevent instantiation of this utility class
+	}
+
+	/**
+	 * Calculate the sunrise and sunset times for the given date and given location.
+	 *
+	 * @param date      The day for which to calculate sunrise and sunset
+	 * @param zone      The time zone in which the date is a day
+	 * @param latitude  the latitude of the location in degrees.
+	 * @param longitude the longitude of the location in degrees (West is negative)
+	 * @return the sunrise and sunset, or empty if the sun doesn't rise or set on that day (Ex: Antarctica in June).
+	 */
+	public static Optional<SunEvents> sunEvents(LocalDate date, ZoneId zone, double latitude, double longitude) {
+		return sunEvents(date, zone, latitude, longitude, SunriseSunset.SUN_ALTITUDE_SUNRISE_SUNSET);
+	}
+
+	/**
+	 * Calculate the times at which the sun rises above and sets below the given altitude, for the given date and
+	 * given location.
+	 *
+	 * @param date        The day for which to calculate the events
+	 * @param zone        The time zone in which the date is a day
+	 * @param latitude    the latitude of the location in degrees.
+	 * @param longitude   the longitude of the location in degrees (West is negative)
+	 * @param sunAltitude <a href="http://en.wikipedia.org/wiki/Solar_zenith_angle#Solar_elevation_angle">the angle between the horizon and the center of the sun's disc.</a>
+	 * @return the times at which the sun crosses the altitude, or empty if it doesn't reach or doesn't go below
+	 * that altitude on that day.
+	 */
+	public static Optional<SunEvents> sunEvents(LocalDate date, ZoneId zone, double latitude, double longitude, double sunAltitude) {
+		final long[] sunriseSunset = new long[2];
+		if (!SunriseSunset.getSunriseSunset(getNoon(date, zone), latitude, longitude, sunAltitude, sunriseSunset)) {
+			return Optional.empty();
+		}
+		return Optional.of(new SunEvents(Instant.ofEpochMilli(sunriseSunset[0]), Instant.ofEpochMilli(sunriseSunset[1])));
+	}
+
+	/**
+	 * Like {@link #sunEvents(LocalDate, ZoneId, double, double)}, for the date and time zone of the given date time.
+	 */
+	public static Optional<SunEvents> sunEvents(ZonedDateTime dateTime, double latitude, double longitude) {
+		return sunEvents(dateTime.toLocalDate(), dateTime.getZone(), latitude, longitude);
+	}
+
+	/**
+	 * @return the civil twilight dawn and dusk, or empty if there is no civil twilight on that day.
+	 * @see #sunEvents(LocalDate, ZoneId, double, double, double)
+	 */
+	public static Optional<SunEvents> civilTwilight(LocalDate date, ZoneId zone, double latitude, double longitude) {
+		return sunEvents(date, zone, latitude, longitude, SunriseSunset.SUN_ALTITUDE_CIVIL_TWILIGHT);
+	}
+
+	/**
+	 * @return the nautical twilight dawn and dusk, or empty if there is no nautical twilight on that day.
+	 * @see #sunEvents(LocalDate, ZoneId, double, double, double)
+	 */
+	public static Optional<SunEvents> nauticalTwilight(LocalDate date, ZoneId zone, double latitude, double longitude) {
+		return sunEvents(date, zone, latitude, longitude, SunriseSunset.SUN_ALTITUDE_NAUTICAL_TWILIGHT);
+	}
+
+	/**
+	 * @return the astronomical twilight dawn and dusk, or empty if there is no astronomical twilight on that day.
+	 * @see #sunEvents(LocalDate, ZoneId, double, double, double)
+	 */
+	public static Optional<SunEvents> astronomicalTwilight(LocalDate date, ZoneId zone, double latitude, double longitude) {
+		return sunEvents(date, zone, latitude, longitude, SunriseSunset.SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT);
+	}
+
+	/**
+	 * Calculate the solar noon for the given date and given location.
+	 *
+	 * @param date      The day for which to calculate the solar noon
+	 * @param zone      The time zone in which the date is a day
+	 * @param latitude  the latitude of the location in degrees.
+	 * @param longitude the longitude of the location in degrees (West is negative)
+	 * @return the solar noon, or empty if there is no sunrise or sunset on that day.
+	 */
+	public static Optional<Instant> solarNoon(LocalDate date, ZoneId zone, double latitude, double longitude) {
+		final long solarNoon = SunriseSunset.getSolarNoon(getNoon(date, zone), latitude, longitude);
+		return solarNoon == SunriseSunset.NO_EVENT ? Optional.<Instant>empty() : Optional.of(Instant.ofEpochMilli(solarNoon));
+	}
+
+	/**
+	 * @param date      The day for which to calculate the day length
+	 * @param zone      The time zone in which the date is a day
+	 * @param latitude  the latitude of the location in degrees.
+	 * @param longitude the longitude of the location in degrees (West is negative)
+	 * @return the time between sunrise and sunset. If the sun doesn't rise or set, this is 24 hours or zero.
+	 * @see SunriseSunset#getDayLength(long, double, double)
+	 */
+	public static Duration dayLength(LocalDate date, ZoneId zone, double latitude, double longitude) {
+		return Duration.ofMillis(SunriseSunset.getDayLength(getNoon(date, zone), latitude, longitude));
+	}
+
+	/**
+	 * @param instant   the time for which to determine the day period
+	 * @param latitude  the latitude of the location in degrees.
+	 * @param longitude the longitude of the location in degrees (West is negative)
+	 * @return the period of the day (day, twilight or night) at the given time and location.
+	 */
+	public static SunriseSunset.DayPeriod dayPeriod(Instant instant, double latitude, double longitude) {
+		return SunriseSunset.getDayPeriod(instant.toEpochMilli(), latitude, longitude);
+	}
+
+	/**
+	 * @return true if it is day (between sunrise and sunset) at the given time and location.
+	 * @see #dayPeriod(Instant, double, double)
+	 */
+	public static boolean isDay(Instant instant, double latitude, double longitude) {
+		return dayPeriod(instant, latitude, longitude) == SunriseSunset.DayPeriod.DAY;
+	}
+
+	/**
+	 * @return true if it is night (after astronomical twilight) at the given time and location.
+	 * @see #dayPeriod(Instant, double, double)
+	 */
+	public static boolean isNight(Instant instant, double latitude, double longitude) {
+		return dayPeriod(instant, latitude, longitude) == SunriseSunset.DayPeriod.NIGHT;
+	}
+
+	/**
+	 * @return true if it is civil, nautical or astronomical twilight at the given time and location.
+	 * @see #dayPeriod(Instant, double, double)
+	 */
+	public static boolean isTwilight(Instant instant, double latitude, double longitude) {
+		final SunriseSunset.DayPeriod dayPeriod = dayPeriod(instant, latitude, longitude);
+		return dayPeriod != SunriseSunset.DayPeriod.DAY && dayPeriod != SunriseSunset.DayPeriod.NIGHT;
+	}
+
+	/**
+	 * @return the Julian date of the given instant.
+	 */
+	public static double julianDate(Instant instant) {
+		return SunriseSunset.julianDateFromEpochMillis(instant.toEpochMilli());
+	}
+
+	/**
+	 * @return the instant of the given Julian date.
+	 */
+	public static Instant instant(double julianDate) {
+		return Instant.ofEpochMilli(SunriseSunset.epochMillisFromJulianDate(julianDate));
+	}
+
+	/**
+	 * @return noon of the given date in the given time zone, in milliseconds since 1970-01-01 UTC.
+	 */
+	private static long getNoon(LocalDate date, ZoneId zone) {
+		return date.atTime(LocalTime.NOON).atZone(zone).toInstant().toEpochMilli();
+	}
+}
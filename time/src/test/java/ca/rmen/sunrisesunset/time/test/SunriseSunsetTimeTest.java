@@ -0,0 +1,137 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.time.test;
+
+import ca.rmen.sunrisesunset.SunriseSunset;
+import ca.rmen.sunrisesunset.time.SunEvents;
+import ca.rmen.sunrisesunset.time.SunriseSunsetTime;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.Optional;
+import java.util.TimeZone;
+
+/**
+ * Unit tests for the java.time API of the Sunrise Sunset Calculator.
+ */
+public class SunriseSunsetTimeTest {
+
+    private static final Object[][] LOCATIONS = {
+            {"America/Los_Angeles", 34.0522, -118.2437},
+            {"Europe/Paris", 48.8567, 2.351},
+            {"Australia/Sydney", -33.86, 151.2111},
+            {"Antarctica/McMurdo", -77.8456, 166.6693},
+            {"America/Halifax", 82.50178, -62.34809} // Alert
+    };
+
+    /**
+     * The java.time methods must give the same results as the Calendar methods, with a Calendar set to noon.
+     */
+    @Test
+    public void testSameAsCalendar() {
+        for (Object[] location : LOCATIONS) {
+            ZoneId zone = ZoneId.of((String) location[0]);
+            double latitude = (Double) location[1];
+            double longitude = (Double) location[2];
+            for (LocalDate date = LocalDate.of(2016, 1, 1); date.getYear() == 2016; date = date.plusDays(1)) {
+                Calendar day = Calendar.getInstance(TimeZone.getTimeZone(zone));
+                day.clear();
+                day.set(date.getYear(), date.getMonthValue() - 1, date.getDayOfMonth(), 12, 0, 0);
+
+                assertSame(SunriseSunset.getSunriseSunset(day, latitude, longitude),
+                        SunriseSunsetTime.sunEvents(date, zone, latitude, longitude));
+                assertSame(SunriseSunset.getCivilTwilight(day, latitude, longitude),
+                        SunriseSunsetTime.civilTwilight(date, zone, latitude, longitude));
+                assertSame(SunriseSunset.getNauticalTwilight(day, latitude, longitude),
+                        SunriseSunsetTime.nauticalTwilight(date, zone, latitude, longitude));
+                assertSame(SunriseSunset.getAstronomicalTwilight(day, latitude, longitude),
+                        SunriseSunsetTime.astronomicalTwilight(date, zone, latitude, longitude));
+
+                Calendar solarNoon = SunriseSunset.getSolarNoon(day, latitude, longitude);
+                Optional<Instant> actualSolarNoon = SunriseSunsetTime.solarNoon(date, zone, latitude, longitude);
+                if (solarNoon == null) {
+                    Assert.assertFalse(actualSolarNoon.isPresent());
+                } else {
+                    Assert.assertEquals(solarNoon.getTimeInMillis(), actualSolarNoon.get().toEpochMilli());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testZonedDateTime() {
+        ZonedDateTime dateTime = ZonedDateTime.of(2016, 6, 21, 23, 30, 0, 0, ZoneId.of("Europe/Paris"));
+        Assert.assertEquals(SunriseSunsetTime.sunEvents(LocalDate.of(2016, 6, 21), ZoneId.of("Europe/Paris"), 48.8567, 2.351),
+                SunriseSunsetTime.sunEvents(dateTime, 48.8567, 2.351));
+    }
+
+    @Test
+    public void testDayLength() {
+        ZoneId paris = ZoneId.of("Europe/Paris");
+        LocalDate date = LocalDate.of(2016, 6, 21);
+        SunEvents sunEvents = SunriseSunsetTime.sunEvents(date, paris, 48.8567, 2.351).get();
+        Assert.assertEquals(sunEvents.getDuration(), SunriseSunsetTime.dayLength(date, paris, 48.8567, 2.351));
+
+        ZoneId mcMurdo = ZoneId.of("Antarctica/McMurdo");
+        Assert.assertEquals(Duration.ZERO, SunriseSunsetTime.dayLength(date, mcMurdo, -77.8456, 166.6693));
+        Assert.assertEquals(Duration.ofHours(24),
+                SunriseSunsetTime.dayLength(LocalDate.of(2016, 12, 21), mcMurdo, -77.8456, 166.6693));
+    }
+
+    @Test
+    public void testDayPeriod() {
+        ZoneId paris = ZoneId.of("Europe/Paris");
+        Instant noon = ZonedDateTime.of(2016, 6, 21, 14, 0, 0, 0, paris).toInstant();
+        Instant midnight = ZonedDateTime.of(2016, 1, 21, 1, 0, 0, 0, paris).toInstant();
+        Assert.assertEquals(SunriseSunset.DayPeriod.DAY, SunriseSunsetTime.dayPeriod(noon, 48.8567, 2.351));
+        Assert.assertTrue(SunriseSunsetTime.isDay(noon, 48.8567, 2.351));
+        Assert.assertTrue(SunriseSunsetTime.isNight(midnight, 48.8567, 2.351));
+        Assert.assertFalse(SunriseSunsetTime.isTwilight(midnight, 48.8567, 2.351));
+
+        SunEvents civilTwilight = SunriseSunsetTime.civilTwilight(LocalDate.of(2016, 6, 21), paris, 48.8567, 2.351).get();
+        SunEvents sunriseSunset = SunriseSunsetTime.sunEvents(LocalDate.of(2016, 6, 21), paris, 48.8567, 2.351).get();
+        Instant dusk = sunriseSunset.getSet().plus(Duration.between(sunriseSunset.getSet(), civilTwilight.getSet()).dividedBy(2));
+        Assert.assertEquals(SunriseSunset.DayPeriod.CIVIL_TWILIGHT, SunriseSunsetTime.dayPeriod(dusk, 48.8567, 2.351));
+        Assert.assertTrue(SunriseSunsetTime.isTwilight(dusk, 48.8567, 2.351));
+    }
+
+    @Test
+    public void testJulianDate() {
+        Instant instant = Instant.parse("2000-01-01T12:00:00.250Z");
+        double julianDate = SunriseSunsetTime.julianDate(instant);
+        Assert.assertEquals(2451545.0, julianDate, 0.00001);
+        Assert.assertEquals(instant, SunriseSunsetTime.instant(julianDate));
+    }
+
+    private static void assertSame(Calendar[] expected, Optional<SunEvents> actual) {
+        if (expected == null) {
+            Assert.assertFalse(actual.isPresent());
+        } else {
+            Assert.assertTrue(actual.isPresent());
+            Assert.assertEquals(expected[0].getTimeInMillis(), actual.get().getRise().toEpochMilli());
+            Assert.assertEquals(expected[1].getTimeInMillis(), actual.get().getSet().toEpochMilli());
+        }
+    }
+}
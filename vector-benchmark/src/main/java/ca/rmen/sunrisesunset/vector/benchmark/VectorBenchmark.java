@@ -0,0 +1,101 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.vector.benchmark;
+
+import ca.rmen.sunrisesunset.SolarEventsArray;
+import ca.rmen.sunrisesunset.SunriseSunsetBulk;
+import ca.rmen.sunrisesunset.SunriseSunsetCalculator;
+import ca.rmen.sunrisesunset.vector.SunriseSunsetVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the calculation of the solar events of many locations by {@link SunriseSunsetVector}, to the scalar
+ * calculations: {@link SunriseSunsetBulk}, and {@link SunriseSunsetCalculator} with
+ * {@link SunriseSunsetCalculator.Precision#FAST}, which uses the same approximations as the vector kernel.
+ * The scores are per calculation of all the locations.
+ *
+ * @author Carmen Alvarez
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class VectorBenchmark {
+
+	// 2016-11-25 12:00 UTC
+	private static final long TIME_IN_MILLIS = 1480075200000L;
+
+	@Param({"1000", "100000"})
+	public int size;
+
+	private double[] latitudes;
+	private double[] longitudes;
+	private SunriseSunsetCalculator[] calculators;
+	private SolarEventsArray result;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(1);
+		latitudes = new double[size];
+		longitudes = new double[size];
+		calculators = new SunriseSunsetCalculator[size];
+		for (int i = 0; i < size; i++) {
+			latitudes[i] = random.nextDouble() * 180 - 90;
+			longitudes[i] = random.nextDouble() * 360 - 180;
+			calculators[i] = new SunriseSunsetCalculator(latitudes[i], longitudes[i], SunriseSunsetCalculator.Precision.FAST);
+		}
+		result = new SolarEventsArray(size);
+	}
+
+	@Benchmark
+	public SolarEventsArray bulk() {
+		SunriseSunsetBulk.getAllSolarEvents(TIME_IN_MILLIS, latitudes, longitudes, result);
+		return result;
+	}
+
+	@Benchmark
+	public long calculatorFast() {
+		long sum = 0;
+		for (SunriseSunsetCalculator calculator : calculators) {
+			sum += calculator.getAllSolarEvents(TIME_IN_MILLIS).getSunrise();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public SolarEventsArray vector() {
+		SunriseSunsetVector.getAllSolarEvents(TIME_IN_MILLIS, latitudes, longitudes, result);
+		return result;
+	}
+}
@@ -0,0 +1,410 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.vector;
+
+import ca.rmen.sunrisesunset.SolarEventsArray;
+import ca.rmen.sunrisesunset.SunriseSunset;
+import ca.rmen.sunrisesunset.SunriseSunsetBulk;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * Calculates the solar events of many locations with the Vector API: each instruction calculates the sunrise
+ * equation for several locations (4 with AVX2, 8 with AVX-512). <br>
+ * This is the equivalent of {@link SunriseSunsetBulk}, with the trigonometric functions replaced by polynomial
+ * approximations, which can be vectorized: the times differ from the ones of {@link SunriseSunsetBulk} by a few
+ * milliseconds, like the ones of {@link ca.rmen.sunrisesunset.SunriseSunsetCalculator.Precision#FAST}. <br>
+ * The JVM must be started with <code>--add-modules jdk.incubator.vector</code>.
+ *
+ * @author Carmen Alvarez
+ */
+public final class SunriseSunsetVector {
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Long> LONG_SPECIES = LongVector.SPECIES_PREFERRED;
+
+	private static final double JULIAN_DATE_2000_01_01 = 2451545;
+	private static final double JULIAN_DATE_1970_01_01 = 2440587.5;
+	private static final double CONST_0009 = 0.0009;
+	private static final double MILLISECONDS_IN_DAY = 60 * 60 * 24 * 1000;
+	private static final double DEGREES_TO_RADIANS = Math.PI / 180;
+	private static final double SIN_EARTH_OBLIQUITY = Math.sin(Math.toRadians(23.439));
+
+	private static final double HALF_PI = Math.PI / 2;
+	private static final double TWO_OVER_PI = 2 / Math.PI;
+
+	// Adding 1.5 * 2^52 to a double between -2^51 and 2^51 rounds it to the nearest integer, which is then in the
+	// low bits of the sum. This replaces the conversions between doubles and longs, which are not vectorized on all CPUs.
+	private static final double ROUNDING_MAGIC = 1.5 * (1L << 52);
+	private static final long ROUNDING_MAGIC_BITS = Double.doubleToRawLongBits(ROUNDING_MAGIC);
+
+	// The coefficients of the polynomials, as vectors for fused multiply-adds.
+	private static final DoubleVector ONE = DoubleVector.broadcast(SPECIES, 1);
+	private static final DoubleVector SIN_3 = DoubleVector.broadcast(SPECIES, -1.0 / 6);
+	private static final DoubleVector SIN_5 = DoubleVector.broadcast(SPECIES, 1.0 / 120);
+	private static final DoubleVector SIN_7 = DoubleVector.broadcast(SPECIES, -1.0 / 5040);
+	private static final DoubleVector SIN_9 = DoubleVector.broadcast(SPECIES, 1.0 / 362880);
+	private static final DoubleVector SIN_11 = DoubleVector.broadcast(SPECIES, -1.0 / 39916800);
+	private static final DoubleVector COS_2 = DoubleVector.broadcast(SPECIES, -1.0 / 2);
+	private static final DoubleVector COS_4 = DoubleVector.broadcast(SPECIES, 1.0 / 24);
+	private static final DoubleVector COS_6 = DoubleVector.broadcast(SPECIES, -1.0 / 720);
+	private static final DoubleVector COS_8 = DoubleVector.broadcast(SPECIES, 1.0 / 40320);
+	private static final DoubleVector COS_10 = DoubleVector.broadcast(SPECIES, -1.0 / 3628800);
+	private static final DoubleVector COS_12 = DoubleVector.broadcast(SPECIES, 1.0 / 479001600);
+	private static final DoubleVector ACOS_0 = DoubleVector.broadcast(SPECIES, 1.5707963050);
+	private static final DoubleVector ACOS_1 = DoubleVector.broadcast(SPECIES, -0.2145988016);
+	private static final DoubleVector ACOS_2 = DoubleVector.broadcast(SPECIES, 0.0889789874);
+	private static final DoubleVector ACOS_3 = DoubleVector.broadcast(SPECIES, -0.0501743046);
+	private static final DoubleVector ACOS_4 = DoubleVector.broadcast(SPECIES, 0.0308918810);
+	private static final DoubleVector ACOS_5 = DoubleVector.broadcast(SPECIES, -0.0170881256);
+	private static final DoubleVector ACOS_6 = DoubleVector.broadcast(SPECIES, 0.0066700901);
+	private static final DoubleVector ACOS_7 = DoubleVector.broadcast(SPECIES, -0.0012624911);
+
+	private SunriseSunsetVector() {
+		// Prevent instantiation of this utility class
+	}
+
+	/**
+	 * @return the number of locations calculated by each instruction on this CPU.
+	 */
+	public static int getLaneCount() {
+		return SPECIES.length();
+	}
+
+	/**
+	 * Calculate the solar events of the given locations, for the given day.
+	 *
+	 * @param timeInMillis The time, in milliseconds since 1970-01-01 UTC, of the day for which to calculate the solar events
+	 * @param latitudes    the latitudes of the locations in degrees.
+	 * @param longitudes   the longitudes of the locations in degrees (West is negative)
+	 * @param result       will be filled with the solar events of each location. Its size must be the number of locations.
+	 * @see SunriseSunsetBulk#getAllSolarEvents(long, double[], double[], SolarEventsArray)
+	 */
+	public static void getAllSolarEvents(long timeInMillis, double[] latitudes, double[] longitudes, SolarEventsArray result) {
+		checkSizes(null, latitudes, longitudes, result);
+		getAllSolarEvents(timeInMillis, null, latitudes, longitudes, result);
+	}
+
+	/**
+	 * Calculate the solar events of the given locations, each for its own day.
+	 *
+	 * @param timesInMillis for each location, the time, in milliseconds since 1970-01-01 UTC, of the day for which to
+	 *                      calculate the solar events
+	 * @param latitudes     the latitudes of the locations in degrees.
+	 * @param longitudes    the longitudes of the locations in degrees (West is negative)
+	 * @param result        will be filled with the solar events of each location. Its size must be the number of locations.
+	 * @see SunriseSunsetBulk#getAllSolarEvents(long[], double[], double[], SolarEventsArray)
+	 */
+	public static void getAllSolarEvents(long[] timesInMillis, double[] latitudes, double[] longitudes, SolarEventsArray result) {
+		checkSizes(timesInMillis, latitudes, longitudes, result);
+		getAllSolarEvents(0, timesInMillis, latitudes, longitudes, result);
+	}
+
+	private static void checkSizes(long[] timesInMillis, double[] latitudes, double[] longitudes, SolarEventsArray result) {
+		if (latitudes.length != longitudes.length
+				|| latitudes.length != result.size()
+				|| (timesInMillis != null && timesInMillis.length != latitudes.length)) {
+			throw new IllegalArgumentException("The input and result arrays must all have the same size");
+		}
+	}
+
+	/**
+	 * The passes work on whole vectors: the arrays are padded to a multiple of the number of lanes, and the results
+	 * of the last, partial, vector are copied from a scratch array. Masked loads and stores would be slow on CPUs
+	 * without native masks (before AVX-512).
+	 *
+	 * @param timesInMillis if null, timeInMillis is used for all the locations.
+	 */
+	private static void getAllSolarEvents(long timeInMillis, long[] timesInMillis,
+										  double[] latitudes, double[] longitudes, SolarEventsArray result) {
+		final int length = latitudes.length;
+		final int paddedLength = (length + SPECIES.length() - 1) / SPECIES.length() * SPECIES.length();
+		final double[] paddedLatitudes = pad(latitudes, paddedLength);
+		final double[] paddedLongitudes = pad(longitudes, paddedLength);
+		final double[] julianDates = new double[paddedLength];
+		if (timesInMillis == null) {
+			Arrays.fill(julianDates, SunriseSunset.julianDateFromEpochMillis(timeInMillis));
+		} else {
+			for (int i = 0; i < length; i++) {
+				julianDates[i] = SunriseSunset.julianDateFromEpochMillis(timesInMillis[i]);
+			}
+		}
+		// The variables of the sunrise equation which don't depend on the sun altitude.
+		final double[] jtransits = new double[paddedLength];
+		final double[] angles = new double[paddedLength];
+		final double[] sines = new double[paddedLength];
+		final double[] cosines = new double[paddedLength];
+		computeMeanAnomalies(julianDates, paddedLongitudes, jtransits, angles);
+		computeSinCos(angles, 1, sines, cosines);
+		computeEclipticLongitudes(sines, cosines, jtransits, angles);
+		computeSinCos(angles, 1, sines, cosines);
+		final double[] sinDeltas = julianDates;
+		computeTransitsAndDeclinations(sines, cosines, jtransits, sinDeltas);
+		computeSinCos(paddedLatitudes, DEGREES_TO_RADIANS, sines, cosines);
+		final double[] sinLatitudeSinDeltas = sines;
+		final double[] cosLatitudeCosDeltas = cosines;
+		computeLatitudeTerms(sinDeltas, sinLatitudeSinDeltas, cosLatitudeCosDeltas);
+
+		// One pass per sun altitude.
+		final double[] omegas = angles;
+		final byte[] statuses = result.getStatuses();
+		Arrays.fill(statuses, (byte) 0);
+		final long[] scratch = new long[SPECIES.length()];
+		computeHourAngles(SunriseSunset.SUN_ALTITUDE_SUNRISE_SUNSET, sinLatitudeSinDeltas, cosLatitudeCosDeltas, omegas);
+		fillEvents(SolarEventsArray.HAS_SUNRISE_SUNSET, jtransits, omegas,
+				result.getSunrises(), result.getSunsets(), statuses, scratch);
+		computeHourAngles(SunriseSunset.SUN_ALTITUDE_CIVIL_TWILIGHT, sinLatitudeSinDeltas, cosLatitudeCosDeltas, omegas);
+		fillEvents(SolarEventsArray.HAS_CIVIL_TWILIGHT, jtransits, omegas,
+				result.getCivilTwilightDawns(), result.getCivilTwilightDusks(), statuses, scratch);
+		computeHourAngles(SunriseSunset.SUN_ALTITUDE_NAUTICAL_TWILIGHT, sinLatitudeSinDeltas, cosLatitudeCosDeltas, omegas);
+		fillEvents(SolarEventsArray.HAS_NAUTICAL_TWILIGHT, jtransits, omegas,
+				result.getNauticalTwilightDawns(), result.getNauticalTwilightDusks(), statuses, scratch);
+		computeHourAngles(SunriseSunset.SUN_ALTITUDE_ASTRONOMICAL_TWILIGHT, sinLatitudeSinDeltas, cosLatitudeCosDeltas, omegas);
+		fillEvents(SolarEventsArray.HAS_ASTRONOMICAL_TWILIGHT, jtransits, omegas,
+				result.getAstronomicalTwilightDawns(), result.getAstronomicalTwilightDusks(), statuses, scratch);
+		fillSolarNoons(jtransits, statuses, result.getSolarNoons(), scratch);
+	}
+
+	// Each pass is a small method of its own, and the arrays of the previous passes are reused: C2 stops inlining
+	// the vector operations of a method after a maximum number of nodes, and the vectors of the operations which
+	// are not inlined are allocated on the heap.
+
+	/**
+	 * The approximate solar noons and the solar mean anomalies, which depend on the day and the longitude.
+	 */
+	private static void computeMeanAnomalies(double[] julianDates, double[] longitudes, double[] jstars, double[] ms) {
+		for (int i = 0; i < julianDates.length; i += SPECIES.length()) {
+			final DoubleVector jd = DoubleVector.fromArray(SPECIES, julianDates, i);
+			final DoubleVector longitudeCycles = DoubleVector.fromArray(SPECIES, longitudes, i).div(360);
+			final DoubleVector n = round(jd.sub(JULIAN_DATE_2000_01_01 + CONST_0009).add(longitudeCycles));
+			final DoubleVector jstar = n.sub(longitudeCycles).add(JULIAN_DATE_2000_01_01 + CONST_0009);
+			jstar.intoArray(jstars, i);
+			jstar.sub(JULIAN_DATE_2000_01_01).mul(0.98560028).add(357.5291).mul(DEGREES_TO_RADIANS).intoArray(ms, i);
+		}
+	}
+
+	/**
+	 * The equation of center and the ecliptic longitudes. sin(2m) and sin(3m) are calculated from sin(m) and cos(m).
+	 *
+	 * @param jtransits the approximate solar noons. The equation of center is added to them.
+	 * @param angles    the solar mean anomalies. They are replaced by the ecliptic longitudes.
+	 */
+	private static void computeEclipticLongitudes(double[] sinMs, double[] cosMs, double[] jtransits, double[] angles) {
+		for (int i = 0; i < angles.length; i += SPECIES.length()) {
+			final DoubleVector sinM = DoubleVector.fromArray(SPECIES, sinMs, i);
+			final DoubleVector cosM = DoubleVector.fromArray(SPECIES, cosMs, i);
+			final DoubleVector sin2M = sinM.mul(cosM).mul(2);
+			final DoubleVector sin3M = sinM.mul(sinM.mul(sinM).mul(-4).add(3));
+			final DoubleVector c = sinM.mul(1.9148).add(sin2M.mul(0.0200)).add(sin3M.mul(0.0003));
+			c.add(102.9372 + 180).mul(DEGREES_TO_RADIANS).add(DoubleVector.fromArray(SPECIES, angles, i))
+					.intoArray(angles, i);
+			DoubleVector.fromArray(SPECIES, jtransits, i).add(sinM.mul(0.0053)).intoArray(jtransits, i);
+		}
+	}
+
+	/**
+	 * The solar transits and the sines of the declination of the sun.
+	 *
+	 * @param jtransits the approximate solar noons with the equation of center. They are replaced by the solar transits.
+	 */
+	private static void computeTransitsAndDeclinations(double[] sinLambdas, double[] cosLambdas,
+													   double[] jtransits, double[] sinDeltas) {
+		for (int i = 0; i < jtransits.length; i += SPECIES.length()) {
+			final DoubleVector sinLambda = DoubleVector.fromArray(SPECIES, sinLambdas, i);
+			final DoubleVector cosLambda = DoubleVector.fromArray(SPECIES, cosLambdas, i);
+			DoubleVector.fromArray(SPECIES, jtransits, i).sub(sinLambda.mul(cosLambda).mul(2 * 0.0069))
+					.intoArray(jtransits, i);
+			sinLambda.mul(SIN_EARTH_OBLIQUITY).intoArray(sinDeltas, i);
+		}
+	}
+
+	/**
+	 * The terms of the hour angle equation which depend on the latitude. The cosine of the declination is positive:
+	 * it is between -23.44 and 23.44 degrees.
+	 *
+	 * @param sinLatitudes the sines of the latitudes. They are replaced by sin(latitude) * sin(delta).
+	 * @param cosLatitudes the cosines of the latitudes. They are replaced by cos(latitude) * cos(delta).
+	 */
+	private static void computeLatitudeTerms(double[] sinDeltas, double[] sinLatitudes, double[] cosLatitudes) {
+		for (int i = 0; i < sinDeltas.length; i += SPECIES.length()) {
+			final DoubleVector sinDelta = DoubleVector.fromArray(SPECIES, sinDeltas, i);
+			final DoubleVector cosDelta = sinDelta.mul(sinDelta).neg().add(1).sqrt();
+			DoubleVector.fromArray(SPECIES, sinLatitudes, i).mul(sinDelta).intoArray(sinLatitudes, i);
+			DoubleVector.fromArray(SPECIES, cosLatitudes, i).mul(cosDelta).intoArray(cosLatitudes, i);
+		}
+	}
+
+	/**
+	 * The sines and cosines of the angles, with an absolute error below 1e-11. <br>
+	 * The angles are reduced to r in [-pi/4, pi/4], with angle = quadrant * pi/2 + r. Depending on the quadrant,
+	 * modulo 4, the sine is sin(r), cos(r), -sin(r) or -cos(r), and the cosine is the sine in the next quadrant.
+	 *
+	 * @param scale the factor to convert the angles to radians
+	 */
+	private static void computeSinCos(double[] angles, double scale, double[] sines, double[] cosines) {
+		for (int i = 0; i < angles.length; i += SPECIES.length()) {
+			final DoubleVector x = DoubleVector.fromArray(SPECIES, angles, i).mul(scale);
+			final DoubleVector shifted = x.mul(TWO_OVER_PI).add(ROUNDING_MAGIC);
+			final DoubleVector r = x.sub(shifted.sub(ROUNDING_MAGIC).mul(HALF_PI));
+			final LongVector quadrant = shifted.reinterpretAsLongs();
+			final DoubleVector r2 = r.mul(r);
+			final DoubleVector sinR = sinReduced(r, r2);
+			final DoubleVector cosR = cosReduced(r2);
+			final VectorMask<Double> odd = quadrant.and(1).compare(VectorOperators.NE, 0).cast(SPECIES);
+			// The sign bit is set in the quadrants 2 and 3.
+			final LongVector sinSign = quadrant.lanewise(VectorOperators.LSHL, 62).and(Long.MIN_VALUE);
+			final LongVector cosSign = quadrant.add(1).lanewise(VectorOperators.LSHL, 62).and(Long.MIN_VALUE);
+			withSign(sinR.blend(cosR, odd), sinSign).intoArray(sines, i);
+			withSign(cosR.blend(sinR, odd), cosSign).intoArray(cosines, i);
+		}
+	}
+
+	/**
+	 * The hour angles, in days, for one sun altitude. They are NaN if the sun doesn't reach the altitude.
+	 *
+	 * @param sunAltitude the sun altitude, in degrees
+	 */
+	private static void computeHourAngles(double sunAltitude, double[] sinLatitudeSinDeltas,
+										  double[] cosLatitudeCosDeltas, double[] omegas) {
+		final double sinSunAltitude = Math.sin(Math.toRadians(sunAltitude));
+		for (int i = 0; i < omegas.length; i += SPECIES.length()) {
+			final DoubleVector sinLatitudeSinDelta = DoubleVector.fromArray(SPECIES, sinLatitudeSinDeltas, i);
+			final DoubleVector cosLatitudeCosDelta = DoubleVector.fromArray(SPECIES, cosLatitudeCosDeltas, i);
+			acos(sinLatitudeSinDelta.neg().add(sinSunAltitude).div(cosLatitudeCosDelta))
+					.div(2 * Math.PI)
+					.intoArray(omegas, i);
+		}
+	}
+
+	/**
+	 * Fill the dawn and dusk times (or sunrise and sunset) for one sun altitude.
+	 *
+	 * @param flag the status flag to set for the locations where the sun reaches the altitude
+	 */
+	private static void fillEvents(byte flag, double[] jtransits, double[] omegas,
+								   long[] dawns, long[] dusks, byte[] statuses, long[] scratch) {
+		final int length = dawns.length;
+		for (int i = 0; i < jtransits.length; i += SPECIES.length()) {
+			final DoubleVector jtransit = DoubleVector.fromArray(SPECIES, jtransits, i);
+			final DoubleVector omega = DoubleVector.fromArray(SPECIES, omegas, i);
+			final VectorMask<Double> noEvent = omega.compare(VectorOperators.NE, omega);
+			final VectorMask<Long> noEventLong = noEvent.cast(LONG_SPECIES);
+			store(toEpochMillis(jtransit.sub(omega), noEventLong), dawns, i, scratch);
+			store(toEpochMillis(jtransit.add(omega), noEventLong), dusks, i, scratch);
+
+			final long occurs = noEvent.not().toLong();
+			for (int lane = 0; lane < SPECIES.length() && i + lane < length; lane++) {
+				if ((occurs & (1L << lane)) != 0) {
+					statuses[i + lane] |= flag;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Last pass: the solar noons. If there's no sunrise, there's no solar noon.
+	 */
+	private static void fillSolarNoons(double[] jtransits, byte[] statuses, long[] solarNoons, long[] scratch) {
+		final int length = solarNoons.length;
+		for (int i = 0; i < jtransits.length; i += SPECIES.length()) {
+			long noSunriseLanes = 0;
+			for (int lane = 0; lane < SPECIES.length() && i + lane < length; lane++) {
+				if ((statuses[i + lane] & SolarEventsArray.HAS_SUNRISE_SUNSET) == 0) {
+					noSunriseLanes |= 1L << lane;
+				}
+			}
+			final DoubleVector jtransit = DoubleVector.fromArray(SPECIES, jtransits, i);
+			store(toEpochMillis(jtransit, VectorMask.fromLong(LONG_SPECIES, noSunriseLanes)), solarNoons, i, scratch);
+		}
+	}
+
+	/**
+	 * @return the given array, or a copy padded with zeros to the given length.
+	 */
+	private static double[] pad(double[] values, int paddedLength) {
+		return values.length == paddedLength ? values : Arrays.copyOf(values, paddedLength);
+	}
+
+	/**
+	 * Store the vector in the array at the given index, or only its first lanes if the array is shorter.
+	 */
+	private static void store(LongVector vector, long[] array, int index, long[] scratch) {
+		if (index + SPECIES.length() <= array.length) {
+			vector.intoArray(array, index);
+		} else {
+			vector.intoArray(scratch, 0);
+			System.arraycopy(scratch, 0, array, index, array.length - index);
+		}
+	}
+
+	/**
+	 * @return the given Julian dates in milliseconds since 1970-01-01 UTC, like
+	 * {@link SunriseSunset#epochMillisFromJulianDate(double)}, or {@link SunriseSunset#NO_EVENT} in the lanes of the
+	 * given mask.
+	 */
+	private static LongVector toEpochMillis(DoubleVector julianDate, VectorMask<Long> noEvent) {
+		final DoubleVector millis = julianDate.sub(JULIAN_DATE_1970_01_01).mul(MILLISECONDS_IN_DAY).add(ROUNDING_MAGIC);
+		return millis.reinterpretAsLongs().sub(ROUNDING_MAGIC_BITS).blend(SunriseSunset.NO_EVENT, noEvent);
+	}
+
+	/**
+	 * @return the values rounded to the nearest integer. The values must be between -2^51 and 2^51.
+	 */
+	private static DoubleVector round(DoubleVector x) {
+		return x.add(ROUNDING_MAGIC).sub(ROUNDING_MAGIC);
+	}
+
+	/**
+	 * @return the values, with their sign bit flipped in the lanes where the sign bit of the given mask is set.
+	 */
+	private static DoubleVector withSign(DoubleVector x, LongVector signMask) {
+		return x.reinterpretAsLongs().lanewise(VectorOperators.XOR, signMask).reinterpretAsDoubles();
+	}
+
+	/**
+	 * @return the Taylor series of sin(r), of degree 11.
+	 */
+	private static DoubleVector sinReduced(DoubleVector r, DoubleVector r2) {
+		return SIN_11.fma(r2, SIN_9).fma(r2, SIN_7).fma(r2, SIN_5).fma(r2, SIN_3).mul(r2).fma(r, r);
+	}
+
+	/**
+	 * @return the Taylor series of cos(r), of degree 12.
+	 */
+	private static DoubleVector cosReduced(DoubleVector r2) {
+		return COS_12.fma(r2, COS_10).fma(r2, COS_8).fma(r2, COS_6).fma(r2, COS_4).fma(r2, COS_2).fma(r2, ONE);
+	}
+
+	/**
+	 * The arc cosine of the values, in radians, with an absolute error below 3e-8, or NaN for the values which
+	 * are not between -1 and 1: Abramowitz and Stegun, Handbook of Mathematical Functions, 4.4.46.
+	 */
+	private static DoubleVector acos(DoubleVector x) {
+		final DoubleVector a = x.abs();
+		final DoubleVector polynomial = ACOS_7.fma(a, ACOS_6).fma(a, ACOS_5).fma(a, ACOS_4)
+				.fma(a, ACOS_3).fma(a, ACOS_2).fma(a, ACOS_1).fma(a, ACOS_0);
+		final DoubleVector acos = a.neg().add(1).sqrt().mul(polynomial);
+		return acos.blend(acos.neg().add(Math.PI), x.compare(VectorOperators.LT, 0));
+	}
+}
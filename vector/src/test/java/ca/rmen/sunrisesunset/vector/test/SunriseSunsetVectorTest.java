@@ -0,0 +1,114 @@
+/*
+ * Sunrise Sunset Calculator.
+ * Copyright (C) 2013-2017 Carmen Alvarez
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package ca.rmen.sunrisesunset.vector.test;
+
+import ca.rmen.sunrisesunset.SolarEventsArray;
+import ca.rmen.sunrisesunset.SunriseSunsetBulk;
+import ca.rmen.sunrisesunset.vector.SunriseSunsetVector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Unit tests for the Vector API calculations: they must give the same results as the scalar ones, within the
+ * accuracy of the approximations.
+ */
+public class SunriseSunsetVectorTest {
+
+    // Not a multiple of the number of lanes, to test the last, partial, vectors.
+    private static final int SIZE = 100003;
+    // 1900-01-01 to 2100-01-01
+    private static final long MIN_TIME = -2208988800000L;
+    private static final long MAX_TIME = 4102444800000L;
+    // The approximations of the vector calculations differ from the scalar ones by about 1 ms.
+    private static final long MAX_DRIFT = 5;
+
+    @Test
+    public void testSameDay() {
+        Random random = new Random(1);
+        double[] latitudes = randomLatitudes(random);
+        double[] longitudes = randomLongitudes(random);
+        long timeInMillis = 1480075200000L;
+        SolarEventsArray expected = new SolarEventsArray(SIZE);
+        SolarEventsArray actual = new SolarEventsArray(SIZE);
+        SunriseSunsetBulk.getAllSolarEvents(timeInMillis, latitudes, longitudes, expected);
+        SunriseSunsetVector.getAllSolarEvents(timeInMillis, latitudes, longitudes, actual);
+        assertClose(expected, actual);
+    }
+
+    @Test
+    public void testDifferentDays() {
+        Random random = new Random(2);
+        double[] latitudes = randomLatitudes(random);
+        double[] longitudes = randomLongitudes(random);
+        long[] timesInMillis = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            timesInMillis[i] = MIN_TIME + (long) (random.nextDouble() * (MAX_TIME - MIN_TIME));
+        }
+        SolarEventsArray expected = new SolarEventsArray(SIZE);
+        SolarEventsArray actual = new SolarEventsArray(SIZE);
+        SunriseSunsetBulk.getAllSolarEvents(timesInMillis, latitudes, longitudes, expected);
+        SunriseSunsetVector.getAllSolarEvents(timesInMillis, latitudes, longitudes, actual);
+        assertClose(expected, actual);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentSizes() {
+        SunriseSunsetVector.getAllSolarEvents(0, new double[2], new double[3], new SolarEventsArray(2));
+    }
+
+    private static double[] randomLatitudes(Random random) {
+        double[] latitudes = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            latitudes[i] = random.nextDouble() * 180 - 90;
+        }
+        return latitudes;
+    }
+
+    private static double[] randomLongitudes(Random random) {
+        double[] longitudes = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            longitudes[i] = random.nextDouble() * 360 - 180;
+        }
+        return longitudes;
+    }
+
+    private static void assertClose(SolarEventsArray expected, SolarEventsArray actual) {
+        Assert.assertArrayEquals(expected.getStatuses(), actual.getStatuses());
+        assertClose(expected.getSunrises(), actual.getSunrises());
+        assertClose(expected.getSunsets(), actual.getSunsets());
+        assertClose(expected.getCivilTwilightDawns(), actual.getCivilTwilightDawns());
+        assertClose(expected.getCivilTwilightDusks(), actual.getCivilTwilightDusks());
+        assertClose(expected.getNauticalTwilightDawns(), actual.getNauticalTwilightDawns());
+        assertClose(expected.getNauticalTwilightDusks(), actual.getNauticalTwilightDusks());
+        assertClose(expected.getAstronomicalTwilightDawns(), actual.getAstronomicalTwilightDawns());
+        assertClose(expected.getAstronomicalTwilightDusks(), actual.getAstronomicalTwilightDusks());
+        assertClose(expected.getSolarNoons(), actual.getSolarNoons());
+    }
+
+    private static void assertClose(long[] expected, long[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            // NO_EVENT is the same in both arrays, as the statuses are the same. Assert.assertEquals with a delta
+            // would convert the times to floats, which are only precise to a few minutes.
+            Assert.assertTrue("Location " + i + ": expected " + expected[i] + ", got " + actual[i],
+                    Math.abs(actual[i] - expected[i]) <= MAX_DRIFT);
+        }
+    }
+}